@@ -0,0 +1,19 @@
+package pl.lodz.p.edu.shop.config.order.property;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Data
+@Validated
+@Configuration
+@ConfigurationProperties("app.orders.export")
+public class OrderExportProperties {
+
+    @NotNull(message = "app.orders.export.timeout must be set, it's how long an export may stream before it's cut off")
+    private Duration timeout = Duration.ofMinutes(30);
+}
@@ -0,0 +1,28 @@
+package pl.lodz.p.edu.shop.config.order.property;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Data
+@Validated
+@Configuration
+@ConfigurationProperties("app.orders.group-commit")
+public class OrderGroupCommitProperties {
+
+    private boolean enabled = false;
+
+    @NotNull(message = "app.orders.group-commit.window must be set, it's the time orders are collected into one batch")
+    private Duration window = Duration.ofMillis(5);
+
+    @Min(value = 1, message = "app.orders.group-commit.max-batch-size must be at least 1")
+    private int maxBatchSize = 50;
+
+    @Min(value = 1, message = "app.orders.group-commit.queue-capacity must be at least 1")
+    private int queueCapacity = 1000;
+}
@@ -0,0 +1,26 @@
+package pl.lodz.p.edu.shop.config.order.property;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Data
+@Validated
+@Configuration
+@ConfigurationProperties("app.orders.idempotency")
+public class OrderIdempotencyProperties {
+
+    @Min(value = 1, message = "app.orders.idempotency.cache-size must be at least 1")
+    private int cacheSize = 10_000;
+
+    @NotNull(message = "app.orders.idempotency.key-retention must be set, it's how long placed orders can be replayed")
+    private Duration keyRetention = Duration.ofDays(1);
+
+    @NotNull(message = "app.orders.idempotency.cleanup-interval must be set, it's how often expired keys are removed")
+    private Duration cleanupInterval = Duration.ofHours(1);
+}
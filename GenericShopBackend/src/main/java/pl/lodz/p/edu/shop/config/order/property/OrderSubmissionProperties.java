@@ -0,0 +1,26 @@
+package pl.lodz.p.edu.shop.config.order.property;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Data
+@Validated
+@Configuration
+@ConfigurationProperties("app.orders.async-submission")
+public class OrderSubmissionProperties {
+
+    @Min(value = 1, message = "app.orders.async-submission.workers must be at least 1")
+    private int workers = 4;
+
+    @Min(value = 1, message = "app.orders.async-submission.queue-capacity must be at least 1")
+    private int queueCapacity = 500;
+
+    @NotNull(message = "app.orders.async-submission.ticket-retention must be set, it's how long order status can be polled")
+    private Duration ticketRetention = Duration.ofMinutes(10);
+}
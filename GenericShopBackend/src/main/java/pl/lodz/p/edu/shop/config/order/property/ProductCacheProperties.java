@@ -0,0 +1,23 @@
+package pl.lodz.p.edu.shop.config.order.property;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Data
+@Validated
+@Configuration
+@ConfigurationProperties("app.orders.product-cache")
+public class ProductCacheProperties {
+
+    @Min(value = 0, message = "app.orders.product-cache.size must be at least 0, 0 disables the cache")
+    private int size = 10_000;
+
+    @NotNull(message = "app.orders.product-cache.ttl must be set, it's how long products are served from the cache")
+    private Duration ttl = Duration.ofMinutes(5);
+}
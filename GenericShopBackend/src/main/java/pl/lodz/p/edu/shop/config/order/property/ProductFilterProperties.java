@@ -0,0 +1,26 @@
+package pl.lodz.p.edu.shop.config.order.property;
+
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+@Data
+@Validated
+@Configuration
+@ConfigurationProperties("app.orders.product-filter")
+public class ProductFilterProperties {
+
+    @Min(value = 0, message = "app.orders.product-filter.max-filters can't be negative, it's how many predicates " +
+        "on category attributes one listing may have")
+    private int maxFilters = 10;
+
+    @Min(value = 1, message = "app.orders.product-filter.facet-ranges must be at least 1, it's into how many ranges " +
+        "values of a numeric attribute are split")
+    private int facetRanges = 5;
+
+    @Min(value = 1, message = "app.orders.product-filter.facet-values must be at least 1, it's how many of the most " +
+        "common values of other attributes are counted")
+    private int facetValues = 10;
+}
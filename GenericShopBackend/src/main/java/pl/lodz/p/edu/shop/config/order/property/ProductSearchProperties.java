@@ -0,0 +1,28 @@
+package pl.lodz.p.edu.shop.config.order.property;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Data
+@Validated
+@Configuration
+@ConfigurationProperties("app.orders.product-search")
+public class ProductSearchProperties {
+
+    @NotNull(message = "app.orders.product-search.index-refresh-interval must be set, it's how often the search index " +
+        "is rebuilt from the database")
+    private Duration indexRefreshInterval = Duration.ofMinutes(10);
+
+    @Min(value = 1, message = "app.orders.product-search.name-weight must be at least 1, it's how many times a term " +
+        "of the product name counts more than a term of category attributes")
+    private int nameWeight = 3;
+
+    @Min(value = 1, message = "app.orders.product-search.max-query-terms must be at least 1")
+    private int maxQueryTerms = 8;
+}
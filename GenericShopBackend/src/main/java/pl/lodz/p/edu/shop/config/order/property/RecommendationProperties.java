@@ -0,0 +1,82 @@
+package pl.lodz.p.edu.shop.config.order.property;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Data
+@Validated
+@Configuration
+@ConfigurationProperties("app.orders.recommendations")
+public class RecommendationProperties {
+
+    @NotNull(message = "app.orders.recommendations.fallback-refresh-interval must be set, it's how often fallback " +
+        "recommendations are reloaded")
+    private Duration fallbackRefreshInterval = Duration.ofMinutes(1);
+
+    @NotNull(message = "app.orders.recommendations.fallback-max-staleness must be set, older fallback " +
+        "recommendations are reloaded by the request that reads them")
+    private Duration fallbackMaxStaleness = Duration.ofMinutes(5);
+
+    @Min(value = 1, message = "app.orders.recommendations.fallback-available-limit must be at least 1, it's how many " +
+        "available products are kept in fallback recommendations")
+    private int fallbackAvailableLimit = 1000;
+
+    @Min(value = 1, message = "app.orders.recommendations.co-purchase-neighbours must be at least 1")
+    private int coPurchaseNeighbours = 20;
+
+    @NotNull(message = "app.orders.recommendations.co-purchase-refresh-interval must be set, it's how often " +
+        "neighbours of ordered products are ranked again")
+    private Duration coPurchaseRefreshInterval = Duration.ofSeconds(5);
+
+    @NotNull(message = "app.orders.recommendations.catalog-refresh-interval must be set, it's how often the catalog " +
+        "index is rebuilt from the database")
+    private Duration catalogRefreshInterval = Duration.ofMinutes(10);
+
+    private boolean parallelSources = false;
+
+    @Min(value = 1, message = "app.orders.recommendations.source-workers must be at least 1")
+    private int sourceWorkers = 16;
+
+    @Min(value = 1, message = "app.orders.recommendations.source-queue-capacity must be at least 1")
+    private int sourceQueueCapacity = 200;
+
+    @NotNull(message = "app.orders.recommendations.source-timeout must be set, slower parallel sources are skipped")
+    private Duration sourceTimeout = Duration.ofMillis(300);
+
+    @Min(value = 0, message = "app.orders.recommendations.result-cache-size must be at least 0, 0 disables the cache")
+    private int resultCacheSize = 10_000;
+
+    @NotNull(message = "app.orders.recommendations.result-cache-ttl must be set, it's how long recommendations are " +
+        "served from the cache")
+    private Duration resultCacheTtl = Duration.ofSeconds(30);
+
+    @Positive(message = "app.orders.recommendations.preference-quantum must be positive, preference points are " +
+        "rounded to its multiples in keys of the result cache")
+    private double preferenceQuantum = 1.0;
+
+    @NotNull(message = "app.orders.recommendations.trending-window must be set, only orders placed within it make " +
+        "products trending")
+    private Duration trendingWindow = Duration.ofHours(24);
+
+    @NotNull(message = "app.orders.recommendations.trending-bucket must be set, orders are counted in buckets of " +
+        "this length")
+    private Duration trendingBucket = Duration.ofHours(1);
+
+    @NotNull(message = "app.orders.recommendations.trending-half-life must be set, it's the age of orders that " +
+        "count half as much as the current ones")
+    private Duration trendingHalfLife = Duration.ofHours(6);
+
+    @Min(value = 1, message = "app.orders.recommendations.trending-max-records must be at least 1")
+    private int trendingMaxRecords = 100;
+
+    @NotNull(message = "app.orders.recommendations.trending-ranking-refresh-interval must be set, it's how long " +
+        "the ranking of trending products is reused")
+    private Duration trendingRankingRefreshInterval = Duration.ofSeconds(10);
+}
@@ -0,0 +1,32 @@
+package pl.lodz.p.edu.shop.config.order.property;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Data
+@Validated
+@Configuration
+@ConfigurationProperties("app.orders.stock-holds")
+public class StockHoldProperties {
+
+    @NotNull(message = "app.orders.stock-holds.duration must be set, it's how long held stock waits for an order")
+    private Duration duration = Duration.ofMinutes(15);
+
+    @NotNull(message = "app.orders.stock-holds.sweep-interval must be set, it's how often expired holds are released")
+    private Duration sweepInterval = Duration.ofSeconds(30);
+
+    @Min(value = 1, message = "app.orders.stock-holds.sweep-batch-size must be at least 1")
+    private int sweepBatchSize = 500;
+
+    @Min(value = 1, message = "app.orders.stock-holds.max-holds-per-account must be at least 1")
+    private int maxHoldsPerAccount = 20;
+
+    @Min(value = 1, message = "app.orders.stock-holds.max-held-quantity-per-account must be at least 1")
+    private int maxHeldQuantityPerAccount = 100;
+}
@@ -25,10 +25,12 @@ public class CorsConfig {
         corsConfiguration.setAllowedOrigins(List.of("http://localhost:4200", frontendProperties.getFrontendAppUrl()));
         corsConfiguration.setAllowedHeaders(Arrays.asList(
             "Origin", "Access-Control-Allow-Origin", "Content-Type", "Accept", "Authorization", "Origin, Accept",
-            "X-Requested-With", "Access-Control-Request-Method", "Access-Control-Request-Headers"
+            "X-Requested-With", "Access-Control-Request-Method", "Access-Control-Request-Headers", "Idempotency-Key",
+            "If-None-Match"
         ));
         corsConfiguration.setExposedHeaders(Arrays.asList(
-            "Origin", "Content-Type", "Accept", "Authorization", "Access-Control-Allow-Origin", "Access-Control-Allow-Credentials"
+            "Origin", "Content-Type", "Accept", "Authorization", "Access-Control-Allow-Origin", "Access-Control-Allow-Credentials",
+            "Location", "Content-Disposition", "ETag"
         ));
         corsConfiguration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
 
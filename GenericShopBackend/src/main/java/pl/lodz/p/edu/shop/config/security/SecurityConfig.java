@@ -1,6 +1,8 @@
 package pl.lodz.p.edu.shop.config.security;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -13,6 +15,8 @@ import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import pl.lodz.p.edu.shop.config.security.filter.JwtFilter;
 
+import static pl.lodz.p.edu.shop.config.security.role.RoleName.ADMIN;
+
 @RequiredArgsConstructor
 
 @Configuration
@@ -36,7 +40,10 @@ public class SecurityConfig {
     public SecurityFilterChain securityFilterChain(HttpSecurity httpSecurity) throws Exception {
         return httpSecurity
             .csrf(AbstractHttpConfigurer::disable)
-            .authorizeHttpRequests(a -> a.anyRequest().authenticated())
+            // Metrics reveal traffic and internals, anonymous callers are authenticated as guests so role is required
+            .authorizeHttpRequests(a -> a
+                .requestMatchers(EndpointRequest.toAnyEndpoint().excluding(HealthEndpoint.class)).hasRole(ADMIN)
+                .anyRequest().authenticated())
             .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class)
             .build();
     }
@@ -0,0 +1,26 @@
+package pl.lodz.p.edu.shop.dataaccess.dao.api;
+
+import java.util.List;
+
+public interface AccountProductPurchaseDAO {
+
+    record Purchase(long accountId, long productId, String login) {
+    }
+
+    /**
+     * Adds one purchase to the counter of each account and product, missing counters are created. Counters are
+     * changed in account and product order, so concurrent orders can't deadlock.
+     */
+    void addPurchases(List<Purchase> purchases);
+
+    /**
+     * Finds accounts whose counters don't match their ordered products, including accounts without counters.
+     */
+    List<Long> findAccountIdsWithOutdatedPurchaseCounts();
+
+    /**
+     * Recalculates counters of the account from its ordered products. Counters are locked before they are counted
+     * again, so purchases of orders committed meanwhile are neither lost nor counted twice.
+     */
+    void recalculatePurchaseCounts(Long accountId, String login);
+}
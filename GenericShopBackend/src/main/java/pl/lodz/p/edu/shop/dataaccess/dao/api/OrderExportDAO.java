@@ -0,0 +1,18 @@
+package pl.lodz.p.edu.shop.dataaccess.dao.api;
+
+import pl.lodz.p.edu.shop.dataaccess.model.projection.OrderExportLine;
+
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+public interface OrderExportDAO {
+
+    /**
+     * Reads lines of orders created in given range with a forward-only cursor and passes them one by one to the
+     * consumer, sorted by order creation time. Only one fetch of rows is kept in memory at a time.
+     *
+     * @param createdFrom inclusive, null for no lower bound
+     * @param createdTo exclusive, null for no upper bound
+     */
+    void streamOrderLines(LocalDateTime createdFrom, LocalDateTime createdTo, Consumer<OrderExportLine> consumer);
+}
@@ -0,0 +1,28 @@
+package pl.lodz.p.edu.shop.dataaccess.dao.api;
+
+import java.time.LocalDateTime;
+
+public interface OrderedProductDAO {
+
+    @FunctionalInterface
+    interface OrderLineHandler {
+        void handle(long orderId, long productId);
+    }
+
+    @FunctionalInterface
+    interface OrderedProductHandler {
+        void handle(long productId, LocalDateTime orderedAt);
+    }
+
+    /**
+     * Passes order and product id of every ordered product to the handler, lines of one order come one after
+     * another. Lines are read in batches, so the whole table is never held in memory.
+     */
+    void streamOrderLines(OrderLineHandler handler);
+
+    /**
+     * Passes product id and order time of every product ordered since the given time to the handler, in batches
+     * like order lines.
+     */
+    void streamOrderedProductsSince(LocalDateTime since, OrderedProductHandler handler);
+}
@@ -1,10 +1,44 @@
 package pl.lodz.p.edu.shop.dataaccess.dao.api;
 
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Product;
+import pl.lodz.p.edu.shop.dataaccess.model.other.AttributeFilter;
+import pl.lodz.p.edu.shop.dataaccess.model.projection.FilteredProducts;
+import pl.lodz.p.edu.shop.dataaccess.model.projection.ProductSortKey;
+
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public interface ProductDAO {
 
+    Set<String> SORT_PROPERTIES = Set.of("id", "name", "price", "quantity", "averageRating", "isArchival", "createdAt");
+
     Map<String, Object> insert(String tableName, Map<String, Object> record);
 
     Map<String, Object> findByIdInTable(Long id, String tableName);
+
+    List<Map<String, Object>> findAllInTable(String tableName);
+
+    /**
+     * Finds attributes of the products in the tables of their categories with one query per table, keyed by product
+     * id. Products without a category or without a row in its table are left out.
+     */
+    Map<Long, Map<String, Object>> findByProductsInTables(Collection<Product> products);
+
+    /**
+     * Seeks products ordered by the column of the sort property and then by id, both in the same direction,
+     * starting after given position. Products of all categories are listed when category id is null.
+     */
+    List<ProductSortKey> findSortKeys(String sortProperty, boolean ascending, Long categoryId, ProductSortKey after,
+                                      int limit);
+
+    /**
+     * Finds a page of products of the category table matching all the filters, ordered by id, and counts in the same
+     * query the matching products in ranges of the range facet columns and by the most common values of the value
+     * facet columns. Column names must be checked against the table schema before.
+     */
+    FilteredProducts filterInTable(String tableName, List<AttributeFilter> filters, List<String> rangeFacetColumns,
+                                   List<String> valueFacetColumns, long offset, int limit, int facetRanges,
+                                   int facetValues);
 }
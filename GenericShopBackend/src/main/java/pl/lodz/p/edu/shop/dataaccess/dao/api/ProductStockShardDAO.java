@@ -0,0 +1,24 @@
+package pl.lodz.p.edu.shop.dataaccess.dao.api;
+
+public interface ProductStockShardDAO {
+
+    /**
+     * Takes up to given quantity from one non-empty shard of the product, shards from {@code startShard} upwards are
+     * tried first. With {@code skipLocked} shards locked by other transactions are skipped instead of waited for.
+     *
+     * @return quantity that was taken, 0 when there was no shard to take from
+     */
+    int takeFromAnyShard(Long productId, int quantity, int startShard, boolean skipLocked);
+
+    /**
+     * Locks all shards of the product in shard number order, waiting for transactions that hold any of them.
+     */
+    void lockAllShards(Long productId);
+
+    /**
+     * Gives back quantity to the given shard of the product.
+     *
+     * @return false when the product has no such shard
+     */
+    boolean addToShard(Long productId, int quantity, int shardNumber);
+}
@@ -0,0 +1,18 @@
+package pl.lodz.p.edu.shop.dataaccess.dao.api;
+
+public interface StockHoldDAO {
+
+    record HeldStock(int holds, int quantity) {
+    }
+
+    /**
+     * Locks holds of the login until the end of the transaction, also the ones that don't exist yet, so that concurrent
+     * holds of one client are checked against the limits one after another.
+     */
+    void lockHoldsOfLogin(String login);
+
+    /**
+     * Sums holds of the login, including expired ones that weren't released yet, because their stock is still taken.
+     */
+    HeldStock sumHoldsOfLogin(String login);
+}
@@ -0,0 +1,102 @@
+package pl.lodz.p.edu.shop.dataaccess.dao.impl;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.lodz.p.edu.shop.dataaccess.dao.api.AccountProductPurchaseDAO;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+@Component
+@Transactional(transactionManager = "ordersModTxManager", propagation = Propagation.MANDATORY)
+class AccountProductPurchaseDAOImpl implements AccountProductPurchaseDAO {
+
+    private static final String ADD_PURCHASE_SQL = """
+        INSERT INTO account_product_purchases
+            (id, version, created_by, created_at, account_id, product_id, purchase_count)
+        VALUES (nextval('account_product_purchases_seq'), 0, ?, now(), ?, ?, 1)
+        ON CONFLICT (account_id, product_id) DO UPDATE
+        SET purchase_count = account_product_purchases.purchase_count + 1,
+            version = account_product_purchases.version + 1,
+            modified_by = EXCLUDED.created_by,
+            modified_at = now()
+        """;
+
+    private static final String FIND_OUTDATED_ACCOUNTS_SQL = """
+        SELECT DISTINCT COALESCE(h.account_id, c.account_id)
+        FROM (
+            SELECT account_id, product_id, COUNT(*) AS purchase_count
+            FROM ordered_products
+            GROUP BY account_id, product_id
+        ) h
+        FULL JOIN account_product_purchases c ON c.account_id = h.account_id AND c.product_id = h.product_id
+        WHERE h.purchase_count IS DISTINCT FROM c.purchase_count
+        """;
+
+    private static final String CREATE_MISSING_COUNTERS_SQL = """
+        INSERT INTO account_product_purchases
+            (id, version, created_by, created_at, account_id, product_id, purchase_count)
+        SELECT nextval('account_product_purchases_seq'), 0, ?, now(), ?, product_id, 0
+        FROM (SELECT DISTINCT product_id FROM ordered_products WHERE account_id = ? ORDER BY product_id) p
+        ON CONFLICT (account_id, product_id) DO NOTHING
+        """;
+
+    private static final String LOCK_COUNTERS_SQL =
+        "SELECT id FROM account_product_purchases WHERE account_id = ? ORDER BY product_id FOR UPDATE";
+
+    private static final String RECALCULATE_COUNTERS_SQL = """
+        UPDATE account_product_purchases c
+        SET purchase_count = h.purchase_count,
+            version = c.version + 1,
+            modified_by = ?,
+            modified_at = now()
+        FROM (
+            SELECT c2.id, (
+                SELECT COUNT(*) FROM ordered_products op
+                WHERE op.account_id = c2.account_id AND op.product_id = c2.product_id
+            ) AS purchase_count
+            FROM account_product_purchases c2
+            WHERE c2.account_id = ?
+        ) h
+        WHERE c.id = h.id AND c.purchase_count <> h.purchase_count
+        """;
+
+    private static final String DELETE_EMPTY_COUNTERS_SQL =
+        "DELETE FROM account_product_purchases WHERE account_id = ? AND purchase_count = 0";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AccountProductPurchaseDAOImpl(@Qualifier("ordersModJdbcTemplate") JdbcTemplate jdbcTemplate) {
+        requireNonNull(jdbcTemplate, "AccountProductPurchaseDAO requires non null jdbcTemplate");
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void addPurchases(List<Purchase> purchases) {
+        List<Object[]> batchArgs = purchases.stream()
+            .sorted(Comparator.comparingLong(Purchase::accountId).thenComparingLong(Purchase::productId))
+            .map(purchase -> new Object[]{purchase.login(), purchase.accountId(), purchase.productId()})
+            .toList();
+
+        jdbcTemplate.batchUpdate(ADD_PURCHASE_SQL, batchArgs);
+    }
+
+    @Override
+    public List<Long> findAccountIdsWithOutdatedPurchaseCounts() {
+        return jdbcTemplate.queryForList(FIND_OUTDATED_ACCOUNTS_SQL, Long.class);
+    }
+
+    @Override
+    public void recalculatePurchaseCounts(Long accountId, String login) {
+        jdbcTemplate.update(CREATE_MISSING_COUNTERS_SQL, login, accountId, accountId);
+        jdbcTemplate.query(LOCK_COUNTERS_SQL, (rs, rowNum) -> rs.getLong(1), accountId);
+        // Separate statement sees every order committed before the counters were locked
+        jdbcTemplate.update(RECALCULATE_COUNTERS_SQL, login, accountId);
+        jdbcTemplate.update(DELETE_EMPTY_COUNTERS_SQL, accountId);
+    }
+}
@@ -49,7 +49,8 @@ class CategoryDAOImpl implements CategoryDAO {
     public List<Map<String, Object>> findTableSchema(String tableName) {
         String sql = "SELECT column_name, data_type, character_maximum_length, is_nullable " +
             "FROM information_schema.columns " +
-            "WHERE table_name = ?";
+            "WHERE table_name = ? " +
+            "ORDER BY ordinal_position";
 
         return jdbcTemplate.queryForList(sql, tableName);
     }
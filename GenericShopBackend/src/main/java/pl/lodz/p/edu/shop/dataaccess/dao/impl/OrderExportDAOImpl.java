@@ -0,0 +1,82 @@
+package pl.lodz.p.edu.shop.dataaccess.dao.impl;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.lodz.p.edu.shop.dataaccess.dao.api.OrderExportDAO;
+import pl.lodz.p.edu.shop.dataaccess.model.projection.OrderExportLine;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static java.util.Objects.nonNull;
+import static java.util.Objects.requireNonNull;
+
+@Component
+@Transactional(transactionManager = "ordersModTxManager", propagation = Propagation.MANDATORY)
+class OrderExportDAOImpl implements OrderExportDAO {
+
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String FIND_ORDER_LINES_SQL = """
+        SELECT o.id, o.created_at, o.account_id, a.login, o.total_price,
+            op.product_id, op.name, op.price, op.quantity
+        FROM orders o
+        JOIN accounts a ON a.id = o.account_id
+        JOIN ordered_products op ON op.order_id = o.id
+        WHERE TRUE %s
+        ORDER BY o.created_at, o.id, op.id
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderExportDAOImpl(@Qualifier("ordersModJdbcTemplate") JdbcTemplate jdbcTemplate) {
+        requireNonNull(jdbcTemplate, "OrderExportDAO requires non null jdbcTemplate");
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void streamOrderLines(LocalDateTime createdFrom, LocalDateTime createdTo,
+                                 Consumer<OrderExportLine> consumer) {
+        StringBuilder conditions = new StringBuilder();
+        List<Object> params = new ArrayList<>();
+        if (nonNull(createdFrom)) {
+            conditions.append("AND o.created_at >= ? ");
+            params.add(Timestamp.valueOf(createdFrom));
+        }
+        if (nonNull(createdTo)) {
+            conditions.append("AND o.created_at < ? ");
+            params.add(Timestamp.valueOf(createdTo));
+        }
+        String sql = FIND_ORDER_LINES_SQL.formatted(conditions);
+
+        // PostgreSQL driver uses a cursor only for forward-only statements with a fetch size inside a transaction
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(FETCH_SIZE);
+            for (int i = 0; i < params.size(); i++) {
+                statement.setObject(i + 1, params.get(i));
+            }
+            return statement;
+        }, (RowCallbackHandler) rs -> consumer.accept(new OrderExportLine(
+            rs.getLong(1),
+            rs.getTimestamp(2).toLocalDateTime(),
+            rs.getLong(3),
+            rs.getString(4),
+            rs.getBigDecimal(5),
+            rs.getLong(6),
+            rs.getString(7),
+            rs.getBigDecimal(8),
+            rs.getInt(9)
+        )));
+    }
+}
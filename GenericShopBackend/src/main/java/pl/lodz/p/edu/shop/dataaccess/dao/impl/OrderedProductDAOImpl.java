@@ -0,0 +1,64 @@
+package pl.lodz.p.edu.shop.dataaccess.dao.impl;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.lodz.p.edu.shop.dataaccess.dao.api.OrderedProductDAO;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static java.util.Objects.requireNonNull;
+
+@Component
+@Transactional(transactionManager = "ordersModTxManager", propagation = Propagation.MANDATORY)
+class OrderedProductDAOImpl implements OrderedProductDAO {
+
+    private static final int FETCH_SIZE = 5000;
+
+    private static final String FIND_ORDER_LINES_SQL = """
+        SELECT order_id, product_id
+        FROM ordered_products
+        ORDER BY order_id
+        """;
+
+    private static final String FIND_ORDERED_PRODUCTS_SINCE_SQL = """
+        SELECT product_id, created_at
+        FROM ordered_products
+        WHERE created_at >= ?
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderedProductDAOImpl(@Qualifier("ordersModJdbcTemplate") JdbcTemplate jdbcTemplate) {
+        requireNonNull(jdbcTemplate, "OrderedProductDAO requires non null jdbcTemplate");
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void streamOrderLines(OrderLineHandler handler) {
+        // PostgreSQL driver uses a cursor only for forward-only statements with a fetch size inside a transaction
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(FIND_ORDER_LINES_SQL,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, (RowCallbackHandler) rs -> handler.handle(rs.getLong(1), rs.getLong(2)));
+    }
+
+    @Override
+    public void streamOrderedProductsSince(LocalDateTime since, OrderedProductHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(FIND_ORDERED_PRODUCTS_SINCE_SQL,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(FETCH_SIZE);
+            statement.setTimestamp(1, Timestamp.valueOf(since));
+            return statement;
+        }, (RowCallbackHandler) rs -> handler.handle(rs.getLong(1), rs.getTimestamp(2).toLocalDateTime()));
+    }
+}
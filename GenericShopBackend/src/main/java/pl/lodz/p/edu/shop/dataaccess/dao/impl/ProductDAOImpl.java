@@ -3,21 +3,46 @@ package pl.lodz.p.edu.shop.dataaccess.dao.impl;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import pl.lodz.p.edu.shop.dataaccess.dao.api.ProductDAO;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Product;
+import pl.lodz.p.edu.shop.dataaccess.model.other.AttributeFilter;
+import pl.lodz.p.edu.shop.dataaccess.model.projection.AttributeFacet;
+import pl.lodz.p.edu.shop.dataaccess.model.projection.FilteredProducts;
+import pl.lodz.p.edu.shop.dataaccess.model.projection.ProductSortKey;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.*;
+import java.util.stream.Stream;
 
+import static java.util.Objects.nonNull;
 import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.toSet;
 
 @Component
 @Transactional(transactionManager = "ordersModTxManager", propagation = Propagation.MANDATORY)
 @Slf4j
 class ProductDAOImpl implements ProductDAO {
 
+    private record SortColumn(String name, String type) {
+    }
+
+    // Quantity of sharded products is kept at 0, they are sorted the same way by the offset listing
+    private static final Map<String, SortColumn> SORT_COLUMNS = Map.of(
+        "id", new SortColumn("id", "bigint"),
+        "name", new SortColumn("name", "varchar"),
+        "price", new SortColumn("price", "numeric"),
+        "quantity", new SortColumn("quantity", "integer"),
+        "averageRating", new SortColumn("average_rating", "numeric"),
+        "isArchival", new SortColumn("is_archival", "boolean"),
+        "createdAt", new SortColumn("created_at", "timestamp")
+    );
+
     private final JdbcTemplate jdbcTemplate;
 
     public ProductDAOImpl(@Qualifier("ordersModJdbcTemplate") JdbcTemplate jdbcTemplate) {
@@ -48,21 +73,146 @@ class ProductDAOImpl implements ProductDAO {
     public Map<String, Object> findByIdInTable(Long id, String tableName) {
         String sql = "SELECT * FROM %s WHERE product_id = ?".formatted(tableName);
 
-        RowMapper<Map<String, Object>> mapper = (rs, rowNum) -> {
-            Map<String, Object> result = new HashMap<>();
-            int columnCount = rs.getMetaData().getColumnCount();
-
-            for (int i = 1; i <= columnCount; i++) {
-                String columnName = rs.getMetaData().getColumnName(i);
-                Object columnValue = rs.getObject(i);
-                result.put(columnName, columnValue);
-            }
-            return result;
-        };
-
-        List<Map<String, Object>> result = jdbcTemplate.query(sql, mapper, id);
+        List<Map<String, Object>> result = jdbcTemplate.query(sql, this::mapRow, id);
         Map<String, Object> data = !result.isEmpty() ? result.get(0) : Map.of();
         data.remove("product_id");
         return data;
     }
+
+    @Override
+    public List<Map<String, Object>> findAllInTable(String tableName) {
+        String sql = "SELECT * FROM %s".formatted(tableName);
+
+        return jdbcTemplate.query(sql, this::mapRow);
+    }
+
+    @Override
+    public Map<Long, Map<String, Object>> findByProductsInTables(Collection<Product> products) {
+        Map<String, Set<Long>> productIdsByTable = products.stream()
+            .filter(product -> nonNull(product.getCategory()))
+            .collect(groupingBy(product -> product.getCategory().getCategoryTableName(),
+                mapping(Product::getId, toSet())));
+        Map<Long, Map<String, Object>> result = new HashMap<>();
+
+        productIdsByTable.forEach((tableName, productIds) -> {
+            String sql = "SELECT * FROM %s WHERE product_id = ANY(?)".formatted(tableName);
+
+            // Ids are bound as one bigint array, so the statement is the same for any number of products
+            jdbcTemplate.query(sql, this::mapRow, (Object) productIds.toArray(Long[]::new))
+                .forEach(row -> result.put(((Number) row.remove("product_id")).longValue(), row));
+        });
+        return result;
+    }
+
+    @Override
+    public List<ProductSortKey> findSortKeys(String sortProperty, boolean ascending, Long categoryId,
+                                             ProductSortKey after, int limit) {
+        SortColumn column = requireNonNull(SORT_COLUMNS.get(sortProperty), "Not supported sort property");
+        String direction = ascending ? "ASC" : "DESC";
+        StringJoiner conditions = new StringJoiner(" AND ", " WHERE ", "").setEmptyValue("");
+        List<Object> args = new ArrayList<>();
+
+        if (nonNull(categoryId)) {
+            conditions.add("category_id = ?");
+            args.add(categoryId);
+        }
+        if (nonNull(after)) {
+            // Row comparison seeks straight to the position on an index of (column, id)
+            conditions.add("(%s, id) %s (CAST(? AS %s), ?)".formatted(column.name(), ascending ? ">" : "<", column.type()));
+            args.add(after.sortValue());
+            args.add(after.id());
+        }
+        args.add(limit);
+
+        String sql = "SELECT id, %s::text AS sort_value FROM products%s ORDER BY %s %s, id %s LIMIT ?"
+            .formatted(column.name(), conditions, column.name(), direction, direction);
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new ProductSortKey(rs.getLong("id"), rs.getString("sort_value")),
+            args.toArray());
+    }
+
+    @Override
+    public FilteredProducts filterInTable(String tableName, List<AttributeFilter> filters,
+                                          List<String> rangeFacetColumns, List<String> valueFacetColumns, long offset,
+                                          int limit, int facetRanges, int facetValues) {
+        List<Object> args = new ArrayList<>();
+        List<String> facetColumns = Stream.concat(rangeFacetColumns.stream(), valueFacetColumns.stream()).toList();
+        StringJoiner columns = new StringJoiner(", ");
+        StringJoiner conditions = new StringJoiner(" AND ", " WHERE ", "").setEmptyValue("");
+
+        columns.add("p.id AS product_id");
+        facetColumns.forEach(column -> columns.add("a." + quote(column)));
+        filters.forEach(filter -> {
+            conditions.add("a.%s %s ?".formatted(quote(filter.column()), filter.operator().getSqlOperator()));
+            args.add(filter.value());
+        });
+
+        // Every part of the union reads the matched products once, rows are told apart by their kind
+        StringBuilder sql = new StringBuilder()
+            .append("WITH matched AS MATERIALIZED (SELECT %s FROM products p JOIN %s a ON a.product_id = p.id%s) "
+                .formatted(columns, tableName, conditions))
+            .append("(SELECT 'product' AS kind, CAST(NULL AS text) AS attribute, CAST(NULL AS text) AS value, " +
+                "CAST(NULL AS numeric) AS range_from, CAST(NULL AS numeric) AS range_to, " +
+                "CAST(NULL AS bigint) AS count, product_id FROM matched ORDER BY product_id LIMIT ? OFFSET ?) ")
+            .append("UNION ALL SELECT 'total', NULL, NULL, NULL, NULL, count(*), NULL FROM matched ");
+        args.add(limit);
+        args.add(offset);
+
+        for (String column : rangeFacetColumns) {
+            // Values are split into ranges of equal width between the lowest and the highest matched value
+            sql.append(("UNION ALL SELECT 'range', CAST(? AS text), NULL, CAST(min(v) AS numeric), " +
+                "CAST(max(v) AS numeric), count(*), NULL FROM (SELECT m.%1$s AS v, " +
+                "LEAST(floor(CAST(m.%1$s - r.low AS double precision) * ? / NULLIF(r.high - r.low, 0)), ? - 1) " +
+                "AS bucket FROM matched m CROSS JOIN (SELECT min(%1$s) AS low, max(%1$s) AS high FROM matched) r " +
+                "WHERE m.%1$s IS NOT NULL) b GROUP BY bucket ").formatted(quote(column)));
+            args.add(column);
+            args.add(facetRanges);
+            args.add(facetRanges);
+        }
+        for (String column : valueFacetColumns) {
+            sql.append(("UNION ALL (SELECT 'value', CAST(? AS text), CAST(%1$s AS text), NULL, NULL, count(*), NULL " +
+                "FROM matched WHERE %1$s IS NOT NULL GROUP BY %1$s ORDER BY count(*) DESC, %1$s LIMIT ?) ")
+                .formatted(quote(column)));
+            args.add(column);
+            args.add(facetValues);
+        }
+
+        return jdbcTemplate.query(sql.toString(), rs -> {
+            List<Long> productIds = new ArrayList<>();
+            List<AttributeFacet> facets = new ArrayList<>();
+            long total = 0;
+
+            while (rs.next()) {
+                switch (rs.getString("kind")) {
+                    case "product" -> productIds.add(rs.getLong("product_id"));
+                    case "total" -> total = rs.getLong("count");
+                    default -> facets.add(new AttributeFacet(rs.getString("attribute"), rs.getString("value"),
+                        rs.getBigDecimal("range_from"), rs.getBigDecimal("range_to"), rs.getLong("count")));
+                }
+            }
+
+            // Parts of a union come in no particular order
+            productIds.sort(Comparator.naturalOrder());
+            facets.sort(Comparator.<AttributeFacet>comparingInt(facet -> facetColumns.indexOf(facet.attribute()))
+                .thenComparing(AttributeFacet::from, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(Comparator.comparingLong(AttributeFacet::count).reversed())
+                .thenComparing(AttributeFacet::value, Comparator.nullsLast(Comparator.naturalOrder())));
+            return new FilteredProducts(productIds, total, facets);
+        }, args.toArray());
+    }
+
+    private static String quote(String column) {
+        return "\"%s\"".formatted(column.replace("\"", "\"\""));
+    }
+
+    private Map<String, Object> mapRow(ResultSet rs, int rowNum) throws SQLException {
+        Map<String, Object> result = new HashMap<>();
+        int columnCount = rs.getMetaData().getColumnCount();
+
+        for (int i = 1; i <= columnCount; i++) {
+            String columnName = rs.getMetaData().getColumnName(i);
+            Object columnValue = rs.getObject(i);
+            result.put(columnName, columnValue);
+        }
+        return result;
+    }
 }
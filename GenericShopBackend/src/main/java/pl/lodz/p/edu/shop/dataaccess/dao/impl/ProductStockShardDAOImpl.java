@@ -0,0 +1,66 @@
+package pl.lodz.p.edu.shop.dataaccess.dao.impl;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.lodz.p.edu.shop.dataaccess.dao.api.ProductStockShardDAO;
+
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+@Component
+@Transactional(transactionManager = "ordersModTxManager", propagation = Propagation.MANDATORY)
+class ProductStockShardDAOImpl implements ProductStockShardDAO {
+
+    private static final String TAKE_FROM_ANY_SHARD_SQL = """
+        WITH shard AS (
+            SELECT id, quantity
+            FROM product_stock_shards
+            WHERE product_id = ? AND quantity > 0
+            ORDER BY shard_number < ?, shard_number
+            LIMIT 1
+            FOR UPDATE %s
+        )
+        UPDATE product_stock_shards s
+        SET quantity = s.quantity - LEAST(shard.quantity, ?), version = s.version + 1
+        FROM shard
+        WHERE s.id = shard.id
+        RETURNING LEAST(shard.quantity, ?)
+        """;
+
+    private static final String LOCK_ALL_SHARDS_SQL =
+        "SELECT id FROM product_stock_shards WHERE product_id = ? ORDER BY shard_number FOR UPDATE";
+
+    private static final String ADD_TO_SHARD_SQL =
+        "UPDATE product_stock_shards SET quantity = quantity + ?, version = version + 1 " +
+        "WHERE product_id = ? AND shard_number = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductStockShardDAOImpl(@Qualifier("ordersModJdbcTemplate") JdbcTemplate jdbcTemplate) {
+        requireNonNull(jdbcTemplate, "ProductStockShardDAO requires non null jdbcTemplate");
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int takeFromAnyShard(Long productId, int quantity, int startShard, boolean skipLocked) {
+        String sql = TAKE_FROM_ANY_SHARD_SQL.formatted(skipLocked ? "SKIP LOCKED" : "");
+
+        List<Integer> takenQuantity = jdbcTemplate.query(sql, (rs, rowNum) -> rs.getInt(1),
+            productId, startShard, quantity, quantity);
+        return takenQuantity.isEmpty() ? 0 : takenQuantity.get(0);
+    }
+
+    @Override
+    public void lockAllShards(Long productId) {
+        jdbcTemplate.query(LOCK_ALL_SHARDS_SQL, (rs, rowNum) -> rs.getLong(1), productId);
+    }
+
+    @Override
+    public boolean addToShard(Long productId, int quantity, int shardNumber) {
+        return jdbcTemplate.update(ADD_TO_SHARD_SQL, quantity, productId, shardNumber) > 0;
+    }
+}
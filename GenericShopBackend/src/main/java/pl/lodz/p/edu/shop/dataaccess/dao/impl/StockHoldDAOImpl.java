@@ -0,0 +1,41 @@
+package pl.lodz.p.edu.shop.dataaccess.dao.impl;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.lodz.p.edu.shop.dataaccess.dao.api.StockHoldDAO;
+
+import static java.util.Objects.requireNonNull;
+
+@Component
+@Transactional(transactionManager = "ordersModTxManager", propagation = Propagation.MANDATORY)
+class StockHoldDAOImpl implements StockHoldDAO {
+
+    // First key keeps these advisory locks apart from any other ones taken on the database
+    private static final int STOCK_HOLDS_LOCK_SPACE = 1_000_001;
+
+    private static final String LOCK_HOLDS_OF_LOGIN_SQL = "SELECT pg_advisory_xact_lock(?, hashtext(?))";
+
+    private static final String SUM_HOLDS_OF_LOGIN_SQL =
+        "SELECT COUNT(*), COALESCE(SUM(quantity), 0) FROM stock_holds WHERE login = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StockHoldDAOImpl(@Qualifier("ordersModJdbcTemplate") JdbcTemplate jdbcTemplate) {
+        requireNonNull(jdbcTemplate, "StockHoldDAO requires non null jdbcTemplate");
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void lockHoldsOfLogin(String login) {
+        jdbcTemplate.query(LOCK_HOLDS_OF_LOGIN_SQL, (rs, rowNum) -> null, STOCK_HOLDS_LOCK_SPACE, login);
+    }
+
+    @Override
+    public HeldStock sumHoldsOfLogin(String login) {
+        return jdbcTemplate.queryForObject(SUM_HOLDS_OF_LOGIN_SQL,
+            (rs, rowNum) -> new HeldStock(rs.getInt(1), rs.getInt(2)), login);
+    }
+}
@@ -0,0 +1,38 @@
+package pl.lodz.p.edu.shop.dataaccess.model.embeddable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+/**
+ * Number of rates of the product per rate value, loaded together with the product.
+ */
+@NoArgsConstructor(access = AccessLevel.PUBLIC)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@SuperBuilder
+@Data
+
+@Embeddable
+public class RatingHistogram {
+
+    @Builder.Default
+    @Column(name = "one_star_count", nullable = false, updatable = false, columnDefinition = "integer default 0")
+    private Integer oneStarCount = 0;
+
+    @Builder.Default
+    @Column(name = "two_star_count", nullable = false, updatable = false, columnDefinition = "integer default 0")
+    private Integer twoStarCount = 0;
+
+    @Builder.Default
+    @Column(name = "three_star_count", nullable = false, updatable = false, columnDefinition = "integer default 0")
+    private Integer threeStarCount = 0;
+
+    @Builder.Default
+    @Column(name = "four_star_count", nullable = false, updatable = false, columnDefinition = "integer default 0")
+    private Integer fourStarCount = 0;
+
+    @Builder.Default
+    @Column(name = "five_star_count", nullable = false, updatable = false, columnDefinition = "integer default 0")
+    private Integer fiveStarCount = 0;
+}
@@ -0,0 +1,44 @@
+package pl.lodz.p.edu.shop.dataaccess.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.Check;
+import pl.lodz.p.edu.shop.dataaccess.model.superclass.AbstractEntity;
+
+/**
+ * Number of orders of the account that contain the product. Counters are changed only with atomic upserts in
+ * {@code AccountProductPurchaseDAO} as orders are placed, and are periodically checked against ordered products.
+ */
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@SuperBuilder
+@Data
+@EqualsAndHashCode(onlyExplicitlyIncluded = true, callSuper = true)
+@ToString(callSuper = true)
+
+@Entity
+@Table(name = "account_product_purchases",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "account_product_purchases_account_product_unique",
+            columnNames = {"account_id", "product_id"})
+    },
+    indexes = {
+        @Index(name = "account_product_purchases_account_count_idx", columnList = "account_id, purchase_count DESC")
+    })
+@Check(constraints = "purchase_count >= 0")
+public class AccountProductPurchase extends AbstractEntity {
+
+    @ToString.Exclude
+    @ManyToOne(optional = false)
+    @JoinColumn(name = "account_id", nullable = false, updatable = false)
+    private Account account;
+
+    @ToString.Exclude
+    @ManyToOne(optional = false)
+    @JoinColumn(name = "product_id", nullable = false, updatable = false)
+    private Product product;
+
+    @Column(name = "purchase_count", nullable = false)
+    private Integer purchaseCount;
+}
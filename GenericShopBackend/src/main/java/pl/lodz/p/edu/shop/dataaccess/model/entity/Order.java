@@ -17,7 +17,11 @@ import java.util.Set;
 @ToString(callSuper = true)
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders",
+    indexes = {
+        @Index(name = "orders_account_id_created_at_idx", columnList = "account_id, created_at DESC, id DESC"),
+        @Index(name = "orders_created_at_idx", columnList = "created_at")
+    })
 public class Order extends AbstractEntity {
 
     @ManyToOne
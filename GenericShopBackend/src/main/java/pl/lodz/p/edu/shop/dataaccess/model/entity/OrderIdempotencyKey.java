@@ -0,0 +1,65 @@
+package pl.lodz.p.edu.shop.dataaccess.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+import pl.lodz.p.edu.shop.dataaccess.model.superclass.AbstractEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@SuperBuilder
+@Data
+@EqualsAndHashCode(onlyExplicitlyIncluded = true, callSuper = true)
+@ToString(callSuper = true)
+
+@Entity
+@Table(name = "order_idempotency_keys",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "order_idempotency_keys_login_key_unique", columnNames = {"login", "idempotency_key"})
+    },
+    indexes = {
+        @Index(name = "order_idempotency_keys_created_at_idx", columnList = "created_at")
+    })
+public class OrderIdempotencyKey extends AbstractEntity {
+
+    public static final int MAX_KEY_LENGTH = 255;
+    private static final int REQUEST_HASH_LENGTH = 64;
+
+    @Column(nullable = false, updatable = false)
+    private String login;
+
+    @Column(name = "idempotency_key", nullable = false, updatable = false, length = MAX_KEY_LENGTH)
+    private String idempotencyKey;
+
+    @ToString.Exclude
+    @ManyToOne(optional = false)
+    @JoinColumn(name = "order_id", nullable = false, updatable = false)
+    private Order order;
+
+    @Column(name = "request_hash", nullable = false, updatable = false, length = REQUEST_HASH_LENGTH)
+    private String requestHash;
+
+    /**
+     * SHA-256 of the ordered products sorted by id, so the same products in any order give the same hash.
+     */
+    public static String hashRequest(Map<Long, Integer> productsForOrder) {
+        StringBuilder request = new StringBuilder();
+        new TreeMap<>(productsForOrder).forEach((productId, quantity) ->
+            request.append(productId).append(':').append(quantity).append(';'));
+
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                .digest(request.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
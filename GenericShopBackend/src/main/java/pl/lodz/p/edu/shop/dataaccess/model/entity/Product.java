@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
 import org.hibernate.annotations.Check;
+import org.hibernate.annotations.Formula;
+import pl.lodz.p.edu.shop.dataaccess.model.embeddable.RatingHistogram;
 import pl.lodz.p.edu.shop.dataaccess.model.superclass.ArchivableEntity;
 
 import java.math.BigDecimal;
@@ -12,6 +14,8 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
+import static java.util.Objects.isNull;
+
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @AllArgsConstructor(access = AccessLevel.PRIVATE)
 @SuperBuilder
@@ -20,7 +24,13 @@ import java.util.Set;
 @ToString(callSuper = true)
 
 @Entity
-@Table(name = "products")
+@Table(name = "products",
+    indexes = {
+        @Index(name = "products_category_id_id_idx", columnList = "category_id, id"),
+        @Index(name = "products_price_id_idx", columnList = "price, id"),
+        @Index(name = "products_average_rating_id_idx", columnList = "average_rating, id"),
+        @Index(name = "products_created_at_id_idx", columnList = "created_at, id")
+    })
 @Check(constraints = "quantity >= 0")
 public class Product extends ArchivableEntity {
 
@@ -30,15 +40,46 @@ public class Product extends ArchivableEntity {
     @Column(nullable = false)
     private BigDecimal price;
 
+    /**
+     * Quantity of not sharded product, for sharded product it's kept at 0 and stock lives in {@link ProductStockShard}.
+     */
     @Column(nullable = false)
     private Integer quantity;
 
+    @Column(name = "stock_shard_count", nullable = false, columnDefinition = "integer default 0")
+    private Integer stockShardCount;
+
+    @Formula("(CASE WHEN stock_shard_count > 0 THEN " +
+        "(SELECT COALESCE(SUM(s.quantity), 0) FROM product_stock_shards s WHERE s.product_id = id) END)")
+    private Integer shardedQuantity;
+
+    /**
+     * Orders change stock shards without touching the product row, each change bumps the version of the shard.
+     */
+    @Formula("(SELECT COALESCE(SUM(s.version), 0) FROM product_stock_shards s WHERE s.product_id = id)")
+    private Long stockVersion;
+
     @Column(name = "image_url")
     private String imageUrl;
 
-    @Column(name = "average_rating", nullable = false, columnDefinition = "numeric(3,2) default 0.0")
+    /**
+     * Derived from {@link #ratingSum} and {@link #ratingCount}, kept in a column to sort and filter by it.
+     * Rating columns are changed only by the atomic updates in {@code ProductRepository}, so that saving
+     * a stale product doesn't overwrite them.
+     */
+    @Column(name = "average_rating", nullable = false, updatable = false, columnDefinition = "numeric(3,2) default 0.0")
     private Double averageRating;
 
+    @Column(name = "rating_sum", nullable = false, updatable = false, columnDefinition = "bigint default 0")
+    private Long ratingSum;
+
+    @Column(name = "rating_count", nullable = false, updatable = false, columnDefinition = "integer default 0")
+    private Integer ratingCount;
+
+    @Builder.Default
+    @Embedded
+    private RatingHistogram ratingHistogram = new RatingHistogram();
+
     @Builder.Default
     @ToString.Exclude
     @OneToMany(mappedBy = "product")
@@ -55,9 +96,31 @@ public class Product extends ArchivableEntity {
     protected void prePersist() {
         super.prePersist();
         averageRating = 0.0;
+        ratingSum = 0L;
+        ratingCount = 0;
+        ratingHistogram = new RatingHistogram();
+        if (stockShardCount == null) {
+            stockShardCount = 0;
+        }
+    }
+
+    public Integer getQuantity() {
+        return isStockSharded() ? shardedQuantity : quantity;
+    }
+
+    /**
+     * Version of the product together with versions of its stock shards. Version of the product takes the high bits,
+     * so the value keeps growing also when shards are replaced.
+     */
+    public long getCombinedVersion() {
+        return (getVersion() << 32) + (isNull(stockVersion) ? 0 : stockVersion);
+    }
+
+    public boolean isStockSharded() {
+        return stockShardCount != null && stockShardCount > 0;
     }
 
     public boolean isAvailable() {
-        return quantity > 0 && !isArchival();
+        return getQuantity() > 0 && !isArchival();
     }
 }
@@ -0,0 +1,33 @@
+package pl.lodz.p.edu.shop.dataaccess.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.Check;
+import pl.lodz.p.edu.shop.dataaccess.model.superclass.AbstractEntity;
+
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@SuperBuilder
+@Data
+@EqualsAndHashCode(onlyExplicitlyIncluded = true, callSuper = true)
+@ToString(callSuper = true)
+
+@Entity
+@Table(name = "product_stock_shards", uniqueConstraints = {
+    @UniqueConstraint(name = "product_stock_shards_product_shard_unique", columnNames = {"product_id", "shard_number"})
+})
+@Check(constraints = "quantity >= 0")
+public class ProductStockShard extends AbstractEntity {
+
+    @ToString.Exclude
+    @ManyToOne(optional = false)
+    @JoinColumn(name = "product_id", nullable = false, updatable = false)
+    private Product product;
+
+    @Column(name = "shard_number", nullable = false, updatable = false)
+    private Integer shardNumber;
+
+    @Column(nullable = false)
+    private Integer quantity;
+}
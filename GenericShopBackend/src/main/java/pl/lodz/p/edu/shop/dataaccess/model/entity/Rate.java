@@ -13,7 +13,9 @@ import pl.lodz.p.edu.shop.dataaccess.model.superclass.AbstractEntity;
 @ToString(callSuper = true)
 
 @Entity
-@Table(name = "rates")
+@Table(name = "rates", uniqueConstraints = {
+    @UniqueConstraint(name = "rates_account_product_unique", columnNames = {"account_id", "product_id"})
+})
 public class Rate extends AbstractEntity implements Comparable<Rate> {
 
     @Column(nullable = false)
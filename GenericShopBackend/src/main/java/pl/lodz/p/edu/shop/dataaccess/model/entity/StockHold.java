@@ -0,0 +1,42 @@
+package pl.lodz.p.edu.shop.dataaccess.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+import pl.lodz.p.edu.shop.dataaccess.model.superclass.AbstractEntity;
+
+import java.time.LocalDateTime;
+
+/**
+ * Quantity of a product set aside for a client until it expires. Held quantity is already subtracted from the product
+ * stock, so it's given back when the hold is released and isn't taken again when the hold is turned into an order.
+ */
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@SuperBuilder
+@Data
+@EqualsAndHashCode(onlyExplicitlyIncluded = true, callSuper = true)
+@ToString(callSuper = true)
+
+@Entity
+@Table(name = "stock_holds",
+    indexes = {
+        @Index(name = "stock_holds_login_idx", columnList = "login"),
+        @Index(name = "stock_holds_expires_at_idx", columnList = "expires_at")
+    })
+public class StockHold extends AbstractEntity {
+
+    @Column(nullable = false, updatable = false)
+    private String login;
+
+    @ToString.Exclude
+    @ManyToOne(optional = false)
+    @JoinColumn(name = "product_id", nullable = false, updatable = false)
+    private Product product;
+
+    @Column(nullable = false, updatable = false)
+    private Integer quantity;
+
+    @Column(name = "expires_at", nullable = false, updatable = false)
+    private LocalDateTime expiresAt;
+}
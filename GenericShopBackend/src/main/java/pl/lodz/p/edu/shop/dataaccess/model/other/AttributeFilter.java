@@ -0,0 +1,28 @@
+package pl.lodz.p.edu.shop.dataaccess.model.other;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Predicate on a column of a category table, the value is compared with the column as it is.
+ */
+public record AttributeFilter(
+    String column,
+    Operator operator,
+    Object value
+) {
+
+    @Getter
+    @RequiredArgsConstructor
+    public enum Operator {
+
+        EQ("=", false),
+        GT(">", true),
+        GTE(">=", true),
+        LT("<", true),
+        LTE("<=", true);
+
+        private final String sqlOperator;
+        private final boolean isRange;
+    }
+}
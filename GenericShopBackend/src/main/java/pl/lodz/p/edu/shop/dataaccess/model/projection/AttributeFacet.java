@@ -0,0 +1,16 @@
+package pl.lodz.p.edu.shop.dataaccess.model.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Number of filtered products with given value of the attribute, or with a value between {@code from} and {@code to}
+ * for numeric attributes.
+ */
+public record AttributeFacet(
+    String attribute,
+    String value,
+    BigDecimal from,
+    BigDecimal to,
+    long count
+) {
+}
@@ -0,0 +1,16 @@
+package pl.lodz.p.edu.shop.dataaccess.model.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Attributes of a product that recommendations are scored by, selected without loading the entity.
+ */
+public record CatalogProduct(
+    Long id,
+    String categoryName,
+    BigDecimal price,
+    Integer quantity,
+    Double averageRating,
+    Boolean archival
+) {
+}
@@ -0,0 +1,13 @@
+package pl.lodz.p.edu.shop.dataaccess.model.projection;
+
+import java.util.List;
+
+/**
+ * Ids of one page of filtered products, along with the number of all of them and facets of their attributes.
+ */
+public record FilteredProducts(
+    List<Long> productIds,
+    long total,
+    List<AttributeFacet> facets
+) {
+}
@@ -0,0 +1,20 @@
+package pl.lodz.p.edu.shop.dataaccess.model.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One ordered product of an exported order together with the order's data, lines of one order come one after another.
+ */
+public record OrderExportLine(
+    Long orderId,
+    LocalDateTime orderCreatedAt,
+    Long accountId,
+    String login,
+    BigDecimal totalPrice,
+    Long productId,
+    String productName,
+    BigDecimal price,
+    Integer quantity
+) {
+}
@@ -0,0 +1,16 @@
+package pl.lodz.p.edu.shop.dataaccess.model.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read model of an order for order lists, selected straight from the orders table without loading the entity graph.
+ */
+public record OrderSummary(
+    Long id,
+    Long version,
+    BigDecimal totalPrice,
+    Long accountId,
+    LocalDateTime createdAt
+) {
+}
@@ -0,0 +1,11 @@
+package pl.lodz.p.edu.shop.dataaccess.model.projection;
+
+/**
+ * Position of a product in a listing sorted by one of its columns and then by id. Sort value is kept in the text form
+ * of the column, so that it's compared with the column exactly as stored.
+ */
+public record ProductSortKey(
+    Long id,
+    String sortValue
+) {
+}
@@ -0,0 +1,10 @@
+package pl.lodz.p.edu.shop.dataaccess.model.projection;
+
+/**
+ * Product as indexed for search, attributes of the category are read from the category table separately.
+ */
+public record SearchableProduct(
+    Long id,
+    String name
+) {
+}
@@ -0,0 +1,21 @@
+package pl.lodz.p.edu.shop.dataaccess.repository.api;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.OrderIdempotencyKey;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface OrderIdempotencyKeyRepository {
+
+    OrderIdempotencyKey save(OrderIdempotencyKey idempotencyKey);
+
+    @Query("SELECT k FROM OrderIdempotencyKey k JOIN FETCH k.order WHERE k.login = :login AND k.idempotencyKey = :key")
+    Optional<OrderIdempotencyKey> findByLoginAndKey(@Param("login") String login, @Param("key") String idempotencyKey);
+
+    @Modifying
+    @Query("DELETE FROM OrderIdempotencyKey k WHERE k.createdAt < :createdBefore")
+    int deleteAllCreatedBefore(@Param("createdBefore") LocalDateTime createdBefore);
+}
@@ -2,11 +2,13 @@ package pl.lodz.p.edu.shop.dataaccess.repository.api;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import pl.lodz.p.edu.shop.dataaccess.model.entity.Order;
+import pl.lodz.p.edu.shop.dataaccess.model.projection.OrderSummary;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,9 +21,38 @@ public interface OrderRepository {
     @Query("SELECT o FROM Order o JOIN FETCH o.orderedProducts WHERE o.id = :id")
     Optional<Order> findByIdWithOrderedProducts(@Param("id") Long id);
 
-    @EntityGraph(attributePaths = "orderedProducts")
-    @Query("SELECT o FROM Order o WHERE o.account.login = :login")
-    Page<Order> findAllByAccountLogin(@Param("login") String login, Pageable pageable);
+    @Query(value = "SELECT new pl.lodz.p.edu.shop.dataaccess.model.projection.OrderSummary(" +
+        "o.id, o.version, o.totalPrice, o.account.id, o.createdAt) " +
+        "FROM Order o",
+        countQuery = "SELECT COUNT(o) FROM Order o")
+    Page<OrderSummary> findAllSummaries(Pageable pageable);
+
+    @Query(value = "SELECT new pl.lodz.p.edu.shop.dataaccess.model.projection.OrderSummary(" +
+        "o.id, o.version, o.totalPrice, o.account.id, o.createdAt) " +
+        "FROM Order o WHERE o.account.login = :login",
+        countQuery = "SELECT COUNT(o) FROM Order o WHERE o.account.login = :login")
+    Page<OrderSummary> findAllSummariesByAccountLogin(@Param("login") String login, Pageable pageable);
+
+    /**
+     * First phase of paging the order history, the page is cut in the database because no collection is fetched.
+     */
+    @Query("SELECT o.id FROM Order o WHERE o.account.login = :login ORDER BY o.createdAt DESC, o.id DESC")
+    List<Long> findNewestIdsByAccountLogin(@Param("login") String login, Pageable pageable);
+
+    @Query("SELECT o.id FROM Order o " +
+        "WHERE o.account.login = :login " +
+        "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) " +
+        "ORDER BY o.createdAt DESC, o.id DESC")
+    List<Long> findNewestIdsByAccountLoginBefore(@Param("login") String login,
+                                                 @Param("createdAt") LocalDateTime createdAt,
+                                                 @Param("id") Long id,
+                                                 Pageable pageable);
+
+    /**
+     * Second phase of paging the order history, fetches orders of one page with their products in one query.
+     */
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.orderedProducts WHERE o.id IN :ids")
+    List<Order> findAllByIdsWithOrderedProducts(@Param("ids") Collection<Long> ids);
 
     @Query("SELECT o FROM Order o JOIN FETCH o.orderedProducts WHERE o.account.login = :login")
     List<Order> findAllByAccountLogin(@Param("login") String login);
@@ -29,4 +60,6 @@ public interface OrderRepository {
     Order save(Order order);
 
     Order saveAndFlush(Order order);
+
+    void flush();
 }
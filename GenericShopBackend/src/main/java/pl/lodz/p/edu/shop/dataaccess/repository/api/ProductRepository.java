@@ -2,12 +2,18 @@ package pl.lodz.p.edu.shop.dataaccess.repository.api;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import pl.lodz.p.edu.shop.dataaccess.model.entity.Category;
 import pl.lodz.p.edu.shop.dataaccess.model.entity.OrderedProduct;
 import pl.lodz.p.edu.shop.dataaccess.model.entity.Product;
+import pl.lodz.p.edu.shop.dataaccess.model.projection.CatalogProduct;
+import pl.lodz.p.edu.shop.dataaccess.model.projection.SearchableProduct;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -18,52 +24,125 @@ public interface ProductRepository {
 
     Page<Product> findAll(Pageable pageable);
 
-    List<Product> findByCategory(Category category);
-
     Page<Product> findByCategory(Category category, Pageable pageable);
 
     @Query("SELECT p FROM Product p WHERE p.isArchival = false AND p.id IN :ids")
     List<Product> findProductsByIds(@Param("ids") Set<Long> productIds);
 
+    @Query("SELECT p FROM Product p WHERE p.id IN :ids")
+    List<Product> findAllByIds(@Param("ids") Set<Long> productIds);
+
+    /**
+     * Sharded products are left out, their stock is kept in shards and locking the product row would serialize orders.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id IN :ids AND p.stockShardCount = 0 ORDER BY p.id")
+    List<Product> findAllByIdsForUpdate(@Param("ids") Set<Long> productIds);
+
+    @Modifying
+    @Query("UPDATE Product p " +
+        "SET p.quantity = p.quantity - :quantity, p.version = p.version + 1, " +
+        "    p.modifiedBy = :modifiedBy, p.modifiedAt = :modifiedAt " +
+        "WHERE p.id = :id AND p.quantity >= :quantity AND p.isArchival = false AND p.stockShardCount = 0")
+    int decreaseQuantity(@Param("id") Long productId, @Param("quantity") Integer quantity,
+                         @Param("modifiedBy") String modifiedBy, @Param("modifiedAt") LocalDateTime modifiedAt);
+
+    @Modifying
+    @Query("UPDATE Product p " +
+        "SET p.quantity = p.quantity + :quantity, p.version = p.version + 1, " +
+        "    p.modifiedBy = :modifiedBy, p.modifiedAt = :modifiedAt " +
+        "WHERE p.id = :id AND p.stockShardCount = 0")
+    int increaseQuantity(@Param("id") Long productId, @Param("quantity") Integer quantity,
+                         @Param("modifiedBy") String modifiedBy, @Param("modifiedAt") LocalDateTime modifiedAt);
+
+    @Query("SELECT p.stockShardCount FROM Product p WHERE p.id = :id")
+    Optional<Integer> findStockShardCountById(@Param("id") Long productId);
+
+    /**
+     * Applies a rate change to the rating aggregates and histogram of the product, without reading its rates.
+     * Value 0 stands for no added or no removed rate.
+     */
+    @Modifying
+    @Query("UPDATE Product p " +
+        "SET p.ratingSum = p.ratingSum + :addedValue - :removedValue, " +
+        "    p.ratingCount = p.ratingCount + :countDelta, " +
+        "    p.ratingHistogram.oneStarCount = p.ratingHistogram.oneStarCount " +
+        "        + CASE WHEN :addedValue = 1 THEN 1 ELSE 0 END - CASE WHEN :removedValue = 1 THEN 1 ELSE 0 END, " +
+        "    p.ratingHistogram.twoStarCount = p.ratingHistogram.twoStarCount " +
+        "        + CASE WHEN :addedValue = 2 THEN 1 ELSE 0 END - CASE WHEN :removedValue = 2 THEN 1 ELSE 0 END, " +
+        "    p.ratingHistogram.threeStarCount = p.ratingHistogram.threeStarCount " +
+        "        + CASE WHEN :addedValue = 3 THEN 1 ELSE 0 END - CASE WHEN :removedValue = 3 THEN 1 ELSE 0 END, " +
+        "    p.ratingHistogram.fourStarCount = p.ratingHistogram.fourStarCount " +
+        "        + CASE WHEN :addedValue = 4 THEN 1 ELSE 0 END - CASE WHEN :removedValue = 4 THEN 1 ELSE 0 END, " +
+        "    p.ratingHistogram.fiveStarCount = p.ratingHistogram.fiveStarCount " +
+        "        + CASE WHEN :addedValue = 5 THEN 1 ELSE 0 END - CASE WHEN :removedValue = 5 THEN 1 ELSE 0 END, " +
+        "    p.averageRating = CASE WHEN p.ratingCount + :countDelta > 0 " +
+        "        THEN CAST(p.ratingSum + :addedValue - :removedValue AS Double) / (p.ratingCount + :countDelta) " +
+        "        ELSE 0.0 END " +
+        "WHERE p.id = :id")
+    int applyRateChange(@Param("id") Long productId, @Param("addedValue") int addedValue,
+                        @Param("removedValue") int removedValue, @Param("countDelta") int countDelta);
+
+    /**
+     * Recalculates rating aggregates of the product from its rates, product row should be locked beforehand
+     * so that no rate change commits in between.
+     */
+    @Modifying
+    @Query("UPDATE Product p " +
+        "SET p.ratingSum = (SELECT COALESCE(SUM(r.value), 0) FROM Rate r WHERE r.product.id = :id), " +
+        "    p.ratingCount = (SELECT COUNT(r) FROM Rate r WHERE r.product.id = :id), " +
+        "    p.ratingHistogram.oneStarCount = (SELECT COUNT(r) FROM Rate r WHERE r.product.id = :id AND r.value = 1), " +
+        "    p.ratingHistogram.twoStarCount = (SELECT COUNT(r) FROM Rate r WHERE r.product.id = :id AND r.value = 2), " +
+        "    p.ratingHistogram.threeStarCount = (SELECT COUNT(r) FROM Rate r WHERE r.product.id = :id AND r.value = 3), " +
+        "    p.ratingHistogram.fourStarCount = (SELECT COUNT(r) FROM Rate r WHERE r.product.id = :id AND r.value = 4), " +
+        "    p.ratingHistogram.fiveStarCount = (SELECT COUNT(r) FROM Rate r WHERE r.product.id = :id AND r.value = 5), " +
+        "    p.averageRating = (SELECT COALESCE(AVG(r.value), 0.0) FROM Rate r WHERE r.product.id = :id) " +
+        "WHERE p.id = :id")
+    int recalculateRatingAggregates(@Param("id") Long productId);
+
+    @Query("SELECT new pl.lodz.p.edu.shop.dataaccess.model.projection.CatalogProduct(" +
+        "p.id, c.name, p.price, COALESCE(p.shardedQuantity, p.quantity), p.averageRating, p.isArchival) " +
+        "FROM Product p LEFT JOIN p.category c")
+    List<CatalogProduct> findAllCatalogProducts();
+
+    @Query("SELECT new pl.lodz.p.edu.shop.dataaccess.model.projection.SearchableProduct(p.id, p.name) " +
+        "FROM Product p WHERE NOT p.isArchival")
+    List<SearchableProduct> findAllSearchableProducts();
+
     @Query("SELECT p FROM Product p WHERE p.price = (SELECT MIN(p2.price) FROM Product p2 WHERE NOT p2.isArchival) AND NOT p.isArchival")
     List<Product> findCheapestProducts();
 
     @Query("SELECT p FROM Product p WHERE p.createdAt = (SELECT MAX(p2.createdAt) FROM Product p2 WHERE NOT p2.isArchival) AND NOT p.isArchival")
     List<Product> findNewestProducts();
 
-    @Query("SELECT p FROM Product p WHERE p.quantity IN (1, 2) AND NOT p.isArchival")
+    @Query("SELECT p FROM Product p WHERE COALESCE(p.shardedQuantity, p.quantity) IN (1, 2) AND NOT p.isArchival")
     List<Product> findProductsThatAreRunningOut();
 
     @Query("SELECT p FROM Product p WHERE p.averageRating = (SELECT MAX(p2.averageRating) FROM Product p2 WHERE NOT p.isArchival) AND NOT p.isArchival")
     List<Product> findBestRatedProducts();
 
-    @Query("SELECT p FROM Product p WHERE p.quantity > 0 AND NOT p.isArchival")
-    List<Product> findAvailableProducts();
-
-    @Query("WITH product_counts AS (" +
-        "   SELECT p.product AS product, COUNT(p.product) AS productCount " +
-        "   FROM OrderedProduct p " +
-        "   WHERE p.account.login = :login " +
-        "   GROUP BY p.product" +
-        "), max_count AS (" +
-        "   SELECT MAX(productCount) AS maxProductCount " +
-        "   FROM product_counts" +
-        ")" +
-        "SELECT op " +
-        "FROM OrderedProduct op " +
-        "WHERE op.account.login = :login " +
-        "AND op.product IN (" +
-        "   SELECT pc.product " +
-        "   FROM product_counts pc, max_count mc " +
-        "   WHERE pc.productCount = mc.maxProductCount" +
-        ")")
-    List<OrderedProduct> findTheMostFrequentlyPurchasedProducts(String login);
+    @Query("SELECT p FROM Product p WHERE COALESCE(p.shardedQuantity, p.quantity) > 0 AND NOT p.isArchival " +
+        "ORDER BY p.averageRating DESC, p.id")
+    List<Product> findAvailableProducts(Pageable pageable);
+
+    /**
+     * Products the user purchased most often, ties are broken by the user's rate of the product.
+     */
+    @Query("SELECT c.product FROM AccountProductPurchase c " +
+        "LEFT JOIN Rate r ON r.account = c.account AND r.product = c.product " +
+        "WHERE c.account.login = :login AND c.purchaseCount > 0 " +
+        "ORDER BY c.purchaseCount DESC, COALESCE(r.value, 0) DESC, c.product.id")
+    List<Product> findMostPurchasedProducts(@Param("login") String login, Pageable pageable);
 
     @Query("SELECT p FROM OrderedProduct p WHERE p.id = :id")
     Optional<OrderedProduct> findOrderedProductById(@Param("id") Long id);
 
     Optional<Product> findById(Long id);
 
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id = :id")
+    Optional<Product> findByIdForUpdate(@Param("id") Long id);
+
     Product save(Product product);
 
     Product saveAndFlush(Product product);
@@ -0,0 +1,30 @@
+package pl.lodz.p.edu.shop.dataaccess.repository.api;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.ProductStockShard;
+
+import java.util.List;
+
+public interface ProductStockShardRepository {
+
+    <S extends ProductStockShard> List<S> saveAll(Iterable<S> shards);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ProductStockShard s WHERE s.product.id = :productId ORDER BY s.shardNumber")
+    List<ProductStockShard> findAllByProductIdForUpdate(@Param("productId") Long productId);
+
+    /**
+     * New shards continue from the sum of versions of the replaced ones, so the version of the stock never goes back.
+     */
+    @Modifying
+    @Query("UPDATE ProductStockShard s SET s.version = :version WHERE s.product.id = :productId AND s.shardNumber = 0")
+    int setFirstShardVersion(@Param("productId") Long productId, @Param("version") Long version);
+
+    @Modifying
+    @Query("DELETE FROM ProductStockShard s WHERE s.product.id = :productId")
+    int deleteAllByProductId(@Param("productId") Long productId);
+}
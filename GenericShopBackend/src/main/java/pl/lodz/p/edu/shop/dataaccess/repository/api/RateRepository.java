@@ -4,12 +4,30 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import pl.lodz.p.edu.shop.dataaccess.model.entity.Rate;
 
+import java.util.List;
+import java.util.Optional;
+
 public interface RateRepository {
 
     Rate save(Rate rate);
 
+    Rate saveAndFlush(Rate rate);
+
     void delete(Rate rate);
 
-    @Query("SELECT COALESCE(avg(r.value), 0.0) FROM Rate r WHERE r.product.id = :productId")
-    double findAverageRatingForProduct(@Param("productId") Long productId);
+    @Query("SELECT r FROM Rate r WHERE r.account.id = :accountId AND r.product.id = :productId")
+    Optional<Rate> findByAccountIdAndProductId(@Param("accountId") Long accountId, @Param("productId") Long productId);
+
+    @Query("SELECT COUNT(r) > 0 FROM Rate r WHERE r.account.id = :accountId AND r.product.id = :productId")
+    boolean existsByAccountIdAndProductId(@Param("accountId") Long accountId, @Param("productId") Long productId);
+
+    @Query("SELECT p.id FROM Product p " +
+        "WHERE p.ratingCount <> (SELECT COUNT(r) FROM Rate r WHERE r.product = p) " +
+        "   OR p.ratingSum <> (SELECT COALESCE(SUM(r.value), 0) FROM Rate r WHERE r.product = p) " +
+        "   OR p.ratingHistogram.oneStarCount <> (SELECT COUNT(r) FROM Rate r WHERE r.product = p AND r.value = 1) " +
+        "   OR p.ratingHistogram.twoStarCount <> (SELECT COUNT(r) FROM Rate r WHERE r.product = p AND r.value = 2) " +
+        "   OR p.ratingHistogram.threeStarCount <> (SELECT COUNT(r) FROM Rate r WHERE r.product = p AND r.value = 3) " +
+        "   OR p.ratingHistogram.fourStarCount <> (SELECT COUNT(r) FROM Rate r WHERE r.product = p AND r.value = 4) " +
+        "   OR p.ratingHistogram.fiveStarCount <> (SELECT COUNT(r) FROM Rate r WHERE r.product = p AND r.value = 5)")
+    List<Long> findProductIdsWithOutdatedRatingAggregates();
 }
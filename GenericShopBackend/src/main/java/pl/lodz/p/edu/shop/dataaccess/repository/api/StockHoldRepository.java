@@ -0,0 +1,46 @@
+package pl.lodz.p.edu.shop.dataaccess.repository.api;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.StockHold;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+public interface StockHoldRepository {
+
+    StockHold save(StockHold stockHold);
+
+    void delete(StockHold stockHold);
+
+    List<StockHold> findAll();
+
+    @Query("SELECT h FROM StockHold h WHERE h.id = :id AND h.login = :login")
+    Optional<StockHold> findByIdAndLogin(@Param("id") Long id, @Param("login") String login);
+
+    @Query("SELECT h FROM StockHold h WHERE h.id IN :ids")
+    List<StockHold> findAllByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT h FROM StockHold h WHERE h.login = :login ORDER BY h.expiresAt")
+    List<StockHold> findAllByLogin(@Param("login") String login);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM StockHold h WHERE h.id IN :ids ORDER BY h.id")
+    List<StockHold> findAllByIdsForUpdate(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Expired holds are left out, they are released by the sweeper and can't be turned into an order anymore.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM StockHold h " +
+        "WHERE h.login = :login AND h.product.id IN :productIds AND h.expiresAt > :now " +
+        "ORDER BY h.id")
+    List<StockHold> findAllActiveByLoginAndProductIdsForUpdate(@Param("login") String login,
+                                                               @Param("productIds") Set<Long> productIds,
+                                                               @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,8 @@
+package pl.lodz.p.edu.shop.dataaccess.repository.module.order;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.OrderIdempotencyKey;
+import pl.lodz.p.edu.shop.dataaccess.repository.api.OrderIdempotencyKeyRepository;
+
+interface OrderIdempotencyKeyJpaRepository extends JpaRepository<OrderIdempotencyKey, Long>, OrderIdempotencyKeyRepository {
+}
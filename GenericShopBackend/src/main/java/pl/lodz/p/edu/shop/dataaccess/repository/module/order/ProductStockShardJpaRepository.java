@@ -0,0 +1,8 @@
+package pl.lodz.p.edu.shop.dataaccess.repository.module.order;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.ProductStockShard;
+import pl.lodz.p.edu.shop.dataaccess.repository.api.ProductStockShardRepository;
+
+interface ProductStockShardJpaRepository extends JpaRepository<ProductStockShard, Long>, ProductStockShardRepository {
+}
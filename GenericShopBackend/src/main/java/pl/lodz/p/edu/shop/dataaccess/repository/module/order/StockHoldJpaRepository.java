@@ -0,0 +1,8 @@
+package pl.lodz.p.edu.shop.dataaccess.repository.module.order;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.StockHold;
+import pl.lodz.p.edu.shop.dataaccess.repository.api.StockHoldRepository;
+
+interface StockHoldJpaRepository extends JpaRepository<StockHold, Long>, StockHoldRepository {
+}
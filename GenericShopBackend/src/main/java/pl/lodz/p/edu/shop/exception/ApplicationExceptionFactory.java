@@ -7,10 +7,13 @@ import pl.lodz.p.edu.shop.exception.account.*;
 import pl.lodz.p.edu.shop.exception.account.helper.AccountStateOperation;
 import pl.lodz.p.edu.shop.exception.auth.*;
 import pl.lodz.p.edu.shop.exception.order.*;
+import pl.lodz.p.edu.shop.exception.order.helper.FailedOrderItem;
 import pl.lodz.p.edu.shop.exception.other.ApplicationOptimisticLockException;
 import pl.lodz.p.edu.shop.exception.other.UnknownException;
 import pl.lodz.p.edu.shop.exception.transaction.TransactionTimeoutException;
 
+import java.util.List;
+
 import static org.springframework.http.HttpStatus.*;
 
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
@@ -132,6 +135,10 @@ public final class ApplicationExceptionFactory {
         return new CantFinishOrderException(CONFLICT, ExceptionMessage.Orders.ORDER_CANT_FINISH);
     }
 
+    public static ResponseStatusException createCantFinishOrderException(List<FailedOrderItem> failedItems) {
+        return new CantFinishOrderException(CONFLICT, ExceptionMessage.Orders.ORDER_CANT_FINISH, failedItems);
+    }
+
     public static ResponseStatusException createOrderNotFoundException() {
         return new OrderNotFoundException(NOT_FOUND, ExceptionMessage.Orders.ORDER_NOT_FOUND);
     }
@@ -143,4 +150,48 @@ public final class ApplicationExceptionFactory {
     public static ResponseStatusException createRateNotFoundException() {
         return new RateNotFoundException(NOT_FOUND, ExceptionMessage.Orders.RATE_NOT_FOUND);
     }
+
+    public static ResponseStatusException createIdempotencyKeyNotValidException() {
+        return new IdempotencyKeyNotValidException(BAD_REQUEST, ExceptionMessage.Orders.IDEMPOTENCY_KEY_NOT_VALID);
+    }
+
+    public static ResponseStatusException createIdempotencyKeyReusedException() {
+        return new IdempotencyKeyReusedException(UNPROCESSABLE_ENTITY, ExceptionMessage.Orders.IDEMPOTENCY_KEY_REUSED);
+    }
+
+    public static ResponseStatusException createIdempotencyKeyConflictException() {
+        return new IdempotencyKeyConflictException(CONFLICT, ExceptionMessage.Orders.IDEMPOTENCY_KEY_CONFLICT);
+    }
+
+    public static ResponseStatusException createStockHoldNotFoundException() {
+        return new StockHoldNotFoundException(NOT_FOUND, ExceptionMessage.Orders.STOCK_HOLD_NOT_FOUND);
+    }
+
+    public static ResponseStatusException createCantHoldProductException() {
+        return new CantHoldProductException(CONFLICT, ExceptionMessage.Orders.STOCK_HOLD_NOT_ENOUGH_QUANTITY);
+    }
+
+    public static ResponseStatusException createStockHoldLimitExceededException() {
+        return new StockHoldLimitExceededException(CONFLICT, ExceptionMessage.Orders.STOCK_HOLD_LIMIT_EXCEEDED);
+    }
+
+    public static ResponseStatusException createOrderQueueFullException() {
+        return new OrderQueueFullException(TOO_MANY_REQUESTS, ExceptionMessage.Orders.ORDER_QUEUE_FULL);
+    }
+
+    public static ResponseStatusException createOrderTicketNotFoundException() {
+        return new OrderTicketNotFoundException(NOT_FOUND, ExceptionMessage.Orders.ORDER_TICKET_NOT_FOUND);
+    }
+
+    public static ResponseStatusException createProductSortNotSupportedException() {
+        return new ProductSortNotSupportedException(BAD_REQUEST, ExceptionMessage.Orders.PRODUCT_SORT_NOT_SUPPORTED);
+    }
+
+    public static ResponseStatusException createProductCursorNotValidException() {
+        return new ProductCursorNotValidException(BAD_REQUEST, ExceptionMessage.Orders.PRODUCT_CURSOR_NOT_VALID);
+    }
+
+    public static ResponseStatusException createProductFilterNotValidException() {
+        return new ProductFilterNotValidException(BAD_REQUEST, ExceptionMessage.Orders.PRODUCT_FILTER_NOT_VALID);
+    }
 }
@@ -64,5 +64,16 @@ public final class ExceptionMessage {
         public static final String ORDER_NOT_FOUND = "exception.orders.not_found";
         public static final String ORDER_PRODUCT_ALREADY_RATED = "exception.orders.product_already_rated";
         public static final String RATE_NOT_FOUND = "exception.orders.rateValue.not_found";
+        public static final String IDEMPOTENCY_KEY_NOT_VALID = "exception.orders.idempotency_key.not_valid";
+        public static final String IDEMPOTENCY_KEY_REUSED = "exception.orders.idempotency_key.reused";
+        public static final String IDEMPOTENCY_KEY_CONFLICT = "exception.orders.idempotency_key.conflict";
+        public static final String STOCK_HOLD_NOT_FOUND = "exception.orders.stock_hold.not_found";
+        public static final String STOCK_HOLD_NOT_ENOUGH_QUANTITY = "exception.orders.stock_hold.not_enough_quantity";
+        public static final String STOCK_HOLD_LIMIT_EXCEEDED = "exception.orders.stock_hold.limit_exceeded";
+        public static final String ORDER_QUEUE_FULL = "exception.orders.queue_full";
+        public static final String ORDER_TICKET_NOT_FOUND = "exception.orders.ticket.not_found";
+        public static final String PRODUCT_SORT_NOT_SUPPORTED = "exception.orders.product.sort_not_supported";
+        public static final String PRODUCT_CURSOR_NOT_VALID = "exception.orders.product.cursor_not_valid";
+        public static final String PRODUCT_FILTER_NOT_VALID = "exception.orders.product.filter_not_valid";
     }
 }
@@ -1,10 +1,23 @@
 package pl.lodz.p.edu.shop.exception.order;
 
+import lombok.Getter;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.web.server.ResponseStatusException;
+import pl.lodz.p.edu.shop.exception.order.helper.FailedOrderItem;
 
+import java.util.List;
+
+@Getter
 public class CantFinishOrderException extends ResponseStatusException {
+
+    private final List<FailedOrderItem> failedItems;
+
     public CantFinishOrderException(HttpStatusCode status, String reason) {
+        this(status, reason, List.of());
+    }
+
+    public CantFinishOrderException(HttpStatusCode status, String reason, List<FailedOrderItem> failedItems) {
         super(status, reason);
+        this.failedItems = List.copyOf(failedItems);
     }
 }
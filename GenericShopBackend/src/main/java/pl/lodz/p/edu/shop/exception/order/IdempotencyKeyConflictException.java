@@ -0,0 +1,10 @@
+package pl.lodz.p.edu.shop.exception.order;
+
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.server.ResponseStatusException;
+
+public class IdempotencyKeyConflictException extends ResponseStatusException {
+    public IdempotencyKeyConflictException(HttpStatusCode status, String reason) {
+        super(status, reason);
+    }
+}
@@ -0,0 +1,13 @@
+package pl.lodz.p.edu.shop.exception.order.helper;
+
+public record FailedOrderItem(
+    Long productId,
+    Integer requestedQuantity,
+    Integer availableQuantity,
+    Reason reason
+) {
+
+    public enum Reason {
+        PRODUCT_NOT_FOUND, PRODUCT_ARCHIVAL, NOT_ENOUGH_QUANTITY
+    }
+}
@@ -0,0 +1,31 @@
+package pl.lodz.p.edu.shop.logic.job;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import pl.lodz.p.edu.shop.config.order.property.OrderIdempotencyProperties;
+import pl.lodz.p.edu.shop.logic.service.api.OrderService;
+
+import java.time.LocalDateTime;
+
+import static java.util.Objects.requireNonNull;
+
+@Slf4j
+@Component
+public class OrderIdempotencyKeyCleanupJob {
+
+    private final OrderService orderService;
+    private final OrderIdempotencyProperties properties;
+
+    public OrderIdempotencyKeyCleanupJob(OrderService orderService, OrderIdempotencyProperties properties) {
+        this.orderService = requireNonNull(orderService);
+        this.properties = requireNonNull(properties);
+    }
+
+    @Scheduled(fixedDelayString = "${app.orders.idempotency.cleanup-interval:PT1H}")
+    public void removeExpiredIdempotencyKeys() {
+        LocalDateTime createdBefore = LocalDateTime.now().minus(properties.getKeyRetention());
+        int removedKeys = orderService.removeIdempotencyKeysCreatedBefore(createdBefore);
+        log.info("Removed {} idempotency keys of orders placed before {}", removedKeys, createdBefore);
+    }
+}
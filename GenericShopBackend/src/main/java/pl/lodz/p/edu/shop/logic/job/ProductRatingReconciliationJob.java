@@ -0,0 +1,28 @@
+package pl.lodz.p.edu.shop.logic.job;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import pl.lodz.p.edu.shop.logic.service.api.OrderService;
+
+import static java.util.Objects.requireNonNull;
+
+@Slf4j
+@Component
+public class ProductRatingReconciliationJob {
+
+    private final OrderService orderService;
+
+    public ProductRatingReconciliationJob(OrderService orderService) {
+        this.orderService = requireNonNull(orderService);
+    }
+
+    @Scheduled(fixedDelayString = "${app.orders.rating-reconciliation.interval:PT6H}",
+        initialDelayString = "${app.orders.rating-reconciliation.interval:PT6H}")
+    public void reconcileRatingAggregates() {
+        int correctedProducts = orderService.reconcileRatingAggregates();
+        if (correctedProducts > 0) {
+            log.warn("Corrected rating aggregates of {} products", correctedProducts);
+        }
+    }
+}
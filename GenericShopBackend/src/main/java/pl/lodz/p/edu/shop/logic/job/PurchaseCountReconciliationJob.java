@@ -0,0 +1,32 @@
+package pl.lodz.p.edu.shop.logic.job;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import pl.lodz.p.edu.shop.logic.service.api.OrderService;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Checks purchase counters against ordered products. The first run shortly after startup also backfills counters of
+ * orders placed before the counters were introduced.
+ */
+@Slf4j
+@Component
+public class PurchaseCountReconciliationJob {
+
+    private final OrderService orderService;
+
+    public PurchaseCountReconciliationJob(OrderService orderService) {
+        this.orderService = requireNonNull(orderService);
+    }
+
+    @Scheduled(fixedDelayString = "${app.orders.purchase-count-reconciliation.interval:PT6H}",
+        initialDelayString = "${app.orders.purchase-count-reconciliation.initial-delay:PT1M}")
+    public void reconcilePurchaseCounts() {
+        int correctedAccounts = orderService.reconcilePurchaseCounts();
+        if (correctedAccounts > 0) {
+            log.warn("Corrected purchase counts of {} accounts", correctedAccounts);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package pl.lodz.p.edu.shop.logic.job;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import pl.lodz.p.edu.shop.logic.service.api.StockHoldService;
+
+import static java.util.Objects.requireNonNull;
+
+@Slf4j
+@Component
+public class StockHoldSweeperJob {
+
+    private final StockHoldService stockHoldService;
+
+    public StockHoldSweeperJob(StockHoldService stockHoldService) {
+        this.stockHoldService = requireNonNull(stockHoldService);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void restoreHolds() {
+        int restoredHolds = stockHoldService.restoreHolds();
+        log.info("Restored {} stock holds", restoredHolds);
+    }
+
+    @Scheduled(fixedDelayString = "${app.orders.stock-holds.sweep-interval:PT30S}")
+    public void releaseExpiredHolds() {
+        int releasedHolds = stockHoldService.releaseExpiredHolds();
+        if (releasedHolds > 0) {
+            log.info("Released {} expired stock holds", releasedHolds);
+        }
+    }
+}
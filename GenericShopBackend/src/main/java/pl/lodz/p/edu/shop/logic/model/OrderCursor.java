@@ -0,0 +1,12 @@
+package pl.lodz.p.edu.shop.logic.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Position in order history sorted from the newest order, next page starts with orders placed before it.
+ */
+public record OrderCursor(
+    LocalDateTime createdAt,
+    Long id
+) {
+}
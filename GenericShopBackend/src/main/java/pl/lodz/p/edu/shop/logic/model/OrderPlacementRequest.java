@@ -0,0 +1,10 @@
+package pl.lodz.p.edu.shop.logic.model;
+
+import java.util.Map;
+
+public record OrderPlacementRequest(
+    String login,
+    Map<Long, Integer> productsForOrder,
+    String idempotencyKey
+) {
+}
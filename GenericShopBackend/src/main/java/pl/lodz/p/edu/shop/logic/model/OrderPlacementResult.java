@@ -0,0 +1,23 @@
+package pl.lodz.p.edu.shop.logic.model;
+
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Order;
+
+import static java.util.Objects.nonNull;
+
+public record OrderPlacementResult(
+    Order order,
+    RuntimeException failure
+) {
+
+    public static OrderPlacementResult placed(Order order) {
+        return new OrderPlacementResult(order, null);
+    }
+
+    public static OrderPlacementResult failed(RuntimeException failure) {
+        return new OrderPlacementResult(null, failure);
+    }
+
+    public boolean isPlaced() {
+        return nonNull(order);
+    }
+}
@@ -0,0 +1,16 @@
+package pl.lodz.p.edu.shop.logic.model;
+
+import org.springframework.data.domain.Page;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Product;
+import pl.lodz.p.edu.shop.dataaccess.model.projection.AttributeFacet;
+
+import java.util.List;
+
+/**
+ * Page of filtered products with facets counted over all products matching the filters.
+ */
+public record ProductFacetPage(
+    Page<Product> products,
+    List<AttributeFacet> facets
+) {
+}
@@ -0,0 +1,15 @@
+package pl.lodz.p.edu.shop.logic.model;
+
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Product;
+import pl.lodz.p.edu.shop.dataaccess.model.projection.ProductSortKey;
+
+import java.util.List;
+
+/**
+ * Products of a listing following a position, next window starts after {@code next} when it's set.
+ */
+public record ProductWindow(
+    List<Product> products,
+    ProductSortKey next
+) {
+}
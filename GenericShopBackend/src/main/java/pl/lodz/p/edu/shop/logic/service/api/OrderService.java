@@ -4,16 +4,51 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import pl.lodz.p.edu.shop.dataaccess.model.entity.Order;
 import pl.lodz.p.edu.shop.dataaccess.model.entity.Rate;
+import pl.lodz.p.edu.shop.dataaccess.model.projection.OrderExportLine;
+import pl.lodz.p.edu.shop.dataaccess.model.projection.OrderSummary;
+import pl.lodz.p.edu.shop.logic.model.OrderCursor;
+import pl.lodz.p.edu.shop.logic.model.OrderPlacementRequest;
+import pl.lodz.p.edu.shop.logic.model.OrderPlacementResult;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 public interface OrderService {
 
     Order placeAndOrder(String login, Map<Long, Integer> productsForOrder);
 
-    Page<Order> findAll(String login, Pageable pageable);
+    /**
+     * Places the order only once for given login and idempotency key, repeated calls return already placed order
+     * without touching products' stock. Reusing the key with different products is rejected.
+     */
+    Order placeAndOrder(String login, Map<Long, Integer> productsForOrder, String idempotencyKey);
 
-    Page<Order> findAllByUserLogin(String login, Pageable pageable);
+    /**
+     * Places all given orders in one transaction. Results are returned in the order of requests, an order that can't
+     * be placed gets its failure in the result and doesn't affect the others.
+     */
+    List<OrderPlacementResult> placeAndOrderAll(List<OrderPlacementRequest> requests);
+
+    Page<OrderSummary> findAll(String login, Pageable pageable);
+
+    Page<OrderSummary> findAllByUserLogin(String login, Pageable pageable);
+
+    /**
+     * Finds orders of the user with their products, from the newest one placed before the cursor.
+     *
+     * @param cursor last order of the previous page, null for the first page
+     */
+    List<Order> findAllByUserLogin(String login, OrderCursor cursor, int limit);
+
+    /**
+     * Passes lines of all orders created in given range to the consumer, without loading them into memory at once.
+     *
+     * @param createdFrom inclusive, null for no lower bound
+     * @param createdTo exclusive, null for no upper bound
+     */
+    void exportOrders(LocalDateTime createdFrom, LocalDateTime createdTo, Consumer<OrderExportLine> consumer);
 
     Order findOrderById(String login, Long id);
 
@@ -22,4 +57,21 @@ public interface OrderService {
     Rate reRateOrderedProduct(String login, Long orderedProductId, Integer rateValue);
 
     void removeRate(String login, Long orderedProductId);
+
+    int removeIdempotencyKeysCreatedBefore(LocalDateTime createdBefore);
+
+    /**
+     * Recalculates rating aggregates of products whose aggregates don't match their rates.
+     *
+     * @return number of corrected products
+     */
+    int reconcileRatingAggregates();
+
+    /**
+     * Recalculates purchase counters of accounts whose counters don't match their ordered products, which also fills
+     * counters of orders placed before the counters existed.
+     *
+     * @return number of corrected accounts
+     */
+    int reconcilePurchaseCounts();
 }
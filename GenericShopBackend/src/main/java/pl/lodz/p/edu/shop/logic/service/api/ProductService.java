@@ -2,7 +2,12 @@ package pl.lodz.p.edu.shop.logic.service.api;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import pl.lodz.p.edu.shop.dataaccess.model.entity.Product;
+import pl.lodz.p.edu.shop.dataaccess.model.other.AttributeFilter;
+import pl.lodz.p.edu.shop.dataaccess.model.projection.ProductSortKey;
+import pl.lodz.p.edu.shop.logic.model.ProductFacetPage;
+import pl.lodz.p.edu.shop.logic.model.ProductWindow;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -15,6 +20,25 @@ public interface ProductService {
 
     Page<Product> findByCategory(Pageable pageable, String categoryName);
 
+    /**
+     * Seeks the window of products following given position, so that deep windows cost as much as the first one.
+     * The first window is returned when the position is null.
+     */
+    ProductWindow findAll(Sort.Order order, ProductSortKey after, int limit);
+
+    ProductWindow findByCategory(String categoryName, Sort.Order order, ProductSortKey after, int limit);
+
+    /**
+     * Finds products by terms of their names and category attributes, the most relevant first.
+     */
+    Page<Product> search(String query, Pageable pageable);
+
+    /**
+     * Finds products of the category matching all the filters on its attributes, ordered by id, along with facets of
+     * the attributes counted over all matching products. Filter values are given as text.
+     */
+    ProductFacetPage filterByCategory(String categoryName, List<AttributeFilter> filters, Pageable pageable);
+
     Product findById(Long id);
 
     Product findByIdShort(Long id);
@@ -24,4 +48,10 @@ public interface ProductService {
     Product update(Long id, BigDecimal newPrice, Integer newQuantity, String newImageUrl, String frontendVersion);
 
     Product archive(Long id);
+
+    /**
+     * Splits stock of the product into given number of shards, so that orders don't serialize on the product row.
+     * Shard count 0 moves the stock back to the product.
+     */
+    Product changeStockShardCount(Long id, Integer shardCount);
 }
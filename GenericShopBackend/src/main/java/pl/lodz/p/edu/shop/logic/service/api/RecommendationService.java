@@ -8,4 +8,9 @@ import java.util.List;
 public interface RecommendationService {
 
     List<Product> findByRecommendation(String login, UserPreferences userPreferences, Integer numberOfRecords);
+
+    /**
+     * @return available products ordered most recently, the most trending first
+     */
+    List<Product> findTrending(Integer numberOfRecords);
 }
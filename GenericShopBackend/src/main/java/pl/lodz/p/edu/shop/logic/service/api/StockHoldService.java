@@ -0,0 +1,32 @@
+package pl.lodz.p.edu.shop.logic.service.api;
+
+import pl.lodz.p.edu.shop.dataaccess.model.entity.StockHold;
+
+import java.util.List;
+
+public interface StockHoldService {
+
+    /**
+     * Takes given quantity from the product's stock and keeps it for the client until the hold expires. Holds are
+     * turned into the order when the client orders held products.
+     */
+    StockHold hold(String login, Long productId, Integer quantity);
+
+    List<StockHold> findAllByLogin(String login);
+
+    void release(String login, Long holdId);
+
+    /**
+     * Gives back the stock of holds that have expired.
+     *
+     * @return number of released holds
+     */
+    int releaseExpiredHolds();
+
+    /**
+     * Loads persisted holds after the application has started, so holds from before the restart expire as well.
+     *
+     * @return number of loaded holds
+     */
+    int restoreHolds();
+}
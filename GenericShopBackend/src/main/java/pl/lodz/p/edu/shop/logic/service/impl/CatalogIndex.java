@@ -0,0 +1,323 @@
+package pl.lodz.p.edu.shop.logic.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Product;
+import pl.lodz.p.edu.shop.dataaccess.model.projection.CatalogProduct;
+import pl.lodz.p.edu.shop.dataaccess.repository.api.ProductRepository;
+import pl.lodz.p.edu.shop.util.collection.LongIntHashMap;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Read optimized copy of the catalog for recommendations. Attributes of products are kept in parallel primitive
+ * arrays, so that candidates are scored and selected without loading any entity. The index is rebuilt from the
+ * database periodically and kept up to date in between with committed product and stock changes. Products changed while
+ * the index is rebuilt are copied from the old index to the rebuilt one, so that the changes aren't lost. Readers don't
+ * lock, so they may see a product in the middle of an update, which only affects ranking of that moment. Positions of
+ * products are published together with the columns and never changed afterwards, a new product replaces them with
+ * a changed copy. Products that become unavailable are dropped from cached recommendations.
+ */
+@Slf4j
+@Component
+class CatalogIndex {
+
+    private static final int NO_CATEGORY = -1;
+
+    private static final class Columns {
+
+        private final long[] ids;
+        private final int[] categories;
+        private final double[] prices;
+        private final int[] quantities;
+        private final float[] ratings;
+        private final boolean[] archival;
+        private volatile int size;
+
+        // Maps product id to its position + 1, published maps are never changed
+        private volatile LongIntHashMap positions;
+
+        private Columns(int capacity) {
+            ids = new long[capacity];
+            categories = new int[capacity];
+            prices = new double[capacity];
+            quantities = new int[capacity];
+            ratings = new float[capacity];
+            archival = new boolean[capacity];
+            positions = new LongIntHashMap(capacity);
+        }
+
+        private Columns grow() {
+            Columns grown = new Columns(Math.max(16, ids.length * 2));
+            System.arraycopy(ids, 0, grown.ids, 0, size);
+            System.arraycopy(categories, 0, grown.categories, 0, size);
+            System.arraycopy(prices, 0, grown.prices, 0, size);
+            System.arraycopy(quantities, 0, grown.quantities, 0, size);
+            System.arraycopy(ratings, 0, grown.ratings, 0, size);
+            System.arraycopy(archival, 0, grown.archival, 0, size);
+            grown.size = size;
+            grown.positions = positions;
+            return grown;
+        }
+
+        private int positionOf(long productId) {
+            return positions.get(productId) - 1;
+        }
+
+        private boolean isAvailable(int position) {
+            return quantities[position] > 0 && !archival[position];
+        }
+    }
+
+    private final ProductRepository productRepository;
+    private final RecommendationResultCache resultCache;
+    private final Map<String, Integer> categoryOrdinals = new ConcurrentHashMap<>();
+
+    private volatile Columns columns = new Columns(0);
+
+    // Guarded by this, products changed while the index is rebuilt
+    private Set<Long> changedWhileRebuilding;
+
+    CatalogIndex(ProductRepository productRepository, RecommendationResultCache resultCache) {
+        this.productRepository = requireNonNull(productRepository);
+        this.resultCache = requireNonNull(resultCache);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.orders.recommendations.catalog-refresh-interval:PT10M}",
+        initialDelayString = "${app.orders.recommendations.catalog-refresh-interval:PT10M}")
+    @Transactional(transactionManager = "ordersModTxManager", propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void rebuild() {
+        synchronized (this) {
+            changedWhileRebuilding = new HashSet<>();
+        }
+
+        try {
+            List<CatalogProduct> products = productRepository.findAllCatalogProducts();
+
+            Columns rebuiltColumns = new Columns(products.size());
+            for (CatalogProduct product : products) {
+                int position = rebuiltColumns.size++;
+                rebuiltColumns.positions.put(product.id(), position + 1);
+                write(rebuiltColumns, position, product.id(), product.categoryName(), product.price(),
+                    product.quantity(), product.averageRating(), product.archival());
+            }
+
+            synchronized (this) {
+                // Loaded rows may miss changes committed meanwhile, the old index already has them applied
+                for (long productId : changedWhileRebuilding) {
+                    rebuiltColumns = copy(columns, columns.positionOf(productId), rebuiltColumns);
+                }
+                columns = rebuiltColumns;
+            }
+            log.info("Rebuilt catalog index of {} products", products.size());
+        } finally {
+            synchronized (this) {
+                changedWhileRebuilding = null;
+            }
+        }
+    }
+
+    /**
+     * Puts current state of the product to the index once the current transaction commits.
+     */
+    void putAfterCommit(Product product) {
+        long id = product.getId();
+        String categoryName = nonNull(product.getCategory()) ? product.getCategory().getName() : null;
+        BigDecimal price = product.getPrice();
+        Integer quantity = product.getQuantity();
+        Double averageRating = product.getAverageRating();
+        boolean archival = Boolean.TRUE.equals(product.isArchival());
+
+        afterCommit(() -> put(id, categoryName, price, quantity, averageRating, archival));
+    }
+
+    /**
+     * Changes quantity of the product in the index once the current transaction commits.
+     */
+    void addQuantityAfterCommit(long productId, int quantityDelta) {
+        afterCommit(() -> addQuantity(productId, quantityDelta));
+    }
+
+    synchronized void put(long id, String categoryName, BigDecimal price, Integer quantity, Double averageRating,
+                          boolean archival) {
+        Columns current = columns;
+        int position = current.positionOf(id);
+
+        if (position < 0) {
+            if (current.size == current.ids.length) {
+                current = current.grow();
+            }
+            position = current.size;
+            LongIntHashMap grownPositions = current.positions.copy();
+            grownPositions.put(id, position + 1);
+            write(current, position, id, categoryName, price, quantity, averageRating, archival);
+            current.size = position + 1;
+            current.positions = grownPositions;
+            columns = current;
+        } else {
+            boolean wasAvailable = current.isAvailable(position);
+            write(current, position, id, categoryName, price, quantity, averageRating, archival);
+            if (wasAvailable && !current.isAvailable(position)) {
+                resultCache.invalidateProduct(id);
+            }
+        }
+        if (nonNull(changedWhileRebuilding)) {
+            changedWhileRebuilding.add(id);
+        }
+    }
+
+    synchronized void addQuantity(long productId, int quantityDelta) {
+        Columns current = columns;
+        int position = current.positionOf(productId);
+        if (position >= 0) {
+            boolean wasAvailable = current.isAvailable(position);
+            current.quantities[position] = Math.max(0, current.quantities[position] + quantityDelta);
+            if (wasAvailable && !current.isAvailable(position)) {
+                resultCache.invalidateProduct(productId);
+            }
+            if (nonNull(changedWhileRebuilding)) {
+                changedWhileRebuilding.add(productId);
+            }
+        }
+    }
+
+    /**
+     * @return true only when the product is in the index and it's out of stock or archival, products the index doesn't
+     * know yet aren't reported as unavailable
+     */
+    boolean isUnavailable(long productId) {
+        Columns current = columns;
+        int position = current.positionOf(productId);
+        return position >= 0 && !current.isAvailable(position);
+    }
+
+    /**
+     * Selects available products of preferred categories ranked by the sum of category and product points, ties are
+     * broken by rating. Products of not preferred categories and excluded products are never returned.
+     */
+    List<Long> findTopInCategories(Map<String, Double> categoryPreferences, Map<Long, Double> productPreferences,
+                                   Set<Long> excludedProductIds, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        Columns current = columns;
+        int size = current.size;
+
+        double[] categoryPoints = toCategoryPoints(categoryPreferences);
+        int[] topPositions = new int[limit];
+        double[] topScores = new double[limit];
+        int found = 0;
+
+        for (int position = 0; position < size; position++) {
+            int category = current.categories[position];
+            if (category == NO_CATEGORY || category >= categoryPoints.length || categoryPoints[category] <= 0 ||
+                !current.isAvailable(position) || excludedProductIds.contains(current.ids[position])) {
+                continue;
+            }
+
+            double score = categoryPoints[category] +
+                Optional.ofNullable(productPreferences.get(current.ids[position])).orElse(0.0);
+
+            // Insertion into the sorted top, the top is only as long as the number of requested records
+            int insertAt = found;
+            while (insertAt > 0 && isBetter(current, position, score, topPositions[insertAt - 1],
+                topScores[insertAt - 1])) {
+                insertAt--;
+            }
+            if (insertAt < limit) {
+                int moved = Math.min(found, limit - 1) - insertAt;
+                System.arraycopy(topPositions, insertAt, topPositions, insertAt + 1, moved);
+                System.arraycopy(topScores, insertAt, topScores, insertAt + 1, moved);
+                topPositions[insertAt] = position;
+                topScores[insertAt] = score;
+                found = Math.min(found + 1, limit);
+            }
+        }
+
+        List<Long> productIds = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            productIds.add(current.ids[topPositions[i]]);
+        }
+        return productIds;
+    }
+
+    private double[] toCategoryPoints(Map<String, Double> categoryPreferences) {
+        double[] categoryPoints = new double[categoryOrdinals.size()];
+        categoryPreferences.forEach((categoryName, points) -> {
+            Integer ordinal = categoryOrdinals.get(categoryName);
+            if (nonNull(ordinal) && ordinal < categoryPoints.length && nonNull(points)) {
+                categoryPoints[ordinal] = points;
+            }
+        });
+        return categoryPoints;
+    }
+
+    private static boolean isBetter(Columns columns, int position, double score, int otherPosition,
+                                    double otherScore) {
+        if (score != otherScore) {
+            return score > otherScore;
+        }
+        if (columns.ratings[position] != columns.ratings[otherPosition]) {
+            return columns.ratings[position] > columns.ratings[otherPosition];
+        }
+        return columns.ids[position] < columns.ids[otherPosition];
+    }
+
+    /**
+     * @return target columns, grown when the product had to be appended
+     */
+    private static Columns copy(Columns source, int sourcePosition, Columns target) {
+        long id = source.ids[sourcePosition];
+        int position = target.positionOf(id);
+        if (position < 0) {
+            if (target.size == target.ids.length) {
+                target = target.grow();
+            }
+            position = target.size++;
+            // Target isn't published yet, so its positions can be changed in place
+            target.positions.put(id, position + 1);
+        }
+
+        target.ids[position] = id;
+        target.categories[position] = source.categories[sourcePosition];
+        target.prices[position] = source.prices[sourcePosition];
+        target.quantities[position] = source.quantities[sourcePosition];
+        target.ratings[position] = source.ratings[sourcePosition];
+        target.archival[position] = source.archival[sourcePosition];
+        return target;
+    }
+
+    private void write(Columns columns, int position, long id, String categoryName, BigDecimal price,
+                       Integer quantity, Double averageRating, Boolean archival) {
+        columns.ids[position] = id;
+        columns.categories[position] = isNull(categoryName) ? NO_CATEGORY :
+            categoryOrdinals.computeIfAbsent(categoryName, name -> categoryOrdinals.size());
+        columns.prices[position] = isNull(price) ? 0.0 : price.doubleValue();
+        columns.quantities[position] = isNull(quantity) ? 0 : quantity;
+        columns.ratings[position] = isNull(averageRating) ? 0.0f : averageRating.floatValue();
+        columns.archival[position] = Boolean.TRUE.equals(archival);
+    }
+
+    private void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
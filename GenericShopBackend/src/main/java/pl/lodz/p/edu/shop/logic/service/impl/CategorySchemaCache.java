@@ -0,0 +1,61 @@
+package pl.lodz.p.edu.shop.logic.service.impl;
+
+import org.springframework.stereotype.Component;
+import pl.lodz.p.edu.shop.dataaccess.dao.api.CategoryDAO;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Objects.nonNull;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Columns of category tables. Category tables are never altered once created, so their schema is kept for good after
+ * it's read for the first time. Schema is read in the transaction of the caller.
+ */
+@Component
+class CategorySchemaCache {
+
+    private final CategoryDAO categoryDAO;
+    private final Map<String, List<Map<String, Object>>> schemas = new ConcurrentHashMap<>();
+
+    CategorySchemaCache(CategoryDAO categoryDAO) {
+        this.categoryDAO = requireNonNull(categoryDAO);
+    }
+
+    /**
+     * Finds columns of the table as rows of information schema, empty when the table doesn't exist. Rows are shared,
+     * they can't be modified.
+     */
+    List<Map<String, Object>> findSchema(String tableName) {
+        List<Map<String, Object>> schema = schemas.get(tableName);
+        if (nonNull(schema)) {
+            return schema;
+        }
+
+        schema = categoryDAO.findTableSchema(tableName).stream()
+            .map(Collections::unmodifiableMap)
+            .toList();
+        // Table of a category may be created later
+        if (!schema.isEmpty()) {
+            schemas.put(tableName, schema);
+        }
+        return schema;
+    }
+
+    /**
+     * Finds types of the attribute columns of the table, in the order of the columns.
+     */
+    Map<String, String> findColumnTypes(String tableName) {
+        Map<String, String> columnTypes = new LinkedHashMap<>();
+        for (Map<String, Object> column : findSchema(tableName)) {
+            if (!"product_id".equals(column.get("column_name"))) {
+                columnTypes.put((String) column.get("column_name"), (String) column.get("data_type"));
+            }
+        }
+        return columnTypes;
+    }
+}
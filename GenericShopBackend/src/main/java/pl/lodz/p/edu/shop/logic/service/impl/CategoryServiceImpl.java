@@ -16,6 +16,7 @@ import pl.lodz.p.edu.shop.exception.SystemExceptionFactory;
 import pl.lodz.p.edu.shop.logic.service.api.CategoryService;
 import pl.lodz.p.edu.shop.util.ExceptionUtil;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -32,13 +33,17 @@ class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final CategoryDAO categoryDAO;
+    private final CategorySchemaCache schemaCache;
 
-    CategoryServiceImpl(CategoryRepository categoryRepository, CategoryDAO categoryDAO) {
+    CategoryServiceImpl(CategoryRepository categoryRepository, CategoryDAO categoryDAO,
+                        CategorySchemaCache schemaCache) {
         requireNonNull(categoryRepository, "Category service requires non null category repository");
         requireNonNull(categoryDAO, "Category service requires non null category DAO");
+        requireNonNull(schemaCache, "Category service requires non null category schema cache");
 
         this.categoryRepository = categoryRepository;
         this.categoryDAO = categoryDAO;
+        this.schemaCache = schemaCache;
     }
 
     @Override
@@ -49,13 +54,16 @@ class CategoryServiceImpl implements CategoryService {
     @Override
     public List<Map<String, Object>> findSchemaByCategoryName(String category) {
         String tableName = "%ss".formatted(category.toLowerCase());
-        List<Map<String, Object>> tableSchema = categoryDAO.findTableSchema(tableName);
+        List<Map<String, Object>> tableSchema = schemaCache.findSchema(tableName);
 
         if (tableSchema.isEmpty()) {
             throw ApplicationExceptionFactory.createSchemaNotFoundException();
         }
 
-        return tableSchema;
+        // Cached rows are shared, callers get their own copies
+        return tableSchema.stream()
+            .<Map<String, Object>>map(HashMap::new)
+            .toList();
     }
 
     @Override
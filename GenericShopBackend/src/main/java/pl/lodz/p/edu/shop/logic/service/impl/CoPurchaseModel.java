@@ -0,0 +1,219 @@
+package pl.lodz.p.edu.shop.logic.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.lodz.p.edu.shop.config.order.property.RecommendationProperties;
+import pl.lodz.p.edu.shop.dataaccess.dao.api.OrderedProductDAO;
+import pl.lodz.p.edu.shop.util.collection.LongIntHashMap;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Item-to-item model of products bought together. Similarity of two products is the number of orders with both of
+ * them divided by the geometric mean of their order counts, and each product keeps only its top neighbours.
+ * The model is built once from ordered products and then updated with each committed order, it never rescans them.
+ * A commit only changes the counts, neighbours of the ordered products and of the products bought together with them
+ * are ranked again in the background. Orders committed while the model is built may be counted twice, which doesn't
+ * matter for similarity. When the build fails, the model starts empty and learns from the orders committed since.
+ */
+@Slf4j
+@Component
+class CoPurchaseModel {
+
+    private record Neighbours(long[] productIds, float[] scores) {
+    }
+
+    private static final Neighbours NO_NEIGHBOURS = new Neighbours(new long[0], new float[0]);
+
+    private final OrderedProductDAO orderedProductDAO;
+    private final int neighboursPerProduct;
+
+    // Read without locking, entries are immutable and replaced whole
+    private final Map<Long, Neighbours> topNeighbours = new ConcurrentHashMap<>();
+
+    // Guarded by this
+    private LongIntHashMap orderCounts = new LongIntHashMap();
+    private Map<Long, LongIntHashMap> coPurchaseCounts = new HashMap<>();
+    private List<long[]> ordersRecordedWhileBuilding = new ArrayList<>();
+    private Set<Long> orderedProductIds = new HashSet<>();
+
+    CoPurchaseModel(OrderedProductDAO orderedProductDAO, RecommendationProperties properties) {
+        this.orderedProductDAO = requireNonNull(orderedProductDAO);
+        this.neighboursPerProduct = requireNonNull(properties).getCoPurchaseNeighbours();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(transactionManager = "ordersModTxManager", propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void build() {
+        try {
+            LongIntHashMap builtOrderCounts = new LongIntHashMap(1024);
+            Map<Long, LongIntHashMap> builtCoPurchaseCounts = new HashMap<>();
+
+            long[] currentOrderId = {0};
+            LongIntHashMap currentOrderProducts = new LongIntHashMap();
+            orderedProductDAO.streamOrderLines((orderId, productId) -> {
+                if (orderId != currentOrderId[0]) {
+                    count(toArray(currentOrderProducts), builtOrderCounts, builtCoPurchaseCounts);
+                    currentOrderProducts.clear();
+                    currentOrderId[0] = orderId;
+                }
+                currentOrderProducts.put(productId, 1);
+            });
+            count(toArray(currentOrderProducts), builtOrderCounts, builtCoPurchaseCounts);
+
+            synchronized (this) {
+                orderCounts = builtOrderCounts;
+                coPurchaseCounts = builtCoPurchaseCounts;
+            }
+            log.info("Built co-purchase model of {} products", builtOrderCounts.size());
+        } catch (RuntimeException e) {
+            log.error("Couldn't build co-purchase model, it learns only from orders placed from now on", e);
+        } finally {
+            synchronized (this) {
+                List<long[]> pendingOrders = ordersRecordedWhileBuilding;
+                ordersRecordedWhileBuilding = null;
+
+                pendingOrders.forEach(productIds -> count(productIds, orderCounts, coPurchaseCounts));
+                coPurchaseCounts.keySet().forEach(this::updateTopNeighbours);
+            }
+        }
+    }
+
+    /**
+     * Adds the order to the model once the current transaction commits.
+     */
+    void recordAfterCommit(Collection<Long> productIds) {
+        long[] distinctProductIds = productIds.stream()
+            .mapToLong(Long::longValue)
+            .distinct()
+            .toArray();
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                record(distinctProductIds);
+            }
+        });
+    }
+
+    synchronized void record(long[] distinctProductIds) {
+        if (isNull(ordersRecordedWhileBuilding)) {
+            count(distinctProductIds, orderCounts, coPurchaseCounts);
+            for (long productId : distinctProductIds) {
+                orderedProductIds.add(productId);
+            }
+        } else {
+            ordersRecordedWhileBuilding.add(distinctProductIds);
+        }
+    }
+
+    /**
+     * Order count of an ordered product changes scores of all products bought together with it, so their neighbours are
+     * ranked again as well. The lock is taken for each product apart, so commits wait for one product at most.
+     */
+    @Scheduled(fixedDelayString = "${app.orders.recommendations.co-purchase-refresh-interval:PT5S}")
+    public void updateChangedNeighbours() {
+        Set<Long> changedProductIds = new HashSet<>();
+        synchronized (this) {
+            for (long productId : orderedProductIds) {
+                changedProductIds.add(productId);
+                LongIntHashMap counts = coPurchaseCounts.get(productId);
+                if (nonNull(counts)) {
+                    counts.forEach((neighbourId, coPurchases) -> changedProductIds.add(neighbourId));
+                }
+            }
+            orderedProductIds = new HashSet<>();
+        }
+
+        for (long productId : changedProductIds) {
+            synchronized (this) {
+                updateTopNeighbours(productId);
+            }
+        }
+    }
+
+    /**
+     * Ranks products bought together with any of the given ones by their summed similarity, given products are
+     * never returned.
+     */
+    List<Long> findAlsoBought(Collection<Long> productIds, int limit) {
+        Map<Long, Double> scores = new HashMap<>();
+        for (Long productId : productIds) {
+            Neighbours neighbours = topNeighbours.getOrDefault(productId, NO_NEIGHBOURS);
+            for (int i = 0; i < neighbours.productIds().length; i++) {
+                scores.merge(neighbours.productIds()[i], (double) neighbours.scores()[i], Double::sum);
+            }
+        }
+        productIds.forEach(scores::remove);
+
+        return scores.entrySet().stream()
+            .sorted(Map.Entry.<Long, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+            .limit(limit)
+            .map(Map.Entry::getKey)
+            .toList();
+    }
+
+    private static void count(long[] productIds, LongIntHashMap orderCounts,
+                              Map<Long, LongIntHashMap> coPurchaseCounts) {
+        for (int i = 0; i < productIds.length; i++) {
+            orderCounts.addTo(productIds[i], 1);
+            for (int j = 0; j < productIds.length; j++) {
+                if (i != j) {
+                    coPurchaseCounts.computeIfAbsent(productIds[i], id -> new LongIntHashMap())
+                        .addTo(productIds[j], 1);
+                }
+            }
+        }
+    }
+
+    private void updateTopNeighbours(long productId) {
+        LongIntHashMap counts = coPurchaseCounts.get(productId);
+        if (isNull(counts)) {
+            return;
+        }
+
+        long[] bestIds = new long[Math.min(neighboursPerProduct, counts.size())];
+        float[] bestScores = new float[bestIds.length];
+        int[] found = {0};
+        double productOrders = orderCounts.get(productId);
+
+        counts.forEach((neighbourId, coPurchases) -> {
+            float score = (float) (coPurchases / Math.sqrt(productOrders * orderCounts.get(neighbourId)));
+            // Insertion into the sorted top, neighbour lists are short
+            int position = found[0];
+            while (position > 0 && (bestScores[position - 1] < score ||
+                bestScores[position - 1] == score && bestIds[position - 1] > neighbourId)) {
+                position--;
+            }
+            if (position < bestIds.length) {
+                int moved = Math.min(found[0], bestIds.length - 1) - position;
+                System.arraycopy(bestIds, position, bestIds, position + 1, moved);
+                System.arraycopy(bestScores, position, bestScores, position + 1, moved);
+                bestIds[position] = neighbourId;
+                bestScores[position] = score;
+                found[0] = Math.min(found[0] + 1, bestIds.length);
+            }
+        });
+
+        topNeighbours.put(productId, new Neighbours(bestIds, bestScores));
+    }
+
+    private static long[] toArray(LongIntHashMap productIds) {
+        long[] array = new long[productIds.size()];
+        int[] index = {0};
+        productIds.forEach((productId, value) -> array[index[0]++] = productId);
+        return array;
+    }
+}
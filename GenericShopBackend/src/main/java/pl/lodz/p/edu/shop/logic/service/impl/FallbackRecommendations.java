@@ -0,0 +1,112 @@
+package pl.lodz.p.edu.shop.logic.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.lodz.p.edu.shop.config.order.property.RecommendationProperties;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Product;
+import pl.lodz.p.edu.shop.dataaccess.repository.api.ProductRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Recommendations that are the same for every client. They are loaded in the background and read without
+ * any query, unless they got older than the allowed staleness. Lists are always loaded in their own transaction, so
+ * the shared products are detached and never belong to the persistence context of a caller. Products that ran out
+ * since the lists were loaded are skipped according to the catalog index, only until the requested number of products
+ * is found. Available products are limited to the best rated ones, the whole catalog isn't kept in memory.
+ */
+@Slf4j
+@Component
+class FallbackRecommendations {
+
+    private final ProductRepository productRepository;
+    private final CatalogIndex catalogIndex;
+    private final RecommendationProperties properties;
+    private final TransactionTemplate readOnlyTxTemplate;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    FallbackRecommendations(ProductRepository productRepository, CatalogIndex catalogIndex,
+                            RecommendationProperties properties,
+                            @Qualifier("ordersModTxManager") PlatformTransactionManager txManager) {
+        this.productRepository = requireNonNull(productRepository);
+        this.catalogIndex = requireNonNull(catalogIndex);
+        this.properties = requireNonNull(properties);
+        this.readOnlyTxTemplate = new TransactionTemplate(requireNonNull(txManager));
+        this.readOnlyTxTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTxTemplate.setReadOnly(true);
+    }
+
+    List<Product> findBestRatedProducts(int limit) {
+        return findAvailable(currentSnapshot().bestRated(), limit);
+    }
+
+    List<Product> findNewestProducts(int limit) {
+        return findAvailable(currentSnapshot().newest(), limit);
+    }
+
+    List<Product> findCheapestProducts(int limit) {
+        return findAvailable(currentSnapshot().cheapest(), limit);
+    }
+
+    List<Product> findProductsThatAreRunningOut(int limit) {
+        return findAvailable(currentSnapshot().runningOut(), limit);
+    }
+
+    List<Product> findAvailableProducts(int limit) {
+        return findAvailable(currentSnapshot().available(), limit);
+    }
+
+    @Scheduled(fixedDelayString = "${app.orders.recommendations.fallback-refresh-interval:PT1M}")
+    public void refresh() {
+        snapshot.set(loadSnapshot());
+    }
+
+    private Snapshot currentSnapshot() {
+        Snapshot current = snapshot.get();
+        if (isNull(current) || current.isOlderThan(properties.getFallbackMaxStaleness())) {
+            log.debug("Fallback recommendations are missing or stale, loading them on request");
+            current = loadSnapshot();
+            snapshot.set(current);
+        }
+        return current;
+    }
+
+    private List<Product> findAvailable(List<Product> products, int limit) {
+        return products.stream()
+            .filter(product -> product.isAvailable() && !catalogIndex.isUnavailable(product.getId()))
+            .limit(limit)
+            .toList();
+    }
+
+    private Snapshot loadSnapshot() {
+        return readOnlyTxTemplate.execute(status -> new Snapshot(
+            List.copyOf(productRepository.findBestRatedProducts()),
+            List.copyOf(productRepository.findNewestProducts()),
+            List.copyOf(productRepository.findCheapestProducts()),
+            List.copyOf(productRepository.findProductsThatAreRunningOut()),
+            List.copyOf(productRepository.findAvailableProducts(
+                PageRequest.of(0, properties.getFallbackAvailableLimit()))),
+            Instant.now()
+        ));
+    }
+
+    private record Snapshot(List<Product> bestRated, List<Product> newest, List<Product> cheapest,
+                            List<Product> runningOut, List<Product> available, Instant loadedAt) {
+
+        boolean isOlderThan(Duration maxAge) {
+            return loadedAt.plus(maxAge).isBefore(Instant.now());
+        }
+    }
+}
@@ -4,29 +4,43 @@ import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import pl.lodz.p.edu.shop.dataaccess.dao.api.AccountProductPurchaseDAO;
+import pl.lodz.p.edu.shop.dataaccess.dao.api.OrderExportDAO;
 import pl.lodz.p.edu.shop.dataaccess.model.entity.*;
+import pl.lodz.p.edu.shop.dataaccess.model.projection.OrderExportLine;
+import pl.lodz.p.edu.shop.dataaccess.model.projection.OrderSummary;
+import pl.lodz.p.edu.shop.dataaccess.repository.api.OrderIdempotencyKeyRepository;
 import pl.lodz.p.edu.shop.dataaccess.repository.api.OrderRepository;
 import pl.lodz.p.edu.shop.dataaccess.repository.api.ProductRepository;
 import pl.lodz.p.edu.shop.dataaccess.repository.api.RateRepository;
 import pl.lodz.p.edu.shop.dataaccess.repository.api.ReadOnlyAccountRepository;
+import pl.lodz.p.edu.shop.dataaccess.repository.api.StockHoldRepository;
 import pl.lodz.p.edu.shop.exception.ApplicationExceptionFactory;
 import pl.lodz.p.edu.shop.exception.SystemExceptionFactory;
+import pl.lodz.p.edu.shop.exception.order.helper.FailedOrderItem;
+import pl.lodz.p.edu.shop.logic.model.OrderCursor;
+import pl.lodz.p.edu.shop.logic.model.OrderPlacementRequest;
+import pl.lodz.p.edu.shop.logic.model.OrderPlacementResult;
 import pl.lodz.p.edu.shop.logic.service.api.OrderService;
 import pl.lodz.p.edu.shop.util.ExceptionUtil;
+import pl.lodz.p.edu.shop.util.SecurityUtil;
 
 import java.math.BigDecimal;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.function.Predicate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 import static java.util.Objects.requireNonNull;
+import static pl.lodz.p.edu.shop.exception.order.helper.FailedOrderItem.Reason.*;
 
 @Service
 @Transactional(transactionManager = "ordersModTxManager", propagation = Propagation.REQUIRES_NEW)
@@ -37,103 +51,223 @@ public class OrderServiceImpl implements OrderService {
     private final ProductRepository productRepository;
     private final ReadOnlyAccountRepository accountRepository;
     private final RateRepository rateRepository;
+    private final OrderIdempotencyKeyRepository idempotencyKeyRepository;
+    private final StockHoldRepository stockHoldRepository;
+    private final ProductStockManager stockManager;
+    private final StockHoldRegistry holdRegistry;
+    private final OrderExportDAO orderExportDAO;
+    private final CoPurchaseModel coPurchaseModel;
+    private final AccountProductPurchaseDAO purchaseDAO;
+    private final RecommendationResultCache recommendationCache;
+    private final TrendingProducts trendingProducts;
+    private final ProductCache productCache;
 
     public OrderServiceImpl(
         OrderRepository orderRepository,
         ProductRepository productRepository,
         ReadOnlyAccountRepository accountRepository,
-        RateRepository rateRepository
+        RateRepository rateRepository,
+        OrderIdempotencyKeyRepository idempotencyKeyRepository,
+        StockHoldRepository stockHoldRepository,
+        ProductStockManager stockManager,
+        StockHoldRegistry holdRegistry,
+        OrderExportDAO orderExportDAO,
+        CoPurchaseModel coPurchaseModel,
+        AccountProductPurchaseDAO purchaseDAO,
+        RecommendationResultCache recommendationCache,
+        TrendingProducts trendingProducts,
+        ProductCache productCache
     ) {
         requireNonNull(orderRepository, "OrderService requires non null orderRepository");
         requireNonNull(productRepository, "OrderService requires non null productRepository");
         requireNonNull(accountRepository, "OrderService requires non null accountRepository");
         requireNonNull(rateRepository, "OrderService required non null rateRepository");
+        requireNonNull(idempotencyKeyRepository, "OrderService requires non null idempotencyKeyRepository");
+        requireNonNull(stockHoldRepository, "OrderService requires non null stockHoldRepository");
+        requireNonNull(stockManager, "OrderService requires non null stockManager");
+        requireNonNull(holdRegistry, "OrderService requires non null holdRegistry");
+        requireNonNull(orderExportDAO, "OrderService requires non null orderExportDAO");
+        requireNonNull(coPurchaseModel, "OrderService requires non null coPurchaseModel");
+        requireNonNull(purchaseDAO, "OrderService requires non null purchaseDAO");
+        requireNonNull(recommendationCache, "OrderService requires non null recommendationCache");
+        requireNonNull(trendingProducts, "OrderService requires non null trendingProducts");
+        requireNonNull(productCache, "OrderService requires non null productCache");
 
         this.orderRepository = orderRepository;
         this.productRepository = productRepository;
         this.accountRepository = accountRepository;
         this.rateRepository = rateRepository;
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.stockHoldRepository = stockHoldRepository;
+        this.stockManager = stockManager;
+        this.holdRegistry = holdRegistry;
+        this.orderExportDAO = orderExportDAO;
+        this.coPurchaseModel = coPurchaseModel;
+        this.purchaseDAO = purchaseDAO;
+        this.recommendationCache = recommendationCache;
+        this.trendingProducts = trendingProducts;
+        this.productCache = productCache;
     }
 
     @Override
     public Order placeAndOrder(String login, Map<Long, Integer> requestedProductsForOrder) {
-        // HELPERS
-        Set<Long> productsId = requestedProductsForOrder.keySet();
-        Predicate<Product> isProductAvailableForBeingOrdered = product -> {
-            Integer quantity = product.getQuantity();
-            return !product.isArchival() && productsId.contains(product.getId()) && quantity > 0;
-        };
-
-        // LOGIC
+        return placeAndOrder(login, requestedProductsForOrder, null);
+    }
+
+    @Override
+    public Order placeAndOrder(String login, Map<Long, Integer> requestedProductsForOrder, String idempotencyKey) {
+        if (nonNull(idempotencyKey)) {
+            Optional<OrderIdempotencyKey> placedKey = idempotencyKeyRepository.findByLoginAndKey(login, idempotencyKey);
+            if (placedKey.isPresent()) {
+                if (!isSameRequest(placedKey.get(), requestedProductsForOrder)) {
+                    throw ApplicationExceptionFactory.createIdempotencyKeyReusedException();
+                }
+                return placedKey.get().getOrder();
+            }
+        }
+
         Account account = accountRepository.findByLogin(login)
             .orElseThrow(ApplicationExceptionFactory::createAccountNotFoundException);
 
-        List<Product> products = productRepository.findAll();
+        Map<Long, Product> lockedProducts = lockProducts(requestedProductsForOrder.keySet());
+        List<StockHold> holds = lockHolds(login, requestedProductsForOrder.keySet());
+        Map<Long, Integer> heldQuantities = sumHeldQuantities(holds);
 
-        Map<Product, Integer> productsForNewOrder = products.stream()
-            .filter(isProductAvailableForBeingOrdered)
-            .collect(Collectors.toMap(
-                product -> product,
-                product -> requestedProductsForOrder.get(product.getId())
-            ));
-
-        if (productsForNewOrder.size() != requestedProductsForOrder.size()) {
-            throw ApplicationExceptionFactory.createCantFinishOrderException();
+        List<FailedOrderItem> failedItems = findFailedOrderItems(requestedProductsForOrder, lockedProducts,
+            addHeldQuantities(findQuantities(lockedProducts), heldQuantities));
+        if (!failedItems.isEmpty()) {
+            throw ApplicationExceptionFactory.createCantFinishOrderException(failedItems);
         }
 
-        BigDecimal totalPrice = productsForNewOrder.entrySet().stream()
-            .map(entry -> entry.getKey()
-                .getPrice()
-                .multiply(BigDecimal.valueOf(entry.getValue())))
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        failedItems = decreaseQuantities(login, requestedProductsForOrder, heldQuantities, lockedProducts);
+        if (!failedItems.isEmpty()) {
+            throw ApplicationExceptionFactory.createCantFinishOrderException(failedItems);
+        }
 
-        productsForNewOrder.forEach(
-            (product, takenQuantity) -> product.setQuantity(product.getQuantity() - takenQuantity)
-        );
+        Order order = buildOrder(account, requestedProductsForOrder, lockedProducts);
+        removeHolds(holds);
+        return save(order, buildIdempotencyKey(order, idempotencyKey, requestedProductsForOrder));
+    }
 
-        if (!productsForNewOrder.entrySet().stream()
-            .allMatch(entry -> entry.getKey().getQuantity() >= 0)) {
-            throw ApplicationExceptionFactory.createCantFinishOrderException();
+    @Override
+    public List<OrderPlacementResult> placeAndOrderAll(List<OrderPlacementRequest> requests) {
+        Set<Long> requestedProductIds = requests.stream()
+            .flatMap(request -> request.productsForOrder().keySet().stream())
+            .collect(Collectors.toSet());
+        Map<Long, Product> lockedProducts = lockProducts(requestedProductIds);
+        Map<Long, Integer> availableQuantities = findQuantities(lockedProducts);
+
+        Map<String, Optional<Account>> accounts = new HashMap<>();
+        Map<Long, Integer> takenQuantities = new TreeMap<>();
+        Map<Long, String> lastOrderingLogins = new HashMap<>();
+        Map<String, OrderIdempotencyKey> idempotencyKeysInBatch = new HashMap<>();
+        Map<Long, StockHold> consumedHolds = new HashMap<>();
+        List<Order> orders = new ArrayList<>();
+        List<OrderIdempotencyKey> idempotencyKeys = new ArrayList<>();
+        List<OrderPlacementResult> results = new ArrayList<>();
+
+        // Every order is validated against stock left by the orders before it, so a rejected one doesn't affect others
+        for (OrderPlacementRequest request : requests) {
+            String idempotencyKey = request.idempotencyKey();
+            String batchIdempotencyKey = request.login() + ':' + idempotencyKey;
+            if (nonNull(idempotencyKey)) {
+                Optional<OrderIdempotencyKey> placedKey = Optional.ofNullable(idempotencyKeysInBatch.get(batchIdempotencyKey))
+                    .or(() -> idempotencyKeyRepository.findByLoginAndKey(request.login(), idempotencyKey));
+                if (placedKey.isPresent()) {
+                    results.add(isSameRequest(placedKey.get(), request.productsForOrder()) ?
+                        OrderPlacementResult.placed(placedKey.get().getOrder()) :
+                        OrderPlacementResult.failed(ApplicationExceptionFactory.createIdempotencyKeyReusedException()));
+                    continue;
+                }
+            }
+
+            Optional<Account> account = accounts.computeIfAbsent(request.login(), accountRepository::findByLogin);
+            if (account.isEmpty()) {
+                results.add(OrderPlacementResult.failed(ApplicationExceptionFactory.createAccountNotFoundException()));
+                continue;
+            }
+
+            // Holds consumed by an earlier order of the same client in this batch can't be used again
+            List<StockHold> holds = lockHolds(request.login(), request.productsForOrder().keySet()).stream()
+                .filter(hold -> !consumedHolds.containsKey(hold.getId()))
+                .toList();
+            Map<Long, Integer> heldQuantities = sumHeldQuantities(holds);
+
+            List<FailedOrderItem> failedItems = findFailedOrderItems(request.productsForOrder(), lockedProducts,
+                addHeldQuantities(availableQuantities, heldQuantities));
+            if (!failedItems.isEmpty()) {
+                results.add(OrderPlacementResult.failed(
+                    ApplicationExceptionFactory.createCantFinishOrderException(failedItems)));
+                continue;
+            }
+
+            request.productsForOrder().forEach((productId, quantity) -> {
+                int quantityToTake = quantity - heldQuantities.getOrDefault(productId, 0);
+                availableQuantities.merge(productId, -quantityToTake, Integer::sum);
+                takenQuantities.merge(productId, quantityToTake, Integer::sum);
+                lastOrderingLogins.put(productId, request.login());
+            });
+            holds.forEach(hold -> consumedHolds.put(hold.getId(), hold));
+
+            Order order = buildOrder(account.get(), request.productsForOrder(), lockedProducts);
+            OrderIdempotencyKey orderIdempotencyKey = buildIdempotencyKey(order, idempotencyKey,
+                request.productsForOrder());
+            orders.add(order);
+            idempotencyKeys.add(orderIdempotencyKey);
+            results.add(OrderPlacementResult.placed(order));
+            if (nonNull(orderIdempotencyKey)) {
+                idempotencyKeysInBatch.put(batchIdempotencyKey, orderIdempotencyKey);
+            }
         }
 
-        Order order = Order.builder()
-            .account(account)
-            .totalPrice(totalPrice)
-            .build();
+        // One update per product for the whole batch, it fails only when sharded stock was taken by other transaction
+        LocalDateTime modificationTime = LocalDateTime.now();
+        takenQuantities.forEach((productId, quantity) -> {
+            boolean decreased = takeQuantity(lockedProducts.get(productId), quantity,
+                lastOrderingLogins.get(productId), modificationTime);
 
-        Set<OrderedProduct> orderedProducts = productsForNewOrder.entrySet().stream()
-            .map(productQuantityEntry -> {
-                Product product = productQuantityEntry.getKey();
-                Integer takenQuantity = productQuantityEntry.getValue();
-
-                return OrderedProduct.builder()
-                    .name(product.getName())
-                    .quantity(takenQuantity)
-                    .price(product.getPrice())
-                    .account(account)
-                    .product(product)
-                    .order(order)
-                    .build();
-            }).collect(Collectors.toUnmodifiableSet());
+            if (!decreased) {
+                throw ApplicationExceptionFactory.createCantFinishOrderException(List.of(new FailedOrderItem(productId,
+                    quantity, lockedProducts.get(productId).getQuantity(), NOT_ENOUGH_QUANTITY)));
+            }
+        });
 
-        order.setOrderedProducts(orderedProducts);
-        return save(order);
+        removeHolds(consumedHolds.values());
+        return saveAll(orders, idempotencyKeys, results);
     }
 
     @Override
-    public Page<Order> findAll(String login, Pageable pageable) {
+    public Page<OrderSummary> findAll(String login, Pageable pageable) {
 
         accountRepository.findByLogin(login)
             .orElseThrow(ApplicationExceptionFactory::createAccountNotFoundException);
-        return orderRepository.findAll(pageable);
+        return orderRepository.findAllSummaries(pageable);
     }
 
     @Override
-    public Page<Order> findAllByUserLogin(String login, Pageable pageable) {
+    public Page<OrderSummary> findAllByUserLogin(String login, Pageable pageable) {
 
         accountRepository.findByLogin(login)
             .orElseThrow(ApplicationExceptionFactory::createAccountNotFoundException);
-        return orderRepository.findAllByAccountLogin(login, pageable);
+        return orderRepository.findAllSummariesByAccountLogin(login, pageable);
+    }
+
+    @Override
+    public List<Order> findAllByUserLogin(String login, OrderCursor cursor, int limit) {
+        accountRepository.findByLogin(login)
+            .orElseThrow(ApplicationExceptionFactory::createAccountNotFoundException);
+
+        Pageable pageable = PageRequest.ofSize(limit);
+        List<Long> orderIds = isNull(cursor) ?
+            orderRepository.findNewestIdsByAccountLogin(login, pageable) :
+            orderRepository.findNewestIdsByAccountLoginBefore(login, cursor.createdAt(), cursor.id(), pageable);
+        return findAllByIdsWithOrderedProducts(orderIds);
+    }
+
+    @Override
+    @Transactional(transactionManager = "ordersModTxManager", propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void exportOrders(LocalDateTime createdFrom, LocalDateTime createdTo, Consumer<OrderExportLine> consumer) {
+        orderExportDAO.streamOrderLines(createdFrom, createdTo, consumer);
     }
 
     @Override
@@ -156,7 +290,7 @@ public class OrderServiceImpl implements OrderService {
             .orElseThrow(ApplicationExceptionFactory::createProductNotFoundException);
         Product product = orderedProduct.getProduct();
 
-        if (isProductAlreadyRatedByUserWithGivenAccount(product, account)) {
+        if (rateRepository.existsByAccountIdAndProductId(account.getId(), product.getId())) {
             throw ApplicationExceptionFactory.createProductAlreadyRatedException();
         }
 
@@ -167,11 +301,11 @@ public class OrderServiceImpl implements OrderService {
             .build();
 
         try {
-            product.getRates().add(rate);
             orderedProduct.setRate(rate);
-            rateRepository.save(rate);
-            Double newAverageRating = rateRepository.findAverageRatingForProduct(product.getId());
-            product.setAverageRating(newAverageRating);
+            // Flushed here, so that a concurrent rate of the same product is reported as already rated
+            rateRepository.saveAndFlush(rate);
+            productRepository.applyRateChange(product.getId(), rateValue, 0, 1);
+            productCache.invalidateAfterCommit(product.getId());
             return rate;
 
         } catch (DataAccessException e) {
@@ -189,16 +323,15 @@ public class OrderServiceImpl implements OrderService {
             .orElseThrow(ApplicationExceptionFactory::createProductNotFoundException);
         Product product = orderedProduct.getProduct();
 
-        Rate userRate = product.getRates().stream()
-            .filter(rate -> rate.getAccount().equals(account))
-            .findFirst()
+        Rate userRate = rateRepository.findByAccountIdAndProductId(account.getId(), product.getId())
             .orElseThrow(ApplicationExceptionFactory::createRateNotFoundException);
 
         try {
+            int previousValue = userRate.getValue();
             userRate.setValue(rateValue);
             rateRepository.save(userRate);
-            Double newAverageRating = rateRepository.findAverageRatingForProduct(product.getId());
-            product.setAverageRating(newAverageRating);
+            productRepository.applyRateChange(product.getId(), rateValue, previousValue, 0);
+            productCache.invalidateAfterCommit(product.getId());
             return userRate;
 
         } catch (DataAccessException e) {
@@ -217,32 +350,201 @@ public class OrderServiceImpl implements OrderService {
             .orElseThrow(ApplicationExceptionFactory::createProductNotFoundException);
         Product product = orderedProduct.getProduct();
 
-        Rate clientRate = product.getRates().stream()
-            .filter(rate -> rate.getAccount().equals(account))
-            .findFirst()
+        Rate clientRate = rateRepository.findByAccountIdAndProductId(account.getId(), product.getId())
             .orElseThrow(ApplicationExceptionFactory::createRateNotFoundException);
 
         try {
             rateRepository.delete(clientRate);
-            product.getRates().remove(clientRate);
             orderedProduct.setRate(null);
-            Double newAverageRating = rateRepository.findAverageRatingForProduct(product.getId());
-            product.setAverageRating(newAverageRating);
+            productRepository.applyRateChange(product.getId(), 0, clientRate.getValue(), -1);
+            productCache.invalidateAfterCommit(product.getId());
 
         } catch (DataAccessException e) {
             handleDataAccessException(e);
         }
     }
 
-    private boolean isProductAlreadyRatedByUserWithGivenAccount(Product product, Account userAccount) {
-        return product.getRates().stream()
-            .anyMatch(rate -> rate.getAccount().equals(userAccount));
+    @Override
+    public int removeIdempotencyKeysCreatedBefore(LocalDateTime createdBefore) {
+        return idempotencyKeyRepository.deleteAllCreatedBefore(createdBefore);
+    }
+
+    @Override
+    public int reconcileRatingAggregates() {
+        List<Long> productIds = rateRepository.findProductIdsWithOutdatedRatingAggregates();
+        for (Long productId : productIds) {
+            // Locked first, so that recalculation sees every rate change committed before it
+            productRepository.findByIdForUpdate(productId);
+            productRepository.recalculateRatingAggregates(productId);
+            productCache.invalidateAfterCommit(productId);
+        }
+        return productIds.size();
+    }
+
+    @Override
+    public int reconcilePurchaseCounts() {
+        List<Long> accountIds = purchaseDAO.findAccountIdsWithOutdatedPurchaseCounts();
+        String login = SecurityUtil.getLoginFromSecurityContext();
+        accountIds.forEach(accountId -> purchaseDAO.recalculatePurchaseCounts(accountId, login));
+        return accountIds.size();
+    }
+
+    private List<Order> findAllByIdsWithOrderedProducts(List<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return List.of();
+        }
+
+        // Fetched orders come in any order, they are put back in the order of the page
+        Map<Long, Order> orders = orderRepository.findAllByIdsWithOrderedProducts(orderIds).stream()
+            .collect(Collectors.toMap(Order::getId, Function.identity()));
+        return orderIds.stream()
+            .map(orders::get)
+            .toList();
+    }
+
+    private Map<Long, Product> lockProducts(Set<Long> productIds) {
+        // Only requested rows are loaded and locked, always in ascending id order, so concurrent orders can't deadlock
+        Map<Long, Product> products = productRepository.findAllByIdsForUpdate(productIds)
+            .stream()
+            .collect(Collectors.toMap(Product::getId, Function.identity(), (first, second) -> first, HashMap::new));
+
+        // Sharded products aren't locked, they are loaded separately only when the order contains any of them
+        Set<Long> notLockedProductIds = new HashSet<>(productIds);
+        notLockedProductIds.removeAll(products.keySet());
+        if (!notLockedProductIds.isEmpty()) {
+            productRepository.findAllByIds(notLockedProductIds)
+                .forEach(product -> products.put(product.getId(), product));
+        }
+
+        return products;
+    }
+
+    private Map<Long, Integer> findQuantities(Map<Long, Product> products) {
+        return products.values().stream()
+            .collect(Collectors.toMap(Product::getId, Product::getQuantity));
+    }
+
+    private List<StockHold> lockHolds(String login, Set<Long> productIds) {
+        // Registry answers without a query for clients that don't hold anything, which is what most orders are
+        if (!holdRegistry.hasHolds(login)) {
+            return List.of();
+        }
+
+        return stockHoldRepository.findAllActiveByLoginAndProductIdsForUpdate(login, productIds, LocalDateTime.now());
+    }
+
+    private Map<Long, Integer> sumHeldQuantities(List<StockHold> holds) {
+        return holds.stream()
+            .collect(Collectors.toMap(hold -> hold.getProduct().getId(), StockHold::getQuantity, Integer::sum));
     }
 
-    private Order save(Order order) {
+    private Map<Long, Integer> addHeldQuantities(Map<Long, Integer> availableQuantities,
+                                                 Map<Long, Integer> heldQuantities) {
+        if (heldQuantities.isEmpty()) {
+            return availableQuantities;
+        }
+
+        Map<Long, Integer> quantities = new HashMap<>(availableQuantities);
+        heldQuantities.forEach((productId, quantity) -> quantities.merge(productId, quantity, Integer::sum));
+        return quantities;
+    }
+
+    private void removeHolds(Collection<StockHold> holds) {
+        holds.forEach(stockHoldRepository::delete);
+        holdRegistry.unregisterAfterCommit(holds.stream().map(StockHold::getId).toList());
+    }
+
+    private List<FailedOrderItem> findFailedOrderItems(Map<Long, Integer> requestedProducts, Map<Long, Product> products,
+                                                       Map<Long, Integer> availableQuantities) {
+        List<FailedOrderItem> failedItems = new ArrayList<>();
+
+        new TreeMap<>(requestedProducts).forEach((productId, requestedQuantity) -> {
+            Product product = products.get(productId);
+            Integer availableQuantity = availableQuantities.get(productId);
+
+            if (isNull(product)) {
+                failedItems.add(new FailedOrderItem(productId, requestedQuantity, 0, PRODUCT_NOT_FOUND));
+            } else if (product.isArchival()) {
+                failedItems.add(new FailedOrderItem(productId, requestedQuantity, 0, PRODUCT_ARCHIVAL));
+            } else if (availableQuantity < requestedQuantity) {
+                failedItems.add(new FailedOrderItem(productId, requestedQuantity, availableQuantity, NOT_ENOUGH_QUANTITY));
+            }
+        });
+
+        return failedItems;
+    }
+
+    private List<FailedOrderItem> decreaseQuantities(String login, Map<Long, Integer> requestedProducts,
+                                                     Map<Long, Integer> heldQuantities, Map<Long, Product> products) {
+        List<FailedOrderItem> failedItems = new ArrayList<>();
+        LocalDateTime modificationTime = LocalDateTime.now();
+
+        // Held quantity was already taken from the stock when the hold was placed, only the rest is taken now
+        new TreeMap<>(requestedProducts).forEach((productId, requestedQuantity) -> {
+            int heldQuantity = heldQuantities.getOrDefault(productId, 0);
+            boolean decreased = takeQuantity(products.get(productId), requestedQuantity - heldQuantity, login,
+                modificationTime);
+
+            if (!decreased) {
+                Integer availableQuantity = products.get(productId).getQuantity() + heldQuantity;
+                failedItems.add(new FailedOrderItem(productId, requestedQuantity, availableQuantity, NOT_ENOUGH_QUANTITY));
+            }
+        });
+
+        return failedItems;
+    }
+
+    private boolean takeQuantity(Product product, int quantity, String login, LocalDateTime modificationTime) {
+        // Negative quantity means the client held more than was ordered, the surplus goes back to the stock
+        if (quantity < 0) {
+            stockManager.increaseQuantity(product, -quantity, login, modificationTime);
+            return true;
+        }
+
+        return quantity == 0 || stockManager.decreaseQuantity(product, quantity, login, modificationTime);
+    }
+
+    private Order buildOrder(Account account, Map<Long, Integer> requestedProducts, Map<Long, Product> products) {
+        BigDecimal totalPrice = requestedProducts.entrySet().stream()
+            .map(entry -> products.get(entry.getKey())
+                .getPrice()
+                .multiply(BigDecimal.valueOf(entry.getValue())))
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        Order order = Order.builder()
+            .account(account)
+            .totalPrice(totalPrice)
+            .build();
+
+        Set<OrderedProduct> orderedProducts = requestedProducts.entrySet().stream()
+            .map(productQuantityEntry -> {
+                Product product = products.get(productQuantityEntry.getKey());
+                Integer takenQuantity = productQuantityEntry.getValue();
+
+                return OrderedProduct.builder()
+                    .name(product.getName())
+                    .quantity(takenQuantity)
+                    .price(product.getPrice())
+                    .account(account)
+                    .product(product)
+                    .order(order)
+                    .build();
+            }).collect(Collectors.toUnmodifiableSet());
+
+        order.setOrderedProducts(orderedProducts);
+        return order;
+    }
+
+    private Order save(Order order, OrderIdempotencyKey idempotencyKey) {
         try {
+            orderRepository.save(order);
+            saveIdempotencyKey(idempotencyKey);
             //Flush to get exception and handle it in logic layer
-            orderRepository.saveAndFlush(order);
+            orderRepository.flush();
+            countPurchases(List.of(order));
+            coPurchaseModel.recordAfterCommit(findProductIds(order));
+            trendingProducts.recordAfterCommit(findProductIds(order));
+            recommendationCache.invalidateAccountAfterCommit(order.getAccount().getLogin());
             return order;
 
         } catch (DataAccessException e) {
@@ -250,6 +552,77 @@ public class OrderServiceImpl implements OrderService {
         }
     }
 
+    private List<OrderPlacementResult> saveAll(List<Order> orders, List<OrderIdempotencyKey> idempotencyKeys,
+                                               List<OrderPlacementResult> results) {
+        try {
+            // Each order is persisted on behalf of its author, inserts are sent in JDBC batches on flush
+            for (int i = 0; i < orders.size(); i++) {
+                Order order = orders.get(i);
+                OrderIdempotencyKey idempotencyKey = idempotencyKeys.get(i);
+
+                SecurityUtil.runAs(order.getAccount().getLogin(), () -> {
+                    orderRepository.save(order);
+                    saveIdempotencyKey(idempotencyKey);
+                    return order;
+                });
+            }
+            orderRepository.flush();
+            countPurchases(orders);
+            orders.forEach(order -> {
+                coPurchaseModel.recordAfterCommit(findProductIds(order));
+                trendingProducts.recordAfterCommit(findProductIds(order));
+                recommendationCache.invalidateAccountAfterCommit(order.getAccount().getLogin());
+            });
+            return results;
+
+        } catch (DataAccessException e) {
+            return handleDataAccessException(e);
+        }
+    }
+
+    private void countPurchases(List<Order> orders) {
+        // Counted after ordered products are flushed, so reconciliation that locks the counters sees them
+        purchaseDAO.addPurchases(orders.stream()
+            .flatMap(order -> order.getOrderedProducts().stream())
+            .map(orderedProduct -> new AccountProductPurchaseDAO.Purchase(
+                orderedProduct.getAccount().getId(),
+                orderedProduct.getProduct().getId(),
+                orderedProduct.getAccount().getLogin()))
+            .toList());
+    }
+
+    private List<Long> findProductIds(Order order) {
+        return order.getOrderedProducts().stream()
+            .map(orderedProduct -> orderedProduct.getProduct().getId())
+            .toList();
+    }
+
+    private OrderIdempotencyKey buildIdempotencyKey(Order order, String idempotencyKey,
+                                                    Map<Long, Integer> productsForOrder) {
+        if (isNull(idempotencyKey)) {
+            return null;
+        }
+
+        return OrderIdempotencyKey.builder()
+            .login(order.getAccount().getLogin())
+            .idempotencyKey(idempotencyKey)
+            .order(order)
+            .requestHash(OrderIdempotencyKey.hashRequest(productsForOrder))
+            .build();
+    }
+
+    private void saveIdempotencyKey(OrderIdempotencyKey idempotencyKey) {
+        // Key is stored in the same transaction as the order, so it can't be left without an order or the other way
+        if (nonNull(idempotencyKey)) {
+            idempotencyKeyRepository.save(idempotencyKey);
+        }
+    }
+
+    private boolean isSameRequest(OrderIdempotencyKey placedKey, Map<Long, Integer> productsForOrder) {
+        // Key reused with other products is a client error, returning the first order would hide it
+        return placedKey.getRequestHash().equals(OrderIdempotencyKey.hashRequest(productsForOrder));
+    }
+
     private <T> T handleDataAccessException(DataAccessException e) {
         var violationException = ExceptionUtil.findCause(e, ConstraintViolationException.class);
 
@@ -261,7 +634,12 @@ public class OrderServiceImpl implements OrderService {
     }
 
     private <T> T handleConstraintViolationException(ConstraintViolationException e) {
-        requireNonNull(e.getConstraintName());
-        throw SystemExceptionFactory.createDbConstraintViolationException(e);
+        switch (requireNonNull(e.getConstraintName())) {
+            case "rates_account_product_unique" -> throw ApplicationExceptionFactory.createProductAlreadyRatedException();
+            // Other transaction placed an order with the same key in the meantime, the caller reads it in a new one
+            case "order_idempotency_keys_login_key_unique" ->
+                throw ApplicationExceptionFactory.createIdempotencyKeyConflictException();
+            default -> throw SystemExceptionFactory.createDbConstraintViolationException(e);
+        }
     }
 }
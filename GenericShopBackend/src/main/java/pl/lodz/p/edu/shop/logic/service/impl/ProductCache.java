@@ -0,0 +1,140 @@
+package pl.lodz.p.edu.shop.logic.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.lodz.p.edu.shop.config.order.property.ProductCacheProperties;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Product;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * Bounded LRU of assembled products, with and without properties from the category table. Products are dropped after
+ * the TTL or once a transaction that changed them commits. A product loaded before such a commit is not cached, which
+ * is recognized by invalidation generations of striped product ids, and a cached product is never replaced with an
+ * older version of it.
+ */
+@Component
+public class ProductCache {
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    private record EntryKey(long productId, boolean withTableProperties) {
+    }
+
+    private record Entry(Product product, long expiresAt) {
+    }
+
+    private final int cacheSize;
+    private final long ttlNanos;
+
+    // Guarded by itself
+    private final Map<EntryKey, Entry> products;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter evictionCounter;
+    private final Counter invalidationCounter;
+
+    ProductCache(ProductCacheProperties properties, MeterRegistry meterRegistry) {
+        this.cacheSize = properties.getSize();
+        this.ttlNanos = properties.getTtl().toNanos();
+
+        this.products = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<EntryKey, Entry> eldest) {
+                boolean evicted = size() > cacheSize;
+                if (evicted) {
+                    evictionCounter.increment();
+                }
+                return evicted;
+            }
+        };
+
+        Gauge.builder("shop.products.cache.size", products, this::size)
+            .description("Number of cached products")
+            .register(meterRegistry);
+        this.hitCounter = Counter.builder("shop.products.cache.hits")
+            .description("Number of products served from the cache")
+            .register(meterRegistry);
+        this.missCounter = Counter.builder("shop.products.cache.misses")
+            .description("Number of products loaded because they weren't cached or expired")
+            .register(meterRegistry);
+        this.evictionCounter = Counter.builder("shop.products.cache.evictions")
+            .description("Number of cached products evicted because the cache was full")
+            .register(meterRegistry);
+        this.invalidationCounter = Counter.builder("shop.products.cache.invalidations")
+            .description("Number of cached products dropped after they were changed")
+            .register(meterRegistry);
+    }
+
+    public Product computeIfAbsent(long productId, boolean withTableProperties, Supplier<Product> loader) {
+        if (cacheSize == 0) {
+            return loader.get();
+        }
+
+        EntryKey key = new EntryKey(productId, withTableProperties);
+        synchronized (products) {
+            Entry entry = products.get(key);
+            if (nonNull(entry) && entry.expiresAt() - System.nanoTime() > 0) {
+                hitCounter.increment();
+                return entry.product();
+            }
+        }
+
+        missCounter.increment();
+        int stripe = stripe(productId);
+        long generationBefore = generations.get(stripe);
+        Product product = loader.get();
+
+        synchronized (products) {
+            // Not cached when the product could have been changed meanwhile, it could be already outdated
+            Entry entry = products.get(key);
+            if (generations.get(stripe) == generationBefore &&
+                (entry == null || entry.product().getCombinedVersion() <= product.getCombinedVersion())) {
+                products.put(key, new Entry(product, System.nanoTime() + ttlNanos));
+            }
+        }
+        return product;
+    }
+
+    /**
+     * Drops the product once the current transaction commits.
+     */
+    void invalidateAfterCommit(long productId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate(productId);
+            }
+        });
+    }
+
+    void invalidate(long productId) {
+        synchronized (products) {
+            generations.incrementAndGet(stripe(productId));
+            int removed = (nonNull(products.remove(new EntryKey(productId, true))) ? 1 : 0) +
+                (nonNull(products.remove(new EntryKey(productId, false))) ? 1 : 0);
+            invalidationCounter.increment(removed);
+        }
+    }
+
+    private int size(Map<EntryKey, Entry> products) {
+        synchronized (products) {
+            return products.size();
+        }
+    }
+
+    private static int stripe(long productId) {
+        return (int) Math.floorMod(productId, (long) GENERATION_STRIPES);
+    }
+}
@@ -0,0 +1,258 @@
+package pl.lodz.p.edu.shop.logic.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.lodz.p.edu.shop.config.order.property.ProductSearchProperties;
+import pl.lodz.p.edu.shop.dataaccess.dao.api.ProductDAO;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Category;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Product;
+import pl.lodz.p.edu.shop.dataaccess.model.projection.SearchableProduct;
+import pl.lodz.p.edu.shop.dataaccess.repository.api.CategoryRepository;
+import pl.lodz.p.edu.shop.dataaccess.repository.api.ProductRepository;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Inverted index of product names and text attributes from category tables, ranked with BM25 where a term of the name
+ * weighs as much as several terms of attributes. Archival products are not indexed. The index is rebuilt from the
+ * database periodically and kept up to date in between with committed product changes. Changes committed while the
+ * index is rebuilt are replayed on the rebuilt one, so they aren't lost with the old index. Readers don't lock, so they
+ * may see a product in the middle of an update.
+ */
+@Slf4j
+@Component
+class ProductSearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final Pattern TERM_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    record Hits(List<Long> productIds, int total) {
+    }
+
+    private record Document(Map<String, Integer> termFrequencies, int length) {
+    }
+
+    private static final class Terms {
+
+        // Maps a term to its weighted frequency in every product containing it
+        private final Map<String, Map<Long, Integer>> postings = new ConcurrentHashMap<>();
+        private final Map<Long, Document> documents = new ConcurrentHashMap<>();
+        private final AtomicLong totalLength = new AtomicLong();
+
+        private void put(long productId, Document document) {
+            remove(productId);
+            document.termFrequencies().forEach((term, frequency) ->
+                postings.computeIfAbsent(term, t -> new ConcurrentHashMap<>()).put(productId, frequency));
+            documents.put(productId, document);
+            totalLength.addAndGet(document.length());
+        }
+
+        private void remove(long productId) {
+            Document document = documents.remove(productId);
+            if (isNull(document)) {
+                return;
+            }
+            totalLength.addAndGet(-document.length());
+            document.termFrequencies().keySet().forEach(term -> postings.computeIfPresent(term, (t, products) -> {
+                products.remove(productId);
+                return products.isEmpty() ? null : products;
+            }));
+        }
+    }
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final ProductDAO productDAO;
+    private final int nameWeight;
+    private final int maxQueryTerms;
+
+    private volatile Terms terms = new Terms();
+
+    // Guarded by this, latest document of each product changed while the index is rebuilt, null when it was removed
+    private Map<Long, Document> changedWhileRebuilding;
+
+    ProductSearchIndex(ProductRepository productRepository, CategoryRepository categoryRepository,
+                       ProductDAO productDAO, ProductSearchProperties properties) {
+        this.productRepository = requireNonNull(productRepository);
+        this.categoryRepository = requireNonNull(categoryRepository);
+        this.productDAO = requireNonNull(productDAO);
+        this.nameWeight = properties.getNameWeight();
+        this.maxQueryTerms = properties.getMaxQueryTerms();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.orders.product-search.index-refresh-interval:PT10M}",
+        initialDelayString = "${app.orders.product-search.index-refresh-interval:PT10M}")
+    @Transactional(transactionManager = "ordersModTxManager", propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void rebuild() {
+        synchronized (this) {
+            changedWhileRebuilding = new HashMap<>();
+        }
+
+        try {
+            Terms rebuiltTerms = load();
+            synchronized (this) {
+                changedWhileRebuilding.forEach((productId, document) -> {
+                    if (isNull(document)) {
+                        rebuiltTerms.remove(productId);
+                    } else {
+                        rebuiltTerms.put(productId, document);
+                    }
+                });
+                terms = rebuiltTerms;
+            }
+            log.info("Rebuilt search index of {} products", rebuiltTerms.documents.size());
+        } finally {
+            synchronized (this) {
+                changedWhileRebuilding = null;
+            }
+        }
+    }
+
+    private Terms load() {
+        Map<Long, List<String>> attributeValues = new HashMap<>();
+        for (Category category : categoryRepository.findAll()) {
+            for (Map<String, Object> row : productDAO.findAllInTable(category.getCategoryTableName())) {
+                if (row.get("product_id") instanceof Number productId) {
+                    attributeValues.put(productId.longValue(), textValues(row));
+                }
+            }
+        }
+
+        List<SearchableProduct> products = productRepository.findAllSearchableProducts();
+        Terms rebuiltTerms = new Terms();
+        for (SearchableProduct product : products) {
+            rebuiltTerms.put(product.id(),
+                toDocument(product.name(), attributeValues.getOrDefault(product.id(), List.of())));
+        }
+
+        return rebuiltTerms;
+    }
+
+    /**
+     * Puts the name and attributes of the product to the index once the current transaction commits.
+     */
+    void putAfterCommit(Product product) {
+        long id = product.getId();
+        String name = product.getName();
+        List<String> attributeValues = textValues(product.getTableProperties());
+
+        afterCommit(() -> put(id, name, attributeValues));
+    }
+
+    /**
+     * Drops the product from the index once the current transaction commits.
+     */
+    void removeAfterCommit(long productId) {
+        afterCommit(() -> remove(productId));
+    }
+
+    synchronized void put(long productId, String name, List<String> attributeValues) {
+        Document document = toDocument(name, attributeValues);
+        terms.put(productId, document);
+        if (nonNull(changedWhileRebuilding)) {
+            changedWhileRebuilding.put(productId, document);
+        }
+    }
+
+    synchronized void remove(long productId) {
+        terms.remove(productId);
+        if (nonNull(changedWhileRebuilding)) {
+            changedWhileRebuilding.put(productId, null);
+        }
+    }
+
+    /**
+     * Finds products containing any of the query terms, the most relevant first and ties by id.
+     */
+    Hits search(String query, int offset, int limit) {
+        Terms current = terms;
+        List<String> queryTerms = tokenize(query).stream()
+            .distinct()
+            .limit(maxQueryTerms)
+            .toList();
+        int documentCount = current.documents.size();
+        if (queryTerms.isEmpty() || documentCount == 0) {
+            return new Hits(List.of(), 0);
+        }
+
+        double averageLength = Math.max(1.0, (double) current.totalLength.get() / documentCount);
+        Map<Long, Double> scores = new HashMap<>();
+        for (String term : queryTerms) {
+            Map<Long, Integer> termPostings = current.postings.getOrDefault(term, Map.of());
+            double idf = Math.log(1 + (documentCount - termPostings.size() + 0.5) / (termPostings.size() + 0.5));
+
+            termPostings.forEach((productId, frequency) -> {
+                Document document = current.documents.get(productId);
+                if (nonNull(document)) {
+                    double lengthNorm = K1 * (1 - B + B * document.length() / averageLength);
+                    scores.merge(productId, idf * frequency * (K1 + 1) / (frequency + lengthNorm), Double::sum);
+                }
+            });
+        }
+
+        List<Long> productIds = scores.entrySet().stream()
+            .sorted(Map.Entry.<Long, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+            .skip(offset)
+            .limit(limit)
+            .map(Map.Entry::getKey)
+            .toList();
+        return new Hits(productIds, scores.size());
+    }
+
+    private Document toDocument(String name, List<String> attributeValues) {
+        Map<String, Integer> termFrequencies = new HashMap<>();
+        tokenize(name).forEach(term -> termFrequencies.merge(term, nameWeight, Integer::sum));
+        attributeValues.forEach(value -> tokenize(value).forEach(term -> termFrequencies.merge(term, 1, Integer::sum)));
+
+        int length = termFrequencies.values().stream()
+            .mapToInt(Integer::intValue)
+            .sum();
+        return new Document(termFrequencies, length);
+    }
+
+    static List<String> tokenize(String text) {
+        if (isNull(text)) {
+            return List.of();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD))
+            .replaceAll("")
+            .replace('ł', 'l');
+        return Arrays.stream(TERM_SEPARATOR.split(normalized))
+            .filter(term -> !term.isEmpty())
+            .toList();
+    }
+
+    private static List<String> textValues(Map<String, Object> properties) {
+        return properties.values().stream()
+            .filter(String.class::isInstance)
+            .map(String.class::cast)
+            .toList();
+    }
+
+    private void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -4,27 +4,45 @@ import lombok.extern.slf4j.Slf4j;
 import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import pl.lodz.p.edu.shop.config.order.property.ProductFilterProperties;
 import pl.lodz.p.edu.shop.dataaccess.dao.api.ProductDAO;
 import pl.lodz.p.edu.shop.dataaccess.model.entity.Category;
 import pl.lodz.p.edu.shop.dataaccess.model.entity.Product;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.ProductStockShard;
+import pl.lodz.p.edu.shop.dataaccess.model.other.AttributeFilter;
+import pl.lodz.p.edu.shop.dataaccess.model.projection.FilteredProducts;
+import pl.lodz.p.edu.shop.dataaccess.model.projection.ProductSortKey;
 import pl.lodz.p.edu.shop.dataaccess.repository.api.CategoryRepository;
 import pl.lodz.p.edu.shop.dataaccess.repository.api.ProductRepository;
+import pl.lodz.p.edu.shop.dataaccess.repository.api.ProductStockShardRepository;
 import pl.lodz.p.edu.shop.exception.ApplicationExceptionFactory;
 import pl.lodz.p.edu.shop.exception.SystemExceptionFactory;
+import pl.lodz.p.edu.shop.logic.model.ProductFacetPage;
+import pl.lodz.p.edu.shop.logic.model.ProductWindow;
 import pl.lodz.p.edu.shop.logic.service.api.ProductService;
 import pl.lodz.p.edu.shop.logic.service.api.VersionSignatureVerifier;
 import pl.lodz.p.edu.shop.util.ExceptionUtil;
 
 import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 import static java.util.Objects.requireNonNull;
 
@@ -35,19 +53,37 @@ import static java.util.Objects.requireNonNull;
 @Qualifier("ProductServiceImpl")
 public class ProductServiceImpl implements ProductService {
 
+    // Data types of category columns as named by the information schema
+    private static final Set<String> RANGE_TYPES = Set.of("integer", "bigint", "double precision");
+    private static final Set<String> VALUE_TYPES = Set.of("character varying", "boolean");
+
     private final ProductRepository productRepository;
     private final ProductDAO productDAO;
     private final CategoryRepository categoryRepository;
     private final VersionSignatureVerifier versionSignatureVerifier;
-
+    private final ProductStockShardRepository stockShardRepository;
+    private final CatalogIndex catalogIndex;
+    private final ProductCache productCache;
+    private final ProductSearchIndex searchIndex;
+    private final CategorySchemaCache schemaCache;
+    private final ProductFilterProperties filterProperties;
 
     public ProductServiceImpl(ProductRepository productRepository, ProductDAO productDAO,
-                              CategoryRepository categoryRepository, VersionSignatureVerifier versionSignatureVerifier) {
+                              CategoryRepository categoryRepository, VersionSignatureVerifier versionSignatureVerifier,
+                              ProductStockShardRepository stockShardRepository, CatalogIndex catalogIndex,
+                              ProductCache productCache, ProductSearchIndex searchIndex,
+                              CategorySchemaCache schemaCache, ProductFilterProperties filterProperties) {
 
         this.productRepository = requireNonNull(productRepository);
         this.productDAO = requireNonNull(productDAO);
         this.categoryRepository = requireNonNull(categoryRepository);
         this.versionSignatureVerifier = requireNonNull(versionSignatureVerifier);
+        this.stockShardRepository = requireNonNull(stockShardRepository);
+        this.catalogIndex = requireNonNull(catalogIndex);
+        this.productCache = requireNonNull(productCache);
+        this.searchIndex = requireNonNull(searchIndex);
+        this.schemaCache = requireNonNull(schemaCache);
+        this.filterProperties = requireNonNull(filterProperties);
     }
 
     @Override
@@ -57,7 +93,9 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     public Page<Product> findAll(Pageable pageable) {
-        return productRepository.findAll(pageable);
+        Page<Product> products = productRepository.findAll(pageable);
+        loadTableProperties(products.getContent());
+        return products;
     }
 
     @Override
@@ -65,7 +103,53 @@ public class ProductServiceImpl implements ProductService {
         Category category = categoryRepository.findByName(categoryName)
             .orElseThrow(ApplicationExceptionFactory::createCategoryNotFoundException);
 
-        return productRepository.findByCategory(category, pageable);
+        Page<Product> products = productRepository.findByCategory(category, pageable);
+        loadTableProperties(products.getContent());
+        return products;
+    }
+
+    @Override
+    public ProductWindow findAll(Sort.Order order, ProductSortKey after, int limit) {
+        return findWindow(order, null, after, limit);
+    }
+
+    @Override
+    public ProductWindow findByCategory(String categoryName, Sort.Order order, ProductSortKey after, int limit) {
+        Category category = categoryRepository.findByName(categoryName)
+            .orElseThrow(ApplicationExceptionFactory::createCategoryNotFoundException);
+
+        return findWindow(order, category.getId(), after, limit);
+    }
+
+    @Override
+    public Page<Product> search(String query, Pageable pageable) {
+        ProductSearchIndex.Hits hits = searchIndex.search(query, (int) pageable.getOffset(), pageable.getPageSize());
+
+        return new PageImpl<>(findAllInOrder(hits.productIds()), pageable, hits.total());
+    }
+
+    @Override
+    public ProductFacetPage filterByCategory(String categoryName, List<AttributeFilter> filters, Pageable pageable) {
+        Category category = categoryRepository.findByName(categoryName)
+            .orElseThrow(ApplicationExceptionFactory::createCategoryNotFoundException);
+
+        if (filters.size() > filterProperties.getMaxFilters()) {
+            throw ApplicationExceptionFactory.createProductFilterNotValidException();
+        }
+
+        String tableName = category.getCategoryTableName();
+        Map<String, String> columnTypes = schemaCache.findColumnTypes(tableName);
+        List<AttributeFilter> typedFilters = filters.stream()
+            .map(filter -> toTypedFilter(filter, columnTypes.get(filter.column())))
+            .toList();
+        List<String> rangeColumns = findColumnsOfTypes(columnTypes, RANGE_TYPES);
+        List<String> valueColumns = findColumnsOfTypes(columnTypes, VALUE_TYPES);
+
+        FilteredProducts result = productDAO.filterInTable(tableName, typedFilters, rangeColumns, valueColumns,
+            pageable.getOffset(), pageable.getPageSize(), filterProperties.getFacetRanges(),
+            filterProperties.getFacetValues());
+        Page<Product> products = new PageImpl<>(findAllInOrder(result.productIds()), pageable, result.total());
+        return new ProductFacetPage(products, result.facets());
     }
 
     @Override
@@ -91,12 +175,14 @@ public class ProductServiceImpl implements ProductService {
 
             product.setCategory(category);
             Product result = productRepository.saveAndFlush(product);
+            catalogIndex.putAfterCommit(result);
 
             Map<String, Object> categoryProperties = product.getTableProperties();
             categoryProperties.put("product_id", result.getId());
 
             var resultProps = productDAO.insert(product.getCategory().getCategoryTableName(), categoryProperties);
             result.setTableProperties(resultProps);
+            searchIndex.putAfterCommit(result);
             return result;
 
         } catch (DataAccessException e) {
@@ -113,6 +199,8 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     public Product update(Long id, BigDecimal newPrice, Integer newQuantity, String newImageUrl, String frontendVersion) {
+        // Shards are locked before the product is read, so the versions of the shards are already final
+        stockShardRepository.findAllByProductIdForUpdate(id);
         Product product = productRepository.findById(id)
             .orElseThrow(ApplicationExceptionFactory::createProductNotFoundException);
 
@@ -120,15 +208,19 @@ public class ProductServiceImpl implements ProductService {
             throw ApplicationExceptionFactory.createCantModifyArchivalProductException();
         }
 
-        long version = product.getVersion();
+        long version = product.getCombinedVersion();
 
         if (!versionSignatureVerifier.verifySignature(version, frontendVersion)) {
             throw ApplicationExceptionFactory.createApplicationOptimisticLockException();
         }
 
         product.setPrice(newPrice);
-        product.setQuantity(newQuantity);
         product.setImageUrl(newImageUrl);
+        if (product.isStockSharded()) {
+            distributeStock(product, newQuantity, product.getStockShardCount());
+        } else {
+            product.setQuantity(newQuantity);
+        }
 
         return save(product);
     }
@@ -144,10 +236,65 @@ public class ProductServiceImpl implements ProductService {
         return save(product);
     }
 
+    @Override
+    public Product changeStockShardCount(Long id, Integer shardCount) {
+        // Product row is locked so that no order for not sharded product changes quantity before it's moved. Shards go
+        // first, orders lock them before the product row as well
+        List<ProductStockShard> shards = stockShardRepository.findAllByProductIdForUpdate(id);
+        Product product = productRepository.findByIdForUpdate(id)
+            .orElseThrow(ApplicationExceptionFactory::createProductNotFoundException);
+
+        if (product.isArchival()) {
+            throw ApplicationExceptionFactory.createCantModifyArchivalProductException();
+        }
+
+        int currentQuantity = product.isStockSharded() ?
+            shards.stream()
+                .mapToInt(ProductStockShard::getQuantity)
+                .sum() :
+            product.getQuantity();
+
+        if (shardCount > 0) {
+            distributeStock(product, currentQuantity, shardCount);
+            product.setQuantity(0);
+        } else {
+            stockShardRepository.deleteAllByProductId(id);
+            product.setQuantity(currentQuantity);
+            product.setShardedQuantity(null);
+            product.setStockVersion(0L);
+        }
+        product.setStockShardCount(shardCount);
+
+        return save(product);
+    }
+
+    private void distributeStock(Product product, int quantity, int shardCount) {
+        stockShardRepository.deleteAllByProductId(product.getId());
+
+        List<ProductStockShard> shards = IntStream.range(0, shardCount)
+            .mapToObj(shardNumber -> ProductStockShard.builder()
+                .product(product)
+                .shardNumber(shardNumber)
+                .quantity(quantity / shardCount + (shardNumber < quantity % shardCount ? 1 : 0))
+                .build())
+            .toList();
+        stockShardRepository.saveAll(shards);
+        long stockVersion = product.getStockVersion() + 1;
+        stockShardRepository.setFirstShardVersion(product.getId(), stockVersion);
+        product.setShardedQuantity(quantity);
+        product.setStockVersion(stockVersion);
+    }
+
     private Product save(Product product) {
         try {
             //Flush to get exception and handle it in logic layer
             productRepository.saveAndFlush(product);
+            catalogIndex.putAfterCommit(product);
+            productCache.invalidateAfterCommit(product.getId());
+            // Name and attributes can't be changed, only archiving affects the search
+            if (product.isArchival()) {
+                searchIndex.removeAfterCommit(product.getId());
+            }
             return product;
 
         } catch (DataAccessException e) {
@@ -166,4 +313,86 @@ public class ProductServiceImpl implements ProductService {
             default -> throw SystemExceptionFactory.createDbConstraintViolationException(e);
         }
     }
+
+    private ProductWindow findWindow(Sort.Order order, Long categoryId, ProductSortKey after, int limit) {
+        if (!ProductDAO.SORT_PROPERTIES.contains(order.getProperty())) {
+            throw ApplicationExceptionFactory.createProductSortNotSupportedException();
+        }
+
+        List<ProductSortKey> keys;
+        try {
+            keys = productDAO.findSortKeys(order.getProperty(), order.isAscending(), categoryId, after, limit);
+        } catch (DataIntegrityViolationException e) {
+            // Sort value of the position can't be cast to the type of the column
+            throw ApplicationExceptionFactory.createProductCursorNotValidException();
+        }
+        List<Product> window = findAllInOrder(keys.stream()
+            .map(ProductSortKey::id)
+            .toList());
+
+        ProductSortKey next = keys.size() < limit ? null : keys.get(keys.size() - 1);
+        return new ProductWindow(window, next);
+    }
+
+    private static AttributeFilter toTypedFilter(AttributeFilter filter, String columnType) {
+        // Unknown columns have no type, ranges are compared only on numbers
+        if (isNull(columnType) || (filter.operator().isRange() && !RANGE_TYPES.contains(columnType))) {
+            throw ApplicationExceptionFactory.createProductFilterNotValidException();
+        }
+
+        String value = String.valueOf(filter.value());
+        try {
+            Object typedValue = switch (columnType) {
+                case "integer" -> Integer.valueOf(value);
+                case "bigint" -> Long.valueOf(value);
+                case "double precision" -> Double.valueOf(value);
+                case "boolean" -> parseBoolean(value);
+                case "character varying" -> value;
+                default -> throw ApplicationExceptionFactory.createProductFilterNotValidException();
+            };
+            return new AttributeFilter(filter.column(), filter.operator(), typedValue);
+        } catch (NumberFormatException e) {
+            throw ApplicationExceptionFactory.createProductFilterNotValidException();
+        }
+    }
+
+    private static Boolean parseBoolean(String value) {
+        if (!value.equals("true") && !value.equals("false")) {
+            throw ApplicationExceptionFactory.createProductFilterNotValidException();
+        }
+        return Boolean.valueOf(value);
+    }
+
+    private static List<String> findColumnsOfTypes(Map<String, String> columnTypes, Set<String> types) {
+        return columnTypes.entrySet().stream()
+            .filter(column -> types.contains(column.getValue()))
+            .map(Map.Entry::getKey)
+            .toList();
+    }
+
+    private List<Product> findAllInOrder(List<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Product> products = productRepository.findAllByIds(new HashSet<>(productIds)).stream()
+            .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<Product> productsInOrder = productIds.stream()
+            .map(products::get)
+            .filter(Objects::nonNull)
+            .toList();
+        loadTableProperties(productsInOrder);
+        return productsInOrder;
+    }
+
+    // Attributes of a whole page are read with one query per category instead of one per product
+    private void loadTableProperties(List<Product> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Map<String, Object>> tableProperties = productDAO.findByProductsInTables(products);
+        products.forEach(product ->
+            product.setTableProperties(tableProperties.getOrDefault(product.getId(), new HashMap<>())));
+    }
 }
@@ -0,0 +1,109 @@
+package pl.lodz.p.edu.shop.logic.service.impl;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.lodz.p.edu.shop.dataaccess.dao.api.ProductStockShardDAO;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Product;
+import pl.lodz.p.edu.shop.dataaccess.repository.api.ProductRepository;
+import pl.lodz.p.edu.shop.exception.ApplicationExceptionFactory;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Changes stock of products for orders and stock holds, both of plain products and of products with sharded stock.
+ */
+@Component
+@Transactional(transactionManager = "ordersModTxManager", propagation = Propagation.MANDATORY)
+class ProductStockManager {
+
+    private static final int MAX_INCREASE_ATTEMPTS = 3;
+
+    private final ProductRepository productRepository;
+    private final ProductStockShardDAO stockShardDAO;
+    private final CatalogIndex catalogIndex;
+    private final ProductCache productCache;
+
+    public ProductStockManager(ProductRepository productRepository, ProductStockShardDAO stockShardDAO,
+                               CatalogIndex catalogIndex, ProductCache productCache) {
+        requireNonNull(productRepository, "ProductStockManager requires non null productRepository");
+        requireNonNull(stockShardDAO, "ProductStockManager requires non null stockShardDAO");
+        requireNonNull(catalogIndex, "ProductStockManager requires non null catalogIndex");
+        requireNonNull(productCache, "ProductStockManager requires non null productCache");
+
+        this.productRepository = productRepository;
+        this.stockShardDAO = stockShardDAO;
+        this.catalogIndex = catalogIndex;
+        this.productCache = productCache;
+    }
+
+    /**
+     * @return false when there isn't enough stock, partially taken stock is given back by the rollback
+     */
+    public boolean decreaseQuantity(Product product, int quantity, String login, LocalDateTime modificationTime) {
+        boolean decreased = product.isStockSharded() ?
+            takeFromStockShards(product, quantity) :
+            // Conditional update is the source of truth, stock can't go below zero even if the row was changed meanwhile
+            productRepository.decreaseQuantity(product.getId(), quantity, login, modificationTime) > 0;
+
+        if (decreased) {
+            catalogIndex.addQuantityAfterCommit(product.getId(), -quantity);
+            productCache.invalidateAfterCommit(product.getId());
+        }
+        return decreased;
+    }
+
+    /**
+     * Shard count can be changed meanwhile, then it's read again, so that the stock isn't lost.
+     */
+    public void increaseQuantity(Product product, int quantity, String login, LocalDateTime modificationTime) {
+        int shardCount = product.getStockShardCount();
+
+        for (int attempt = 0; attempt < MAX_INCREASE_ATTEMPTS; attempt++) {
+            boolean increased = shardCount > 0 ?
+                stockShardDAO.addToShard(product.getId(), quantity, ThreadLocalRandom.current().nextInt(shardCount)) :
+                productRepository.increaseQuantity(product.getId(), quantity, login, modificationTime) > 0;
+
+            if (increased) {
+                catalogIndex.addQuantityAfterCommit(product.getId(), quantity);
+                productCache.invalidateAfterCommit(product.getId());
+                return;
+            }
+            shardCount = productRepository.findStockShardCountById(product.getId())
+                .orElseThrow(ApplicationExceptionFactory::createProductNotFoundException);
+        }
+
+        throw ApplicationExceptionFactory.createApplicationOptimisticLockException();
+    }
+
+    private boolean takeFromStockShards(Product product, int quantity) {
+        // Random start spreads concurrent orders over shards, shards locked by other orders are waited for only when
+        // the free ones don't have enough stock
+        int startShard = ThreadLocalRandom.current().nextInt(product.getStockShardCount());
+        int remainingQuantity = takeFromStockShards(product.getId(), quantity, startShard, true);
+
+        if (remainingQuantity > 0) {
+            stockShardDAO.lockAllShards(product.getId());
+            remainingQuantity = takeFromStockShards(product.getId(), remainingQuantity, startShard, false);
+        }
+
+        return remainingQuantity == 0;
+    }
+
+    private int takeFromStockShards(Long productId, int quantity, int startShard, boolean skipLocked) {
+        int remainingQuantity = quantity;
+
+        while (remainingQuantity > 0) {
+            int takenQuantity = stockShardDAO.takeFromAnyShard(productId, remainingQuantity, startShard, skipLocked);
+            if (takenQuantity == 0) {
+                break;
+            }
+            remainingQuantity -= takenQuantity;
+        }
+
+        return remainingQuantity;
+    }
+}
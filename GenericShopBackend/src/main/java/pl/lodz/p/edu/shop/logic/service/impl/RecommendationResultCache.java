@@ -0,0 +1,204 @@
+package pl.lodz.p.edu.shop.logic.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.lodz.p.edu.shop.config.order.property.RecommendationProperties;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Product;
+import pl.lodz.p.edu.shop.logic.model.UserPreferences;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Bounded LRU of recent recommendations by login, with a few entries per account keyed by a fingerprint of quantized
+ * preferences and the number of records, so that nearly identical requests get the same recommendations. Entries live
+ * until the TTL passes, the account places an order or one of the recommended products becomes unavailable.
+ */
+@Component
+public class RecommendationResultCache {
+
+    private static final int ENTRIES_PER_ACCOUNT = 4;
+
+    private record EntryKey(long preferencesFingerprint, int numberOfRecords) {
+    }
+
+    private record Entry(List<Product> products, long expiresAt) {
+
+        boolean contains(long productId) {
+            return products.stream().anyMatch(product -> product.getId() == productId);
+        }
+    }
+
+    private static final class AccountEntries extends LinkedHashMap<EntryKey, Entry> {
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<EntryKey, Entry> eldest) {
+            return size() > ENTRIES_PER_ACCOUNT;
+        }
+    }
+
+    private final int cacheSize;
+    private final long ttlNanos;
+    private final double preferenceQuantum;
+
+    // Guarded by itself, accounts are replaced with new entries on invalidation so that results computed before it
+    // are recognized and not cached
+    private final Map<String, AccountEntries> accounts;
+    private final AtomicLong productInvalidations = new AtomicLong();
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter evictionCounter;
+    private final Counter invalidationCounter;
+
+    RecommendationResultCache(RecommendationProperties properties, MeterRegistry meterRegistry) {
+        this.cacheSize = properties.getResultCacheSize();
+        this.ttlNanos = properties.getResultCacheTtl().toNanos();
+        this.preferenceQuantum = properties.getPreferenceQuantum();
+
+        this.accounts = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, AccountEntries> eldest) {
+                boolean evicted = size() > cacheSize;
+                if (evicted) {
+                    evictionCounter.increment(eldest.getValue().size());
+                }
+                return evicted;
+            }
+        };
+
+        Gauge.builder("shop.recommendations.cache.accounts", accounts, this::size)
+            .description("Number of accounts with cached recommendations")
+            .register(meterRegistry);
+        this.hitCounter = Counter.builder("shop.recommendations.cache.hits")
+            .description("Number of recommendations served from the cache")
+            .register(meterRegistry);
+        this.missCounter = Counter.builder("shop.recommendations.cache.misses")
+            .description("Number of recommendations computed because they weren't cached or expired")
+            .register(meterRegistry);
+        this.evictionCounter = Counter.builder("shop.recommendations.cache.evictions")
+            .description("Number of cached recommendations evicted because the cache was full")
+            .register(meterRegistry);
+        this.invalidationCounter = Counter.builder("shop.recommendations.cache.invalidations")
+            .description("Number of cached recommendations dropped after an order or an unavailable product")
+            .register(meterRegistry);
+    }
+
+    public List<Product> computeIfAbsent(String login, UserPreferences userPreferences, int numberOfRecords,
+                                         Supplier<List<Product>> recommendation) {
+        if (cacheSize == 0) {
+            return recommendation.get();
+        }
+
+        EntryKey key = new EntryKey(fingerprint(userPreferences), numberOfRecords);
+        AccountEntries accountEntries;
+        long productInvalidationsBefore;
+        synchronized (accounts) {
+            accountEntries = accounts.computeIfAbsent(login, newLogin -> new AccountEntries());
+            Entry entry = accountEntries.get(key);
+            if (nonNull(entry) && entry.expiresAt() - System.nanoTime() > 0) {
+                hitCounter.increment();
+                return entry.products();
+            }
+            productInvalidationsBefore = productInvalidations.get();
+        }
+
+        missCounter.increment();
+        List<Product> products = recommendation.get();
+
+        synchronized (accounts) {
+            // Not cached when the account or any product was invalidated meanwhile, it could be already outdated
+            if (accounts.get(login) == accountEntries && productInvalidations.get() == productInvalidationsBefore) {
+                accountEntries.put(key, new Entry(products, System.nanoTime() + ttlNanos));
+            }
+        }
+        return products;
+    }
+
+    /**
+     * Drops recommendations of the account once the current transaction commits.
+     */
+    void invalidateAccountAfterCommit(String login) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidateAccount(login);
+            }
+        });
+    }
+
+    void invalidateAccount(String login) {
+        synchronized (accounts) {
+            AccountEntries accountEntries = accounts.remove(login);
+            if (nonNull(accountEntries)) {
+                invalidationCounter.increment(accountEntries.size());
+            }
+        }
+    }
+
+    /**
+     * Drops every recommendation with the product. Products become unavailable rarely compared to requests for
+     * recommendations, so all entries are scanned instead of keeping an index by product.
+     */
+    void invalidateProduct(long productId) {
+        synchronized (accounts) {
+            productInvalidations.incrementAndGet();
+            for (AccountEntries accountEntries : accounts.values()) {
+                int sizeBefore = accountEntries.size();
+                accountEntries.values().removeIf(entry -> entry.contains(productId));
+                invalidationCounter.increment(sizeBefore - accountEntries.size());
+            }
+        }
+    }
+
+    private int size(Map<String, AccountEntries> accounts) {
+        synchronized (accounts) {
+            return accounts.size();
+        }
+    }
+
+    /**
+     * Order independent hash of preferences with points rounded to the preference quantum, preferences rounded to zero
+     * don't change it.
+     */
+    private long fingerprint(UserPreferences userPreferences) {
+        if (isNull(userPreferences)) {
+            return 0;
+        }
+        long fingerprint = 0;
+        if (nonNull(userPreferences.categoryPreferences())) {
+            for (Map.Entry<String, Double> preference : userPreferences.categoryPreferences().entrySet()) {
+                fingerprint += fingerprint(1, Objects.hashCode(preference.getKey()), preference.getValue());
+            }
+        }
+        if (nonNull(userPreferences.productPreferences())) {
+            for (Map.Entry<Long, Double> preference : userPreferences.productPreferences().entrySet()) {
+                fingerprint += fingerprint(2, Objects.hashCode(preference.getKey()), preference.getValue());
+            }
+        }
+        return fingerprint;
+    }
+
+    private long fingerprint(int kind, int keyHash, Double points) {
+        long quantizedPoints = isNull(points) ? 0 : Math.round(points / preferenceQuantum);
+        if (quantizedPoints == 0) {
+            return 0;
+        }
+        return mix(mix(((long) kind << 32) | (keyHash & 0xffffffffL)) + quantizedPoints);
+    }
+
+    private static long mix(long value) {
+        // Finalizer of SplitMix64, spreads similar inputs over the whole range
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+}
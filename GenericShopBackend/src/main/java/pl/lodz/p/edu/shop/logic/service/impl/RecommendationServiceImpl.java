@@ -2,13 +2,11 @@ package pl.lodz.p.edu.shop.logic.service.impl;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import pl.lodz.p.edu.shop.dataaccess.model.entity.OrderedProduct;
 import pl.lodz.p.edu.shop.dataaccess.model.entity.Product;
-import pl.lodz.p.edu.shop.dataaccess.model.entity.Rate;
-import pl.lodz.p.edu.shop.dataaccess.repository.api.CategoryRepository;
 import pl.lodz.p.edu.shop.dataaccess.repository.api.ProductRepository;
 import pl.lodz.p.edu.shop.dataaccess.repository.api.ReadOnlyAccountRepository;
 import pl.lodz.p.edu.shop.exception.ApplicationExceptionFactory;
@@ -16,10 +14,11 @@ import pl.lodz.p.edu.shop.logic.model.UserPreferences;
 import pl.lodz.p.edu.shop.logic.service.api.RecommendationService;
 
 import java.util.*;
-import java.util.function.Supplier;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 
-import static java.util.Comparator.comparing;
 import static java.util.Comparator.comparingDouble;
 import static java.util.Objects.nonNull;
 import static java.util.Objects.requireNonNull;
@@ -33,21 +32,37 @@ import static java.util.function.Predicate.not;
 class RecommendationServiceImpl implements RecommendationService {
 
     private final ReadOnlyAccountRepository accountRepository;
-    private final CategoryRepository categoryRepository;
     private final ProductRepository productRepository;
+    private final FallbackRecommendations fallbackRecommendations;
+    private final CoPurchaseModel coPurchaseModel;
+    private final CatalogIndex catalogIndex;
+    private final RecommendationSourceExecutor sourceExecutor;
+    private final TrendingProducts trendingProducts;
 
     public RecommendationServiceImpl(
         ReadOnlyAccountRepository accountRepository,
-        CategoryRepository categoryRepository,
-        ProductRepository productRepository
+        ProductRepository productRepository,
+        FallbackRecommendations fallbackRecommendations,
+        CoPurchaseModel coPurchaseModel,
+        CatalogIndex catalogIndex,
+        RecommendationSourceExecutor sourceExecutor,
+        TrendingProducts trendingProducts
     ) {
         requireNonNull(accountRepository,"Recommendation service requires non null account repository");
-        requireNonNull(categoryRepository,"Recommendation service requires non null category repository");
         requireNonNull(productRepository,"Recommendation service requires non null product repository");
+        requireNonNull(fallbackRecommendations,"Recommendation service requires non null fallback recommendations");
+        requireNonNull(coPurchaseModel,"Recommendation service requires non null co-purchase model");
+        requireNonNull(catalogIndex,"Recommendation service requires non null catalog index");
+        requireNonNull(sourceExecutor,"Recommendation service requires non null source executor");
+        requireNonNull(trendingProducts,"Recommendation service requires non null trending products");
 
         this.accountRepository = accountRepository;
-        this.categoryRepository = categoryRepository;
         this.productRepository = productRepository;
+        this.fallbackRecommendations = fallbackRecommendations;
+        this.coPurchaseModel = coPurchaseModel;
+        this.catalogIndex = catalogIndex;
+        this.sourceExecutor = sourceExecutor;
+        this.trendingProducts = trendingProducts;
     }
 
     @Override
@@ -55,32 +70,48 @@ class RecommendationServiceImpl implements RecommendationService {
 
         accountRepository.findByLogin(login)
             .orElseThrow(ApplicationExceptionFactory::createAccountNotFoundException);
+
+        Map<Long, Double> productPreferences = nonNull(userPreferences) && nonNull(userPreferences.productPreferences()) ?
+            userPreferences.productPreferences() : Map.of();
+        Map<String, Double> categoryPreferences =
+            nonNull(userPreferences) && areCategoryPreferencesAvailable(userPreferences.categoryPreferences()) ?
+                userPreferences.categoryPreferences() : Map.of();
+
+        // Sources are fetched up front, possibly concurrently, and merged below always in the same order. Sources that
+        // used to be limited to the number of missing records fetch the whole number, the merge drops the excess.
+        CompletableFuture<Optional<Product>> mostPurchasedProduct = sourceExecutor.fetch("most purchased",
+            () -> findMostPurchasedProduct(login), Optional.empty());
+
+        CompletableFuture<Optional<Product>> mostSearchedProduct = productPreferences.isEmpty() ?
+            CompletableFuture.completedFuture(Optional.empty()) :
+            sourceExecutor.fetchAfter(mostPurchasedProduct, "most searched",
+                mostPurchased -> findMostSearchedProduct(productPreferences, mostPurchased), Optional.empty());
+
+        CompletableFuture<List<Product>> searchedProducts = productPreferences.isEmpty() ?
+            CompletableFuture.completedFuture(List.of()) :
+            sourceExecutor.fetch("searched",
+                () -> productRepository.findProductsByIds(productPreferences.keySet()), List.of());
+
+        CompletableFuture<List<Product>> alsoBoughtProducts = sourceExecutor.fetchAfter(mostPurchasedProduct,
+            "also bought", mostPurchased -> findAlsoBoughtProducts(productPreferences, mostPurchased, numberOfRecords),
+            List.of());
+
+        CompletableFuture<List<Product>> categoryProducts = categoryPreferences.isEmpty() ?
+            CompletableFuture.completedFuture(List.of()) :
+            sourceExecutor.fetch("category",
+                () -> findCategoryProducts(categoryPreferences, productPreferences, numberOfRecords), List.of());
+
         Set<Product> recommendedProducts = new LinkedHashSet<>(numberOfRecords);
 
         // PUT ONE PRODUCT THAT IS MOST FREQUENTLY PURCHASED BY THE CLIENT
-        productRepository.findTheMostFrequentlyPurchasedProducts(login).stream()
-            .max(comparing(orderedProduct -> orderedProduct.getRate().orElse(Rate.builder().value(0).build())))
-            .map(OrderedProduct::getProduct)
-            .ifPresent(recommendedProducts::add);
+        mostPurchasedProduct.join().ifPresent(recommendedProducts::add);
 
         // PUT PRODUCTS FROM FRONTED PREFERENCES
-        if (
-            nonNull(userPreferences) &&
-            nonNull(userPreferences.productPreferences()) &&
-            !userPreferences.productPreferences().isEmpty()
-        ) {
-            Map<Long, Double> productPreferences = userPreferences.productPreferences();
-
+        if (!productPreferences.isEmpty()) {
             // PUT ONE PRODUCT THAT IS MOST FREQUENTLY SEARCHED BY THE CLIENT
-            productPreferences.entrySet().stream()
-                .filter(entry -> recommendedProducts.stream().noneMatch(rp -> rp.getId().equals(entry.getKey())))
-                .max(Comparator.comparing(e -> Optional.ofNullable(e.getValue()).orElse(0.0)))
-                .flatMap(entry -> productRepository.findById(entry.getKey()))
-                .ifPresent(recommendedProducts::add);
-            
-            Map<String, Double> categoryPreferences = userPreferences.categoryPreferences();
+            mostSearchedProduct.join().ifPresent(recommendedProducts::add);
 
-            Comparator<Product> productInterestComparator = areCategoryPreferencesAvailable(categoryPreferences) ?
+            Comparator<Product> productInterestComparator = !categoryPreferences.isEmpty() ?
                 comparingDouble(product -> {
                     Double productPoints = Optional.ofNullable(
                         productPreferences.get(product.getId())
@@ -94,51 +125,34 @@ class RecommendationServiceImpl implements RecommendationService {
                     ).orElse(0.0));
             
             // PUT SEARCHED PRODUCTS WITH BEST SUM OF INTEREST POINTS
-            List<Product> productsWithBestInterestPoints =
-                // need to query db for product data of each id
-                productRepository.findProductsByIds(productPreferences.keySet()).stream()
-                    .sorted(productInterestComparator.reversed())
-                    .toList();
+            List<Product> productsWithBestInterestPoints = searchedProducts.join().stream()
+                .sorted(productInterestComparator.reversed())
+                .toList();
             recommendedProducts.addAll(productsWithBestInterestPoints);
         }
         
-        if (
-            nonNull(userPreferences) &&
-            recommendedProducts.size() < numberOfRecords &&
-            areCategoryPreferencesAvailable(userPreferences.categoryPreferences())
-        ) {
-            Map<String, Double> categoryPreferences = userPreferences.categoryPreferences();
-            
-            // PUT PRODUCTS WITH SEARCHED CATEGORIES
-            Queue<String> categoriesSortedByInterestPoints = categoryPreferences.entrySet().stream()
-                .sorted(Map.Entry.comparingByValue(Comparator.reverseOrder()))
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toCollection(ArrayDeque::new));
-
-            while (recommendedProducts.size() < numberOfRecords && !categoriesSortedByInterestPoints.isEmpty()) {
-                Optional.ofNullable(categoriesSortedByInterestPoints.poll())
-                    .flatMap(categoryRepository::findByName)
-                    .ifPresent(
-                        category -> recommendedProducts.addAll(productRepository.findByCategory(category))
-                    );
-            }
-        }
+        // PUT PRODUCTS THAT CUSTOMERS ALSO BOUGHT WITH ALREADY RECOMMENDED AND SEARCHED ONES
+        recommendedProducts.addAll(alsoBoughtProducts.join());
+
+        // PUT AVAILABLE PRODUCTS WITH SEARCHED CATEGORIES, SCORED ON THE CATALOG INDEX
+        recommendedProducts.addAll(categoryProducts.join());
 
         recommendedProducts.removeIf(not(Product::isAvailable));
 
-        // PUT OTHER PRODUCTS WHEN THERE IS NOT ENOUGH
+        // PUT OTHER PRODUCTS WHEN THERE IS NOT ENOUGH, THEY ARE KEPT IN MEMORY
         if (recommendedProducts.size() < numberOfRecords) {
-            Queue<Supplier<List<Product>>> queue = new ArrayDeque<>(List.of(
-                productRepository::findBestRatedProducts,
-                productRepository::findNewestProducts,
-                productRepository::findCheapestProducts,
-                productRepository::findProductsThatAreRunningOut,
-                productRepository::findAvailableProducts
+            Queue<IntFunction<List<Product>>> queue = new ArrayDeque<>(List.of(
+                fallbackRecommendations::findBestRatedProducts,
+                fallbackRecommendations::findNewestProducts,
+                fallbackRecommendations::findCheapestProducts,
+                fallbackRecommendations::findProductsThatAreRunningOut,
+                fallbackRecommendations::findAvailableProducts
             ));
 
             while (recommendedProducts.size() < numberOfRecords) {
                 try {
-                    recommendedProducts.addAll(queue.remove().get());
+                    // Already recommended products may come again, so the whole number is requested
+                    recommendedProducts.addAll(queue.remove().apply(numberOfRecords));
                 } catch (Exception e) {
                     break;
                 }
@@ -150,6 +164,59 @@ class RecommendationServiceImpl implements RecommendationService {
             .toList();
     }
     
+    @Override
+    public List<Product> findTrending(Integer numberOfRecords) {
+        // Twice as many are loaded, so that products that ran out meanwhile can be skipped
+        List<Long> trendingProductIds = trendingProducts.findTop(numberOfRecords * 2);
+        return findInGivenOrder(trendingProductIds, productRepository::findAllByIds).stream()
+            .filter(Product::isAvailable)
+            .limit(numberOfRecords)
+            .toList();
+    }
+
+    private Optional<Product> findMostPurchasedProduct(String login) {
+        return productRepository.findMostPurchasedProducts(login, PageRequest.of(0, 1)).stream()
+            .findFirst();
+    }
+
+    private Optional<Product> findMostSearchedProduct(Map<Long, Double> productPreferences,
+                                                      Optional<Product> mostPurchasedProduct) {
+        return productPreferences.entrySet().stream()
+            .filter(entry -> mostPurchasedProduct.map(product -> !product.getId().equals(entry.getKey())).orElse(true))
+            .max(Comparator.comparing(e -> Optional.ofNullable(e.getValue()).orElse(0.0)))
+            .flatMap(entry -> productRepository.findById(entry.getKey()));
+    }
+
+    private List<Product> findAlsoBoughtProducts(Map<Long, Double> productPreferences,
+                                                 Optional<Product> mostPurchasedProduct, int numberOfRecords) {
+        Set<Long> seedProductIds = new LinkedHashSet<>();
+        mostPurchasedProduct.map(Product::getId).ifPresent(seedProductIds::add);
+        seedProductIds.addAll(productPreferences.keySet());
+
+        List<Long> alsoBoughtIds = coPurchaseModel.findAlsoBought(seedProductIds, numberOfRecords);
+        return findInGivenOrder(alsoBoughtIds, productRepository::findProductsByIds);
+    }
+
+    private List<Product> findCategoryProducts(Map<String, Double> categoryPreferences,
+                                               Map<Long, Double> productPreferences, int numberOfRecords) {
+        List<Long> categoryProductIds = catalogIndex.findTopInCategories(
+            categoryPreferences, productPreferences, productPreferences.keySet(), numberOfRecords);
+        return findInGivenOrder(categoryProductIds, productRepository::findAllByIds);
+    }
+
+    private static List<Product> findInGivenOrder(List<Long> productIds,
+                                                  Function<Set<Long>, List<Product>> productLoader) {
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Product> products = productLoader.apply(new HashSet<>(productIds)).stream()
+            .collect(Collectors.toMap(Product::getId, Function.identity()));
+        return productIds.stream()
+            .map(products::get)
+            .filter(Objects::nonNull)
+            .toList();
+    }
+
     private static boolean areCategoryPreferencesAvailable(Map<String, Double> categoryPreferences) {
         return nonNull(categoryPreferences) && !categoryPreferences.isEmpty();
     }
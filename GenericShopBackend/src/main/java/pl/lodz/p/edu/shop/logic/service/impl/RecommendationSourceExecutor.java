@@ -0,0 +1,92 @@
+package pl.lodz.p.edu.shop.logic.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.lodz.p.edu.shop.config.order.property.RecommendationProperties;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static java.util.Objects.nonNull;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Fetches candidate sources of recommendations. By default sources are fetched one after another by the caller.
+ * With parallel sources enabled each source is fetched on a bounded pool in its own read only transaction, and a source
+ * that fails or doesn't finish within the source timeout is replaced with its fallback value, so a slow source makes
+ * recommendations worse instead of delaying them.
+ */
+@Slf4j
+@Component
+class RecommendationSourceExecutor {
+
+    private final RecommendationProperties properties;
+    private final TransactionTemplate readOnlyTxTemplate;
+    private final ThreadPoolExecutor workers;
+
+    RecommendationSourceExecutor(RecommendationProperties properties,
+                                 @Qualifier("ordersModTxManager") PlatformTransactionManager txManager) {
+        this.properties = requireNonNull(properties);
+        this.readOnlyTxTemplate = new TransactionTemplate(requireNonNull(txManager));
+        this.readOnlyTxTemplate.setReadOnly(true);
+
+        if (properties.isParallelSources()) {
+            AtomicInteger workerCounter = new AtomicInteger();
+            // When the pool is saturated the caller fetches the source itself, which is the sequential behaviour
+            this.workers = new ThreadPoolExecutor(properties.getSourceWorkers(), properties.getSourceWorkers(), 0,
+                NANOSECONDS, new ArrayBlockingQueue<>(properties.getSourceQueueCapacity()), runnable -> {
+                Thread thread = new Thread(runnable, "recommendation-source-" + workerCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.CallerRunsPolicy());
+        } else {
+            this.workers = null;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (nonNull(workers)) {
+            workers.shutdownNow();
+        }
+    }
+
+    <T> CompletableFuture<T> fetch(String sourceName, Supplier<T> source, T fallback) {
+        if (!properties.isParallelSources()) {
+            return CompletableFuture.completedFuture(source.get());
+        }
+
+        return withFallback(sourceName, CompletableFuture.supplyAsync(
+            () -> readOnlyTxTemplate.execute(status -> source.get()), workers), fallback);
+    }
+
+    /**
+     * Fetches the source with the result of the previous one. Timeout of the source is counted from this call, so it
+     * also bounds the time spent waiting for the previous source.
+     */
+    <T, R> CompletableFuture<R> fetchAfter(CompletableFuture<T> previous, String sourceName, Function<T, R> source,
+                                           R fallback) {
+        if (!properties.isParallelSources()) {
+            return CompletableFuture.completedFuture(source.apply(previous.join()));
+        }
+
+        return withFallback(sourceName, previous.thenApplyAsync(
+            value -> readOnlyTxTemplate.execute(status -> source.apply(value)), workers), fallback);
+    }
+
+    private <T> CompletableFuture<T> withFallback(String sourceName, CompletableFuture<T> result, T fallback) {
+        return result
+            .exceptionally(e -> {
+                log.warn("Recommendation source {} failed, it's skipped: ", sourceName, e);
+                return fallback;
+            })
+            .completeOnTimeout(fallback, properties.getSourceTimeout().toNanos(), NANOSECONDS);
+    }
+}
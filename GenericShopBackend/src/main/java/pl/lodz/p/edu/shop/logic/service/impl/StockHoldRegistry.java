@@ -0,0 +1,83 @@
+package pl.lodz.p.edu.shop.logic.service.impl;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.StockHold;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * In-memory view of persisted stock holds. It lets orders of clients without holds skip the holds query and lets the
+ * sweeper find expired holds without scanning the table. Changes are applied only after the transaction that made
+ * them commits, so the registry never knows about a hold that was rolled back.
+ */
+@Component
+class StockHoldRegistry {
+
+    private record Entry(Long id, String login, LocalDateTime expiresAt) {
+    }
+
+    private final Map<Long, Entry> holds = new ConcurrentHashMap<>();
+    private final NavigableSet<Entry> holdsByExpiry = new ConcurrentSkipListSet<>(
+        Comparator.comparing(Entry::expiresAt).thenComparing(Entry::id));
+    private final Map<String, Integer> holdCountsByLogin = new ConcurrentHashMap<>();
+
+    void register(StockHold hold) {
+        Entry entry = new Entry(hold.getId(), hold.getLogin(), hold.getExpiresAt());
+
+        if (holds.putIfAbsent(entry.id(), entry) == null) {
+            holdsByExpiry.add(entry);
+            holdCountsByLogin.merge(entry.login(), 1, Integer::sum);
+        }
+    }
+
+    void unregister(Long holdId) {
+        Entry entry = holds.remove(holdId);
+
+        if (nonNull(entry)) {
+            holdsByExpiry.remove(entry);
+            holdCountsByLogin.computeIfPresent(entry.login(), (login, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    void registerAfterCommit(StockHold hold) {
+        afterCommit(() -> register(hold));
+    }
+
+    void unregisterAfterCommit(Collection<Long> holdIds) {
+        List<Long> ids = List.copyOf(holdIds);
+        afterCommit(() -> ids.forEach(this::unregister));
+    }
+
+    boolean hasHolds(String login) {
+        return holdCountsByLogin.containsKey(login);
+    }
+
+    List<Long> findExpired(LocalDateTime now, int limit) {
+        List<Long> expiredHoldIds = new ArrayList<>();
+
+        for (Entry entry : holdsByExpiry) {
+            if (entry.expiresAt().isAfter(now) || expiredHoldIds.size() == limit) {
+                break;
+            }
+            expiredHoldIds.add(entry.id());
+        }
+
+        return expiredHoldIds;
+    }
+
+    private void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
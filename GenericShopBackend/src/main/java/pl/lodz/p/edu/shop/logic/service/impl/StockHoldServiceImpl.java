@@ -0,0 +1,162 @@
+package pl.lodz.p.edu.shop.logic.service.impl;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.lodz.p.edu.shop.config.order.property.StockHoldProperties;
+import pl.lodz.p.edu.shop.dataaccess.dao.api.StockHoldDAO;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Product;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.StockHold;
+import pl.lodz.p.edu.shop.dataaccess.repository.api.ProductRepository;
+import pl.lodz.p.edu.shop.dataaccess.repository.api.ReadOnlyAccountRepository;
+import pl.lodz.p.edu.shop.dataaccess.repository.api.StockHoldRepository;
+import pl.lodz.p.edu.shop.exception.ApplicationExceptionFactory;
+import pl.lodz.p.edu.shop.logic.service.api.StockHoldService;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static java.util.Objects.requireNonNull;
+
+@Service
+@Transactional(transactionManager = "ordersModTxManager", propagation = Propagation.REQUIRES_NEW)
+@Qualifier("StockHoldServiceImpl")
+public class StockHoldServiceImpl implements StockHoldService {
+
+    private final StockHoldRepository stockHoldRepository;
+    private final ProductRepository productRepository;
+    private final ReadOnlyAccountRepository accountRepository;
+    private final ProductStockManager stockManager;
+    private final StockHoldRegistry holdRegistry;
+    private final StockHoldDAO stockHoldDAO;
+    private final StockHoldProperties properties;
+
+    public StockHoldServiceImpl(
+        StockHoldRepository stockHoldRepository,
+        ProductRepository productRepository,
+        ReadOnlyAccountRepository accountRepository,
+        ProductStockManager stockManager,
+        StockHoldRegistry holdRegistry,
+        StockHoldDAO stockHoldDAO,
+        StockHoldProperties properties
+    ) {
+        requireNonNull(stockHoldRepository, "StockHoldService requires non null stockHoldRepository");
+        requireNonNull(productRepository, "StockHoldService requires non null productRepository");
+        requireNonNull(accountRepository, "StockHoldService requires non null accountRepository");
+        requireNonNull(stockManager, "StockHoldService requires non null stockManager");
+        requireNonNull(holdRegistry, "StockHoldService requires non null holdRegistry");
+        requireNonNull(stockHoldDAO, "StockHoldService requires non null stockHoldDAO");
+        requireNonNull(properties, "StockHoldService requires non null properties");
+
+        this.stockHoldRepository = stockHoldRepository;
+        this.productRepository = productRepository;
+        this.accountRepository = accountRepository;
+        this.stockManager = stockManager;
+        this.holdRegistry = holdRegistry;
+        this.stockHoldDAO = stockHoldDAO;
+        this.properties = properties;
+    }
+
+    @Override
+    public StockHold hold(String login, Long productId, Integer quantity) {
+        accountRepository.findByLogin(login)
+            .orElseThrow(ApplicationExceptionFactory::createAccountNotFoundException);
+
+        Product product = productRepository.findById(productId)
+            .orElseThrow(ApplicationExceptionFactory::createProductNotFoundException);
+        if (product.isArchival()) {
+            throw ApplicationExceptionFactory.createCantHoldProductException();
+        }
+        checkHoldLimits(login, quantity);
+
+        LocalDateTime now = LocalDateTime.now();
+        if (!stockManager.decreaseQuantity(product, quantity, login, now)) {
+            throw ApplicationExceptionFactory.createCantHoldProductException();
+        }
+
+        StockHold hold = stockHoldRepository.save(StockHold.builder()
+            .login(login)
+            .product(product)
+            .quantity(quantity)
+            .expiresAt(now.plus(properties.getDuration()))
+            .build());
+        holdRegistry.registerAfterCommit(hold);
+        return hold;
+    }
+
+    @Override
+    public List<StockHold> findAllByLogin(String login) {
+        return stockHoldRepository.findAllByLogin(login);
+    }
+
+    @Override
+    public void release(String login, Long holdId) {
+        StockHold hold = stockHoldRepository.findByIdAndLogin(holdId, login)
+            .orElseThrow(ApplicationExceptionFactory::createStockHoldNotFoundException);
+
+        // Hold could be turned into an order or expire meanwhile
+        if (releaseHolds(List.of(hold.getId())) == 0) {
+            throw ApplicationExceptionFactory.createStockHoldNotFoundException();
+        }
+    }
+
+    @Override
+    public int releaseExpiredHolds() {
+        List<Long> expiredHoldIds = holdRegistry.findExpired(LocalDateTime.now(), properties.getSweepBatchSize());
+        if (expiredHoldIds.isEmpty()) {
+            return 0;
+        }
+
+        int releasedHolds = releaseHolds(expiredHoldIds);
+        // Holds that were already turned into orders are gone from the registry too
+        holdRegistry.unregisterAfterCommit(expiredHoldIds);
+        return releasedHolds;
+    }
+
+    @Override
+    public int restoreHolds() {
+        List<StockHold> holds = stockHoldRepository.findAll();
+        holds.forEach(holdRegistry::register);
+        return holds.size();
+    }
+
+    private void checkHoldLimits(String login, int quantity) {
+        // Without limits one client could hold the whole stock and keep holding it again after every expiry
+        stockHoldDAO.lockHoldsOfLogin(login);
+        StockHoldDAO.HeldStock heldStock = stockHoldDAO.sumHoldsOfLogin(login);
+
+        if (heldStock.holds() + 1 > properties.getMaxHoldsPerAccount() ||
+            heldStock.quantity() + quantity > properties.getMaxHeldQuantityPerAccount()) {
+            throw ApplicationExceptionFactory.createStockHoldLimitExceededException();
+        }
+    }
+
+    private int releaseHolds(List<Long> holdIds) {
+        // Products are locked before holds, in the same order as when an order is placed, so they can't deadlock
+        Set<Long> productIds = stockHoldRepository.findAllByIds(holdIds).stream()
+            .map(hold -> hold.getProduct().getId())
+            .collect(Collectors.toSet());
+        if (productIds.isEmpty()) {
+            return 0;
+        }
+        productRepository.findAllByIdsForUpdate(productIds);
+
+        List<StockHold> lockedHolds = stockHoldRepository.findAllByIdsForUpdate(holdIds);
+        Map<Long, List<StockHold>> holdsByProduct = lockedHolds.stream()
+            .collect(Collectors.groupingBy(hold -> hold.getProduct().getId(), TreeMap::new, Collectors.toList()));
+
+        // One stock update per product, no matter how many of its holds are released
+        LocalDateTime modificationTime = LocalDateTime.now();
+        holdsByProduct.values().forEach(holds -> {
+            int releasedQuantity = holds.stream().mapToInt(StockHold::getQuantity).sum();
+            stockManager.increaseQuantity(holds.get(0).getProduct(), releasedQuantity, holds.get(0).getLogin(),
+                modificationTime);
+        });
+
+        lockedHolds.forEach(stockHoldRepository::delete);
+        holdRegistry.unregisterAfterCommit(lockedHolds.stream().map(StockHold::getId).toList());
+        return lockedHolds.size();
+    }
+}
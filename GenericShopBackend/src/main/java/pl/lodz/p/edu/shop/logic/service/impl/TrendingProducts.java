@@ -0,0 +1,191 @@
+package pl.lodz.p.edu.shop.logic.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.lodz.p.edu.shop.config.order.property.RecommendationProperties;
+import pl.lodz.p.edu.shop.dataaccess.dao.api.OrderedProductDAO;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Products ordered most within a sliding window, with older orders counting exponentially less. Each product has a
+ * ring of time buckets, every slot of the ring holds the bucket number in the upper and the number of orders in the
+ * lower half of a long and is updated with compare and set, so recording an order never locks. Counters are loaded
+ * from ordered products of the window on startup, orders committed meanwhile may be counted twice. The ranking is
+ * computed by scanning the counters and reused for a while.
+ */
+@Slf4j
+@Component
+class TrendingProducts {
+
+    private record Ranking(List<Long> productIds, long computedAt) {
+    }
+
+    private static final long COUNT_MASK = 0xffffffffL;
+
+    private final OrderedProductDAO orderedProductDAO;
+    private final long bucketMillis;
+    private final int bucketCount;
+    private final int maxRecords;
+    private final long rankingRefreshNanos;
+
+    // Weight of orders by age of their bucket
+    private final double[] weights;
+
+    private final Map<Long, AtomicLongArray> counters = new ConcurrentHashMap<>();
+    private volatile Ranking ranking;
+
+    TrendingProducts(OrderedProductDAO orderedProductDAO, RecommendationProperties properties) {
+        this.orderedProductDAO = requireNonNull(orderedProductDAO);
+        this.bucketMillis = Math.max(1000, properties.getTrendingBucket().toMillis());
+        this.bucketCount = (int) Math.max(1, properties.getTrendingWindow().toMillis() / bucketMillis);
+        this.maxRecords = properties.getTrendingMaxRecords();
+        this.rankingRefreshNanos = properties.getTrendingRankingRefreshInterval().toNanos();
+
+        double halfLifeBuckets = (double) properties.getTrendingHalfLife().toMillis() / bucketMillis;
+        this.weights = new double[bucketCount];
+        for (int age = 0; age < bucketCount; age++) {
+            weights[age] = Math.pow(0.5, age / halfLifeBuckets);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(transactionManager = "ordersModTxManager", propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void build() {
+        long currentBucket = toBucket(System.currentTimeMillis());
+        LocalDateTime windowStart = LocalDateTime.ofInstant(
+            Instant.ofEpochMilli((currentBucket - bucketCount + 1) * bucketMillis), ZoneId.systemDefault());
+
+        long[] orderedProducts = {0};
+        orderedProductDAO.streamOrderedProductsSince(windowStart, (productId, orderedAt) -> {
+            long bucket = toBucket(orderedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            add(counters.computeIfAbsent(productId, id -> new AtomicLongArray(bucketCount)),
+                Math.min(bucket, currentBucket));
+            orderedProducts[0]++;
+        });
+        ranking = null;
+        log.info("Built trending products of {} ordered products", orderedProducts[0]);
+    }
+
+    /**
+     * Counts the order once the current transaction commits.
+     */
+    void recordAfterCommit(Collection<Long> productIds) {
+        long[] distinctProductIds = productIds.stream()
+            .mapToLong(Long::longValue)
+            .distinct()
+            .toArray();
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                record(distinctProductIds, toBucket(System.currentTimeMillis()));
+            }
+        });
+    }
+
+    void record(long[] distinctProductIds, long bucket) {
+        for (long productId : distinctProductIds) {
+            add(counters.computeIfAbsent(productId, id -> new AtomicLongArray(bucketCount)), bucket);
+        }
+    }
+
+    /**
+     * @return ids of the most trending products, at most the configured maximum of them
+     */
+    List<Long> findTop(int limit) {
+        Ranking current = ranking;
+        if (isNull(current) || System.nanoTime() - current.computedAt() >= rankingRefreshNanos) {
+            current = refreshRanking();
+        }
+        List<Long> productIds = current.productIds();
+        return productIds.subList(0, Math.min(Math.max(limit, 0), productIds.size()));
+    }
+
+    private synchronized Ranking refreshRanking() {
+        Ranking current = ranking;
+        if (isNull(current) || System.nanoTime() - current.computedAt() >= rankingRefreshNanos) {
+            current = new Ranking(rank(toBucket(System.currentTimeMillis())), System.nanoTime());
+            ranking = current;
+        }
+        return current;
+    }
+
+    List<Long> rank(long currentBucket) {
+        record Score(long productId, double score) {
+        }
+        Comparator<Score> comparator = Comparator.comparingDouble(Score::score)
+            .thenComparing(Comparator.comparingLong(Score::productId).reversed());
+        PriorityQueue<Score> top = new PriorityQueue<>(maxRecords + 1, comparator);
+
+        for (Map.Entry<Long, AtomicLongArray> entry : counters.entrySet()) {
+            double score = score(entry.getValue(), currentBucket);
+            if (score == 0) {
+                // Order recorded between scoring and removal is lost, which hardly changes the ranking
+                counters.remove(entry.getKey(), entry.getValue());
+                continue;
+            }
+            top.add(new Score(entry.getKey(), score));
+            if (top.size() > maxRecords) {
+                top.poll();
+            }
+        }
+
+        List<Long> productIds = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            productIds.add(top.poll().productId());
+        }
+        Collections.reverse(productIds);
+        return List.copyOf(productIds);
+    }
+
+    private double score(AtomicLongArray slots, long currentBucket) {
+        double score = 0;
+        for (int slot = 0; slot < bucketCount; slot++) {
+            long value = slots.get(slot);
+            long age = currentBucket - (value >>> 32);
+            if (age >= 0 && age < bucketCount) {
+                score += (value & COUNT_MASK) * weights[(int) age];
+            }
+        }
+        return score;
+    }
+
+    private void add(AtomicLongArray slots, long bucket) {
+        int slot = (int) Math.floorMod(bucket, (long) bucketCount);
+        while (true) {
+            long value = slots.get(slot);
+            long slotBucket = value >>> 32;
+            long updated;
+            if (slotBucket == bucket) {
+                updated = value + 1;
+            } else if (slotBucket < bucket) {
+                updated = bucket << 32 | 1;
+            } else {
+                // Slot was already reused by a newer bucket, so the order is out of the window
+                return;
+            }
+            if (slots.compareAndSet(slot, value, updated)) {
+                return;
+            }
+        }
+    }
+
+    private long toBucket(long epochMillis) {
+        return epochMillis / bucketMillis;
+    }
+}
@@ -0,0 +1,267 @@
+package pl.lodz.p.edu.shop.logic.service.impl.decorator;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.lodz.p.edu.shop.config.order.property.OrderGroupCommitProperties;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Order;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Rate;
+import pl.lodz.p.edu.shop.dataaccess.model.projection.OrderExportLine;
+import pl.lodz.p.edu.shop.dataaccess.model.projection.OrderSummary;
+import pl.lodz.p.edu.shop.exception.ApplicationExceptionFactory;
+import pl.lodz.p.edu.shop.exception.order.IdempotencyKeyConflictException;
+import pl.lodz.p.edu.shop.logic.model.OrderCursor;
+import pl.lodz.p.edu.shop.logic.model.OrderPlacementRequest;
+import pl.lodz.p.edu.shop.logic.model.OrderPlacementResult;
+import pl.lodz.p.edu.shop.logic.service.api.OrderService;
+import pl.lodz.p.edu.shop.util.SecurityUtil;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+import static java.util.Objects.isNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * When group commit is enabled, orders arriving within configured window are queued and placed together in one
+ * transaction by a single committer thread. Orders are placed directly when it's disabled or the queue is full.
+ */
+@Slf4j
+@Service
+@Primary
+@Transactional(transactionManager = "ordersModTxManager", propagation = Propagation.NEVER)
+@Qualifier("OrderServiceGroupCommitHandler")
+public class OrderServiceGroupCommitHandler implements OrderService {
+
+    private final OrderService orderService;
+    private final OrderGroupCommitProperties properties;
+    private final BlockingQueue<PendingOrder> pendingOrders;
+    private final ExecutorService committer;
+
+    public OrderServiceGroupCommitHandler(@Qualifier("OrderServiceImpl") OrderService orderService,
+                                          OrderGroupCommitProperties properties) {
+        this.orderService = orderService;
+        this.properties = properties;
+        this.pendingOrders = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.committer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-group-committer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        if (properties.isEnabled()) {
+            committer.execute(this::commitPendingOrders);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        committer.shutdownNow();
+        List<PendingOrder> notCommittedOrders = new ArrayList<>();
+        pendingOrders.drainTo(notCommittedOrders);
+        notCommittedOrders.forEach(pendingOrder -> pendingOrder.result()
+            .completeExceptionally(ApplicationExceptionFactory.createUnknownException()));
+    }
+
+    @Override
+    public Order placeAndOrder(String login, Map<Long, Integer> productsForOrder) {
+        return placeAndOrder(login, productsForOrder, null);
+    }
+
+    @Override
+    public Order placeAndOrder(String login, Map<Long, Integer> productsForOrder, String idempotencyKey) {
+        if (!properties.isEnabled()) {
+            return placeInOwnTransaction(login, productsForOrder, idempotencyKey);
+        }
+
+        var request = new OrderPlacementRequest(login, productsForOrder, idempotencyKey);
+        var pendingOrder = new PendingOrder(request, new CompletableFuture<>());
+        if (!pendingOrders.offer(pendingOrder)) {
+            log.warn("Group commit queue is full, order of {} is placed in its own transaction", login);
+            return placeInOwnTransaction(login, productsForOrder, idempotencyKey);
+        }
+
+        return awaitResult(pendingOrder.result());
+    }
+
+    @Override
+    public List<OrderPlacementResult> placeAndOrderAll(List<OrderPlacementRequest> requests) {
+        return orderService.placeAndOrderAll(requests);
+    }
+
+    @Override
+    public Page<OrderSummary> findAll(String login, Pageable pageable) {
+        return orderService.findAll(login, pageable);
+    }
+
+    @Override
+    public Page<OrderSummary> findAllByUserLogin(String login, Pageable pageable) {
+        return orderService.findAllByUserLogin(login, pageable);
+    }
+
+    @Override
+    public List<Order> findAllByUserLogin(String login, OrderCursor cursor, int limit) {
+        return orderService.findAllByUserLogin(login, cursor, limit);
+    }
+
+    @Override
+    public void exportOrders(LocalDateTime createdFrom, LocalDateTime createdTo, Consumer<OrderExportLine> consumer) {
+        orderService.exportOrders(createdFrom, createdTo, consumer);
+    }
+
+    @Override
+    public Order findOrderById(String login, Long id) {
+        return orderService.findOrderById(login, id);
+    }
+
+    @Override
+    public Rate rateOrderedProduct(String login, Long orderedProductId, Integer rateValue) {
+        return orderService.rateOrderedProduct(login, orderedProductId, rateValue);
+    }
+
+    @Override
+    public Rate reRateOrderedProduct(String login, Long orderedProductId, Integer rateValue) {
+        return orderService.reRateOrderedProduct(login, orderedProductId, rateValue);
+    }
+
+    @Override
+    public void removeRate(String login, Long orderedProductId) {
+        orderService.removeRate(login, orderedProductId);
+    }
+
+    @Override
+    public int removeIdempotencyKeysCreatedBefore(LocalDateTime createdBefore) {
+        return orderService.removeIdempotencyKeysCreatedBefore(createdBefore);
+    }
+
+    @Override
+    public int reconcileRatingAggregates() {
+        return orderService.reconcileRatingAggregates();
+    }
+
+    @Override
+    public int reconcilePurchaseCounts() {
+        return orderService.reconcilePurchaseCounts();
+    }
+
+    private Order awaitResult(CompletableFuture<Order> result) {
+        // There is no timeout on purpose, order may still be committed after the caller gave up waiting for it
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ApplicationExceptionFactory.createUnknownException();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw ApplicationExceptionFactory.createUnknownException();
+        }
+    }
+
+    private void commitPendingOrders() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                commit(collectBatch());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.error("Unexpected error in order group committer", e);
+            }
+        }
+    }
+
+    private List<PendingOrder> collectBatch() throws InterruptedException {
+        List<PendingOrder> batch = new ArrayList<>();
+        batch.add(pendingOrders.take());
+
+        long deadline = System.nanoTime() + properties.getWindow().toNanos();
+        while (batch.size() < properties.getMaxBatchSize()) {
+            long remainingTime = deadline - System.nanoTime();
+            if (remainingTime <= 0) {
+                break;
+            }
+
+            PendingOrder nextOrder;
+            try {
+                nextOrder = pendingOrders.poll(remainingTime, NANOSECONDS);
+            } catch (InterruptedException e) {
+                // Already taken orders must still be committed, the loop ends after that
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            if (isNull(nextOrder)) {
+                break;
+            }
+            batch.add(nextOrder);
+        }
+
+        return batch;
+    }
+
+    private void commit(List<PendingOrder> batch) {
+        if (batch.size() == 1) {
+            placeAlone(batch.get(0));
+            return;
+        }
+
+        List<OrderPlacementRequest> requests = batch.stream()
+            .map(PendingOrder::request)
+            .toList();
+
+        List<OrderPlacementResult> results;
+        try {
+            results = orderService.placeAndOrderAll(requests);
+        } catch (RuntimeException e) {
+            log.warn("Batch of {} orders failed, orders are placed one by one", batch.size(), e);
+            batch.forEach(this::placeAlone);
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            CompletableFuture<Order> result = batch.get(i).result();
+            OrderPlacementResult placementResult = results.get(i);
+
+            if (placementResult.isPlaced()) {
+                result.complete(placementResult.order());
+            } else {
+                result.completeExceptionally(placementResult.failure());
+            }
+        }
+    }
+
+    private void placeAlone(PendingOrder pendingOrder) {
+        OrderPlacementRequest request = pendingOrder.request();
+        try {
+            Order order = SecurityUtil.runAs(request.login(), () ->
+                placeInOwnTransaction(request.login(), request.productsForOrder(), request.idempotencyKey()));
+            pendingOrder.result().complete(order);
+        } catch (RuntimeException e) {
+            pendingOrder.result().completeExceptionally(e);
+        }
+    }
+
+    private Order placeInOwnTransaction(String login, Map<Long, Integer> productsForOrder, String idempotencyKey) {
+        try {
+            return orderService.placeAndOrder(login, productsForOrder, idempotencyKey);
+        } catch (IdempotencyKeyConflictException e) {
+            // Order with the same key was committed concurrently, new transaction finds it and returns it instead
+            log.info("Order of {} with the same idempotency key was placed concurrently, it is read again", login);
+            return orderService.placeAndOrder(login, productsForOrder, idempotencyKey);
+        }
+    }
+
+    private record PendingOrder(OrderPlacementRequest request, CompletableFuture<Order> result) {
+    }
+}
@@ -0,0 +1,103 @@
+package pl.lodz.p.edu.shop.logic.service.impl.decorator;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Product;
+import pl.lodz.p.edu.shop.dataaccess.model.other.AttributeFilter;
+import pl.lodz.p.edu.shop.dataaccess.model.projection.ProductSortKey;
+import pl.lodz.p.edu.shop.logic.model.ProductFacetPage;
+import pl.lodz.p.edu.shop.logic.model.ProductWindow;
+import pl.lodz.p.edu.shop.logic.service.api.ProductService;
+import pl.lodz.p.edu.shop.logic.service.impl.ProductCache;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Serves products by id from the product cache, without starting a transaction. Changed products are dropped from the
+ * cache by the transactions that change them.
+ */
+@Service
+@Transactional(transactionManager = "ordersModTxManager", propagation = Propagation.NEVER)
+@Qualifier("ProductServiceCacheHandler")
+public class ProductServiceCacheHandler implements ProductService {
+
+    private final ProductService productService;
+    private final ProductCache productCache;
+
+    public ProductServiceCacheHandler(@Qualifier("ProductServiceImpl") ProductService productService,
+                                      ProductCache productCache) {
+        this.productService = productService;
+        this.productCache = productCache;
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return productService.findAll();
+    }
+
+    @Override
+    public Page<Product> findAll(Pageable pageable) {
+        return productService.findAll(pageable);
+    }
+
+    @Override
+    public Page<Product> findByCategory(Pageable pageable, String categoryName) {
+        return productService.findByCategory(pageable, categoryName);
+    }
+
+    @Override
+    public ProductWindow findAll(Sort.Order order, ProductSortKey after, int limit) {
+        return productService.findAll(order, after, limit);
+    }
+
+    @Override
+    public ProductWindow findByCategory(String categoryName, Sort.Order order, ProductSortKey after, int limit) {
+        return productService.findByCategory(categoryName, order, after, limit);
+    }
+
+    @Override
+    public Page<Product> search(String query, Pageable pageable) {
+        return productService.search(query, pageable);
+    }
+
+    @Override
+    public ProductFacetPage filterByCategory(String categoryName, List<AttributeFilter> filters, Pageable pageable) {
+        return productService.filterByCategory(categoryName, filters, pageable);
+    }
+
+    @Override
+    public Product findById(Long id) {
+        return productCache.computeIfAbsent(id, true, () -> productService.findById(id));
+    }
+
+    @Override
+    public Product findByIdShort(Long id) {
+        return productCache.computeIfAbsent(id, false, () -> productService.findByIdShort(id));
+    }
+
+    @Override
+    public Product create(Product product) {
+        return productService.create(product);
+    }
+
+    @Override
+    public Product update(Long id, BigDecimal newPrice, Integer newQuantity, String newImageUrl, String frontendVersion) {
+        return productService.update(id, newPrice, newQuantity, newImageUrl, frontendVersion);
+    }
+
+    @Override
+    public Product archive(Long id) {
+        return productService.archive(id);
+    }
+
+    @Override
+    public Product changeStockShardCount(Long id, Integer shardCount) {
+        return productService.changeStockShardCount(id, shardCount);
+    }
+}
@@ -4,11 +4,16 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Primary;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.context.annotation.RequestScope;
 import pl.lodz.p.edu.shop.dataaccess.model.entity.Product;
+import pl.lodz.p.edu.shop.dataaccess.model.other.AttributeFilter;
+import pl.lodz.p.edu.shop.dataaccess.model.projection.ProductSortKey;
+import pl.lodz.p.edu.shop.logic.model.ProductFacetPage;
+import pl.lodz.p.edu.shop.logic.model.ProductWindow;
 import pl.lodz.p.edu.shop.logic.service.api.ProductService;
 
 import java.math.BigDecimal;
@@ -23,7 +28,7 @@ public class ProductServiceRetryHandler extends AbstractRetryHandler implements
 
     private final ProductService productService;
 
-    public ProductServiceRetryHandler(@Qualifier("ProductServiceImpl") ProductService productService) {
+    public ProductServiceRetryHandler(@Qualifier("ProductServiceCacheHandler") ProductService productService) {
         this.productService = productService;
     }
 
@@ -42,6 +47,27 @@ public class ProductServiceRetryHandler extends AbstractRetryHandler implements
         return repeatTransactionWhenTimeoutOccurred(() -> productService.findByCategory(pageable, categoryName));
     }
 
+    @Override
+    public ProductWindow findAll(Sort.Order order, ProductSortKey after, int limit) {
+        return repeatTransactionWhenTimeoutOccurred(() -> productService.findAll(order, after, limit));
+    }
+
+    @Override
+    public ProductWindow findByCategory(String categoryName, Sort.Order order, ProductSortKey after, int limit) {
+        return repeatTransactionWhenTimeoutOccurred(() -> productService.findByCategory(categoryName, order, after, limit));
+    }
+
+    @Override
+    public Page<Product> search(String query, Pageable pageable) {
+        return repeatTransactionWhenTimeoutOccurred(() -> productService.search(query, pageable));
+    }
+
+    @Override
+    public ProductFacetPage filterByCategory(String categoryName, List<AttributeFilter> filters, Pageable pageable) {
+        return repeatTransactionWhenTimeoutOccurred(() ->
+            productService.filterByCategory(categoryName, filters, pageable));
+    }
+
     @Override
     public Product findById(Long id) {
         return repeatTransactionWhenTimeoutOccurred(() -> productService.findById(id));
@@ -67,4 +93,9 @@ public class ProductServiceRetryHandler extends AbstractRetryHandler implements
     public Product archive(Long id) {
         return repeatTransactionWhenTimeoutOccurred(() -> productService.archive(id));
     }
+
+    @Override
+    public Product changeStockShardCount(Long id, Integer shardCount) {
+        return repeatTransactionWhenTimeoutOccurred(() -> productService.changeStockShardCount(id, shardCount));
+    }
 }
@@ -0,0 +1,44 @@
+package pl.lodz.p.edu.shop.logic.service.impl.decorator;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Product;
+import pl.lodz.p.edu.shop.logic.model.UserPreferences;
+import pl.lodz.p.edu.shop.logic.service.api.RecommendationService;
+import pl.lodz.p.edu.shop.logic.service.impl.RecommendationResultCache;
+
+import java.util.List;
+
+/**
+ * Serves repeated requests for recommendations from the result cache, without starting a transaction.
+ */
+@Service
+@Primary
+@Transactional(transactionManager = "ordersModTxManager", propagation = Propagation.NEVER)
+@Qualifier("RecommendationServiceCacheHandler")
+public class RecommendationServiceCacheHandler implements RecommendationService {
+
+    private final RecommendationService recommendationService;
+    private final RecommendationResultCache resultCache;
+
+    public RecommendationServiceCacheHandler(
+        @Qualifier("RecommendationServiceImpl") RecommendationService recommendationService,
+        RecommendationResultCache resultCache) {
+        this.recommendationService = recommendationService;
+        this.resultCache = resultCache;
+    }
+
+    @Override
+    public List<Product> findByRecommendation(String login, UserPreferences userPreferences, Integer numberOfRecords) {
+        return resultCache.computeIfAbsent(login, userPreferences, numberOfRecords,
+            () -> recommendationService.findByRecommendation(login, userPreferences, numberOfRecords));
+    }
+
+    @Override
+    public List<Product> findTrending(Integer numberOfRecords) {
+        return recommendationService.findTrending(numberOfRecords);
+    }
+}
@@ -4,7 +4,7 @@ import pl.lodz.p.edu.shop.presentation.dto.user.account.*;
 
 public interface AccountAccessServiceOperations {
 
-    AccountOutputDto findByLogin(String login);
+    Tagged<AccountOutputDto> findByLogin(String login);
 
     AccountOutputDto updateOwnLocale(String login, ChangeLanguageDto locale);
 
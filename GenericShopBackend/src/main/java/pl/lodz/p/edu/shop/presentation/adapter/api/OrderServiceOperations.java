@@ -3,19 +3,49 @@ package pl.lodz.p.edu.shop.presentation.adapter.api;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import pl.lodz.p.edu.shop.presentation.dto.order.CreateOrderDto;
+import pl.lodz.p.edu.shop.presentation.dto.order.OrderExportFormat;
+import pl.lodz.p.edu.shop.presentation.dto.order.OrderHistoryDto;
 import pl.lodz.p.edu.shop.presentation.dto.order.OrderOutputDto;
+import pl.lodz.p.edu.shop.presentation.dto.order.OrderTicketDto;
 import pl.lodz.p.edu.shop.presentation.dto.order.RateInputDto;
 import pl.lodz.p.edu.shop.presentation.dto.order.RateOutputDto;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+
 public interface OrderServiceOperations {
 
     OrderOutputDto placeAnOrder(String login, CreateOrderDto newOrder);
 
+    OrderOutputDto placeAnOrder(String login, CreateOrderDto newOrder, String idempotencyKey);
+
+    /**
+     * Queues the order to be placed in the background, its outcome is polled by the returned ticket's id.
+     *
+     * @param idempotencyKey optional, may be null
+     */
+    OrderTicketDto submitAnOrder(String login, CreateOrderDto newOrder, String idempotencyKey);
+
+    OrderTicketDto findOrderTicket(String login, String ticketId);
+
     Page<OrderOutputDto> findAll(String login, Pageable pageable);
 
     Page<OrderOutputDto> findAllByAccountLogin(String login, Pageable pageable);
 
-    OrderOutputDto findById(String login, Long id);
+    /**
+     * @param createdBefore creation time of the last order of the previous page, null for the first page
+     * @param idBefore id of the last order of the previous page, null for the first page
+     */
+    OrderHistoryDto findHistoryByAccountLogin(String login, LocalDateTime createdBefore, Long idBefore, int size);
+
+    /**
+     * Writes orders created in given range to the stream as they are read from the database.
+     */
+    void exportOrders(LocalDateTime createdFrom, LocalDateTime createdTo, OrderExportFormat format,
+                      OutputStream outputStream) throws IOException;
+
+    Tagged<OrderOutputDto> findById(String login, Long id);
 
     RateOutputDto rateOrderedProduct(String login, Long orderedProductId, RateInputDto rate);
 
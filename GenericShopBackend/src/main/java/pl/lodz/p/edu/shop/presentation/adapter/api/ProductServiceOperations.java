@@ -2,9 +2,13 @@ package pl.lodz.p.edu.shop.presentation.adapter.api;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import pl.lodz.p.edu.shop.presentation.dto.preference.UserPreferencesDto;
 import pl.lodz.p.edu.shop.presentation.dto.product.InputProductDto;
+import pl.lodz.p.edu.shop.presentation.dto.product.ProductFilterDto;
 import pl.lodz.p.edu.shop.presentation.dto.product.ProductOutputDto;
+import pl.lodz.p.edu.shop.presentation.dto.product.ProductScrollDto;
+import pl.lodz.p.edu.shop.presentation.dto.product.StockShardsDto;
 import pl.lodz.p.edu.shop.presentation.dto.product.UpdateProductDto;
 
 import java.util.List;
@@ -17,15 +21,39 @@ public interface ProductServiceOperations {
 
     Page<ProductOutputDto> findByCategory(Pageable pageable, String category);
 
+    /**
+     * Lists products after the position encoded in the token, sorted by at most one property and then by id.
+     * Sort is taken from the token when it's given.
+     */
+    ProductScrollDto findAll(Sort sort, String next, int size);
+
+    ProductScrollDto findByCategory(String category, Sort sort, String next, int size);
+
+    /**
+     * Filters products of the category by its properties, each filter has the form {@code property:operator:value}
+     * with one of the operators eq, gt, gte, lt and lte.
+     */
+    ProductFilterDto filterByCategory(String category, List<String> filters, Pageable pageable);
+
     List<ProductOutputDto> getRecommendations(String login, UserPreferencesDto userPreferencesDto, Integer numberOfRecords);
 
+    List<ProductOutputDto> getTrending(Integer numberOfRecords);
+
+    Page<ProductOutputDto> search(String query, Pageable pageable);
+
     ProductOutputDto findById(Long id);
 
     ProductOutputDto findByIdShort(Long id);
 
+    String findETagById(Long id);
+
+    String getETag(ProductOutputDto product);
+
     ProductOutputDto create(InputProductDto product);
 
     ProductOutputDto update(Long id, UpdateProductDto productWithNewData);
 
     ProductOutputDto archive(Long id);
+
+    ProductOutputDto changeStockShardCount(Long id, StockShardsDto stockShardsDto);
 }
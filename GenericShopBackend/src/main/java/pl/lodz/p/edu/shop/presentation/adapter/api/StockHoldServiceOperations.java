@@ -0,0 +1,15 @@
+package pl.lodz.p.edu.shop.presentation.adapter.api;
+
+import pl.lodz.p.edu.shop.presentation.dto.order.CreateStockHoldDto;
+import pl.lodz.p.edu.shop.presentation.dto.order.StockHoldOutputDto;
+
+import java.util.List;
+
+public interface StockHoldServiceOperations {
+
+    StockHoldOutputDto hold(String login, CreateStockHoldDto newHold);
+
+    List<StockHoldOutputDto> findAllByLogin(String login);
+
+    void release(String login, Long holdId);
+}
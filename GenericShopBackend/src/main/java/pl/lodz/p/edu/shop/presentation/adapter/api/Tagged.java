@@ -0,0 +1,10 @@
+package pl.lodz.p.edu.shop.presentation.adapter.api;
+
+import java.util.function.Supplier;
+
+/**
+ * ETag of a resource together with its body, which is mapped only when it's read, so that a response with status 304
+ * doesn't pay for the mapping.
+ */
+public record Tagged<T>(String eTag, Supplier<T> body) {
+}
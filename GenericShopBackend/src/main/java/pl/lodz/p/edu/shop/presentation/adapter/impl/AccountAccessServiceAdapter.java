@@ -6,6 +6,7 @@ import pl.lodz.p.edu.shop.dataaccess.model.entity.Account;
 import pl.lodz.p.edu.shop.dataaccess.model.entity.Contact;
 import pl.lodz.p.edu.shop.logic.service.api.AccountAccessService;
 import pl.lodz.p.edu.shop.presentation.adapter.api.AccountAccessServiceOperations;
+import pl.lodz.p.edu.shop.presentation.adapter.api.Tagged;
 import pl.lodz.p.edu.shop.presentation.dto.user.account.*;
 import pl.lodz.p.edu.shop.presentation.mapper.api.AccountMapper;
 
@@ -20,9 +21,10 @@ class AccountAccessServiceAdapter implements AccountAccessServiceOperations {
     private final AccountMapper accountMapper;
 
     @Override
-    public AccountOutputDto findByLogin(String login) {
+    public Tagged<AccountOutputDto> findByLogin(String login) {
         Account account = accountAccessService.findByLogin(login);
-        return accountMapper.mapToAccountOutputDtoWithVersion(account);
+        return new Tagged<>(accountMapper.mapToETag(account),
+            () -> accountMapper.mapToAccountOutputDtoWithVersion(account));
     }
 
     @Override
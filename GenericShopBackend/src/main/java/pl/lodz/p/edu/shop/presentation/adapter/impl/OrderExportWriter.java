@@ -0,0 +1,119 @@
+package pl.lodz.p.edu.shop.presentation.adapter.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import pl.lodz.p.edu.shop.dataaccess.model.projection.OrderExportLine;
+import pl.lodz.p.edu.shop.presentation.dto.order.OrderExportDto;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Writes exported order lines as they come from the database, nothing but the lines of the current order is kept.
+ */
+@Component
+class OrderExportWriter {
+
+    private static final String CSV_HEADER =
+        "order_id,created_at,account_id,login,total_price,product_id,product_name,price,quantity";
+    private static final String FORMULA_PREFIXES = "=+-@";
+
+    private final ObjectMapper objectMapper;
+
+    OrderExportWriter(ObjectMapper objectMapper) {
+        this.objectMapper = requireNonNull(objectMapper);
+    }
+
+    /**
+     * Writes one CSV row per exported line, preceded by the header. Fields that a spreadsheet would evaluate as
+     * a formula are prefixed with an apostrophe.
+     */
+    Consumer<OrderExportLine> csvWriter(Writer writer) {
+        write(writer, CSV_HEADER + '\n');
+
+        return line -> write(writer, Stream.of(line.orderId(), line.orderCreatedAt(), line.accountId(), line.login(),
+                line.totalPrice(), line.productId(), line.productName(), line.price(), line.quantity())
+            .map(this::toCsvField)
+            .collect(Collectors.joining(",", "", "\n")));
+    }
+
+    /**
+     * Groups consecutive lines of the same order and writes each order as one JSON document per line.
+     * {@link NdjsonWriter#finish()} has to be called after the last line to write the last order.
+     */
+    NdjsonWriter ndjsonWriter(Writer writer) {
+        return new NdjsonWriter(writer);
+    }
+
+    class NdjsonWriter implements Consumer<OrderExportLine> {
+
+        private final Writer writer;
+        private OrderExportLine currentOrder;
+        private final List<OrderExportDto.Line> currentLines = new ArrayList<>();
+
+        private NdjsonWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void accept(OrderExportLine line) {
+            if (nonNull(currentOrder) && !currentOrder.orderId().equals(line.orderId())) {
+                finish();
+            }
+            if (isNull(currentOrder)) {
+                currentOrder = line;
+            }
+            currentLines.add(new OrderExportDto.Line(line.productId(), line.productName(), line.price(),
+                line.quantity()));
+        }
+
+        void finish() {
+            if (isNull(currentOrder)) {
+                return;
+            }
+
+            OrderExportDto order = new OrderExportDto(currentOrder.orderId(), currentOrder.orderCreatedAt(),
+                currentOrder.accountId(), currentOrder.login(), currentOrder.totalPrice(), List.copyOf(currentLines));
+            try {
+                write(writer, objectMapper.writeValueAsString(order) + '\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            currentOrder = null;
+            currentLines.clear();
+        }
+    }
+
+    private String toCsvField(Object value) {
+        if (isNull(value)) {
+            return "";
+        }
+
+        String field = value.toString();
+        if (!field.isEmpty() && FORMULA_PREFIXES.indexOf(field.charAt(0)) >= 0) {
+            field = "'" + field;
+        }
+        if (field.contains(",") || field.contains("\"") || field.contains("\n") || field.contains("\r")) {
+            return '"' + field.replace("\"", "\"\"") + '"';
+        }
+        return field;
+    }
+
+    private void write(Writer writer, String text) {
+        try {
+            writer.write(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
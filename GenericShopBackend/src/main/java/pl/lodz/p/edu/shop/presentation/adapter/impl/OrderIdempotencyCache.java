@@ -0,0 +1,118 @@
+package pl.lodz.p.edu.shop.presentation.adapter.impl;
+
+import org.springframework.stereotype.Component;
+import pl.lodz.p.edu.shop.config.order.property.OrderIdempotencyProperties;
+import pl.lodz.p.edu.shop.exception.ApplicationExceptionFactory;
+import pl.lodz.p.edu.shop.presentation.dto.order.OrderOutputDto;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Bounded LRU of recently placed orders by login and idempotency key, entries expire after the key retention like the
+ * keys in the database. Requests with a key that is being placed at the moment wait for the first one and get its
+ * result. Keys evicted from here are still found in the database. Reusing a key with different products is rejected.
+ */
+@Component
+class OrderIdempotencyCache {
+
+    private final Map<String, PlacedOrder> placedOrders;
+    private final ConcurrentMap<String, InFlightOrder> inFlightOrders = new ConcurrentHashMap<>();
+    private final long retentionNanos;
+
+    OrderIdempotencyCache(OrderIdempotencyProperties properties) {
+        int cacheSize = properties.getCacheSize();
+        this.retentionNanos = properties.getKeyRetention().toNanos();
+        this.placedOrders = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PlacedOrder> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    OrderOutputDto computeIfAbsent(String login, String idempotencyKey, Map<Long, Integer> productsForOrder,
+                                   Supplier<OrderOutputDto> placement) {
+        String cacheKey = login + ':' + idempotencyKey;
+        Map<Long, Integer> request = Map.copyOf(productsForOrder);
+        OrderOutputDto placedOrder = findPlacedOrder(cacheKey, request);
+        if (nonNull(placedOrder)) {
+            return placedOrder;
+        }
+
+        var inFlightOrder = new InFlightOrder(request, new CompletableFuture<>());
+        InFlightOrder otherInFlightOrder = inFlightOrders.putIfAbsent(cacheKey, inFlightOrder);
+        if (nonNull(otherInFlightOrder)) {
+            checkSameRequest(otherInFlightOrder.productsForOrder(), request);
+            return awaitResult(otherInFlightOrder.result());
+        }
+
+        CompletableFuture<OrderOutputDto> result = inFlightOrder.result();
+        try {
+            // First request could have finished between the lookup above and registering this one
+            placedOrder = findPlacedOrder(cacheKey, request);
+            if (isNull(placedOrder)) {
+                placedOrder = placement.get();
+                placedOrders.put(cacheKey, new PlacedOrder(request, placedOrder, System.nanoTime()));
+            }
+            result.complete(placedOrder);
+            return placedOrder;
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightOrders.remove(cacheKey, inFlightOrder);
+        }
+    }
+
+    private OrderOutputDto findPlacedOrder(String cacheKey, Map<Long, Integer> productsForOrder) {
+        PlacedOrder placedOrder = placedOrders.get(cacheKey);
+        if (isNull(placedOrder)) {
+            return null;
+        }
+
+        // Expired key is removed from the database too, so the order must not be replayed from here either
+        if (System.nanoTime() - placedOrder.placedAt() > retentionNanos) {
+            placedOrders.remove(cacheKey, placedOrder);
+            return null;
+        }
+
+        checkSameRequest(placedOrder.productsForOrder(), productsForOrder);
+        return placedOrder.order();
+    }
+
+    private void checkSameRequest(Map<Long, Integer> placedProducts, Map<Long, Integer> productsForOrder) {
+        if (!placedProducts.equals(productsForOrder)) {
+            throw ApplicationExceptionFactory.createIdempotencyKeyReusedException();
+        }
+    }
+
+    private OrderOutputDto awaitResult(CompletableFuture<OrderOutputDto> inFlightOrder) {
+        try {
+            return inFlightOrder.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ApplicationExceptionFactory.createUnknownException();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw ApplicationExceptionFactory.createUnknownException();
+        }
+    }
+
+    private record PlacedOrder(Map<Long, Integer> productsForOrder, OrderOutputDto order, long placedAt) {
+    }
+
+    private record InFlightOrder(Map<Long, Integer> productsForOrder, CompletableFuture<OrderOutputDto> result) {
+    }
+}
@@ -6,12 +6,22 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
 import pl.lodz.p.edu.shop.dataaccess.model.entity.Order;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.OrderIdempotencyKey;
 import pl.lodz.p.edu.shop.dataaccess.model.entity.Rate;
+import pl.lodz.p.edu.shop.exception.ApplicationExceptionFactory;
+import pl.lodz.p.edu.shop.exception.order.CantFinishOrderException;
+import pl.lodz.p.edu.shop.logic.model.OrderCursor;
 import pl.lodz.p.edu.shop.logic.service.api.OrderService;
 import pl.lodz.p.edu.shop.presentation.adapter.api.OrderServiceOperations;
+import pl.lodz.p.edu.shop.presentation.adapter.api.Tagged;
+import pl.lodz.p.edu.shop.presentation.dto.exception.FailedOrderItemDto;
 import pl.lodz.p.edu.shop.presentation.dto.order.CreateOrderDto;
+import pl.lodz.p.edu.shop.presentation.dto.order.OrderExportFormat;
+import pl.lodz.p.edu.shop.presentation.dto.order.OrderHistoryDto;
 import pl.lodz.p.edu.shop.presentation.dto.order.OrderOutputDto;
+import pl.lodz.p.edu.shop.presentation.dto.order.OrderTicketDto;
 import pl.lodz.p.edu.shop.presentation.dto.order.RateInputDto;
 import pl.lodz.p.edu.shop.presentation.dto.order.RateOutputDto;
 import pl.lodz.p.edu.shop.presentation.dto.product.ProductOutputDto;
@@ -19,9 +29,14 @@ import pl.lodz.p.edu.shop.presentation.dto.product.ProductRequest;
 import pl.lodz.p.edu.shop.presentation.mapper.api.OrderMapper;
 import pl.lodz.p.edu.shop.presentation.mapper.api.ProductMapper;
 
+import java.io.*;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionException;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.isNull;
 import static java.util.stream.Collectors.toMap;
 
 @RequiredArgsConstructor
@@ -29,21 +44,51 @@ import static java.util.stream.Collectors.toMap;
 @Component
 class OrderServiceAdapter implements OrderServiceOperations {
 
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+
     private final OrderService orderService;
     private final OrderMapper orderMapper;
     private final ProductMapper productMapper;
+    private final OrderIdempotencyCache idempotencyCache;
+    private final OrderSubmissionQueue submissionQueue;
+    private final OrderExportWriter exportWriter;
 
     @Override
     public OrderOutputDto placeAnOrder(String login, CreateOrderDto newOrder) {
-        Map<Long, Integer> productsForOrder = newOrder.productsRequest().stream()
-            .collect(toMap(
-                ProductRequest::id, ProductRequest::quantity
-            ));
+        Map<Long, Integer> productsForOrder = mapToProductsForOrder(newOrder);
 
         Order order = orderService.placeAndOrder(login, productsForOrder);
         return orderMapper.mapToMinimalOrderOutputDTO(order);
     }
 
+    @Override
+    public OrderOutputDto placeAnOrder(String login, CreateOrderDto newOrder, String idempotencyKey) {
+        validateIdempotencyKey(idempotencyKey);
+        Map<Long, Integer> productsForOrder = mapToProductsForOrder(newOrder);
+
+        return idempotencyCache.computeIfAbsent(login, idempotencyKey, productsForOrder, () -> {
+            Order order = orderService.placeAndOrder(login, productsForOrder, idempotencyKey);
+            return orderMapper.mapToMinimalOrderOutputDTO(order);
+        });
+    }
+
+    @Override
+    public OrderTicketDto submitAnOrder(String login, CreateOrderDto newOrder, String idempotencyKey) {
+        if (isNull(idempotencyKey)) {
+            return mapToOrderTicketDto(submissionQueue.submit(login, () -> placeAnOrder(login, newOrder)));
+        }
+
+        validateIdempotencyKey(idempotencyKey);
+        return mapToOrderTicketDto(submissionQueue.submit(login, () -> placeAnOrder(login, newOrder, idempotencyKey)));
+    }
+
+    @Override
+    public OrderTicketDto findOrderTicket(String login, String ticketId) {
+        return submissionQueue.findTicket(login, ticketId)
+            .map(this::mapToOrderTicketDto)
+            .orElseThrow(ApplicationExceptionFactory::createOrderTicketNotFoundException);
+    }
+
     @Override
     public Page<OrderOutputDto> findAll(String login, Pageable pageable) {
         Pageable pageRequest = adjustPageableForOrder(pageable);
@@ -59,13 +104,42 @@ class OrderServiceAdapter implements OrderServiceOperations {
     }
 
     @Override
-    public OrderOutputDto findById(String login, Long id) {
-        Order order = orderService.findOrderById(login, id);
-        List<ProductOutputDto> mappedProducts = order.getOrderedProducts().stream()
-            .map(productMapper::mapToProductOutputDtoWithoutVersion)
+    public OrderHistoryDto findHistoryByAccountLogin(String login, LocalDateTime createdBefore, Long idBefore,
+                                                     int size) {
+        OrderCursor cursor = isNull(createdBefore) || isNull(idBefore) ? null : new OrderCursor(createdBefore, idBefore);
+        int limit = Math.max(1, Math.min(size, MAX_HISTORY_PAGE_SIZE));
+
+        List<Order> orders = orderService.findAllByUserLogin(login, cursor, limit);
+        List<OrderOutputDto> mappedOrders = orders.stream()
+            .map(this::mapToOrderOutputDtoWithProducts)
             .toList();
 
-        return orderMapper.mapToOrderOutputDTOWithFullInformation(order, mappedProducts);
+        if (orders.size() < limit) {
+            return new OrderHistoryDto(mappedOrders, null, null);
+        }
+        Order lastOrder = orders.get(orders.size() - 1);
+        return new OrderHistoryDto(mappedOrders, lastOrder.getCreatedAt(), lastOrder.getId());
+    }
+
+    @Override
+    public void exportOrders(LocalDateTime createdFrom, LocalDateTime createdTo, OrderExportFormat format,
+                             OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, UTF_8));
+
+        if (format == OrderExportFormat.CSV) {
+            orderService.exportOrders(createdFrom, createdTo, exportWriter.csvWriter(writer));
+        } else {
+            OrderExportWriter.NdjsonWriter ndjsonWriter = exportWriter.ndjsonWriter(writer);
+            orderService.exportOrders(createdFrom, createdTo, ndjsonWriter);
+            ndjsonWriter.finish();
+        }
+        writer.flush();
+    }
+
+    @Override
+    public Tagged<OrderOutputDto> findById(String login, Long id) {
+        Order order = orderService.findOrderById(login, id);
+        return new Tagged<>(orderMapper.mapToETag(order), () -> mapToOrderOutputDtoWithProducts(order));
     }
 
     @Override
@@ -85,6 +159,63 @@ class OrderServiceAdapter implements OrderServiceOperations {
         orderService.removeRate(login, orderedProductId);
     }
 
+    private OrderOutputDto mapToOrderOutputDtoWithProducts(Order order) {
+        List<ProductOutputDto> mappedProducts = order.getOrderedProducts().stream()
+            .map(productMapper::mapToProductOutputDtoWithoutVersion)
+            .toList();
+
+        return orderMapper.mapToOrderOutputDTOWithFullInformation(order, mappedProducts);
+    }
+
+    private void validateIdempotencyKey(String idempotencyKey) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > OrderIdempotencyKey.MAX_KEY_LENGTH) {
+            throw ApplicationExceptionFactory.createIdempotencyKeyNotValidException();
+        }
+    }
+
+    private OrderTicketDto mapToOrderTicketDto(OrderSubmissionQueue.OrderTicket ticket) {
+        OrderSubmissionQueue.Status status = ticket.status();
+        OrderTicketDto.OrderTicketDtoBuilder ticketDto = OrderTicketDto.builder()
+            .id(ticket.id())
+            .status(status.name());
+
+        if (status == OrderSubmissionQueue.Status.PLACED) {
+            return ticketDto.order(ticket.result().join()).build();
+        }
+        if (status == OrderSubmissionQueue.Status.FAILED) {
+            ResponseStatusException failure = findFailure(ticket);
+            ticketDto.failureMessage(failure.getReason());
+            if (failure instanceof CantFinishOrderException cantFinishOrderException) {
+                ticketDto.failedItems(cantFinishOrderException.getFailedItems().stream()
+                    .map(item -> FailedOrderItemDto.builder()
+                        .productId(item.productId())
+                        .requestedQuantity(item.requestedQuantity())
+                        .availableQuantity(item.availableQuantity())
+                        .reason(item.reason().name())
+                        .build())
+                    .toList());
+            }
+        }
+        return ticketDto.build();
+    }
+
+    private ResponseStatusException findFailure(OrderSubmissionQueue.OrderTicket ticket) {
+        try {
+            ticket.result().join();
+            throw ApplicationExceptionFactory.createUnknownException();
+        } catch (CompletionException e) {
+            // Queue completes tickets only with application exceptions
+            return (ResponseStatusException) e.getCause();
+        }
+    }
+
+    private Map<Long, Integer> mapToProductsForOrder(CreateOrderDto newOrder) {
+        return newOrder.productsRequest().stream()
+            .collect(toMap(
+                ProductRequest::id, ProductRequest::quantity
+            ));
+    }
+
     private Pageable adjustPageableForOrder(Pageable pageable) {
         List<Sort.Order> orders = pageable.getSort().stream()
             .map(order -> order.getProperty().equals("creationDate") ?
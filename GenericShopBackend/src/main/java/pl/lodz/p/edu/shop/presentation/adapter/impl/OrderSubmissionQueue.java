@@ -0,0 +1,135 @@
+package pl.lodz.p.edu.shop.presentation.adapter.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import pl.lodz.p.edu.shop.config.order.property.OrderSubmissionProperties;
+import pl.lodz.p.edu.shop.exception.ApplicationExceptionFactory;
+import pl.lodz.p.edu.shop.presentation.dto.order.OrderOutputDto;
+import pl.lodz.p.edu.shop.util.SecurityUtil;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Bounded queue of submitted orders placed by dedicated workers, so request threads don't wait for the placement.
+ * Submission is rejected when the queue is full. Outcome of each order is kept under its ticket for a while after
+ * it's placed, to be polled by the client.
+ */
+@Slf4j
+@Component
+class OrderSubmissionQueue {
+
+    enum Status {
+        PENDING, PLACED, FAILED
+    }
+
+    record OrderTicket(String id, String login, CompletableFuture<OrderOutputDto> result) {
+
+        Status status() {
+            if (!result.isDone()) {
+                return Status.PENDING;
+            }
+            return result.isCompletedExceptionally() ? Status.FAILED : Status.PLACED;
+        }
+    }
+
+    private final Map<String, OrderTicket> tickets = new ConcurrentHashMap<>();
+    private final Map<String, LocalDateTime> completionTimes = new ConcurrentHashMap<>();
+    private final OrderSubmissionProperties properties;
+    private final ThreadPoolExecutor workers;
+    private final Timer waitTimer;
+    private final Counter rejectedCounter;
+
+    OrderSubmissionQueue(OrderSubmissionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+
+        AtomicInteger workerCounter = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(properties.getWorkers(), properties.getWorkers(), 0, NANOSECONDS,
+            new ArrayBlockingQueue<>(properties.getQueueCapacity()), runnable -> {
+            Thread thread = new Thread(runnable, "order-submission-worker-" + workerCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("shop.orders.submission.queue.depth", workers, executor -> executor.getQueue().size())
+            .description("Number of submitted orders waiting for a worker")
+            .register(meterRegistry);
+        this.waitTimer = Timer.builder("shop.orders.submission.queue.wait")
+            .description("Time submitted orders wait in the queue before a worker places them")
+            .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("shop.orders.submission.rejected")
+            .description("Number of orders rejected because the queue was full")
+            .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+        // Only tickets of orders that weren't placed yet are affected, completed ones keep their outcome
+        tickets.values().forEach(ticket -> ticket.result()
+            .completeExceptionally(ApplicationExceptionFactory.createUnknownException()));
+    }
+
+    /**
+     * @return ticket under which the outcome of the order can be found
+     */
+    OrderTicket submit(String login, Supplier<OrderOutputDto> placement) {
+        OrderTicket ticket = new OrderTicket(UUID.randomUUID().toString(), login, new CompletableFuture<>());
+        tickets.put(ticket.id(), ticket);
+        ticket.result().whenComplete((order, e) -> completionTimes.put(ticket.id(), LocalDateTime.now()));
+
+        try {
+            long queuedAt = System.nanoTime();
+            workers.execute(() -> place(ticket, placement, queuedAt));
+            return ticket;
+        } catch (RejectedExecutionException e) {
+            tickets.remove(ticket.id());
+            rejectedCounter.increment();
+            throw ApplicationExceptionFactory.createOrderQueueFullException();
+        }
+    }
+
+    Optional<OrderTicket> findTicket(String login, String ticketId) {
+        return Optional.ofNullable(tickets.get(ticketId))
+            .filter(ticket -> ticket.login().equals(login));
+    }
+
+    @Scheduled(fixedDelayString = "${app.orders.async-submission.ticket-retention:PT10M}")
+    void removeExpiredTickets() {
+        LocalDateTime completedBefore = LocalDateTime.now().minus(properties.getTicketRetention());
+        completionTimes.entrySet().removeIf(completion -> {
+            boolean expired = completion.getValue().isBefore(completedBefore);
+            if (expired) {
+                tickets.remove(completion.getKey());
+            }
+            return expired;
+        });
+    }
+
+    private void place(OrderTicket ticket, Supplier<OrderOutputDto> placement, long queuedAt) {
+        waitTimer.record(System.nanoTime() - queuedAt, NANOSECONDS);
+
+        try {
+            ticket.result().complete(SecurityUtil.runAs(ticket.login(), placement));
+        } catch (ResponseStatusException e) {
+            ticket.result().completeExceptionally(e);
+        } catch (RuntimeException e) {
+            log.error("Unknown exception occurred during placing an order of {}: ", ticket.login(), e);
+            ticket.result().completeExceptionally(ApplicationExceptionFactory.createUnknownException());
+        }
+    }
+}
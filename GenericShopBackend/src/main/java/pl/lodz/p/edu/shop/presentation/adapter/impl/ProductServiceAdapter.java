@@ -7,23 +7,41 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Component;
 import pl.lodz.p.edu.shop.dataaccess.model.entity.Product;
+import pl.lodz.p.edu.shop.dataaccess.model.other.AttributeFilter;
+import pl.lodz.p.edu.shop.dataaccess.model.projection.AttributeFacet;
+import pl.lodz.p.edu.shop.dataaccess.model.projection.ProductSortKey;
+import pl.lodz.p.edu.shop.exception.ApplicationExceptionFactory;
+import pl.lodz.p.edu.shop.logic.model.ProductFacetPage;
+import pl.lodz.p.edu.shop.logic.model.ProductWindow;
 import pl.lodz.p.edu.shop.logic.model.UserPreferences;
 import pl.lodz.p.edu.shop.logic.service.api.ProductService;
 import pl.lodz.p.edu.shop.logic.service.api.RecommendationService;
 import pl.lodz.p.edu.shop.presentation.adapter.api.ProductServiceOperations;
 import pl.lodz.p.edu.shop.presentation.dto.preference.UserPreferencesDto;
+import pl.lodz.p.edu.shop.presentation.dto.product.AttributeFacetDto;
 import pl.lodz.p.edu.shop.presentation.dto.product.InputProductDto;
+import pl.lodz.p.edu.shop.presentation.dto.product.ProductFilterDto;
 import pl.lodz.p.edu.shop.presentation.dto.product.ProductOutputDto;
+import pl.lodz.p.edu.shop.presentation.dto.product.ProductScrollDto;
+import pl.lodz.p.edu.shop.presentation.dto.product.StockShardsDto;
 import pl.lodz.p.edu.shop.presentation.dto.product.UpdateProductDto;
 import pl.lodz.p.edu.shop.presentation.mapper.api.ProductMapper;
+import pl.lodz.p.edu.shop.util.TextUtil;
 
+import java.util.Base64;
 import java.util.List;
+import java.util.Locale;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.isNull;
 
 @RequiredArgsConstructor
 
 @Component
 class ProductServiceAdapter implements ProductServiceOperations {
 
+    private static final int MAX_SCROLL_SIZE = 100;
+
     private final ProductService productService;
     private final RecommendationService recommendationService;
     private final ProductMapper productMapper;
@@ -38,9 +56,7 @@ class ProductServiceAdapter implements ProductServiceOperations {
     @Override
     public Page<ProductOutputDto> findAll(Pageable pageable) {
         List<Sort.Order> orders = pageable.getSort().stream()
-            .map(order -> order.getProperty().equals("archival") ?
-                new Sort.Order(order.getDirection(), "isArchival") :
-                order)
+            .map(ProductServiceAdapter::mapToEntityOrder)
             .toList();
         Sort sort = Sort.by(orders);
         PageRequest pageRequest = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
@@ -56,6 +72,13 @@ class ProductServiceAdapter implements ProductServiceOperations {
             .toList();
     }
 
+    @Override
+    public List<ProductOutputDto> getTrending(Integer numberOfRecords) {
+        return recommendationService.findTrending(numberOfRecords).stream()
+            .map(productMapper::mapToProductOutputDtoWithoutVersion)
+            .toList();
+    }
+
     @Override
     public Page<ProductOutputDto> findByCategory(Pageable pageable, String categoryName) {
         return productService.findByCategory(pageable, categoryName)
@@ -63,6 +86,44 @@ class ProductServiceAdapter implements ProductServiceOperations {
 
     }
 
+    @Override
+    public ProductScrollDto findAll(Sort sort, String next, int size) {
+        ProductScrollCursor cursor = isNull(next) ? new ProductScrollCursor(mapToScrollOrder(sort), null) : decode(next);
+
+        ProductWindow window = productService.findAll(cursor.order(), cursor.position(), limitScrollSize(size));
+        return mapToProductScrollDto(cursor.order(), window);
+    }
+
+    @Override
+    public ProductScrollDto findByCategory(String category, Sort sort, String next, int size) {
+        ProductScrollCursor cursor = isNull(next) ? new ProductScrollCursor(mapToScrollOrder(sort), null) : decode(next);
+
+        ProductWindow window = productService.findByCategory(category, cursor.order(), cursor.position(),
+            limitScrollSize(size));
+        return mapToProductScrollDto(cursor.order(), window);
+    }
+
+    @Override
+    public ProductFilterDto filterByCategory(String category, List<String> filters, Pageable pageable) {
+        List<AttributeFilter> attributeFilters = filters.stream()
+            .map(ProductServiceAdapter::mapToAttributeFilter)
+            .toList();
+
+        ProductFacetPage result = productService.filterByCategory(category, attributeFilters, pageable);
+        Page<ProductOutputDto> products = result.products()
+            .map(productMapper::mapToProductOutputDtoWithoutVersion);
+        List<AttributeFacetDto> facets = result.facets().stream()
+            .map(ProductServiceAdapter::mapToAttributeFacetDto)
+            .toList();
+        return new ProductFilterDto(products, facets);
+    }
+
+    @Override
+    public Page<ProductOutputDto> search(String query, Pageable pageable) {
+        return productService.search(query, pageable)
+            .map(productMapper::mapToProductOutputDtoWithoutVersion);
+    }
+
     @Override
     public ProductOutputDto findById(Long id) {
         Product product = productService.findById(id);
@@ -75,6 +136,17 @@ class ProductServiceAdapter implements ProductServiceOperations {
         return productMapper.mapToProductOutputDtoWithVersion(product);
     }
 
+    @Override
+    public String findETagById(Long id) {
+        Product product = productService.findByIdShort(id);
+        return productMapper.mapToETag(product);
+    }
+
+    @Override
+    public String getETag(ProductOutputDto product) {
+        return productMapper.mapToETag(product);
+    }
+
     @Override
     public ProductOutputDto create(InputProductDto product) {
         Product newProductData = productMapper.mapToProduct(product);
@@ -95,4 +167,77 @@ class ProductServiceAdapter implements ProductServiceOperations {
         return productMapper.mapToProductOutputDtoWithoutVersion(product);
     }
 
+    @Override
+    public ProductOutputDto changeStockShardCount(Long id, StockShardsDto stockShardsDto) {
+        Product product = productService.changeStockShardCount(id, stockShardsDto.shardCount());
+        return productMapper.mapToProductOutputDtoWithVersion(product);
+    }
+
+    private ProductScrollDto mapToProductScrollDto(Sort.Order order, ProductWindow window) {
+        List<ProductOutputDto> products = window.products().stream()
+            .map(productMapper::mapToProductOutputDtoWithoutVersion)
+            .toList();
+        String next = isNull(window.next()) ? null : encode(new ProductScrollCursor(order, window.next()));
+        return new ProductScrollDto(products, next);
+    }
+
+    private static Sort.Order mapToEntityOrder(Sort.Order order) {
+        return order.getProperty().equals("archival") ?
+            new Sort.Order(order.getDirection(), "isArchival") :
+            order;
+    }
+
+    private static Sort.Order mapToScrollOrder(Sort sort) {
+        List<Sort.Order> orders = sort.stream()
+            .map(ProductServiceAdapter::mapToEntityOrder)
+            .toList();
+        if (orders.size() > 1) {
+            throw ApplicationExceptionFactory.createProductSortNotSupportedException();
+        }
+        return orders.isEmpty() ? Sort.Order.asc("id") : orders.get(0);
+    }
+
+    private static AttributeFilter mapToAttributeFilter(String filter) {
+        // Value goes last, it may contain the separator
+        String[] parts = filter.split(":", 3);
+        if (parts.length < 3) {
+            throw ApplicationExceptionFactory.createProductFilterNotValidException();
+        }
+
+        try {
+            AttributeFilter.Operator operator = AttributeFilter.Operator.valueOf(parts[1].toUpperCase(Locale.ROOT));
+            return new AttributeFilter(TextUtil.toSnakeCase(parts[0]), operator, parts[2]);
+        } catch (IllegalArgumentException e) {
+            throw ApplicationExceptionFactory.createProductFilterNotValidException();
+        }
+    }
+
+    private static AttributeFacetDto mapToAttributeFacetDto(AttributeFacet facet) {
+        return new AttributeFacetDto(TextUtil.toCamelCase(facet.attribute()), facet.value(), facet.from(), facet.to(),
+            facet.count());
+    }
+
+    private static int limitScrollSize(int size) {
+        return Math.max(1, Math.min(size, MAX_SCROLL_SIZE));
+    }
+
+    private static String encode(ProductScrollCursor cursor) {
+        String token = String.join(":", cursor.order().getProperty(), cursor.order().getDirection().name(),
+            String.valueOf(cursor.position().id()), cursor.position().sortValue());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(UTF_8));
+    }
+
+    private static ProductScrollCursor decode(String next) {
+        try {
+            // Sort value goes last, it may contain the separator
+            String[] parts = new String(Base64.getUrlDecoder().decode(next), UTF_8).split(":", 4);
+            Sort.Order order = new Sort.Order(Sort.Direction.valueOf(parts[1]), parts[0]);
+            return new ProductScrollCursor(order, new ProductSortKey(Long.valueOf(parts[2]), parts[3]));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw ApplicationExceptionFactory.createProductCursorNotValidException();
+        }
+    }
+
+    private record ProductScrollCursor(Sort.Order order, ProductSortKey position) {
+    }
 }
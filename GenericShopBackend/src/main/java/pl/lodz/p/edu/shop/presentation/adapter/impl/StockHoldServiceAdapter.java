@@ -0,0 +1,42 @@
+package pl.lodz.p.edu.shop.presentation.adapter.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.StockHold;
+import pl.lodz.p.edu.shop.logic.service.api.StockHoldService;
+import pl.lodz.p.edu.shop.presentation.adapter.api.StockHoldServiceOperations;
+import pl.lodz.p.edu.shop.presentation.dto.order.CreateStockHoldDto;
+import pl.lodz.p.edu.shop.presentation.dto.order.StockHoldOutputDto;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+
+@Component
+class StockHoldServiceAdapter implements StockHoldServiceOperations {
+
+    private final StockHoldService stockHoldService;
+
+    @Override
+    public StockHoldOutputDto hold(String login, CreateStockHoldDto newHold) {
+        StockHold hold = stockHoldService.hold(login, newHold.productId(), newHold.quantity());
+        return mapToStockHoldOutputDto(hold);
+    }
+
+    @Override
+    public List<StockHoldOutputDto> findAllByLogin(String login) {
+        return stockHoldService.findAllByLogin(login).stream()
+            .map(this::mapToStockHoldOutputDto)
+            .toList();
+    }
+
+    @Override
+    public void release(String login, Long holdId) {
+        stockHoldService.release(login, holdId);
+    }
+
+    private StockHoldOutputDto mapToStockHoldOutputDto(StockHold hold) {
+        return new StockHoldOutputDto(hold.getId(), hold.getProduct().getId(), hold.getProduct().getName(),
+            hold.getQuantity(), hold.getExpiresAt());
+    }
+}
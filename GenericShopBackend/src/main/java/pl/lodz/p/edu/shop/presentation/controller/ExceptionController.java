@@ -13,7 +13,10 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.server.ResponseStatusException;
 import pl.lodz.p.edu.shop.exception.ExceptionMessage;
+import pl.lodz.p.edu.shop.exception.order.CantFinishOrderException;
+import pl.lodz.p.edu.shop.presentation.dto.exception.CantFinishOrderResponseDto;
 import pl.lodz.p.edu.shop.presentation.dto.exception.ExceptionResponseDto;
+import pl.lodz.p.edu.shop.presentation.dto.exception.FailedOrderItemDto;
 import pl.lodz.p.edu.shop.presentation.dto.exception.ValidationExceptionResponseDto;
 
 import java.time.LocalDateTime;
@@ -52,6 +55,29 @@ public class ExceptionController {
         return ResponseEntity.status(e.getStatusCode()).body(body);
     }
 
+    @ExceptionHandler(CantFinishOrderException.class)
+    ResponseEntity<?> handleCantFinishOrderException(CantFinishOrderException e) {
+        log.info("Exception occurred during placing an order: ", e);
+
+        List<FailedOrderItemDto> failedItems = e.getFailedItems().stream()
+            .map(item -> FailedOrderItemDto.builder()
+                .productId(item.productId())
+                .requestedQuantity(item.requestedQuantity())
+                .availableQuantity(item.availableQuantity())
+                .reason(item.reason().name())
+                .build())
+            .toList();
+
+        CantFinishOrderResponseDto body = CantFinishOrderResponseDto.builder()
+            .timestamp(LocalDateTime.now())
+            .status(e.getStatusCode().value())
+            .message(e.getReason())
+            .failedItems(failedItems)
+            .build();
+
+        return ResponseEntity.status(e.getStatusCode()).body(body);
+    }
+
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
     ResponseEntity<?> handleValidationException(MethodArgumentNotValidException ex) {
@@ -2,21 +2,38 @@ package pl.lodz.p.edu.shop.presentation.controller;
 
 import jakarta.annotation.security.DenyAll;
 import jakarta.annotation.security.RolesAllowed;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import pl.lodz.p.edu.shop.config.order.property.OrderExportProperties;
 import pl.lodz.p.edu.shop.presentation.adapter.api.OrderServiceOperations;
+import pl.lodz.p.edu.shop.presentation.adapter.api.Tagged;
 import pl.lodz.p.edu.shop.presentation.dto.order.CreateOrderDto;
+import pl.lodz.p.edu.shop.presentation.dto.order.OrderExportFormat;
+import pl.lodz.p.edu.shop.presentation.dto.order.OrderHistoryDto;
 import pl.lodz.p.edu.shop.presentation.dto.order.OrderOutputDto;
+import pl.lodz.p.edu.shop.presentation.dto.order.OrderTicketDto;
 import pl.lodz.p.edu.shop.presentation.dto.order.RateInputDto;
 import pl.lodz.p.edu.shop.presentation.dto.order.RateOutputDto;
 
 import java.net.URI;
+import java.time.LocalDateTime;
 
+import static java.util.Objects.isNull;
+
+import static pl.lodz.p.edu.shop.config.security.role.RoleName.ADMIN;
 import static pl.lodz.p.edu.shop.config.security.role.RoleName.CLIENT;
+import static pl.lodz.p.edu.shop.config.security.role.RoleName.EMPLOYEE;
 import static pl.lodz.p.edu.shop.util.SecurityUtil.getLoginFromSecurityContext;
 
 @RequiredArgsConstructor
@@ -26,18 +43,48 @@ import static pl.lodz.p.edu.shop.util.SecurityUtil.getLoginFromSecurityContext;
 @DenyAll
 public class OrderController {
 
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final OrderServiceOperations orderService;
+    private final OrderExportProperties exportProperties;
 
     @PostMapping
     @RolesAllowed({CLIENT})
-    public ResponseEntity<OrderOutputDto> placeAnOrder(@Valid @RequestBody CreateOrderDto newOrder) {
+    public ResponseEntity<OrderOutputDto> placeAnOrder(
+        @Valid @RequestBody CreateOrderDto newOrder,
+        @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey
+    ) {
         String login = getLoginFromSecurityContext();
-        OrderOutputDto responseBody = orderService.placeAnOrder(login, newOrder);
+        OrderOutputDto responseBody = isNull(idempotencyKey) ?
+            orderService.placeAnOrder(login, newOrder) :
+            orderService.placeAnOrder(login, newOrder, idempotencyKey);
 
         URI resourceUri = URI.create("/id/%d".formatted(responseBody.id()));
         return ResponseEntity.created(resourceUri).body(responseBody);
     }
 
+    @PostMapping("/async")
+    @RolesAllowed({CLIENT})
+    public ResponseEntity<OrderTicketDto> submitAnOrder(
+        @Valid @RequestBody CreateOrderDto newOrder,
+        @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey
+    ) {
+        String login = getLoginFromSecurityContext();
+
+        OrderTicketDto responseBody = orderService.submitAnOrder(login, newOrder, idempotencyKey);
+        URI resourceUri = URI.create("/tickets/%s".formatted(responseBody.id()));
+        return ResponseEntity.accepted().location(resourceUri).body(responseBody);
+    }
+
+    @GetMapping("/tickets/{id}")
+    @RolesAllowed({CLIENT})
+    public ResponseEntity<OrderTicketDto> findOrderTicket(@PathVariable("id") String ticketId) {
+        String login = getLoginFromSecurityContext();
+
+        OrderTicketDto responseBody = orderService.findOrderTicket(login, ticketId);
+        return ResponseEntity.ok(responseBody);
+    }
+
     //todo check if it is used
     @GetMapping
     @RolesAllowed({CLIENT})
@@ -57,15 +104,58 @@ public class OrderController {
         return ResponseEntity.ok(responseBody);
     }
 
-    @GetMapping("/id/{id}")
+    @GetMapping("/self/history")
     @RolesAllowed({CLIENT})
-    public ResponseEntity<OrderOutputDto> findById(@PathVariable("id") Long id) {
+    public ResponseEntity<OrderHistoryDto> findHistoryByUserLogin(
+        @RequestParam(value = "createdBefore", required = false)
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdBefore,
+        @RequestParam(value = "idBefore", required = false) Long idBefore,
+        @RequestParam(value = "size", defaultValue = "20") int size
+    ) {
         String login = getLoginFromSecurityContext();
 
-        OrderOutputDto responseBody = orderService.findById(login, id);
+        OrderHistoryDto responseBody = orderService.findHistoryByAccountLogin(login, createdBefore, idBefore, size);
         return ResponseEntity.ok(responseBody);
     }
 
+    @GetMapping("/export")
+    @RolesAllowed({EMPLOYEE, ADMIN})
+    public WebAsyncTask<Void> exportOrders(
+        @RequestParam(value = "createdFrom", required = false)
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+        @RequestParam(value = "createdTo", required = false)
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+        @RequestParam(value = "format", defaultValue = "NDJSON") OrderExportFormat format,
+        HttpServletResponse response
+    ) {
+        ContentDisposition contentDisposition = ContentDisposition.attachment()
+            .filename("orders." + format.getFileExtension())
+            .build();
+        response.setContentType(format.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, contentDisposition.toString());
+
+        // Streamed with its own timeout, other async requests keep the default one
+        return new WebAsyncTask<>(exportProperties.getTimeout().toMillis(), () -> {
+            orderService.exportOrders(createdFrom, createdTo, format, response.getOutputStream());
+            return null;
+        });
+    }
+
+    @GetMapping("/id/{id}")
+    @RolesAllowed({CLIENT})
+    public ResponseEntity<OrderOutputDto> findById(@PathVariable("id") Long id, WebRequest request) {
+        String login = getLoginFromSecurityContext();
+
+        Tagged<OrderOutputDto> order = orderService.findById(login, id);
+        if (request.checkNotModified(order.eTag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.noCache().cachePrivate())
+            .eTag(order.eTag())
+            .body(order.body().get());
+    }
+
     @PostMapping("/orderedProducts/{id}/rate")
     @RolesAllowed(CLIENT)
     public ResponseEntity<RateOutputDto> rateOrderedProduct(
@@ -6,18 +6,25 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import pl.lodz.p.edu.shop.presentation.adapter.api.ProductServiceOperations;
 import pl.lodz.p.edu.shop.presentation.dto.preference.UserPreferencesDto;
 import pl.lodz.p.edu.shop.presentation.dto.product.InputProductDto;
+import pl.lodz.p.edu.shop.presentation.dto.product.ProductFilterDto;
 import pl.lodz.p.edu.shop.presentation.dto.product.ProductOutputDto;
+import pl.lodz.p.edu.shop.presentation.dto.product.ProductScrollDto;
+import pl.lodz.p.edu.shop.presentation.dto.product.StockShardsDto;
 import pl.lodz.p.edu.shop.presentation.dto.product.UpdateProductDto;
 import pl.lodz.p.edu.shop.util.SecurityUtil;
 
 import java.net.URI;
 import java.util.List;
 
+import static java.util.Objects.isNull;
 import static pl.lodz.p.edu.shop.config.security.role.RoleName.*;
 
 @RequiredArgsConstructor
@@ -48,6 +55,13 @@ public class ProductController {
         return ResponseEntity.ok(responseBody);
     }
 
+    @GetMapping("/trending")
+    @RolesAllowed({EMPLOYEE, GUEST, CLIENT})
+    public ResponseEntity<List<ProductOutputDto>> getTrending(@RequestParam("size") Integer numberOfRecords) {
+        List<ProductOutputDto> responseBody = productService.getTrending(numberOfRecords);
+        return ResponseEntity.ok(responseBody);
+    }
+
     @GetMapping("/category/{categoryName}")
     @RolesAllowed({EMPLOYEE, GUEST, CLIENT})
     public ResponseEntity<Page<ProductOutputDto>> findByCategory(Pageable pageable, @PathVariable String categoryName) {
@@ -56,20 +70,78 @@ public class ProductController {
         return ResponseEntity.ok(responseBody);
     }
 
+    @GetMapping("/scroll")
+    @RolesAllowed({EMPLOYEE, GUEST, CLIENT})
+    public ResponseEntity<ProductScrollDto> scroll(
+        Sort sort,
+        @RequestParam(value = "next", required = false) String next,
+        @RequestParam(value = "size", defaultValue = "20") int size
+    ) {
+        ProductScrollDto responseBody = productService.findAll(sort, next, size);
+
+        return ResponseEntity.ok(responseBody);
+    }
+
+    @GetMapping("/category/{categoryName}/scroll")
+    @RolesAllowed({EMPLOYEE, GUEST, CLIENT})
+    public ResponseEntity<ProductScrollDto> scrollByCategory(
+        @PathVariable String categoryName,
+        Sort sort,
+        @RequestParam(value = "next", required = false) String next,
+        @RequestParam(value = "size", defaultValue = "20") int size
+    ) {
+        ProductScrollDto responseBody = productService.findByCategory(categoryName, sort, next, size);
+
+        return ResponseEntity.ok(responseBody);
+    }
+
+    @GetMapping("/category/{categoryName}/filter")
+    @RolesAllowed({EMPLOYEE, GUEST, CLIENT})
+    public ResponseEntity<ProductFilterDto> filterByCategory(@PathVariable String categoryName, Pageable pageable,
+                                                             WebRequest request) {
+        // Filters are read as sent, binding to a list would split a single filter at commas of its value
+        String[] filters = request.getParameterValues("filter");
+        ProductFilterDto responseBody = productService.filterByCategory(categoryName,
+            isNull(filters) ? List.of() : List.of(filters), pageable);
+
+        return ResponseEntity.ok(responseBody);
+    }
+
+    @GetMapping("/search")
+    @RolesAllowed({EMPLOYEE, GUEST, CLIENT})
+    public ResponseEntity<Page<ProductOutputDto>> search(@RequestParam("query") String query, Pageable pageable) {
+        Page<ProductOutputDto> responseBody = productService.search(query, pageable);
+
+        return ResponseEntity.ok(responseBody);
+    }
+
     @GetMapping("/id/{id}")
     @RolesAllowed({EMPLOYEE, GUEST, CLIENT})
-    public ResponseEntity<ProductOutputDto> findById(@PathVariable("id") Long id) {
+    public ResponseEntity<ProductOutputDto> findById(@PathVariable("id") Long id, WebRequest request) {
+        // Checked against the product without table properties, sent tag comes from the body as it can be cached apart
+        if (request.checkNotModified(productService.findETagById(id))) {
+            return null;
+        }
         ProductOutputDto responseBody = productService.findById(id);
 
-        return ResponseEntity.ok(responseBody);
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.noCache())
+            .eTag(productService.getETag(responseBody))
+            .body(responseBody);
     }
 
     @GetMapping("/id/{id}/short")
     @RolesAllowed({EMPLOYEE, GUEST, CLIENT})
-    public ResponseEntity<ProductOutputDto> findByIdShort(@PathVariable("id") Long id) {
+    public ResponseEntity<ProductOutputDto> findByIdShort(@PathVariable("id") Long id, WebRequest request) {
+        if (request.checkNotModified(productService.findETagById(id))) {
+            return null;
+        }
         ProductOutputDto responseBody = productService.findByIdShort(id);
 
-        return ResponseEntity.ok(responseBody);
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.noCache())
+            .eTag(productService.getETag(responseBody))
+            .body(responseBody);
     }
 
 
@@ -89,6 +161,15 @@ public class ProductController {
         return ResponseEntity.ok(responseBody);
     }
 
+    @PutMapping("/id/{id}/stock-shards")
+    @RolesAllowed({EMPLOYEE})
+    public ResponseEntity<ProductOutputDto> changeStockShardCount(@PathVariable("id") Long id,
+                                                                  @RequestBody @Valid StockShardsDto stockShardsDto) {
+        ProductOutputDto responseBody = productService.changeStockShardCount(id, stockShardsDto);
+
+        return ResponseEntity.ok(responseBody);
+    }
+
     @PutMapping("/id/{id}")
     @RolesAllowed({EMPLOYEE})
     public ResponseEntity<ProductOutputDto> update(@PathVariable("id") Long id,
@@ -5,10 +5,13 @@ import jakarta.annotation.security.RolesAllowed;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import pl.lodz.p.edu.shop.presentation.adapter.api.AccountAccessServiceOperations;
+import pl.lodz.p.edu.shop.presentation.adapter.api.Tagged;
 import pl.lodz.p.edu.shop.presentation.dto.user.account.*;
 import pl.lodz.p.edu.shop.config.security.role.RoleName;
 
@@ -29,11 +32,17 @@ public class SelfAccountController {
 
     @GetMapping
     @RolesAllowed({RoleName.CLIENT, RoleName.ADMIN, RoleName.EMPLOYEE})
-    ResponseEntity<AccountOutputDto> getOwnAccountInformation() {
+    ResponseEntity<AccountOutputDto> getOwnAccountInformation(WebRequest request) {
         String login = getLoginFromSecurityContext();
-        AccountOutputDto result = ownAccountService.findByLogin(login);
-
-        return ResponseEntity.ok(result);
+        Tagged<AccountOutputDto> account = ownAccountService.findByLogin(login);
+        if (request.checkNotModified(account.eTag())) {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.noCache().cachePrivate())
+            .eTag(account.eTag())
+            .body(account.body().get());
     }
 
     @PutMapping("/change-locale")
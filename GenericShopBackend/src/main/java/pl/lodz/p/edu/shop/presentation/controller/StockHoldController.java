@@ -0,0 +1,55 @@
+package pl.lodz.p.edu.shop.presentation.controller;
+
+import jakarta.annotation.security.DenyAll;
+import jakarta.annotation.security.RolesAllowed;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import pl.lodz.p.edu.shop.presentation.adapter.api.StockHoldServiceOperations;
+import pl.lodz.p.edu.shop.presentation.dto.order.CreateStockHoldDto;
+import pl.lodz.p.edu.shop.presentation.dto.order.StockHoldOutputDto;
+
+import java.net.URI;
+import java.util.List;
+
+import static pl.lodz.p.edu.shop.config.security.role.RoleName.CLIENT;
+import static pl.lodz.p.edu.shop.util.SecurityUtil.getLoginFromSecurityContext;
+
+@RequiredArgsConstructor
+
+@RestController
+@RequestMapping(ApiRoot.API_ROOT + "/holds")
+@DenyAll
+public class StockHoldController {
+
+    private final StockHoldServiceOperations stockHoldService;
+
+    @PostMapping
+    @RolesAllowed({CLIENT})
+    public ResponseEntity<StockHoldOutputDto> hold(@Valid @RequestBody CreateStockHoldDto newHold) {
+        String login = getLoginFromSecurityContext();
+
+        StockHoldOutputDto responseBody = stockHoldService.hold(login, newHold);
+        URI resourceUri = URI.create("/id/%d".formatted(responseBody.id()));
+        return ResponseEntity.created(resourceUri).body(responseBody);
+    }
+
+    @GetMapping("/self")
+    @RolesAllowed({CLIENT})
+    public ResponseEntity<List<StockHoldOutputDto>> findAllByUserLogin() {
+        String login = getLoginFromSecurityContext();
+
+        List<StockHoldOutputDto> responseBody = stockHoldService.findAllByLogin(login);
+        return ResponseEntity.ok(responseBody);
+    }
+
+    @DeleteMapping("/id/{id}")
+    @RolesAllowed({CLIENT})
+    public ResponseEntity<Void> release(@PathVariable("id") Long id) {
+        String login = getLoginFromSecurityContext();
+
+        stockHoldService.release(login, id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,15 @@
+package pl.lodz.p.edu.shop.presentation.dto.exception;
+
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Builder
+public record CantFinishOrderResponseDto(
+    int status,
+    LocalDateTime timestamp,
+    String message,
+    List<FailedOrderItemDto> failedItems
+) {
+}
@@ -0,0 +1,12 @@
+package pl.lodz.p.edu.shop.presentation.dto.exception;
+
+import lombok.Builder;
+
+@Builder
+public record FailedOrderItemDto(
+    Long productId,
+    Integer requestedQuantity,
+    Integer availableQuantity,
+    String reason
+) {
+}
@@ -0,0 +1,12 @@
+package pl.lodz.p.edu.shop.presentation.dto.order;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+public record CreateStockHoldDto(
+    @NotNull
+    Long productId,
+    @NotNull @Min(1)
+    Integer quantity
+) {
+}
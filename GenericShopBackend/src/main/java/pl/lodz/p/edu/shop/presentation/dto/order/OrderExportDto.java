@@ -0,0 +1,18 @@
+package pl.lodz.p.edu.shop.presentation.dto.order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record OrderExportDto(
+    Long id,
+    LocalDateTime createdAt,
+    Long accountId,
+    String login,
+    BigDecimal totalPrice,
+    List<Line> lines
+) {
+
+    public record Line(Long productId, String name, BigDecimal price, Integer quantity) {
+    }
+}
@@ -0,0 +1,14 @@
+package pl.lodz.p.edu.shop.presentation.dto.order;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One page of order history, next page is requested with {@code nextCreatedAt} and {@code nextId} when they are set.
+ */
+public record OrderHistoryDto(
+    List<OrderOutputDto> orders,
+    LocalDateTime nextCreatedAt,
+    Long nextId
+) {
+}
@@ -0,0 +1,16 @@
+package pl.lodz.p.edu.shop.presentation.dto.order;
+
+import lombok.Builder;
+import pl.lodz.p.edu.shop.presentation.dto.exception.FailedOrderItemDto;
+
+import java.util.List;
+
+@Builder
+public record OrderTicketDto(
+    String id,
+    String status,
+    OrderOutputDto order,
+    String failureMessage,
+    List<FailedOrderItemDto> failedItems
+) {
+}
@@ -0,0 +1,6 @@
+package pl.lodz.p.edu.shop.presentation.dto.order;
+
+import java.time.LocalDateTime;
+
+public record StockHoldOutputDto(Long id, Long productId, String productName, Integer quantity, LocalDateTime expiresAt) {
+}
@@ -0,0 +1,16 @@
+package pl.lodz.p.edu.shop.presentation.dto.product;
+
+import java.math.BigDecimal;
+
+/**
+ * Number of products with given value of the property, or with a value between {@code from} and {@code to} for
+ * numeric properties.
+ */
+public record AttributeFacetDto(
+    String property,
+    String value,
+    BigDecimal from,
+    BigDecimal to,
+    long count
+) {
+}
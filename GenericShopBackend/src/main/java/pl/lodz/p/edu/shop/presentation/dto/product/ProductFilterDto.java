@@ -0,0 +1,14 @@
+package pl.lodz.p.edu.shop.presentation.dto.product;
+
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * Page of filtered products, facets are counted over all products matching the filters.
+ */
+public record ProductFilterDto(
+    Page<ProductOutputDto> products,
+    List<AttributeFacetDto> facets
+) {
+}
@@ -16,6 +16,7 @@ public record ProductOutputDto(
     Integer quantity,
     String imageUrl,
     Double averageRating,
+    Map<Integer, Integer> ratingDistribution,
     Integer rate,
     Map<String, Object> categoryProperties
 ) {
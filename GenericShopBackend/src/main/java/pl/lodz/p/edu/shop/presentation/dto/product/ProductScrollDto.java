@@ -0,0 +1,12 @@
+package pl.lodz.p.edu.shop.presentation.dto.product;
+
+import java.util.List;
+
+/**
+ * One window of a product listing, next window is requested with the opaque {@code next} token when it's set.
+ */
+public record ProductScrollDto(
+    List<ProductOutputDto> products,
+    String next
+) {
+}
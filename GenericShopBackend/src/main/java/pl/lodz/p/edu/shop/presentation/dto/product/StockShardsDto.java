@@ -0,0 +1,11 @@
+package pl.lodz.p.edu.shop.presentation.dto.product;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+public record StockShardsDto(
+    @NotNull @Min(0) @Max(64)
+    Integer shardCount
+) {
+}
@@ -19,4 +19,6 @@ public interface AccountMapper {
 
     AccountOutputDto mapToAccountOutputDtoWithVersion(Account account);
 
+    String mapToETag(Account account);
+
 }
@@ -1,6 +1,7 @@
 package pl.lodz.p.edu.shop.presentation.mapper.api;
 
 import pl.lodz.p.edu.shop.dataaccess.model.entity.Order;
+import pl.lodz.p.edu.shop.dataaccess.model.projection.OrderSummary;
 import pl.lodz.p.edu.shop.presentation.dto.order.OrderOutputDto;
 import pl.lodz.p.edu.shop.presentation.dto.product.ProductOutputDto;
 
@@ -10,5 +11,9 @@ public interface OrderMapper {
 
     OrderOutputDto mapToMinimalOrderOutputDTO(Order order);
 
+    OrderOutputDto mapToMinimalOrderOutputDTO(OrderSummary order);
+
     OrderOutputDto mapToOrderOutputDTOWithFullInformation(Order order, List<ProductOutputDto> mappedProducts);
+
+    String mapToETag(Order order);
 }
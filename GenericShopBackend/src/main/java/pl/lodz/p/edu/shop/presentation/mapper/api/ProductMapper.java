@@ -14,4 +14,8 @@ public interface ProductMapper {
     ProductOutputDto mapToProductOutputDtoWithoutVersion(OrderedProduct product);
 
     ProductOutputDto mapToProductOutputDtoWithVersion(Product product);
+
+    String mapToETag(Product product);
+
+    String mapToETag(ProductOutputDto productDto);
 }
@@ -97,6 +97,14 @@ class AccountMapperImpl implements AccountMapper {
             .build();
     }
 
+    @Override
+    public String mapToETag(Account account) {
+        Contact contact = account.getContact();
+
+        // Versions only grow, so their sum changes whenever any of the entities is changed
+        return verifier.signVersion(account.getVersion() + contact.getVersion() + contact.getAddress().getVersion());
+    }
+
     private AccountOutputDto.AccountOutputDtoBuilder mapToAccountOutputDto(Account account, Contact contact,
                                                                            AddressOutputDto addressDto, AuthLogOutputDto logs) {
         return AccountOutputDto.builder()
@@ -2,6 +2,9 @@ package pl.lodz.p.edu.shop.presentation.mapper.impl;
 
 import org.springframework.stereotype.Component;
 import pl.lodz.p.edu.shop.dataaccess.model.entity.Order;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.OrderedProduct;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Rate;
+import pl.lodz.p.edu.shop.dataaccess.model.projection.OrderSummary;
 import pl.lodz.p.edu.shop.logic.service.api.VersionSignatureVerifier;
 import pl.lodz.p.edu.shop.presentation.dto.order.OrderOutputDto;
 import pl.lodz.p.edu.shop.presentation.dto.product.ProductOutputDto;
@@ -11,7 +14,9 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 
+import static java.util.Comparator.comparing;
 import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.joining;
 
 @Component
 class OrderMapperImpl implements OrderMapper {
@@ -36,6 +41,17 @@ class OrderMapperImpl implements OrderMapper {
             .build();
     }
 
+    @Override
+    public OrderOutputDto mapToMinimalOrderOutputDTO(OrderSummary order) {
+        return OrderOutputDto.builder()
+            .id(order.id())
+            .version(verifier.signVersion(order.version()))
+            .totalPrice(order.totalPrice())
+            .accountId(order.accountId())
+            .creationDate(formatDate(order.createdAt()))
+            .build();
+    }
+
     @Override
     public OrderOutputDto mapToOrderOutputDTOWithFullInformation(Order order, List<ProductOutputDto> mappedProducts) {
         LocalDateTime notParsedCreationDate = order.getCreatedAt();
@@ -52,6 +68,16 @@ class OrderMapperImpl implements OrderMapper {
             .build();
     }
 
+    @Override
+    public String mapToETag(Order order) {
+        // Rates of ordered products are changed without bumping the version of the order
+        String rates = order.getOrderedProducts().stream()
+            .sorted(comparing(OrderedProduct::getId))
+            .map(product -> String.valueOf(product.getRate().map(Rate::getValue).orElse(0)))
+            .collect(joining());
+        return "%s-%s".formatted(verifier.signVersion(order.getVersion()), rates);
+    }
+
     private String formatDate(LocalDateTime notParsedCreationDate) {
         return notParsedCreationDate.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
     }
@@ -1,6 +1,7 @@
 package pl.lodz.p.edu.shop.presentation.mapper.impl;
 
 import org.springframework.stereotype.Component;
+import pl.lodz.p.edu.shop.dataaccess.model.embeddable.RatingHistogram;
 import pl.lodz.p.edu.shop.dataaccess.model.entity.Category;
 import pl.lodz.p.edu.shop.dataaccess.model.entity.OrderedProduct;
 import pl.lodz.p.edu.shop.dataaccess.model.entity.Product;
@@ -11,9 +12,11 @@ import pl.lodz.p.edu.shop.presentation.dto.product.ProductOutputDto;
 import pl.lodz.p.edu.shop.presentation.mapper.api.ProductMapper;
 import pl.lodz.p.edu.shop.util.TextUtil;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toMap;
 
 @Component
@@ -59,7 +62,9 @@ public class ProductMapperImpl implements ProductMapper {
             .price(product.getPrice())
             .quantity(product.getQuantity())
             .averageRating(product.getAverageRating())
+            .ratingDistribution(mapRatingDistribution(product.getRatingHistogram()))
             .imageUrl(product.getImageUrl())
+            .categoryProperties(product.getTableProperties().isEmpty() ? null : mapTableProperties(product))
             .build();
     }
 
@@ -77,13 +82,8 @@ public class ProductMapperImpl implements ProductMapper {
 
     @Override
     public ProductOutputDto mapToProductOutputDtoWithVersion(Product product) {
-        String combinedVersion = verifier.signVersion(product.getVersion());
-        Map<String, Object> tableProperties = product.getTableProperties();
-        Map<String, Object> mappedProperties = tableProperties.entrySet().stream()
-            .collect(toMap(
-                entry -> TextUtil.toCamelCase(entry.getKey()),
-                Map.Entry::getValue
-            ));
+        String combinedVersion = verifier.signVersion(product.getCombinedVersion());
+        Map<String, Object> mappedProperties = mapTableProperties(product);
 
         return ProductOutputDto.builder()
             .id(product.getId())
@@ -93,8 +93,46 @@ public class ProductMapperImpl implements ProductMapper {
             .price(product.getPrice())
             .quantity(product.getQuantity())
             .averageRating(product.getAverageRating())
+            .ratingDistribution(mapRatingDistribution(product.getRatingHistogram()))
             .imageUrl(product.getImageUrl())
             .categoryProperties(mappedProperties)
             .build();
     }
+
+    @Override
+    public String mapToETag(Product product) {
+        return mapToETag(verifier.signVersion(product.getCombinedVersion()), product.getQuantity(),
+            mapRatingDistribution(product.getRatingHistogram()));
+    }
+
+    @Override
+    public String mapToETag(ProductOutputDto productDto) {
+        return mapToETag(productDto.version(), productDto.quantity(), productDto.ratingDistribution());
+    }
+
+    // Stock and ratings are changed without bumping the version of the product
+    private String mapToETag(String signedVersion, Integer quantity, Map<Integer, Integer> ratingDistribution) {
+        String ratingCounts = ratingDistribution.values().stream()
+            .map(String::valueOf)
+            .collect(joining("."));
+        return "%s-%s-%s".formatted(signedVersion, quantity, ratingCounts);
+    }
+
+    // Attributes of nullable columns may be null, so they can't be collected with toMap
+    private Map<String, Object> mapTableProperties(Product product) {
+        Map<String, Object> mappedProperties = new LinkedHashMap<>();
+        product.getTableProperties().forEach((column, value) ->
+            mappedProperties.put(TextUtil.toCamelCase(column), value));
+        return mappedProperties;
+    }
+
+    private Map<Integer, Integer> mapRatingDistribution(RatingHistogram histogram) {
+        Map<Integer, Integer> distribution = new LinkedHashMap<>();
+        distribution.put(1, histogram.getOneStarCount());
+        distribution.put(2, histogram.getTwoStarCount());
+        distribution.put(3, histogram.getThreeStarCount());
+        distribution.put(4, histogram.getFourStarCount());
+        distribution.put(5, histogram.getFiveStarCount());
+        return distribution;
+    }
 }
@@ -2,11 +2,15 @@ package pl.lodz.p.edu.shop.util;
 
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.security.Principal;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 @NoArgsConstructor(access = AccessLevel.PACKAGE)
 public class SecurityUtil {
@@ -15,4 +19,21 @@ public class SecurityUtil {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         return Optional.ofNullable(authentication).map(Principal::getName).orElse("GUEST");
     }
+
+    /**
+     * Runs given action with security context of given login, used by background threads working on behalf of users
+     * so that audit columns are filled with the right login. Previous context is restored afterwards.
+     */
+    public static <T> T runAs(String login, Supplier<T> action) {
+        SecurityContext previousContext = SecurityContextHolder.getContext();
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(new UsernamePasswordAuthenticationToken(login, null, List.of()));
+
+        SecurityContextHolder.setContext(context);
+        try {
+            return action.get();
+        } finally {
+            SecurityContextHolder.setContext(previousContext);
+        }
+    }
 }
@@ -0,0 +1,128 @@
+package pl.lodz.p.edu.shop.util.collection;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing map of positive long keys to int values, without boxing of either. Missing keys have value 0.
+ * Not thread safe.
+ */
+public final class LongIntHashMap {
+
+    private static final long FREE_KEY = 0L;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, int value);
+    }
+
+    public LongIntHashMap() {
+        this(16);
+    }
+
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+    }
+
+    public LongIntHashMap copy() {
+        LongIntHashMap copy = new LongIntHashMap();
+        copy.keys = keys.clone();
+        copy.values = values.clone();
+        copy.size = size;
+        return copy;
+    }
+
+    public int get(long key) {
+        int slot = findSlot(keys, key);
+        return keys[slot] == key ? values[slot] : 0;
+    }
+
+    public void put(long key, int value) {
+        checkKey(key);
+        int slot = findSlot(keys, key);
+        if (keys[slot] == FREE_KEY) {
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = value;
+        growIfNeeded();
+    }
+
+    /**
+     * Adds delta to the value of the key, missing key starts at 0.
+     *
+     * @return new value of the key
+     */
+    public int addTo(long key, int delta) {
+        checkKey(key);
+        int slot = findSlot(keys, key);
+        if (keys[slot] == FREE_KEY) {
+            keys[slot] = key;
+            size++;
+        }
+        int value = values[slot] += delta;
+        growIfNeeded();
+        return value;
+    }
+
+    public boolean containsKey(long key) {
+        return keys[findSlot(keys, key)] == key;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE_KEY) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(keys, FREE_KEY);
+        Arrays.fill(values, 0);
+        size = 0;
+    }
+
+    private void growIfNeeded() {
+        if (size <= keys.length * LOAD_FACTOR) {
+            return;
+        }
+
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length << 1];
+        values = new int[oldKeys.length << 1];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE_KEY) {
+                int slot = findSlot(keys, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int findSlot(long[] keys, long key) {
+        int mask = keys.length - 1;
+        int slot = Long.hashCode(key * 0x9E3779B97F4A7C15L) & mask;
+        while (keys[slot] != FREE_KEY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static void checkKey(long key) {
+        if (key <= 0) {
+            throw new IllegalArgumentException("Key must be positive, was " + key);
+        }
+    }
+}
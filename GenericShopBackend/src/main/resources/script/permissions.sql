@@ -12,6 +12,10 @@ GRANT SELECT, INSERT, UPDATE, REFERENCES ON products TO shop_orders;
 GRANT SELECT, INSERT, UPDATE ON categories, ordered_products TO shop_orders;
 GRANT SELECT, INSERT ON orders TO shop_orders;
 GRANT SELECT, INSERT, UPDATE, DELETE ON rates TO shop_orders;
+GRANT SELECT, INSERT, UPDATE, DELETE ON product_stock_shards TO shop_orders;
+GRANT SELECT, INSERT, DELETE ON order_idempotency_keys TO shop_orders;
+GRANT SELECT, INSERT, DELETE ON stock_holds TO shop_orders;
+GRANT SELECT, INSERT, UPDATE, DELETE ON account_product_purchases TO shop_orders;
 GRANT SELECT ON accounts TO shop_orders;
 GRANT CREATE ON DATABASE shop TO shop_orders;
 GRANT CREATE ON SCHEMA public TO shop_orders;
@@ -21,5 +25,9 @@ GRANT USAGE, SELECT ON SEQUENCE orders_seq TO shop_orders;
 GRANT USAGE, SELECT ON SEQUENCE rates_seq TO shop_orders;
 GRANT USAGE, SELECT ON SEQUENCE categories_seq TO shop_orders;
 GRANT USAGE, SELECT ON SEQUENCE ordered_products_seq TO shop_orders;
+GRANT USAGE, SELECT ON SEQUENCE product_stock_shards_seq TO shop_orders;
+GRANT USAGE, SELECT ON SEQUENCE order_idempotency_keys_seq TO shop_orders;
+GRANT USAGE, SELECT ON SEQUENCE stock_holds_seq TO shop_orders;
+GRANT USAGE, SELECT ON SEQUENCE account_product_purchases_seq TO shop_orders;
 
 GRANT SELECT, INSERT, UPDATE ON yerbas, tvs, books, games TO shop_orders;
\ No newline at end of file
@@ -37,6 +37,14 @@ public class OrdersModuleTestData {
             .createdAt(LocalDateTime.now());
     }
 
+    public static Product.ProductBuilder<?,?> getDefaultNewProductBuilder() {
+        productCounter++;
+        return Product.builder()
+            .name(defaultProductName + productCounter)
+            .quantity(defaultProductQuantity)
+            .price(defaultProductPrice);
+    }
+
     public static Product buildDefaultProduct() {
         return getDefaultProductBuilder()
             .build();
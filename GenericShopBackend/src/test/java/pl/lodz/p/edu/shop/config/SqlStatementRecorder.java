@@ -0,0 +1,36 @@
+package pl.lodz.p.edu.shop.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * Records SQL sent by Hibernate on the current thread between {@link #start()} and {@link #stop()}, registered for
+ * orders module in the it profile.
+ */
+public class SqlStatementRecorder implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> recordedStatements = new ThreadLocal<>();
+
+    public static void start() {
+        recordedStatements.set(new ArrayList<>());
+    }
+
+    public static List<String> stop() {
+        List<String> statements = recordedStatements.get();
+        recordedStatements.remove();
+        return nonNull(statements) ? statements : List.of();
+    }
+
+    @Override
+    public String inspect(String sql) {
+        List<String> statements = recordedStatements.get();
+        if (nonNull(statements)) {
+            statements.add(sql);
+        }
+        return sql;
+    }
+}
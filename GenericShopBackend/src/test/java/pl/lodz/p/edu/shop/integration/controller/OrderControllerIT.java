@@ -0,0 +1,358 @@
+package pl.lodz.p.edu.shop.integration.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.lodz.p.edu.shop.AccountsModuleTestData;
+import pl.lodz.p.edu.shop.OrdersModuleTestData;
+import pl.lodz.p.edu.shop.config.PostgresqlContainerSetup;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Account;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Product;
+import pl.lodz.p.edu.shop.exception.ExceptionMessage;
+import pl.lodz.p.edu.shop.logic.service.api.JwtService;
+import pl.lodz.p.edu.shop.presentation.controller.ApiRoot;
+import pl.lodz.p.edu.shop.presentation.dto.order.CreateOrderDto;
+import pl.lodz.p.edu.shop.presentation.dto.order.RateInputDto;
+import pl.lodz.p.edu.shop.presentation.dto.product.ProductRequest;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@DisplayName("Integration tests for OrderController")
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("it")
+public class OrderControllerIT extends PostgresqlContainerSetup {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    @Qualifier("accountsModTxManager")
+    private PlatformTransactionManager accountsTxManager;
+
+    @Autowired
+    @Qualifier("accountsModEmFactory")
+    private EntityManager accountsEm;
+
+    @Autowired
+    @Qualifier("ordersModTxManager")
+    private PlatformTransactionManager ordersTxManager;
+
+    @Autowired
+    @Qualifier("ordersModEmFactory")
+    private EntityManager ordersEm;
+
+    private TransactionTemplate accountsTxTemplate;
+    private TransactionTemplate ordersTxTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final String BASE_API = "%s/orders".formatted(ApiRoot.API_ROOT);
+
+    @BeforeEach
+    void setUp() {
+        accountsTxTemplate = new TransactionTemplate(accountsTxManager);
+        ordersTxTemplate = new TransactionTemplate(ordersTxManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ordersTxTemplate.execute(status -> {
+            ordersEm.createQuery("DELETE FROM OrderIdempotencyKey ").executeUpdate();
+            ordersEm.createQuery("DELETE FROM OrderedProduct ").executeUpdate();
+            ordersEm.createQuery("DELETE FROM Rate ").executeUpdate();
+            ordersEm.createQuery("DELETE FROM Order ").executeUpdate();
+            ordersEm.createQuery("DELETE FROM AccountProductPurchase ").executeUpdate();
+            ordersEm.createQuery("DELETE FROM Product ").executeUpdate();
+            return status;
+        });
+
+        accountsTxTemplate.execute(status -> {
+            accountsEm.createQuery("DELETE FROM Account ").executeUpdate();
+            accountsEm.createQuery("DELETE FROM Contact ").executeUpdate();
+            accountsEm.createQuery("DELETE FROM Address ").executeUpdate();
+            return status;
+        });
+
+        AccountsModuleTestData.resetCounter();
+        OrdersModuleTestData.resetCounter();
+    }
+
+    @Nested
+    @DisplayName("POST submitAnOrder()")
+    class SubmitAnOrder {
+
+        @Nested
+        @DisplayName("Positive")
+        class Positive {
+
+            @Test
+            @DisplayName("Should return response with status 202 and ticket that can be polled until the order is placed")
+            void submitAnOrder_should_return_status_accepted_with_ticket() throws Exception {
+                //given
+                Account givenAccount = persistAccount();
+                Product givenProduct = persistProduct(5);
+                CreateOrderDto givenOrder = new CreateOrderDto(List.of(new ProductRequest(givenProduct.getId(), 2)));
+
+                //when
+                ResultActions resultActions = mockMvc.perform(post("%s/async".formatted(BASE_API))
+                    .header(HttpHeaders.AUTHORIZATION, bearerToken(givenAccount))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(givenOrder)));
+
+                //then
+                MvcResult result = resultActions.andDo(print())
+                    .andExpect(status().isAccepted())
+                    .andExpect(header().string(HttpHeaders.LOCATION, notNullValue()))
+                    .andExpect(jsonPath("$.id", notNullValue()))
+                    .andReturn();
+
+                JsonNode ticket = awaitTicket(givenAccount, readTicketId(result));
+                assertThat(ticket.get("status").asText())
+                    .isEqualTo("PLACED");
+                assertThat(ticket.get("order").get("id").isNull())
+                    .isFalse();
+                assertThat(findProductQuantity(givenProduct.getId()))
+                    .isEqualTo(3);
+            }
+
+            @Test
+            @DisplayName("Should return ticket with failure message and failed items when the order can't be placed")
+            void submitAnOrder_should_return_ticket_with_failure() throws Exception {
+                //given
+                Account givenAccount = persistAccount();
+                Product givenProduct = persistProduct(1);
+                CreateOrderDto givenOrder = new CreateOrderDto(List.of(new ProductRequest(givenProduct.getId(), 2)));
+
+                //when
+                MvcResult result = mockMvc.perform(post("%s/async".formatted(BASE_API))
+                        .header(HttpHeaders.AUTHORIZATION, bearerToken(givenAccount))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(givenOrder)))
+                    .andExpect(status().isAccepted())
+                    .andReturn();
+
+                //then
+                JsonNode ticket = awaitTicket(givenAccount, readTicketId(result));
+                assertThat(ticket.get("status").asText())
+                    .isEqualTo("FAILED");
+                assertThat(ticket.get("failureMessage").asText())
+                    .isEqualTo(ExceptionMessage.Orders.ORDER_CANT_FINISH);
+                assertThat(ticket.get("failedItems").get(0).get("reason").asText())
+                    .isEqualTo("NOT_ENOUGH_QUANTITY");
+                assertThat(findProductQuantity(givenProduct.getId()))
+                    .isEqualTo(1);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("GET findOrderTicket()")
+    class FindOrderTicket {
+
+        @Nested
+        @DisplayName("Negative")
+        class Negative {
+
+            @Test
+            @DisplayName("Should return response with status 404 when the ticket belongs to other account")
+            void findOrderTicket_should_return_status_not_found_for_other_account() throws Exception {
+                //given
+                Account givenAccount = persistAccount();
+                Account givenOtherAccount = persistAccount();
+                Product givenProduct = persistProduct(5);
+                CreateOrderDto givenOrder = new CreateOrderDto(List.of(new ProductRequest(givenProduct.getId(), 1)));
+
+                MvcResult result = mockMvc.perform(post("%s/async".formatted(BASE_API))
+                        .header(HttpHeaders.AUTHORIZATION, bearerToken(givenAccount))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(givenOrder)))
+                    .andExpect(status().isAccepted())
+                    .andReturn();
+                String givenTicketId = readTicketId(result);
+
+                //when
+                ResultActions resultActions = mockMvc.perform(get("%s/tickets/%s".formatted(BASE_API, givenTicketId))
+                    .header(HttpHeaders.AUTHORIZATION, bearerToken(givenOtherAccount)));
+
+                //then
+                resultActions.andDo(print())
+                    .andExpect(status().isNotFound())
+                    .andExpect(jsonPath("$.message", is(ExceptionMessage.Orders.ORDER_TICKET_NOT_FOUND)));
+            }
+
+            @Test
+            @DisplayName("Should return response with status 404 when the ticket doesn't exist")
+            void findOrderTicket_should_return_status_not_found() throws Exception {
+                //given
+                Account givenAccount = persistAccount();
+
+                //when
+                ResultActions resultActions = mockMvc.perform(get("%s/tickets/%s".formatted(BASE_API, "notExisting"))
+                    .header(HttpHeaders.AUTHORIZATION, bearerToken(givenAccount)));
+
+                //then
+                resultActions.andDo(print())
+                    .andExpect(status().isNotFound())
+                    .andExpect(jsonPath("$.message", is(ExceptionMessage.Orders.ORDER_TICKET_NOT_FOUND)));
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("GET findById()")
+    class FindById {
+
+        @Nested
+        @DisplayName("Positive")
+        class Positive {
+
+            @Test
+            @DisplayName("Should return response with status 304 when If-None-Match has the current ETag of the order")
+            void findById_should_return_status_not_modified() throws Exception {
+                //given
+                Account givenAccount = persistAccount();
+                Product givenProduct = persistProduct(5);
+                long givenOrderId = placeOrder(givenAccount, givenProduct).get("id").asLong();
+                String givenETag = mockMvc.perform(get("%s/id/%d".formatted(BASE_API, givenOrderId))
+                        .header(HttpHeaders.AUTHORIZATION, bearerToken(givenAccount)))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, notNullValue()))
+                    .andReturn()
+                    .getResponse()
+                    .getHeader(HttpHeaders.ETAG);
+
+                //when
+                ResultActions resultActions = mockMvc.perform(get("%s/id/%d".formatted(BASE_API, givenOrderId))
+                    .header(HttpHeaders.AUTHORIZATION, bearerToken(givenAccount))
+                    .header(HttpHeaders.IF_NONE_MATCH, givenETag));
+
+                //then
+                resultActions.andDo(print())
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, givenETag))
+                    .andExpect(content().string(""));
+            }
+
+            @Test
+            @DisplayName("Should return response with status 200 and new ETag once an ordered product is rated")
+            void findById_should_return_new_etag_after_rate() throws Exception {
+                //given
+                Account givenAccount = persistAccount();
+                Product givenProduct = persistProduct(5);
+                long givenOrderId = placeOrder(givenAccount, givenProduct).get("id").asLong();
+                MvcResult givenResult = mockMvc.perform(get("%s/id/%d".formatted(BASE_API, givenOrderId))
+                        .header(HttpHeaders.AUTHORIZATION, bearerToken(givenAccount)))
+                    .andExpect(status().isOk())
+                    .andReturn();
+                String givenETag = givenResult.getResponse().getHeader(HttpHeaders.ETAG);
+                long givenOrderedProductId = objectMapper.readTree(givenResult.getResponse().getContentAsString())
+                    .get("products").get(0).get("orderedProductId").asLong();
+
+                mockMvc.perform(post("%s/orderedProducts/%d/rate".formatted(BASE_API, givenOrderedProductId))
+                        .header(HttpHeaders.AUTHORIZATION, bearerToken(givenAccount))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RateInputDto(4))))
+                    .andExpect(status().isOk());
+
+                //when
+                ResultActions resultActions = mockMvc.perform(get("%s/id/%d".formatted(BASE_API, givenOrderId))
+                    .header(HttpHeaders.AUTHORIZATION, bearerToken(givenAccount))
+                    .header(HttpHeaders.IF_NONE_MATCH, givenETag));
+
+                //then
+                resultActions.andDo(print())
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, not(givenETag)))
+                    .andExpect(jsonPath("$.products[0].rate", is(4)));
+            }
+        }
+    }
+
+    private JsonNode placeOrder(Account account, Product product) throws Exception {
+        CreateOrderDto order = new CreateOrderDto(List.of(new ProductRequest(product.getId(), 1)));
+        MvcResult result = mockMvc.perform(post(BASE_API)
+                .header(HttpHeaders.AUTHORIZATION, bearerToken(account))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(order)))
+            .andExpect(status().isCreated())
+            .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+
+    private JsonNode awaitTicket(Account account, String ticketId) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        JsonNode ticket;
+        do {
+            MvcResult result = mockMvc.perform(get("%s/tickets/%s".formatted(BASE_API, ticketId))
+                    .header(HttpHeaders.AUTHORIZATION, bearerToken(account)))
+                .andExpect(status().isOk())
+                .andReturn();
+            ticket = objectMapper.readTree(result.getResponse().getContentAsString());
+            if (!ticket.get("status").asText().equals("PENDING")) {
+                return ticket;
+            }
+            TimeUnit.MILLISECONDS.sleep(50);
+        } while (System.nanoTime() < deadline);
+
+        return ticket;
+    }
+
+    private String readTicketId(MvcResult result) throws Exception {
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("id").asText();
+    }
+
+    private String bearerToken(Account account) {
+        return "Bearer %s".formatted(jwtService.generateAuthToken(account));
+    }
+
+    private Account persistAccount() {
+        Account account = AccountsModuleTestData.buildDefaultAccount();
+        accountsTxTemplate.execute(status -> {
+            accountsEm.persist(account);
+            return status;
+        });
+        return account;
+    }
+
+    private Product persistProduct(int quantity) {
+        Product product = OrdersModuleTestData.getDefaultNewProductBuilder()
+            .quantity(quantity)
+            .build();
+        ordersTxTemplate.execute(status -> {
+            ordersEm.persist(product);
+            return status;
+        });
+        return product;
+    }
+
+    private Integer findProductQuantity(Long productId) {
+        return ordersTxTemplate.execute(status -> ordersEm.find(Product.class, productId).getQuantity());
+    }
+}
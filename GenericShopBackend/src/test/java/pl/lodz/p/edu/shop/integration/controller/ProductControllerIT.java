@@ -0,0 +1,193 @@
+package pl.lodz.p.edu.shop.integration.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.lodz.p.edu.shop.AccountsModuleTestData;
+import pl.lodz.p.edu.shop.OrdersModuleTestData;
+import pl.lodz.p.edu.shop.config.PostgresqlContainerSetup;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Account;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Product;
+import pl.lodz.p.edu.shop.logic.service.api.JwtService;
+import pl.lodz.p.edu.shop.presentation.controller.ApiRoot;
+import pl.lodz.p.edu.shop.presentation.dto.order.CreateOrderDto;
+import pl.lodz.p.edu.shop.presentation.dto.product.ProductRequest;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@DisplayName("Integration tests for ProductController")
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("it")
+public class ProductControllerIT extends PostgresqlContainerSetup {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    @Qualifier("accountsModTxManager")
+    private PlatformTransactionManager accountsTxManager;
+
+    @Autowired
+    @Qualifier("accountsModEmFactory")
+    private EntityManager accountsEm;
+
+    @Autowired
+    @Qualifier("ordersModTxManager")
+    private PlatformTransactionManager ordersTxManager;
+
+    @Autowired
+    @Qualifier("ordersModEmFactory")
+    private EntityManager ordersEm;
+
+    private TransactionTemplate accountsTxTemplate;
+    private TransactionTemplate ordersTxTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final String BASE_API = "%s/products".formatted(ApiRoot.API_ROOT);
+
+    @BeforeEach
+    void setUp() {
+        accountsTxTemplate = new TransactionTemplate(accountsTxManager);
+        ordersTxTemplate = new TransactionTemplate(ordersTxManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ordersTxTemplate.execute(status -> {
+            ordersEm.createQuery("DELETE FROM OrderedProduct ").executeUpdate();
+            ordersEm.createQuery("DELETE FROM Order ").executeUpdate();
+            ordersEm.createQuery("DELETE FROM AccountProductPurchase ").executeUpdate();
+            ordersEm.createQuery("DELETE FROM Product ").executeUpdate();
+            return status;
+        });
+
+        accountsTxTemplate.execute(status -> {
+            accountsEm.createQuery("DELETE FROM Account ").executeUpdate();
+            accountsEm.createQuery("DELETE FROM Contact ").executeUpdate();
+            accountsEm.createQuery("DELETE FROM Address ").executeUpdate();
+            return status;
+        });
+
+        AccountsModuleTestData.resetCounter();
+        OrdersModuleTestData.resetCounter();
+    }
+
+    @Nested
+    @DisplayName("GET findByIdShort()")
+    class FindByIdShort {
+
+        @Nested
+        @DisplayName("Positive")
+        class Positive {
+
+            @Test
+            @DisplayName("Should return response with status 304 when If-None-Match has current ETag of the product")
+            void findByIdShort_should_return_status_not_modified() throws Exception {
+                //given
+                Account givenAccount = persistAccount();
+                Product givenProduct = persistProduct(5);
+                String givenETag = findETag(givenAccount, givenProduct);
+
+                //when
+                ResultActions resultActions = mockMvc.perform(get(shortUri(givenProduct))
+                    .header(HttpHeaders.AUTHORIZATION, bearerToken(givenAccount))
+                    .header(HttpHeaders.IF_NONE_MATCH, givenETag));
+
+                //then
+                resultActions.andDo(print())
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, givenETag))
+                    .andExpect(content().string(""));
+            }
+
+            @Test
+            @DisplayName("Should return response with status 200 and new ETag once stock of the product is sold")
+            void findByIdShort_should_return_new_etag_after_order() throws Exception {
+                //given
+                Account givenAccount = persistAccount();
+                Product givenProduct = persistProduct(5);
+                String givenETag = findETag(givenAccount, givenProduct);
+
+                CreateOrderDto givenOrder = new CreateOrderDto(List.of(new ProductRequest(givenProduct.getId(), 2)));
+                mockMvc.perform(post("%s/orders".formatted(ApiRoot.API_ROOT))
+                        .header(HttpHeaders.AUTHORIZATION, bearerToken(givenAccount))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(givenOrder)))
+                    .andExpect(status().isCreated());
+
+                //when
+                ResultActions resultActions = mockMvc.perform(get(shortUri(givenProduct))
+                    .header(HttpHeaders.AUTHORIZATION, bearerToken(givenAccount))
+                    .header(HttpHeaders.IF_NONE_MATCH, givenETag));
+
+                //then
+                resultActions.andDo(print())
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, not(givenETag)))
+                    .andExpect(jsonPath("$.quantity", is(3)));
+            }
+        }
+    }
+
+    private String findETag(Account account, Product product) throws Exception {
+        return mockMvc.perform(get(shortUri(product))
+                .header(HttpHeaders.AUTHORIZATION, bearerToken(account)))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, notNullValue()))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+    }
+
+    private String shortUri(Product product) {
+        return "%s/id/%d/short".formatted(BASE_API, product.getId());
+    }
+
+    private String bearerToken(Account account) {
+        return "Bearer %s".formatted(jwtService.generateAuthToken(account));
+    }
+
+    private Account persistAccount() {
+        Account account = AccountsModuleTestData.buildDefaultAccount();
+        accountsTxTemplate.execute(status -> {
+            accountsEm.persist(account);
+            return status;
+        });
+        return account;
+    }
+
+    private Product persistProduct(int quantity) {
+        Product product = OrdersModuleTestData.getDefaultNewProductBuilder()
+            .quantity(quantity)
+            .build();
+        ordersTxTemplate.execute(status -> {
+            ordersEm.persist(product);
+            return status;
+        });
+        return product;
+    }
+}
@@ -0,0 +1,151 @@
+package pl.lodz.p.edu.shop.integration.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.lodz.p.edu.shop.AccountsModuleTestData;
+import pl.lodz.p.edu.shop.config.PostgresqlContainerSetup;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Account;
+import pl.lodz.p.edu.shop.logic.service.api.JwtService;
+import pl.lodz.p.edu.shop.presentation.controller.ApiRoot;
+import pl.lodz.p.edu.shop.presentation.dto.user.account.ChangeLanguageDto;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@DisplayName("Integration tests for SelfAccountController")
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("it")
+public class SelfAccountControllerIT extends PostgresqlContainerSetup {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    @Qualifier("accountsModTxManager")
+    private PlatformTransactionManager txManager;
+
+    @Autowired
+    @Qualifier("accountsModEmFactory")
+    private EntityManager em;
+
+    private TransactionTemplate txTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final String BASE_API = "%s/account/self".formatted(ApiRoot.API_ROOT);
+
+    @BeforeEach
+    void setUp() {
+        txTemplate = new TransactionTemplate(txManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        txTemplate.execute(status -> {
+            em.createQuery("DELETE FROM Account ").executeUpdate();
+            em.createQuery("DELETE FROM Contact ").executeUpdate();
+            em.createQuery("DELETE FROM Address ").executeUpdate();
+            return status;
+        });
+
+        AccountsModuleTestData.resetCounter();
+    }
+
+    @Nested
+    @DisplayName("GET getOwnAccountInformation()")
+    class GetOwnAccountInformation {
+
+        @Nested
+        @DisplayName("Positive")
+        class Positive {
+
+            @Test
+            @DisplayName("Should return response with status 304 when If-None-Match has current ETag of the account")
+            void getOwnAccountInformation_should_return_status_not_modified() throws Exception {
+                //given
+                Account givenAccount = persistAccount();
+                String givenETag = findETag(givenAccount);
+
+                //when
+                ResultActions resultActions = mockMvc.perform(get(BASE_API)
+                    .header(HttpHeaders.AUTHORIZATION, bearerToken(givenAccount))
+                    .header(HttpHeaders.IF_NONE_MATCH, givenETag));
+
+                //then
+                resultActions.andDo(print())
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, givenETag))
+                    .andExpect(content().string(""));
+            }
+
+            @Test
+            @DisplayName("Should return response with status 200 and new ETag once the account is changed")
+            void getOwnAccountInformation_should_return_new_etag_after_change() throws Exception {
+                //given
+                Account givenAccount = persistAccount();
+                String givenETag = findETag(givenAccount);
+
+                mockMvc.perform(put("%s/change-locale".formatted(BASE_API))
+                        .header(HttpHeaders.AUTHORIZATION, bearerToken(givenAccount))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new ChangeLanguageDto("pl"))))
+                    .andExpect(status().isOk());
+
+                //when
+                ResultActions resultActions = mockMvc.perform(get(BASE_API)
+                    .header(HttpHeaders.AUTHORIZATION, bearerToken(givenAccount))
+                    .header(HttpHeaders.IF_NONE_MATCH, givenETag));
+
+                //then
+                resultActions.andDo(print())
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, not(givenETag)))
+                    .andExpect(jsonPath("$.locale", is("pl")));
+            }
+        }
+    }
+
+    private String findETag(Account account) throws Exception {
+        return mockMvc.perform(get(BASE_API)
+                .header(HttpHeaders.AUTHORIZATION, bearerToken(account)))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, notNullValue()))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+    }
+
+    private String bearerToken(Account account) {
+        return "Bearer %s".formatted(jwtService.generateAuthToken(account));
+    }
+
+    private Account persistAccount() {
+        Account account = AccountsModuleTestData.buildDefaultAccount();
+        txTemplate.execute(status -> {
+            em.persist(account);
+            return status;
+        });
+        return account;
+    }
+}
@@ -0,0 +1,177 @@
+package pl.lodz.p.edu.shop.integration.service;
+
+import com.sun.management.ThreadMXBean;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.lodz.p.edu.shop.AccountsModuleTestData;
+import pl.lodz.p.edu.shop.OrdersModuleTestData;
+import pl.lodz.p.edu.shop.config.PostgresqlContainerSetup;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Account;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Order;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Product;
+import pl.lodz.p.edu.shop.logic.service.api.OrderService;
+import pl.lodz.p.edu.shop.presentation.dto.order.OrderOutputDto;
+import pl.lodz.p.edu.shop.presentation.mapper.api.OrderMapper;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+@DisplayName("Benchmark of loading a page of orders with entity graph and with summary projection")
+@SpringBootTest
+@ActiveProfiles("it")
+public class OrderListingBenchmarkIT extends PostgresqlContainerSetup {
+
+    private static final int ORDERS = 100;
+    private static final int PRODUCTS_PER_ORDER = 3;
+    private static final int PAGE_SIZE = 20;
+
+    @Autowired
+    @Qualifier("OrderServiceImpl")
+    private OrderService orderService;
+
+    @Autowired
+    private OrderMapper orderMapper;
+
+    @Autowired
+    @Qualifier("accountsModTxManager")
+    private PlatformTransactionManager accountsTxManager;
+
+    @Autowired
+    @Qualifier("accountsModEmFactory")
+    private EntityManager accountsEm;
+
+    @Autowired
+    @Qualifier("ordersModTxManager")
+    private PlatformTransactionManager ordersTxManager;
+
+    @Autowired
+    @Qualifier("ordersModEmFactory")
+    private EntityManager ordersEm;
+
+    private TransactionTemplate accountsTxTemplate;
+    private TransactionTemplate ordersTxTemplate;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        accountsTxTemplate = new TransactionTemplate(accountsTxManager);
+        ordersTxTemplate = new TransactionTemplate(ordersTxManager);
+        statistics = ordersEm.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.setStatisticsEnabled(false);
+
+        ordersTxTemplate.execute(status -> {
+            ordersEm.createQuery("DELETE FROM OrderedProduct ").executeUpdate();
+            ordersEm.createQuery("DELETE FROM Order ").executeUpdate();
+            ordersEm.createQuery("DELETE FROM AccountProductPurchase ").executeUpdate();
+            ordersEm.createQuery("DELETE FROM Product ").executeUpdate();
+            return status;
+        });
+
+        accountsTxTemplate.execute(status -> {
+            accountsEm.createQuery("DELETE FROM Account ").executeUpdate();
+            accountsEm.createQuery("DELETE FROM Contact ").executeUpdate();
+            accountsEm.createQuery("DELETE FROM Address ").executeUpdate();
+            return status;
+        });
+
+        AccountsModuleTestData.resetCounter();
+        OrdersModuleTestData.resetCounter();
+    }
+
+    @Test
+    @DisplayName("Summary projection should load no entities for a page of orders")
+    void findAllByUserLogin_benchmark() {
+        //given
+        Account givenAccount = AccountsModuleTestData.buildDefaultAccount();
+        accountsTxTemplate.execute(status -> {
+            accountsEm.persist(givenAccount);
+            return status;
+        });
+
+        List<Product> givenProducts = IntStream.range(0, PRODUCTS_PER_ORDER)
+            .mapToObj(i -> OrdersModuleTestData.getDefaultNewProductBuilder().quantity(ORDERS).build())
+            .toList();
+        ordersTxTemplate.execute(status -> {
+            givenProducts.forEach(ordersEm::persist);
+            return status;
+        });
+
+        Map<Long, Integer> givenOrder = givenProducts.stream()
+            .collect(Collectors.toMap(Product::getId, product -> 1));
+        for (int i = 0; i < ORDERS; i++) {
+            orderService.placeAndOrder(givenAccount.getLogin(), givenOrder);
+        }
+
+        //when
+        Measurement entityGraph = measure(() -> ordersTxTemplate.execute(status -> ordersEm
+            .createQuery("SELECT o FROM Order o LEFT JOIN FETCH o.orderedProducts WHERE o.account.login = :login " +
+                "ORDER BY o.createdAt DESC", Order.class)
+            .setParameter("login", givenAccount.getLogin())
+            .setMaxResults(PAGE_SIZE)
+            .getResultList()
+            .stream()
+            .map(orderMapper::mapToMinimalOrderOutputDTO)
+            .toList()));
+
+        Measurement projection = measure(() -> orderService.findAllByUserLogin(givenAccount.getLogin(),
+                PageRequest.of(0, PAGE_SIZE))
+            .map(orderMapper::mapToMinimalOrderOutputDTO)
+            .getContent());
+
+        log.info("Entity graph: {} orders, {} entities and {} collections loaded, {} KB allocated",
+            entityGraph.orders(), entityGraph.entityLoads(), entityGraph.collectionLoads(),
+            entityGraph.allocatedBytes() / 1024);
+        log.info("Projection: {} orders, {} entities and {} collections loaded, {} KB allocated",
+            projection.orders(), projection.entityLoads(), projection.collectionLoads(),
+            projection.allocatedBytes() / 1024);
+
+        //then
+        assertThat(projection.orders())
+            .isEqualTo(entityGraph.orders())
+            .isEqualTo(PAGE_SIZE);
+        assertThat(projection.entityLoads())
+            .isZero();
+        assertThat(entityGraph.entityLoads())
+            .isGreaterThanOrEqualTo((long) ORDERS * (PRODUCTS_PER_ORDER + 1));
+    }
+
+    private Measurement measure(Supplier<List<OrderOutputDto>> listing) {
+        ThreadMXBean threadBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        statistics.clear();
+
+        long allocatedBefore = threadBean.getCurrentThreadAllocatedBytes();
+        List<OrderOutputDto> orders = listing.get();
+        long allocatedBytes = threadBean.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        return new Measurement(orders.size(), statistics.getEntityLoadCount(), statistics.getCollectionLoadCount(),
+            allocatedBytes);
+    }
+
+    private record Measurement(int orders, long entityLoads, long collectionLoads, long allocatedBytes) {
+    }
+}
@@ -0,0 +1,533 @@
+package pl.lodz.p.edu.shop.integration.service;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.lodz.p.edu.shop.AccountsModuleTestData;
+import pl.lodz.p.edu.shop.OrdersModuleTestData;
+import pl.lodz.p.edu.shop.config.PostgresqlContainerSetup;
+import pl.lodz.p.edu.shop.config.SqlStatementRecorder;
+import pl.lodz.p.edu.shop.dataaccess.model.embeddable.RatingHistogram;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Account;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Order;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Product;
+import pl.lodz.p.edu.shop.dataaccess.model.projection.OrderExportLine;
+import pl.lodz.p.edu.shop.exception.ExceptionMessage;
+import pl.lodz.p.edu.shop.exception.order.CantFinishOrderException;
+import pl.lodz.p.edu.shop.exception.order.IdempotencyKeyReusedException;
+import pl.lodz.p.edu.shop.exception.order.helper.FailedOrderItem;
+import pl.lodz.p.edu.shop.logic.model.OrderCursor;
+import pl.lodz.p.edu.shop.logic.model.OrderPlacementRequest;
+import pl.lodz.p.edu.shop.logic.model.OrderPlacementResult;
+import pl.lodz.p.edu.shop.logic.service.api.OrderService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchException;
+import static org.assertj.core.api.Assertions.tuple;
+import static pl.lodz.p.edu.shop.exception.order.helper.FailedOrderItem.Reason.NOT_ENOUGH_QUANTITY;
+import static pl.lodz.p.edu.shop.exception.order.helper.FailedOrderItem.Reason.PRODUCT_NOT_FOUND;
+
+@DisplayName("Integration tests for OrderService")
+@SpringBootTest
+@ActiveProfiles("it")
+public class OrderServiceIT extends PostgresqlContainerSetup {
+
+    @Autowired
+    private OrderService underTest;
+
+    @Autowired
+    @Qualifier("accountsModTxManager")
+    private PlatformTransactionManager accountsTxManager;
+
+    @Autowired
+    @Qualifier("accountsModEmFactory")
+    private EntityManager accountsEm;
+
+    @Autowired
+    @Qualifier("ordersModTxManager")
+    private PlatformTransactionManager ordersTxManager;
+
+    @Autowired
+    @Qualifier("ordersModEmFactory")
+    private EntityManager ordersEm;
+
+    private TransactionTemplate accountsTxTemplate;
+    private TransactionTemplate ordersTxTemplate;
+
+    @BeforeEach
+    void setUp() {
+        accountsTxTemplate = new TransactionTemplate(accountsTxManager);
+        ordersTxTemplate = new TransactionTemplate(ordersTxManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ordersTxTemplate.execute(status -> {
+            ordersEm.createQuery("DELETE FROM OrderIdempotencyKey ").executeUpdate();
+            ordersEm.createQuery("DELETE FROM OrderedProduct ").executeUpdate();
+            ordersEm.createQuery("DELETE FROM Rate ").executeUpdate();
+            ordersEm.createQuery("DELETE FROM Order ").executeUpdate();
+            ordersEm.createQuery("DELETE FROM AccountProductPurchase ").executeUpdate();
+            ordersEm.createQuery("DELETE FROM Product ").executeUpdate();
+            return status;
+        });
+
+        accountsTxTemplate.execute(status -> {
+            accountsEm.createQuery("DELETE FROM Account ").executeUpdate();
+            accountsEm.createQuery("DELETE FROM Contact ").executeUpdate();
+            accountsEm.createQuery("DELETE FROM Address ").executeUpdate();
+            return status;
+        });
+
+        AccountsModuleTestData.resetCounter();
+        OrdersModuleTestData.resetCounter();
+    }
+
+    @Test
+    @DisplayName("Should place an order and decrease quantity of ordered products only")
+    void placeAndOrder_positive_1() {
+        //given
+        Account givenAccount = persistAccount();
+        Product givenOrderedProduct = persistProduct(5);
+        Product givenOtherProduct = persistProduct(5);
+
+        //when
+        Order result = underTest.placeAndOrder(givenAccount.getLogin(), Map.of(givenOrderedProduct.getId(), 2));
+
+        //then
+        assertThat(result.getId())
+            .isNotNull();
+        assertThat(result.getOrderedProducts())
+            .hasSize(1);
+        assertThat(findProductQuantity(givenOrderedProduct.getId()))
+            .isEqualTo(3);
+        assertThat(findProductQuantity(givenOtherProduct.getId()))
+            .isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Should report every line item that can't be ordered and leave stock untouched")
+    void placeAndOrder_negative_1() {
+        //given
+        Account givenAccount = persistAccount();
+        Product givenAvailableProduct = persistProduct(5);
+        Product givenRunningOutProduct = persistProduct(1);
+        Long givenNotExistingProductId = -1L;
+
+        Map<Long, Integer> givenRequest = Map.of(
+            givenAvailableProduct.getId(), 1,
+            givenRunningOutProduct.getId(), 3,
+            givenNotExistingProductId, 1
+        );
+
+        //when
+        Exception exception = catchException(() -> underTest.placeAndOrder(givenAccount.getLogin(), givenRequest));
+
+        //then
+        assertThat(exception)
+            .isNotNull()
+            .isExactlyInstanceOf(CantFinishOrderException.class)
+            .hasMessageContaining(ExceptionMessage.Orders.ORDER_CANT_FINISH);
+        assertThat(((CantFinishOrderException) exception).getFailedItems())
+            .containsExactlyInAnyOrder(
+                new FailedOrderItem(givenRunningOutProduct.getId(), 3, 1, NOT_ENOUGH_QUANTITY),
+                new FailedOrderItem(givenNotExistingProductId, 1, 0, PRODUCT_NOT_FOUND)
+            );
+        assertThat(findProductQuantity(givenAvailableProduct.getId()))
+            .isEqualTo(5);
+        assertThat(findProductQuantity(givenRunningOutProduct.getId()))
+            .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should place an order only once for the same idempotency key")
+    void placeAndOrder_idempotency_1() {
+        //given
+        Account givenAccount = persistAccount();
+        Product givenProduct = persistProduct(5);
+        Map<Long, Integer> givenRequest = Map.of(givenProduct.getId(), 2);
+        String givenIdempotencyKey = "a6f1c2e0-5b7d-4c1a-9f3e-2d8b7c6a5e4f";
+
+        //when
+        Order firstResult = underTest.placeAndOrder(givenAccount.getLogin(), givenRequest, givenIdempotencyKey);
+        Order repeatedResult = underTest.placeAndOrder(givenAccount.getLogin(), givenRequest, givenIdempotencyKey);
+
+        //then
+        assertThat(repeatedResult.getId())
+            .isEqualTo(firstResult.getId());
+        assertThat(findProductQuantity(givenProduct.getId()))
+            .isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should reject the idempotency key reused for different products and leave stock untouched")
+    void placeAndOrder_idempotency_negative_1() {
+        //given
+        Account givenAccount = persistAccount();
+        Product givenProduct = persistProduct(5);
+        String givenIdempotencyKey = "0c9e7d4b-3a2f-4e18-b6d5-7f1a9c8e2b30";
+        underTest.placeAndOrder(givenAccount.getLogin(), Map.of(givenProduct.getId(), 2), givenIdempotencyKey);
+
+        //when
+        Exception exception = catchException(() ->
+            underTest.placeAndOrder(givenAccount.getLogin(), Map.of(givenProduct.getId(), 1), givenIdempotencyKey));
+
+        //then
+        assertThat(exception)
+            .isNotNull()
+            .isExactlyInstanceOf(IdempotencyKeyReusedException.class)
+            .hasMessageContaining(ExceptionMessage.Orders.IDEMPOTENCY_KEY_REUSED);
+        assertThat(findProductQuantity(givenProduct.getId()))
+            .isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Concurrent orders with the same idempotency key should be placed once and return the same order")
+    void placeAndOrder_idempotency_concurrent_1() throws Exception {
+        //given
+        int givenNumberOfRequests = 8;
+        Account givenAccount = persistAccount();
+        Product givenProduct = persistProduct(5);
+        Map<Long, Integer> givenRequest = Map.of(givenProduct.getId(), 2);
+        String givenIdempotencyKey = "5d2b8f61-9e4c-4a07-8c3d-1b6e0f7a2c95";
+
+        ExecutorService executor = Executors.newFixedThreadPool(givenNumberOfRequests);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        List<Future<Long>> results = new ArrayList<>();
+
+        //when
+        for (int i = 0; i < givenNumberOfRequests; i++) {
+            results.add(executor.submit(() -> {
+                startSignal.await();
+                return underTest.placeAndOrder(givenAccount.getLogin(), givenRequest, givenIdempotencyKey).getId();
+            }));
+        }
+        startSignal.countDown();
+
+        List<Long> orderIds = new ArrayList<>();
+        for (Future<Long> result : results) {
+            orderIds.add(result.get(30, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        //then
+        assertThat(orderIds)
+            .containsOnly(orderIds.get(0));
+        assertThat(findProductQuantity(givenProduct.getId()))
+            .isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Concurrent orders for the same product should never sell more than is in stock")
+    void placeAndOrder_concurrent_1() throws Exception {
+        //given
+        int givenQuantity = 10;
+        int givenNumberOfOrders = 25;
+        Account givenAccount = persistAccount();
+        Product givenProduct = persistProduct(givenQuantity);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+
+        //when
+        for (int i = 0; i < givenNumberOfOrders; i++) {
+            results.add(executor.submit(() -> {
+                startSignal.await();
+                try {
+                    underTest.placeAndOrder(givenAccount.getLogin(), Map.of(givenProduct.getId(), 1));
+                    return true;
+                } catch (CantFinishOrderException e) {
+                    return false;
+                }
+            }));
+        }
+        startSignal.countDown();
+
+        int placedOrders = 0;
+        for (Future<Boolean> result : results) {
+            placedOrders += result.get(30, TimeUnit.SECONDS) ? 1 : 0;
+        }
+        executor.shutdown();
+
+        //then
+        assertThat(placedOrders)
+            .isEqualTo(givenQuantity);
+        assertThat(findProductQuantity(givenProduct.getId()))
+            .isZero();
+    }
+
+    @Test
+    @DisplayName("Should place orders of a batch together and reject only those that can't be finished")
+    void placeAndOrderAll_positive_1() {
+        //given
+        Account givenAccount = persistAccount();
+        Product givenProduct = persistProduct(3);
+        Map<Long, Integer> givenTwoUnits = Map.of(givenProduct.getId(), 2);
+        Map<Long, Integer> givenOneUnit = Map.of(givenProduct.getId(), 1);
+
+        List<OrderPlacementRequest> givenRequests = List.of(
+            new OrderPlacementRequest(givenAccount.getLogin(), givenTwoUnits, null),
+            new OrderPlacementRequest(givenAccount.getLogin(), givenTwoUnits, null),
+            new OrderPlacementRequest("notExistingLogin", givenOneUnit, null),
+            new OrderPlacementRequest(givenAccount.getLogin(), givenOneUnit, null)
+        );
+
+        //when
+        List<OrderPlacementResult> result = underTest.placeAndOrderAll(givenRequests);
+
+        //then
+        assertThat(result)
+            .extracting(OrderPlacementResult::isPlaced)
+            .containsExactly(true, false, false, true);
+        assertThat(result.get(1).failure())
+            .isExactlyInstanceOf(CantFinishOrderException.class);
+        assertThat(findProductQuantity(givenProduct.getId()))
+            .isZero();
+        assertThat(ordersTxTemplate.execute(status -> ordersEm.createQuery("SELECT COUNT(o) FROM Order o", Long.class)
+            .getSingleResult()))
+            .isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("Should page order history in the database and fetch products of the page's orders only")
+    void findAllByUserLogin_keyset_positive_1() {
+        //given
+        Account givenAccount = persistAccount();
+        Product givenProduct = persistProduct(10);
+        List<Long> givenOrderIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            givenOrderIds.add(underTest.placeAndOrder(givenAccount.getLogin(), Map.of(givenProduct.getId(), 1)).getId());
+        }
+
+        //when
+        SqlStatementRecorder.start();
+        List<Order> firstPage = underTest.findAllByUserLogin(givenAccount.getLogin(), null, 2);
+        List<String> firstPageStatements = SqlStatementRecorder.stop();
+
+        Order lastOrderOfFirstPage = firstPage.get(firstPage.size() - 1);
+        OrderCursor givenCursor = new OrderCursor(lastOrderOfFirstPage.getCreatedAt(), lastOrderOfFirstPage.getId());
+        List<Order> secondPage = underTest.findAllByUserLogin(givenAccount.getLogin(), givenCursor, 2);
+
+        //then
+        assertThat(firstPage)
+            .extracting(Order::getId)
+            .containsExactly(givenOrderIds.get(4), givenOrderIds.get(3));
+        assertThat(secondPage)
+            .extracting(Order::getId)
+            .containsExactly(givenOrderIds.get(2), givenOrderIds.get(1));
+        assertThat(firstPage)
+            .allSatisfy(order -> assertThat(Hibernate.isInitialized(order.getOrderedProducts())).isTrue());
+        assertThat(firstPageStatements)
+            .anySatisfy(sql -> assertThat(sql.toLowerCase())
+                .doesNotContain("ordered_products")
+                .containsAnyOf(" limit ", " fetch first "));
+    }
+
+    @Test
+    @DisplayName("Should export lines of orders created in given range only, ordered by creation time")
+    void exportOrders_positive_1() {
+        //given
+        Account givenAccount = persistAccount();
+        Product givenFirstProduct = persistProduct(10);
+        Product givenSecondProduct = persistProduct(10);
+        Order givenFirstOrder = underTest.placeAndOrder(givenAccount.getLogin(),
+            Map.of(givenFirstProduct.getId(), 1, givenSecondProduct.getId(), 2));
+        Order givenSecondOrder = underTest.placeAndOrder(givenAccount.getLogin(), Map.of(givenFirstProduct.getId(), 3));
+
+        //when
+        List<OrderExportLine> allLines = new ArrayList<>();
+        underTest.exportOrders(null, null, allLines::add);
+
+        List<OrderExportLine> linesAfterFirstOrder = new ArrayList<>();
+        LocalDateTime givenSecondOrderCreatedAt = ordersTxTemplate.execute(status ->
+            ordersEm.find(Order.class, givenSecondOrder.getId()).getCreatedAt());
+        underTest.exportOrders(givenSecondOrderCreatedAt, null, linesAfterFirstOrder::add);
+
+        //then
+        assertThat(allLines)
+            .extracting(OrderExportLine::orderId)
+            .containsExactly(givenFirstOrder.getId(), givenFirstOrder.getId(), givenSecondOrder.getId());
+        assertThat(allLines)
+            .allSatisfy(line -> assertThat(line.login()).isEqualTo(givenAccount.getLogin()));
+        assertThat(linesAfterFirstOrder)
+            .extracting(OrderExportLine::orderId, OrderExportLine::quantity)
+            .containsExactly(tuple(givenSecondOrder.getId(), 3));
+    }
+
+    @Test
+    @DisplayName("Should keep rating aggregates of the product in line with its rates")
+    void rateOrderedProduct_aggregates_positive_1() {
+        //given
+        Account givenFirstAccount = persistAccount();
+        Account givenSecondAccount = persistAccount();
+        Product givenProduct = persistProduct(5);
+        Long givenFirstOrderedProductId = placeOrderOfOneProduct(givenFirstAccount, givenProduct);
+        Long givenSecondOrderedProductId = placeOrderOfOneProduct(givenSecondAccount, givenProduct);
+
+        //when
+        underTest.rateOrderedProduct(givenFirstAccount.getLogin(), givenFirstOrderedProductId, 5);
+        underTest.rateOrderedProduct(givenSecondAccount.getLogin(), givenSecondOrderedProductId, 2);
+        underTest.reRateOrderedProduct(givenSecondAccount.getLogin(), givenSecondOrderedProductId, 4);
+        Product productAfterRating = findProduct(givenProduct.getId());
+
+        underTest.removeRate(givenFirstAccount.getLogin(), givenFirstOrderedProductId);
+        Product productAfterRemoval = findProduct(givenProduct.getId());
+
+        //then
+        assertThat(productAfterRating)
+            .extracting(Product::getRatingSum, Product::getRatingCount, Product::getAverageRating)
+            .containsExactly(9L, 2, 4.5);
+        assertThat(productAfterRemoval)
+            .extracting(Product::getRatingSum, Product::getRatingCount, Product::getAverageRating)
+            .containsExactly(4L, 1, 4.0);
+        assertThat(productAfterRating.getRatingHistogram())
+            .isEqualTo(RatingHistogram.builder().fourStarCount(1).fiveStarCount(1).build());
+        assertThat(productAfterRemoval.getRatingHistogram())
+            .isEqualTo(RatingHistogram.builder().fourStarCount(1).build());
+    }
+
+    @Test
+    @DisplayName("Should recalculate rating aggregates that drifted from the rates of the product")
+    void reconcileRatingAggregates_positive_1() {
+        //given
+        Account givenAccount = persistAccount();
+        Product givenProduct = persistProduct(5);
+        Product givenNotRatedProduct = persistProduct(5);
+        Long givenOrderedProductId = placeOrderOfOneProduct(givenAccount, givenProduct);
+        underTest.rateOrderedProduct(givenAccount.getLogin(), givenOrderedProductId, 3);
+
+        ordersTxTemplate.execute(status -> ordersEm.createNativeQuery(
+                "UPDATE products SET rating_sum = 0, rating_count = 0, average_rating = 0, three_star_count = 0 " +
+                    "WHERE id = :id")
+            .setParameter("id", givenProduct.getId())
+            .executeUpdate());
+
+        //when
+        int result = underTest.reconcileRatingAggregates();
+
+        //then
+        assertThat(result)
+            .isEqualTo(1);
+        assertThat(findProduct(givenProduct.getId()))
+            .extracting(Product::getRatingSum, Product::getRatingCount, Product::getAverageRating)
+            .containsExactly(3L, 1, 3.0);
+        assertThat(findProduct(givenProduct.getId()).getRatingHistogram())
+            .isEqualTo(RatingHistogram.builder().threeStarCount(1).build());
+        assertThat(findProduct(givenNotRatedProduct.getId()))
+            .extracting(Product::getRatingSum, Product::getRatingCount, Product::getAverageRating)
+            .containsExactly(0L, 0, 0.0);
+    }
+
+    @Test
+    @DisplayName("Should count orders of the account that contain the product as orders are placed")
+    void placeAndOrder_purchaseCounts_positive_1() {
+        //given
+        Account givenAccount = persistAccount();
+        Product givenProduct = persistProduct(5);
+        Product givenOtherProduct = persistProduct(5);
+
+        //when
+        underTest.placeAndOrder(givenAccount.getLogin(), Map.of(givenProduct.getId(), 2));
+        underTest.placeAndOrder(givenAccount.getLogin(), Map.of(givenProduct.getId(), 1, givenOtherProduct.getId(), 1));
+
+        //then
+        assertThat(findPurchaseCount(givenAccount, givenProduct))
+            .isEqualTo(2);
+        assertThat(findPurchaseCount(givenAccount, givenOtherProduct))
+            .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should recalculate purchase counters that drifted from the order history of the account")
+    void reconcilePurchaseCounts_positive_1() {
+        //given
+        Account givenAccount = persistAccount();
+        Account givenOtherAccount = persistAccount();
+        Product givenProduct = persistProduct(5);
+        Product givenOtherProduct = persistProduct(5);
+        placeOrderOfOneProduct(givenAccount, givenProduct);
+        placeOrderOfOneProduct(givenAccount, givenOtherProduct);
+        placeOrderOfOneProduct(givenOtherAccount, givenProduct);
+
+        ordersTxTemplate.execute(status -> {
+            ordersEm.createNativeQuery("UPDATE account_product_purchases SET purchase_count = 5 " +
+                    "WHERE account_id = :accountId AND product_id = :productId")
+                .setParameter("accountId", givenAccount.getId())
+                .setParameter("productId", givenProduct.getId())
+                .executeUpdate();
+            return ordersEm.createNativeQuery("DELETE FROM account_product_purchases " +
+                    "WHERE account_id = :accountId AND product_id = :productId")
+                .setParameter("accountId", givenAccount.getId())
+                .setParameter("productId", givenOtherProduct.getId())
+                .executeUpdate();
+        });
+
+        //when
+        int result = underTest.reconcilePurchaseCounts();
+
+        //then
+        assertThat(result)
+            .isEqualTo(1);
+        assertThat(findPurchaseCount(givenAccount, givenProduct))
+            .isEqualTo(1);
+        assertThat(findPurchaseCount(givenAccount, givenOtherProduct))
+            .isEqualTo(1);
+        assertThat(findPurchaseCount(givenOtherAccount, givenProduct))
+            .isEqualTo(1);
+    }
+
+    private Long placeOrderOfOneProduct(Account account, Product product) {
+        Order order = underTest.placeAndOrder(account.getLogin(), Map.of(product.getId(), 1));
+        return order.getOrderedProducts().iterator().next().getId();
+    }
+
+    private Account persistAccount() {
+        Account account = AccountsModuleTestData.buildDefaultAccount();
+        accountsTxTemplate.execute(status -> {
+            accountsEm.persist(account);
+            return status;
+        });
+        return account;
+    }
+
+    private Product persistProduct(int quantity) {
+        Product product = OrdersModuleTestData.getDefaultNewProductBuilder()
+            .quantity(quantity)
+            .build();
+        ordersTxTemplate.execute(status -> {
+            ordersEm.persist(product);
+            return status;
+        });
+        return product;
+    }
+
+    private Product findProduct(Long productId) {
+        return ordersTxTemplate.execute(status -> ordersEm.find(Product.class, productId));
+    }
+
+    private Integer findProductQuantity(Long productId) {
+        return ordersTxTemplate.execute(status -> ordersEm.find(Product.class, productId).getQuantity());
+    }
+
+    private Integer findPurchaseCount(Account account, Product product) {
+        return ordersTxTemplate.execute(status -> ordersEm.createQuery(
+                "SELECT c.purchaseCount FROM AccountProductPurchase c " +
+                    "WHERE c.account.id = :accountId AND c.product.id = :productId", Integer.class)
+            .setParameter("accountId", account.getId())
+            .setParameter("productId", product.getId())
+            .getSingleResult());
+    }
+}
@@ -0,0 +1,166 @@
+package pl.lodz.p.edu.shop.integration.service;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import pl.lodz.p.edu.shop.OrdersModuleTestData;
+import pl.lodz.p.edu.shop.config.PostgresqlContainerSetup;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Category;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Product;
+import pl.lodz.p.edu.shop.dataaccess.model.other.AttributeFilter;
+import pl.lodz.p.edu.shop.dataaccess.model.projection.AttributeFacet;
+import pl.lodz.p.edu.shop.logic.model.ProductFacetPage;
+import pl.lodz.p.edu.shop.logic.service.api.CategoryService;
+import pl.lodz.p.edu.shop.logic.service.api.ProductService;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DisplayName("Integration tests for filtering and listing products with category attributes")
+@SpringBootTest
+@ActiveProfiles("it")
+public class ProductFilterIT extends PostgresqlContainerSetup {
+
+    private static final String CATEGORY_NAME = "Mate";
+
+    @Autowired
+    @Qualifier("ProductServiceImpl")
+    private ProductService productService;
+
+    @Autowired
+    @Qualifier("CategoryServiceImpl")
+    private CategoryService categoryService;
+
+    @Autowired
+    @Qualifier("ordersModTxManager")
+    private PlatformTransactionManager ordersTxManager;
+
+    @Autowired
+    @Qualifier("ordersModEmFactory")
+    private EntityManager ordersEm;
+
+    private TransactionTemplate ordersTxTemplate;
+    private List<Long> productIds;
+
+    @BeforeEach
+    void setUp() {
+        ordersTxTemplate = new TransactionTemplate(ordersTxManager);
+        categoryService.createCategory(Category.builder().name(CATEGORY_NAME).build(), Map.of(
+            "power_level", List.of("NUMBER"),
+            "brand", List.of("TEXT"),
+            "smoked", List.of("LOGICAL_VALUE")
+        ));
+
+        productIds = List.of(
+            createProduct(2, "Taragui", false),
+            createProduct(5, "Taragui", true),
+            createProduct(8, "Rosamonte", true),
+            createProduct(9, "Taragui", true)
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        ordersTxTemplate.execute(status -> {
+            ordersEm.createNativeQuery("DROP TABLE mates").executeUpdate();
+            ordersEm.createQuery("DELETE FROM Product ").executeUpdate();
+            ordersEm.createQuery("DELETE FROM Category WHERE name = :name")
+                .setParameter("name", CATEGORY_NAME)
+                .executeUpdate();
+            return status;
+        });
+
+        OrdersModuleTestData.resetCounter();
+    }
+
+    @Test
+    @DisplayName("Should find a page of products matching all filters and count facets over all of them")
+    void filterByCategory_positive_1() {
+        //given
+        List<AttributeFilter> givenFilters = List.of(
+            new AttributeFilter("power_level", AttributeFilter.Operator.GTE, "5"),
+            new AttributeFilter("smoked", AttributeFilter.Operator.EQ, "true")
+        );
+
+        //when
+        ProductFacetPage result = productService.filterByCategory(CATEGORY_NAME, givenFilters, PageRequest.of(0, 2));
+
+        //then
+        assertThat(result.products().getTotalElements())
+            .isEqualTo(3);
+        assertThat(result.products().getContent())
+            .extracting(Product::getId)
+            .containsExactly(productIds.get(1), productIds.get(2));
+        assertThat(result.facets())
+            .filteredOn(facet -> facet.attribute().equals("brand"))
+            .extracting(AttributeFacet::value, AttributeFacet::count)
+            .containsExactly(tuple("Taragui", 2L), tuple("Rosamonte", 1L));
+        assertThat(result.facets())
+            .filteredOn(facet -> facet.attribute().equals("smoked"))
+            .extracting(AttributeFacet::value, AttributeFacet::count)
+            .containsExactly(tuple("true", 3L));
+        assertThat(result.facets())
+            .filteredOn(facet -> facet.attribute().equals("power_level"))
+            .extracting(facet -> facet.from().intValue(), facet -> facet.to().intValue(), AttributeFacet::count)
+            .containsExactly(tuple(5, 5, 1L), tuple(8, 8, 1L), tuple(9, 9, 1L));
+    }
+
+    @Test
+    @DisplayName("Should attach category attributes to every product of a listed page")
+    void findByCategory_table_properties_positive_1() {
+        //when
+        List<Product> result = productService.findByCategory(PageRequest.of(0, 10, Sort.by("id")), CATEGORY_NAME)
+            .getContent();
+
+        //then
+        assertThat(result)
+            .extracting(product -> product.getTableProperties().get("power_level"),
+                product -> product.getTableProperties().get("brand"))
+            .containsExactly(tuple(2, "Taragui"), tuple(5, "Taragui"), tuple(8, "Rosamonte"), tuple(9, "Taragui"));
+        assertThat(result)
+            .allSatisfy(product -> assertThat(product.getTableProperties()).doesNotContainKey("product_id"));
+    }
+
+    @Test
+    @DisplayName("Should reject filters on unknown attributes, ranges of text and values of a wrong type")
+    void filterByCategory_negative_1() {
+        List<List<AttributeFilter>> givenFilters = List.of(
+            List.of(new AttributeFilter("origin", AttributeFilter.Operator.EQ, "Brazil")),
+            List.of(new AttributeFilter("brand", AttributeFilter.Operator.GT, "A")),
+            List.of(new AttributeFilter("power_level", AttributeFilter.Operator.EQ, "strong")),
+            List.of(new AttributeFilter("smoked", AttributeFilter.Operator.EQ, "yes"))
+        );
+
+        for (List<AttributeFilter> filters : givenFilters) {
+            assertThatThrownBy(() -> productService.filterByCategory(CATEGORY_NAME, filters, PageRequest.of(0, 10)))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(e -> ((ResponseStatusException) e).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    private Long createProduct(int powerLevel, String brand, boolean smoked) {
+        Product product = OrdersModuleTestData.getDefaultNewProductBuilder()
+            .category(Category.builder().name(CATEGORY_NAME).build())
+            .tableProperties(new HashMap<>(Map.of("power_level", powerLevel, "brand", brand, "smoked", smoked)))
+            .build();
+        return productService.create(product).getId();
+    }
+}
@@ -0,0 +1,143 @@
+package pl.lodz.p.edu.shop.integration.service;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.lodz.p.edu.shop.OrdersModuleTestData;
+import pl.lodz.p.edu.shop.config.PostgresqlContainerSetup;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Product;
+import pl.lodz.p.edu.shop.dataaccess.model.projection.ProductSortKey;
+import pl.lodz.p.edu.shop.logic.service.api.ProductService;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+@DisplayName("Benchmark of listing the first and a deep page of products with offset and with keyset pagination")
+@SpringBootTest
+@ActiveProfiles("it")
+public class ProductScrollBenchmarkIT extends PostgresqlContainerSetup {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int DEEP_PAGE = 10_000;
+    private static final int PRODUCTS = (DEEP_PAGE + 1) * PAGE_SIZE;
+    private static final long FIRST_GENERATED_ID = 1_000_000;
+    private static final int RUNS = 5;
+
+    @Autowired
+    @Qualifier("ProductServiceImpl")
+    private ProductService productService;
+
+    @Autowired
+    @Qualifier("ordersModTxManager")
+    private PlatformTransactionManager ordersTxManager;
+
+    @Autowired
+    @Qualifier("ordersModEmFactory")
+    private EntityManager ordersEm;
+
+    private TransactionTemplate ordersTxTemplate;
+
+    @BeforeEach
+    void setUp() {
+        ordersTxTemplate = new TransactionTemplate(ordersTxManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ordersTxTemplate.execute(status -> {
+            ordersEm.createQuery("DELETE FROM Product ").executeUpdate();
+            return status;
+        });
+
+        OrdersModuleTestData.resetCounter();
+    }
+
+    @Test
+    @DisplayName("Keyset pagination should list a deep page as fast as the first one")
+    void findAll_benchmark() {
+        //given
+        persistProducts();
+        Sort.Order givenOrder = Sort.Order.asc("price");
+        ProductSortKey givenDeepPosition = findPositionBefore(DEEP_PAGE * PAGE_SIZE);
+
+        //when
+        Measurement keysetFirst = measure(() -> productService.findAll(givenOrder, null, PAGE_SIZE).products());
+        Measurement keysetDeep = measure(() ->
+            productService.findAll(givenOrder, givenDeepPosition, PAGE_SIZE).products());
+        Measurement offsetFirst = measure(() ->
+            productService.findAll(PageRequest.of(0, PAGE_SIZE, Sort.by(givenOrder, Sort.Order.asc("id"))))
+                .getContent());
+        Measurement offsetDeep = measure(() ->
+            productService.findAll(PageRequest.of(DEEP_PAGE, PAGE_SIZE, Sort.by(givenOrder, Sort.Order.asc("id"))))
+                .getContent());
+
+        log.info("Keyset: first page in {} us, page {} in {} us", keysetFirst.micros(), DEEP_PAGE, keysetDeep.micros());
+        log.info("Offset: first page in {} us, page {} in {} us", offsetFirst.micros(), DEEP_PAGE, offsetDeep.micros());
+
+        //then
+        assertThat(keysetDeep.productIds())
+            .hasSize(PAGE_SIZE)
+            .containsExactlyElementsOf(offsetDeep.productIds());
+        assertThat(keysetDeep.micros())
+            .isLessThan(offsetDeep.micros())
+            .isLessThanOrEqualTo(keysetFirst.micros() * 3 + TimeUnit.MILLISECONDS.toMicros(5));
+    }
+
+    private void persistProducts() {
+        ordersTxTemplate.execute(status -> ordersEm.createNativeQuery(
+                "INSERT INTO products (id, version, is_archival, created_by, created_at, name, price, quantity, " +
+                    "stock_shard_count, average_rating, rating_sum, rating_count, one_star_count, two_star_count, " +
+                    "three_star_count, four_star_count, five_star_count) " +
+                    "SELECT :firstId + n, 0, false, 'benchmark', now(), 'product' || n, n % 1000 + 0.99, 10, " +
+                    "0, 0.0, 0, 0, 0, 0, 0, 0, 0 " +
+                    "FROM generate_series(1, :products) n")
+            .setParameter("firstId", FIRST_GENERATED_ID)
+            .setParameter("products", PRODUCTS)
+            .executeUpdate());
+    }
+
+    private ProductSortKey findPositionBefore(int offset) {
+        return ordersTxTemplate.execute(status -> {
+            Object[] row = (Object[]) ordersEm.createNativeQuery(
+                    "SELECT id, CAST(price AS text) FROM products ORDER BY price, id OFFSET :offset LIMIT 1")
+                .setParameter("offset", offset - 1)
+                .getSingleResult();
+            return new ProductSortKey(((Number) row[0]).longValue(), (String) row[1]);
+        });
+    }
+
+    private Measurement measure(Supplier<List<Product>> listing) {
+        long[] micros = new long[RUNS];
+        List<Long> productIds = List.of();
+
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            productIds = listing.get().stream()
+                .map(Product::getId)
+                .toList();
+            micros[i] = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+        }
+
+        Arrays.sort(micros);
+        return new Measurement(productIds, micros[RUNS / 2]);
+    }
+
+    private record Measurement(List<Long> productIds, long micros) {
+    }
+}
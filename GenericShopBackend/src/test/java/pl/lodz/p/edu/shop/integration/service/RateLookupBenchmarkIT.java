@@ -0,0 +1,165 @@
+package pl.lodz.p.edu.shop.integration.service;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.lodz.p.edu.shop.AccountsModuleTestData;
+import pl.lodz.p.edu.shop.OrdersModuleTestData;
+import pl.lodz.p.edu.shop.config.PostgresqlContainerSetup;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Account;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Order;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Product;
+import pl.lodz.p.edu.shop.logic.service.api.OrderService;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+@DisplayName("Benchmark of finding a rate of the account among many rates of the product")
+@SpringBootTest
+@ActiveProfiles("it")
+public class RateLookupBenchmarkIT extends PostgresqlContainerSetup {
+
+    private static final int RATINGS = 100_000;
+    private static final long FIRST_GENERATED_ID = 1_000_000;
+
+    @Autowired
+    @Qualifier("OrderServiceImpl")
+    private OrderService orderService;
+
+    @Autowired
+    @Qualifier("accountsModTxManager")
+    private PlatformTransactionManager accountsTxManager;
+
+    @Autowired
+    @Qualifier("accountsModEmFactory")
+    private EntityManager accountsEm;
+
+    @Autowired
+    @Qualifier("ordersModTxManager")
+    private PlatformTransactionManager ordersTxManager;
+
+    @Autowired
+    @Qualifier("ordersModEmFactory")
+    private EntityManager ordersEm;
+
+    private TransactionTemplate accountsTxTemplate;
+    private TransactionTemplate ordersTxTemplate;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        accountsTxTemplate = new TransactionTemplate(accountsTxManager);
+        ordersTxTemplate = new TransactionTemplate(ordersTxManager);
+        statistics = ordersEm.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.setStatisticsEnabled(false);
+
+        ordersTxTemplate.execute(status -> {
+            ordersEm.createQuery("DELETE FROM OrderedProduct ").executeUpdate();
+            ordersEm.createQuery("DELETE FROM Rate ").executeUpdate();
+            ordersEm.createQuery("DELETE FROM Order ").executeUpdate();
+            ordersEm.createQuery("DELETE FROM AccountProductPurchase ").executeUpdate();
+            ordersEm.createQuery("DELETE FROM Product ").executeUpdate();
+            return status;
+        });
+
+        accountsTxTemplate.execute(status -> {
+            accountsEm.createQuery("DELETE FROM Account ").executeUpdate();
+            accountsEm.createQuery("DELETE FROM Contact ").executeUpdate();
+            accountsEm.createQuery("DELETE FROM Address ").executeUpdate();
+            return status;
+        });
+
+        AccountsModuleTestData.resetCounter();
+        OrdersModuleTestData.resetCounter();
+    }
+
+    @Test
+    @DisplayName("Rate lookup by account and product should not load other rates of the product")
+    void reRateOrderedProduct_benchmark() {
+        //given
+        Account givenAccount = AccountsModuleTestData.buildDefaultAccount();
+        accountsTxTemplate.execute(status -> {
+            accountsEm.persist(givenAccount);
+            return status;
+        });
+
+        Product givenProduct = OrdersModuleTestData.getDefaultNewProductBuilder().quantity(1).build();
+        ordersTxTemplate.execute(status -> {
+            ordersEm.persist(givenProduct);
+            return status;
+        });
+
+        Order givenOrder = orderService.placeAndOrder(givenAccount.getLogin(), Map.of(givenProduct.getId(), 1));
+        Long givenOrderedProductId = givenOrder.getOrderedProducts().iterator().next().getId();
+        orderService.rateOrderedProduct(givenAccount.getLogin(), givenOrderedProductId, 5);
+        persistOtherRates(givenProduct.getId());
+
+        //when
+        Measurement collectionScan = measure(() -> ordersTxTemplate.execute(status ->
+            ordersEm.find(Product.class, givenProduct.getId()).getRates().stream()
+                .anyMatch(rate -> rate.getAccount().getId().equals(givenAccount.getId()))));
+
+        Measurement indexedLookup = measure(() ->
+            orderService.reRateOrderedProduct(givenAccount.getLogin(), givenOrderedProductId, 4));
+
+        log.info("Collection scan: {} entities loaded in {} ms", collectionScan.entityLoads(), collectionScan.millis());
+        log.info("Indexed lookup: {} entities loaded in {} ms", indexedLookup.entityLoads(), indexedLookup.millis());
+
+        //then
+        assertThat(collectionScan.entityLoads())
+            .isGreaterThan(RATINGS);
+        assertThat(indexedLookup.entityLoads())
+            .isLessThan(10);
+    }
+
+    private void persistOtherRates(Long productId) {
+        accountsTxTemplate.execute(status -> accountsEm.createNativeQuery(
+                "INSERT INTO accounts (id, version, is_archival, created_by, created_at, login, email, password, " +
+                    "locale, state, roles, unsuccessful_auth_counter) " +
+                    "SELECT :firstId + n, 0, false, 'benchmark', now(), 'rater' || n, 'rater' || n || '@example.com', " +
+                    "'password', 'pl', 'ACTIVE', '{CLIENT}', 0 " +
+                    "FROM generate_series(1, :ratings) n")
+            .setParameter("firstId", FIRST_GENERATED_ID)
+            .setParameter("ratings", RATINGS)
+            .executeUpdate());
+
+        ordersTxTemplate.execute(status -> ordersEm.createNativeQuery(
+                "INSERT INTO rates (id, version, created_by, created_at, value, account_id, product_id) " +
+                    "SELECT :firstId + n, 0, 'benchmark', now(), 1 + n % 5, :firstId + n, :productId " +
+                    "FROM generate_series(1, :ratings) n")
+            .setParameter("firstId", FIRST_GENERATED_ID)
+            .setParameter("productId", productId)
+            .setParameter("ratings", RATINGS)
+            .executeUpdate());
+    }
+
+    private Measurement measure(Runnable lookup) {
+        statistics.clear();
+        long start = System.nanoTime();
+        lookup.run();
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return new Measurement(statistics.getEntityLoadCount(), millis);
+    }
+
+    private record Measurement(long entityLoads, long millis) {
+    }
+}
@@ -0,0 +1,242 @@
+package pl.lodz.p.edu.shop.integration.service;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.lodz.p.edu.shop.AccountsModuleTestData;
+import pl.lodz.p.edu.shop.OrdersModuleTestData;
+import pl.lodz.p.edu.shop.config.PostgresqlContainerSetup;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Account;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Product;
+import pl.lodz.p.edu.shop.exception.other.ApplicationOptimisticLockException;
+import pl.lodz.p.edu.shop.logic.service.api.OrderService;
+import pl.lodz.p.edu.shop.logic.service.api.ProductService;
+import pl.lodz.p.edu.shop.logic.service.api.VersionSignatureVerifier;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Slf4j
+@DisplayName("Stress tests for sharded product stock")
+@SpringBootTest
+@ActiveProfiles("it")
+public class ShardedStockStressIT extends PostgresqlContainerSetup {
+
+    private static final int THREADS = 16;
+    private static final int ORDERS_PER_THREAD = 25;
+    private static final double MIN_SHARDED_SPEEDUP = 1.5;
+    private static final Map<Integer, Double> ordersPerSecondByShardCount = new TreeMap<>();
+
+    @Autowired
+    @Qualifier("OrderServiceImpl")
+    private OrderService orderService;
+
+    @Autowired
+    @Qualifier("ProductServiceImpl")
+    private ProductService productService;
+
+    @Autowired
+    private VersionSignatureVerifier versionSignatureVerifier;
+
+    @Autowired
+    @Qualifier("accountsModTxManager")
+    private PlatformTransactionManager accountsTxManager;
+
+    @Autowired
+    @Qualifier("accountsModEmFactory")
+    private EntityManager accountsEm;
+
+    @Autowired
+    @Qualifier("ordersModTxManager")
+    private PlatformTransactionManager ordersTxManager;
+
+    @Autowired
+    @Qualifier("ordersModEmFactory")
+    private EntityManager ordersEm;
+
+    private TransactionTemplate accountsTxTemplate;
+    private TransactionTemplate ordersTxTemplate;
+
+    @AfterAll
+    static void checkThroughput() {
+        ordersPerSecondByShardCount.forEach((shardCount, ordersPerSecond) ->
+            log.info("Shards: {}, throughput: {} orders/s", shardCount, "%.1f".formatted(ordersPerSecond)));
+
+        // Checked only when the whole parameterized test was run
+        if (ordersPerSecondByShardCount.keySet().containsAll(List.of(0, 1, 16))) {
+            double notShardedOrdersPerSecond = Math.max(ordersPerSecondByShardCount.get(0),
+                ordersPerSecondByShardCount.get(1));
+            assertThat(ordersPerSecondByShardCount.get(16))
+                .isGreaterThan(notShardedOrdersPerSecond * MIN_SHARDED_SPEEDUP);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        accountsTxTemplate = new TransactionTemplate(accountsTxManager);
+        ordersTxTemplate = new TransactionTemplate(ordersTxManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ordersTxTemplate.execute(status -> {
+            ordersEm.createQuery("DELETE FROM OrderedProduct ").executeUpdate();
+            ordersEm.createQuery("DELETE FROM Order ").executeUpdate();
+            ordersEm.createQuery("DELETE FROM ProductStockShard ").executeUpdate();
+            ordersEm.createQuery("DELETE FROM AccountProductPurchase ").executeUpdate();
+            ordersEm.createQuery("DELETE FROM Product ").executeUpdate();
+            return status;
+        });
+
+        accountsTxTemplate.execute(status -> {
+            accountsEm.createQuery("DELETE FROM Account ").executeUpdate();
+            accountsEm.createQuery("DELETE FROM Contact ").executeUpdate();
+            accountsEm.createQuery("DELETE FROM Address ").executeUpdate();
+            return status;
+        });
+
+        AccountsModuleTestData.resetCounter();
+        OrdersModuleTestData.resetCounter();
+    }
+
+    @ParameterizedTest(name = "{0} shards")
+    @ValueSource(ints = {0, 1, 4, 16})
+    @DisplayName("Hot product should never be oversold and orders should be spread over its shards")
+    void placeAndOrder_stress(int shardCount) throws Exception {
+        //given
+        int givenQuantity = THREADS * ORDERS_PER_THREAD;
+        // Every thread orders for its own account, purchases of one account and product are kept in a single row
+        List<Account> givenAccounts = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            givenAccounts.add(AccountsModuleTestData.buildDefaultAccount());
+        }
+        accountsTxTemplate.execute(status -> {
+            givenAccounts.forEach(accountsEm::persist);
+            return status;
+        });
+
+        Product givenProduct = OrdersModuleTestData.getDefaultNewProductBuilder()
+            .quantity(givenQuantity)
+            .build();
+        ordersTxTemplate.execute(status -> {
+            ordersEm.persist(givenProduct);
+            return status;
+        });
+        if (shardCount > 0) {
+            productService.changeStockShardCount(givenProduct.getId(), shardCount);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+
+        //when
+        for (Account givenAccount : givenAccounts) {
+            results.add(executor.submit(() -> {
+                startSignal.await();
+                int placedOrders = 0;
+                for (int j = 0; j < ORDERS_PER_THREAD; j++) {
+                    orderService.placeAndOrder(givenAccount.getLogin(), Map.of(givenProduct.getId(), 1));
+                    placedOrders++;
+                }
+                return placedOrders;
+            }));
+        }
+
+        long start = System.nanoTime();
+        startSignal.countDown();
+        int placedOrders = 0;
+        for (Future<Integer> result : results) {
+            placedOrders += result.get(5, TimeUnit.MINUTES);
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        executor.shutdown();
+
+        ordersPerSecondByShardCount.put(shardCount, placedOrders / (elapsedNanos / 1_000_000_000.0));
+
+        //then
+        assertThat(placedOrders)
+            .isEqualTo(givenQuantity);
+        assertThat(productService.findByIdShort(givenProduct.getId()).getQuantity())
+            .isZero();
+    }
+
+    @Test
+    @DisplayName("Edit of a sharded product signed before an order should be rejected instead of restoring sold stock")
+    void update_sharded_stale_version_negative_1() {
+        //given
+        Account givenAccount = AccountsModuleTestData.buildDefaultAccount();
+        accountsTxTemplate.execute(status -> {
+            accountsEm.persist(givenAccount);
+            return status;
+        });
+        Product givenProduct = OrdersModuleTestData.getDefaultNewProductBuilder()
+            .quantity(10)
+            .build();
+        ordersTxTemplate.execute(status -> {
+            ordersEm.persist(givenProduct);
+            return status;
+        });
+        productService.changeStockShardCount(givenProduct.getId(), 4);
+        Product givenReadProduct = productService.findByIdShort(givenProduct.getId());
+        String givenVersion = versionSignatureVerifier.signVersion(givenReadProduct.getCombinedVersion());
+
+        orderService.placeAndOrder(givenAccount.getLogin(), Map.of(givenProduct.getId(), 3));
+
+        //when
+        //then
+        assertThatThrownBy(() -> productService.update(givenProduct.getId(), BigDecimal.TEN,
+            givenReadProduct.getQuantity(), null, givenVersion))
+            .isInstanceOf(ApplicationOptimisticLockException.class);
+        assertThat(productService.findByIdShort(givenProduct.getId()).getQuantity())
+            .isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("Edit of a sharded product signed after the last order should replace its stock")
+    void update_sharded_current_version_positive_1() {
+        //given
+        Account givenAccount = AccountsModuleTestData.buildDefaultAccount();
+        accountsTxTemplate.execute(status -> {
+            accountsEm.persist(givenAccount);
+            return status;
+        });
+        Product givenProduct = OrdersModuleTestData.getDefaultNewProductBuilder()
+            .quantity(10)
+            .build();
+        ordersTxTemplate.execute(status -> {
+            ordersEm.persist(givenProduct);
+            return status;
+        });
+        productService.changeStockShardCount(givenProduct.getId(), 4);
+        orderService.placeAndOrder(givenAccount.getLogin(), Map.of(givenProduct.getId(), 3));
+        Product givenReadProduct = productService.findByIdShort(givenProduct.getId());
+        String givenVersion = versionSignatureVerifier.signVersion(givenReadProduct.getCombinedVersion());
+
+        //when
+        productService.update(givenProduct.getId(), BigDecimal.TEN, 20, null, givenVersion);
+
+        //then
+        assertThat(productService.findByIdShort(givenProduct.getId()).getQuantity())
+            .isEqualTo(20);
+    }
+}
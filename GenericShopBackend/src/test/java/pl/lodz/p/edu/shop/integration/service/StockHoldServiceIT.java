@@ -0,0 +1,261 @@
+package pl.lodz.p.edu.shop.integration.service;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.lodz.p.edu.shop.AccountsModuleTestData;
+import pl.lodz.p.edu.shop.OrdersModuleTestData;
+import pl.lodz.p.edu.shop.config.PostgresqlContainerSetup;
+import pl.lodz.p.edu.shop.config.order.property.StockHoldProperties;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Account;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Product;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.StockHold;
+import pl.lodz.p.edu.shop.exception.ExceptionMessage;
+import pl.lodz.p.edu.shop.exception.order.CantFinishOrderException;
+import pl.lodz.p.edu.shop.exception.order.CantHoldProductException;
+import pl.lodz.p.edu.shop.exception.order.StockHoldLimitExceededException;
+import pl.lodz.p.edu.shop.logic.service.api.OrderService;
+import pl.lodz.p.edu.shop.logic.service.api.StockHoldService;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchException;
+
+@DisplayName("Integration tests for StockHoldService")
+@SpringBootTest
+@ActiveProfiles("it")
+public class StockHoldServiceIT extends PostgresqlContainerSetup {
+
+    @Autowired
+    private StockHoldService underTest;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private StockHoldProperties properties;
+
+    @Autowired
+    @Qualifier("accountsModTxManager")
+    private PlatformTransactionManager accountsTxManager;
+
+    @Autowired
+    @Qualifier("accountsModEmFactory")
+    private EntityManager accountsEm;
+
+    @Autowired
+    @Qualifier("ordersModTxManager")
+    private PlatformTransactionManager ordersTxManager;
+
+    @Autowired
+    @Qualifier("ordersModEmFactory")
+    private EntityManager ordersEm;
+
+    private TransactionTemplate accountsTxTemplate;
+    private TransactionTemplate ordersTxTemplate;
+    private Duration holdDuration;
+
+    @BeforeEach
+    void setUp() {
+        accountsTxTemplate = new TransactionTemplate(accountsTxManager);
+        ordersTxTemplate = new TransactionTemplate(ordersTxManager);
+        holdDuration = properties.getDuration();
+    }
+
+    @AfterEach
+    void tearDown() {
+        properties.setDuration(holdDuration);
+
+        ordersTxTemplate.execute(status -> {
+            ordersEm.createQuery("DELETE FROM StockHold ").executeUpdate();
+            ordersEm.createQuery("DELETE FROM OrderedProduct ").executeUpdate();
+            ordersEm.createQuery("DELETE FROM Order ").executeUpdate();
+            ordersEm.createQuery("DELETE FROM AccountProductPurchase ").executeUpdate();
+            ordersEm.createQuery("DELETE FROM Product ").executeUpdate();
+            return status;
+        });
+
+        accountsTxTemplate.execute(status -> {
+            accountsEm.createQuery("DELETE FROM Account ").executeUpdate();
+            accountsEm.createQuery("DELETE FROM Contact ").executeUpdate();
+            accountsEm.createQuery("DELETE FROM Address ").executeUpdate();
+            return status;
+        });
+
+        AccountsModuleTestData.resetCounter();
+        OrdersModuleTestData.resetCounter();
+    }
+
+    @Test
+    @DisplayName("Should take held quantity from the stock and give it back when the hold is released")
+    void hold_positive_1() {
+        //given
+        Account givenAccount = persistAccount();
+        Product givenProduct = persistProduct(5);
+
+        //when
+        StockHold result = underTest.hold(givenAccount.getLogin(), givenProduct.getId(), 2);
+
+        //then
+        assertThat(findProductQuantity(givenProduct.getId()))
+            .isEqualTo(3);
+
+        underTest.release(givenAccount.getLogin(), result.getId());
+
+        assertThat(findProductQuantity(givenProduct.getId()))
+            .isEqualTo(5);
+        assertThat(underTest.findAllByLogin(givenAccount.getLogin()))
+            .isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should not hold more than is in stock")
+    void hold_negative_1() {
+        //given
+        Account givenAccount = persistAccount();
+        Product givenProduct = persistProduct(1);
+
+        //when
+        Exception exception = catchException(() -> underTest.hold(givenAccount.getLogin(), givenProduct.getId(), 2));
+
+        //then
+        assertThat(exception)
+            .isNotNull()
+            .isExactlyInstanceOf(CantHoldProductException.class)
+            .hasMessageContaining(ExceptionMessage.Orders.STOCK_HOLD_NOT_ENOUGH_QUANTITY);
+        assertThat(findProductQuantity(givenProduct.getId()))
+            .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should not let one account hold more than the limit of held quantity")
+    void hold_limit_negative_1() {
+        //given
+        int givenLimit = properties.getMaxHeldQuantityPerAccount();
+        Account givenAccount = persistAccount();
+        Product givenProduct = persistProduct(givenLimit + 1);
+        underTest.hold(givenAccount.getLogin(), givenProduct.getId(), givenLimit);
+
+        //when
+        Exception exception = catchException(() -> underTest.hold(givenAccount.getLogin(), givenProduct.getId(), 1));
+
+        //then
+        assertThat(exception)
+            .isNotNull()
+            .isExactlyInstanceOf(StockHoldLimitExceededException.class)
+            .hasMessageContaining(ExceptionMessage.Orders.STOCK_HOLD_LIMIT_EXCEEDED);
+        assertThat(findProductQuantity(givenProduct.getId()))
+            .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should not let one account have more than the limit of holds")
+    void hold_limit_negative_2() {
+        //given
+        int givenLimit = properties.getMaxHoldsPerAccount();
+        Account givenAccount = persistAccount();
+        Product givenProduct = persistProduct(givenLimit + 1);
+        for (int i = 0; i < givenLimit; i++) {
+            underTest.hold(givenAccount.getLogin(), givenProduct.getId(), 1);
+        }
+
+        //when
+        Exception exception = catchException(() -> underTest.hold(givenAccount.getLogin(), givenProduct.getId(), 1));
+
+        //then
+        assertThat(exception)
+            .isNotNull()
+            .isExactlyInstanceOf(StockHoldLimitExceededException.class);
+        assertThat(underTest.findAllByLogin(givenAccount.getLogin()))
+            .hasSize(givenLimit);
+    }
+
+    @Test
+    @DisplayName("Should turn the hold into an order and take only the quantity that wasn't held")
+    void placeAndOrder_withHold_positive_1() {
+        //given
+        Account givenAccount = persistAccount();
+        Product givenProduct = persistProduct(5);
+        underTest.hold(givenAccount.getLogin(), givenProduct.getId(), 3);
+
+        //when
+        orderService.placeAndOrder(givenAccount.getLogin(), Map.of(givenProduct.getId(), 4));
+
+        //then
+        assertThat(findProductQuantity(givenProduct.getId()))
+            .isEqualTo(1);
+        assertThat(underTest.findAllByLogin(givenAccount.getLogin()))
+            .isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should not let other clients order held stock")
+    void placeAndOrder_withHold_negative_1() {
+        //given
+        Account givenHoldingAccount = persistAccount();
+        Account givenOtherAccount = persistAccount();
+        Product givenProduct = persistProduct(2);
+        underTest.hold(givenHoldingAccount.getLogin(), givenProduct.getId(), 2);
+
+        //when
+        Exception exception = catchException(() ->
+            orderService.placeAndOrder(givenOtherAccount.getLogin(), Map.of(givenProduct.getId(), 1)));
+
+        //then
+        assertThat(exception)
+            .isExactlyInstanceOf(CantFinishOrderException.class);
+        assertThat(findProductQuantity(givenProduct.getId()))
+            .isZero();
+    }
+
+    @Test
+    @DisplayName("Should give back the stock of expired holds")
+    void releaseExpiredHolds_positive_1() {
+        //given
+        Account givenAccount = persistAccount();
+        Product givenProduct = persistProduct(5);
+        properties.setDuration(Duration.ZERO);
+        underTest.hold(givenAccount.getLogin(), givenProduct.getId(), 2);
+        underTest.hold(givenAccount.getLogin(), givenProduct.getId(), 1);
+
+        //when
+        underTest.releaseExpiredHolds();
+
+        //then
+        assertThat(findProductQuantity(givenProduct.getId()))
+            .isEqualTo(5);
+        assertThat(underTest.findAllByLogin(givenAccount.getLogin()))
+            .isEmpty();
+    }
+
+    private Account persistAccount() {
+        Account account = AccountsModuleTestData.buildDefaultAccount();
+        accountsTxTemplate.execute(status -> {
+            accountsEm.persist(account);
+            return status;
+        });
+        return account;
+    }
+
+    private Product persistProduct(int quantity) {
+        Product product = OrdersModuleTestData.getDefaultNewProductBuilder()
+            .quantity(quantity)
+            .build();
+        ordersTxTemplate.execute(status -> {
+            ordersEm.persist(product);
+            return status;
+        });
+        return product;
+    }
+
+    private Integer findProductQuantity(Long productId) {
+        return ordersTxTemplate.execute(status -> ordersEm.find(Product.class, productId).getQuantity());
+    }
+}
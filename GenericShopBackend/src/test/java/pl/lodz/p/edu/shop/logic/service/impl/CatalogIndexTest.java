@@ -0,0 +1,240 @@
+package pl.lodz.p.edu.shop.logic.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.lodz.p.edu.shop.OrdersModuleTestData;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Product;
+import pl.lodz.p.edu.shop.dataaccess.model.projection.CatalogProduct;
+import pl.lodz.p.edu.shop.dataaccess.repository.api.ProductRepository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@DisplayName("Unit tests for CatalogIndex")
+class CatalogIndexTest {
+
+    private static final String BOOKS = "Books";
+    private static final String GAMES = "Games";
+    private static final BigDecimal PRICE = new BigDecimal("10.0");
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final RecommendationResultCache resultCache = mock(RecommendationResultCache.class);
+    private CatalogIndex underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CatalogIndex(productRepository, resultCache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        OrdersModuleTestData.resetCounter();
+    }
+
+    @Test
+    @DisplayName("Should rank products by points of their category and of the product itself")
+    void findTopInCategories_positive_1() {
+        //given
+        underTest.put(1, BOOKS, PRICE, 5, 4.0, false);
+        underTest.put(2, GAMES, PRICE, 5, 4.0, false);
+        underTest.put(3, BOOKS, PRICE, 5, 4.0, false);
+
+        //when
+        List<Long> result = underTest.findTopInCategories(Map.of(BOOKS, 2.0, GAMES, 3.0), Map.of(3L, 2.0), Set.of(),
+            10);
+
+        //then
+        assertThat(result)
+            .containsExactly(3L, 2L, 1L);
+    }
+
+    @Test
+    @DisplayName("Should break ties by higher rating and then by lower id")
+    void findTopInCategories_ties_positive_1() {
+        //given
+        underTest.put(3, BOOKS, PRICE, 5, 4.0, false);
+        underTest.put(1, BOOKS, PRICE, 5, 4.0, false);
+        underTest.put(2, BOOKS, PRICE, 5, 4.5, false);
+
+        //when
+        List<Long> result = underTest.findTopInCategories(Map.of(BOOKS, 1.0), Map.of(), Set.of(), 10);
+
+        //then
+        assertThat(result)
+            .containsExactly(2L, 1L, 3L);
+    }
+
+    @Test
+    @DisplayName("Should return only the requested number of the best products")
+    void findTopInCategories_limit_positive_1() {
+        //given
+        for (long id = 1; id <= 5; id++) {
+            underTest.put(id, BOOKS, PRICE, 5, (double) id, false);
+        }
+
+        //when
+        List<Long> result = underTest.findTopInCategories(Map.of(BOOKS, 1.0), Map.of(), Set.of(), 2);
+
+        //then
+        assertThat(result)
+            .containsExactly(5L, 4L);
+    }
+
+    @Test
+    @DisplayName("Should skip excluded products and products of not preferred categories")
+    void findTopInCategories_excluded_positive_1() {
+        //given
+        underTest.put(1, BOOKS, PRICE, 5, 4.0, false);
+        underTest.put(2, BOOKS, PRICE, 5, 4.0, false);
+        underTest.put(3, GAMES, PRICE, 5, 4.0, false);
+        underTest.put(4, null, PRICE, 5, 4.0, false);
+
+        //when
+        List<Long> result = underTest.findTopInCategories(Map.of(BOOKS, 1.0, GAMES, 0.0), Map.of(), Set.of(1L), 10);
+
+        //then
+        assertThat(result)
+            .containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("Should skip products out of stock or archival and report them as unavailable")
+    void findTopInCategories_unavailable_positive_1() {
+        //given
+        underTest.put(1, BOOKS, PRICE, 0, 4.0, false);
+        underTest.put(2, BOOKS, PRICE, 5, 4.0, true);
+        underTest.put(3, BOOKS, PRICE, 5, 4.0, false);
+
+        //when
+        List<Long> result = underTest.findTopInCategories(Map.of(BOOKS, 1.0), Map.of(), Set.of(), 10);
+
+        //then
+        assertThat(result)
+            .containsExactly(3L);
+        assertThat(underTest.isUnavailable(1))
+            .isTrue();
+        assertThat(underTest.isUnavailable(2))
+            .isTrue();
+        assertThat(underTest.isUnavailable(3))
+            .isFalse();
+        assertThat(underTest.isUnavailable(4))
+            .isFalse();
+    }
+
+    @Test
+    @DisplayName("Should keep positions of products once the index grows for new products")
+    void isUnavailable_grown_positive_1() {
+        //given
+        underTest.put(1, BOOKS, PRICE, 0, 4.0, false);
+
+        //when
+        for (long id = 2; id <= 40; id++) {
+            underTest.put(id, BOOKS, PRICE, 5, 4.0, false);
+        }
+
+        //then
+        assertThat(underTest.isUnavailable(1))
+            .isTrue();
+        assertThat(underTest.isUnavailable(40))
+            .isFalse();
+        assertThat(underTest.findTopInCategories(Map.of(BOOKS, 1.0), Map.of(), Set.of(), 100))
+            .hasSize(39)
+            .doesNotContain(1L);
+    }
+
+    @Test
+    @DisplayName("Should invalidate cached recommendations of the product once its last pieces are sold")
+    void addQuantity_sold_out_positive_1() {
+        //given
+        underTest.put(1, BOOKS, PRICE, 2, 4.0, false);
+
+        //when
+        underTest.addQuantity(1, -1);
+        underTest.addQuantity(1, -1);
+
+        //then
+        verify(resultCache).invalidateProduct(1L);
+        assertThat(underTest.isUnavailable(1))
+            .isTrue();
+    }
+
+    @Test
+    @DisplayName("Should put the product and change its quantity only once the transaction commits")
+    void putAfterCommit_positive_1() {
+        //given
+        Product givenProduct = OrdersModuleTestData.buildDefaultProduct();
+        TransactionSynchronizationManager.initSynchronization();
+
+        //when
+        underTest.putAfterCommit(givenProduct);
+        underTest.addQuantityAfterCommit(givenProduct.getId(), -givenProduct.getQuantity());
+        List<Long> beforeCommit = underTest.findTopInCategories(
+            Map.of(OrdersModuleTestData.defaultCategory.getName(), 1.0), Map.of(), Set.of(), 10);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        //then
+        assertThat(beforeCommit)
+            .isEmpty();
+        assertThat(underTest.isUnavailable(givenProduct.getId()))
+            .isTrue();
+        verify(resultCache).invalidateProduct(givenProduct.getId());
+    }
+
+    @Test
+    @DisplayName("Should not change the index when the transaction doesn't commit")
+    void putAfterCommit_rollback_negative_1() {
+        //given
+        Product givenProduct = OrdersModuleTestData.buildDefaultProduct();
+        TransactionSynchronizationManager.initSynchronization();
+
+        //when
+        underTest.putAfterCommit(givenProduct);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        //then
+        assertThat(underTest.findTopInCategories(Map.of(OrdersModuleTestData.defaultCategory.getName(), 1.0),
+            Map.of(), Set.of(), 10))
+            .isEmpty();
+        verify(resultCache, never()).invalidateProduct(givenProduct.getId());
+    }
+
+    @Test
+    @DisplayName("Should keep changes committed while the index is rebuilt from rows loaded before them")
+    void rebuild_concurrent_changes_positive_1() {
+        //given
+        underTest.put(1, BOOKS, PRICE, 2, 4.0, false);
+        given(productRepository.findAllCatalogProducts()).willAnswer(invocation -> {
+            // Committed after the rows were read, so the loaded rows don't have them
+            underTest.addQuantity(1, -2);
+            underTest.put(2, BOOKS, PRICE, 5, 4.0, false);
+            return List.of(
+                new CatalogProduct(1L, BOOKS, PRICE, 2, 4.0, false),
+                new CatalogProduct(3L, BOOKS, PRICE, 5, 3.0, false)
+            );
+        });
+
+        //when
+        underTest.rebuild();
+
+        //then
+        assertThat(underTest.isUnavailable(1))
+            .isTrue();
+        assertThat(underTest.findTopInCategories(Map.of(BOOKS, 1.0), Map.of(), Set.of(), 10))
+            .containsExactly(2L, 3L);
+    }
+}
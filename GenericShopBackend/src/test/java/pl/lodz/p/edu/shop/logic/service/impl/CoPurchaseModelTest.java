@@ -0,0 +1,139 @@
+package pl.lodz.p.edu.shop.logic.service.impl;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pl.lodz.p.edu.shop.config.order.property.RecommendationProperties;
+import pl.lodz.p.edu.shop.dataaccess.dao.api.OrderedProductDAO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Unit tests for CoPurchaseModel")
+class CoPurchaseModelTest {
+
+    @FunctionalInterface
+    private interface OrderLinesDAO extends OrderedProductDAO {
+
+        @Override
+        default void streamOrderedProductsSince(LocalDateTime since, OrderedProductHandler handler) {
+        }
+    }
+
+    @Test
+    @DisplayName("Should rank products bought together with the given one by similarity and skip the given one")
+    void findAlsoBought_positive_1() {
+        //given
+        OrderLinesDAO givenDAO = handler -> {
+            handler.handle(1, 10);
+            handler.handle(1, 20);
+            handler.handle(2, 10);
+            handler.handle(2, 20);
+            handler.handle(2, 30);
+            handler.handle(3, 30);
+            handler.handle(3, 40);
+        };
+        CoPurchaseModel underTest = new CoPurchaseModel(givenDAO, new RecommendationProperties());
+        underTest.build();
+
+        //when
+        List<Long> result = underTest.findAlsoBought(Set.of(10L), 10);
+
+        //then
+        assertThat(result)
+            .containsExactly(20L, 30L);
+    }
+
+    @Test
+    @DisplayName("Should update neighbours with orders recorded after the model was built")
+    void record_positive_1() {
+        //given
+        OrderLinesDAO givenDAO = handler -> handler.handle(1, 10);
+        CoPurchaseModel underTest = new CoPurchaseModel(givenDAO, new RecommendationProperties());
+        underTest.build();
+
+        //when
+        underTest.record(new long[]{10, 50});
+        underTest.updateChangedNeighbours();
+
+        //then
+        assertThat(underTest.findAlsoBought(Set.of(10L), 10))
+            .containsExactly(50L);
+        assertThat(underTest.findAlsoBought(Set.of(50L), 10))
+            .containsExactly(10L);
+    }
+
+    @Test
+    @DisplayName("Should rank neighbours again only in the background, also of products bought with the ordered ones")
+    void updateChangedNeighbours_positive_1() {
+        //given
+        OrderLinesDAO givenDAO = handler -> {
+            handler.handle(1, 20);
+            handler.handle(1, 10);
+            handler.handle(2, 20);
+            handler.handle(2, 30);
+            handler.handle(3, 30);
+        };
+        CoPurchaseModel underTest = new CoPurchaseModel(givenDAO, new RecommendationProperties());
+        underTest.build();
+
+        //when
+        underTest.record(new long[]{10, 40});
+        underTest.record(new long[]{10, 40});
+        List<Long> beforeUpdate = underTest.findAlsoBought(Set.of(20L), 10);
+        underTest.updateChangedNeighbours();
+
+        //then
+        assertThat(beforeUpdate)
+            .containsExactly(10L, 30L);
+        assertThat(underTest.findAlsoBought(Set.of(20L), 10))
+            .containsExactly(30L, 10L);
+    }
+
+    @Test
+    @DisplayName("Should keep only the configured number of neighbours per product")
+    void build_positive_1() {
+        //given
+        OrderLinesDAO givenDAO = handler -> {
+            handler.handle(1, 10);
+            handler.handle(1, 20);
+            handler.handle(2, 10);
+            handler.handle(2, 20);
+            handler.handle(3, 10);
+            handler.handle(3, 30);
+        };
+        RecommendationProperties givenProperties = new RecommendationProperties();
+        givenProperties.setCoPurchaseNeighbours(1);
+        CoPurchaseModel underTest = new CoPurchaseModel(givenDAO, givenProperties);
+
+        //when
+        underTest.build();
+
+        //then
+        assertThat(underTest.findAlsoBought(Set.of(10L), 10))
+            .containsExactly(20L);
+    }
+
+    @Test
+    @DisplayName("Should count orders recorded during a failed build and the ones recorded after it")
+    void build_failed_negative_1() {
+        //given
+        CoPurchaseModel[] underTest = new CoPurchaseModel[1];
+        OrderLinesDAO givenDAO = handler -> {
+            underTest[0].record(new long[]{10, 20});
+            throw new IllegalStateException("connection lost");
+        };
+        underTest[0] = new CoPurchaseModel(givenDAO, new RecommendationProperties());
+        underTest[0].build();
+
+        //when
+        underTest[0].record(new long[]{10, 30});
+        underTest[0].updateChangedNeighbours();
+
+        //then
+        assertThat(underTest[0].findAlsoBought(Set.of(10L), 10))
+            .containsExactly(20L, 30L);
+    }
+}
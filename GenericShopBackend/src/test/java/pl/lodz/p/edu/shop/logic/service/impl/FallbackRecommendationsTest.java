@@ -0,0 +1,109 @@
+package pl.lodz.p.edu.shop.logic.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import pl.lodz.p.edu.shop.OrdersModuleTestData;
+import pl.lodz.p.edu.shop.config.order.property.RecommendationProperties;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Product;
+import pl.lodz.p.edu.shop.dataaccess.repository.api.ProductRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DisplayName("Unit tests for FallbackRecommendations")
+class FallbackRecommendationsTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final CatalogIndex catalogIndex = mock(CatalogIndex.class);
+    private final PlatformTransactionManager txManager = mock(PlatformTransactionManager.class);
+    private FallbackRecommendations underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new FallbackRecommendations(productRepository, catalogIndex, new RecommendationProperties(),
+            txManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        OrdersModuleTestData.resetCounter();
+    }
+
+    @Test
+    @DisplayName("Should skip products that ran out since the lists were loaded")
+    void findBestRatedProducts_unavailable_products_skipped() {
+        //given
+        Product givenAvailableProduct = OrdersModuleTestData.buildDefaultProduct();
+        Product givenSoldOutProduct = OrdersModuleTestData.buildDefaultProduct();
+        given(productRepository.findBestRatedProducts())
+            .willReturn(List.of(givenSoldOutProduct, givenAvailableProduct));
+        given(catalogIndex.isUnavailable(givenSoldOutProduct.getId()))
+            .willReturn(true);
+        underTest.refresh();
+
+        //when
+        List<Product> result = underTest.findBestRatedProducts(10);
+
+        //then
+        assertThat(result)
+            .containsExactly(givenAvailableProduct);
+    }
+
+    @Test
+    @DisplayName("Should stop checking products once the requested number of available products is found")
+    void findBestRatedProducts_limit_positive_1() {
+        //given
+        List<Product> givenProducts = List.of(
+            OrdersModuleTestData.buildDefaultProduct(),
+            OrdersModuleTestData.buildDefaultProduct(),
+            OrdersModuleTestData.buildDefaultProduct()
+        );
+        given(productRepository.findBestRatedProducts())
+            .willReturn(givenProducts);
+        underTest.refresh();
+
+        //when
+        List<Product> result = underTest.findBestRatedProducts(2);
+
+        //then
+        assertThat(result)
+            .containsExactlyElementsOf(givenProducts.subList(0, 2));
+        verify(catalogIndex, times(2)).isUnavailable(anyLong());
+    }
+
+    @Test
+    @DisplayName("Should load missing lists in a new read only transaction instead of the transaction of the caller")
+    void findAvailableProducts_loaded_in_new_transaction() {
+        //given
+        Product givenProduct = OrdersModuleTestData.buildDefaultProduct();
+        given(productRepository.findAvailableProducts(any(Pageable.class)))
+            .willReturn(List.of(givenProduct));
+
+        //when
+        List<Product> result = underTest.findAvailableProducts(10);
+
+        //then
+        assertThat(result)
+            .containsExactly(givenProduct);
+
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(txManager).getTransaction(definition.capture());
+        assertThat(definition.getValue().getPropagationBehavior())
+            .isEqualTo(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        assertThat(definition.getValue().isReadOnly())
+            .isTrue();
+    }
+}
@@ -0,0 +1,178 @@
+package pl.lodz.p.edu.shop.logic.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pl.lodz.p.edu.shop.OrdersModuleTestData;
+import pl.lodz.p.edu.shop.config.order.property.ProductCacheProperties;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Product;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Unit tests for ProductCache")
+class ProductCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final AtomicReference<Product> storedProduct = new AtomicReference<>();
+    private ProductCache underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new ProductCache(new ProductCacheProperties(), meterRegistry);
+        storedProduct.set(OrdersModuleTestData.getDefaultProductBuilder()
+            .version(0L)
+            .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        OrdersModuleTestData.resetCounter();
+    }
+
+    @Test
+    @DisplayName("Should load the product once and serve it from the cache afterwards")
+    void computeIfAbsent_hit_positive_1() {
+        //given
+        long givenId = storedProduct.get().getId();
+        underTest.computeIfAbsent(givenId, true, this::load);
+
+        //when
+        Product result = underTest.computeIfAbsent(givenId, true, this::load);
+
+        //then
+        assertThat(result)
+            .isSameAs(storedProduct.get());
+        assertThat(loads)
+            .hasValue(1);
+        assertThat(meterRegistry.get("shop.products.cache.hits").counter().count())
+            .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should keep products with and without table properties apart")
+    void computeIfAbsent_short_positive_1() {
+        //given
+        long givenId = storedProduct.get().getId();
+        underTest.computeIfAbsent(givenId, true, this::load);
+
+        //when
+        underTest.computeIfAbsent(givenId, false, this::load);
+
+        //then
+        assertThat(loads)
+            .hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Should load the product again after it was invalidated")
+    void invalidate_positive_1() {
+        //given
+        long givenId = storedProduct.get().getId();
+        underTest.computeIfAbsent(givenId, true, this::load);
+        underTest.computeIfAbsent(givenId, false, this::load);
+
+        //when
+        update();
+        underTest.invalidate(givenId);
+
+        //then
+        assertThat(underTest.computeIfAbsent(givenId, true, this::load).getVersion())
+            .isEqualTo(1L);
+        assertThat(underTest.computeIfAbsent(givenId, false, this::load).getVersion())
+            .isEqualTo(1L);
+        assertThat(meterRegistry.get("shop.products.cache.invalidations").counter().count())
+            .isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("Should not cache a product loaded before an update that committed during the load")
+    void computeIfAbsent_updated_while_loading_1() {
+        //given
+        long givenId = storedProduct.get().getId();
+        underTest.computeIfAbsent(givenId, true, () -> {
+            Product loadedProduct = load();
+            update();
+            underTest.invalidate(givenId);
+            return loadedProduct;
+        });
+
+        //when
+        Product result = underTest.computeIfAbsent(givenId, true, this::load);
+
+        //then
+        assertThat(result.getVersion())
+            .isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Should serve the last committed version once concurrent updates stop")
+    void computeIfAbsent_concurrent_updates_1() throws Exception {
+        //given
+        long givenId = storedProduct.get().getId();
+        int givenReaders = 8;
+        int givenUpdates = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(givenReaders + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean updating = new AtomicBoolean(true);
+        List<Future<?>> tasks = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < givenReaders; i++) {
+                tasks.add(executor.submit(() -> {
+                    start.await();
+                    while (updating.get()) {
+                        Product product = underTest.computeIfAbsent(givenId, true, this::load);
+                        assertThat(product.getVersion())
+                            .isLessThanOrEqualTo(storedProduct.get().getVersion());
+                    }
+                    return null;
+                }));
+            }
+            tasks.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < givenUpdates; i++) {
+                    update();
+                    // Invalidation runs after commit, readers may load the new version before it
+                    underTest.invalidate(givenId);
+                }
+                updating.set(false);
+                return null;
+            }));
+
+            //when
+            start.countDown();
+            for (Future<?> task : tasks) {
+                task.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        //then
+        assertThat(underTest.computeIfAbsent(givenId, true, this::load).getVersion())
+            .isEqualTo((long) givenUpdates);
+    }
+
+    private Product load() {
+        loads.incrementAndGet();
+        return storedProduct.get();
+    }
+
+    private void update() {
+        Product product = storedProduct.get();
+        storedProduct.set(OrdersModuleTestData.getDefaultProductBuilder()
+            .id(product.getId())
+            .version(product.getVersion() + 1)
+            .build());
+    }
+}
@@ -0,0 +1,124 @@
+package pl.lodz.p.edu.shop.logic.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pl.lodz.p.edu.shop.config.order.property.ProductSearchProperties;
+import pl.lodz.p.edu.shop.dataaccess.dao.api.ProductDAO;
+import pl.lodz.p.edu.shop.dataaccess.model.projection.SearchableProduct;
+import pl.lodz.p.edu.shop.dataaccess.repository.api.CategoryRepository;
+import pl.lodz.p.edu.shop.dataaccess.repository.api.ProductRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+@DisplayName("Unit tests for ProductSearchIndex")
+class ProductSearchIndexTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private ProductSearchIndex underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new ProductSearchIndex(productRepository, mock(CategoryRepository.class),
+            mock(ProductDAO.class), new ProductSearchProperties());
+    }
+
+    @Test
+    @DisplayName("Should rank products matching the query in their name above products matching in attributes")
+    void search_positive_1() {
+        //given
+        underTest.put(1, "Witcher 3", List.of("CD Projekt", "role playing game"));
+        underTest.put(2, "Cyberpunk 2077", List.of("CD Projekt", "witcher universe"));
+        underTest.put(3, "Hobbit", List.of("Tolkien", "fantasy novel"));
+
+        //when
+        ProductSearchIndex.Hits result = underTest.search("witcher", 0, 10);
+
+        //then
+        assertThat(result.productIds())
+            .containsExactly(1L, 2L);
+        assertThat(result.total())
+            .isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should match terms regardless of case and diacritics")
+    void search_normalized_1() {
+        //given
+        underTest.put(1, "Pan Tadeusz", List.of("Adam Mickiewicz", "Epopeja narodowa"));
+
+        //when
+        ProductSearchIndex.Hits result = underTest.search("mickiewicz EPOPEJA", 0, 10);
+
+        //then
+        assertThat(result.productIds())
+            .containsExactly(1L);
+        assertThat(underTest.search("Żółć", 0, 10).productIds())
+            .isEmpty();
+        assertThat(ProductSearchIndex.tokenize("Żółć, Łódź"))
+            .containsExactly("zolc", "lodz");
+    }
+
+    @Test
+    @DisplayName("Should page matching products and count all of them")
+    void search_paged_1() {
+        //given
+        for (long id = 1; id <= 5; id++) {
+            underTest.put(id, "Board game " + id, List.of());
+        }
+
+        //when
+        ProductSearchIndex.Hits result = underTest.search("game", 2, 2);
+
+        //then
+        assertThat(result.productIds())
+            .containsExactly(3L, 4L);
+        assertThat(result.total())
+            .isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Should stop finding a product by its old terms once it was put again or removed")
+    void put_remove_positive_1() {
+        //given
+        underTest.put(1, "Chess", List.of("wooden board"));
+        underTest.put(2, "Checkers", List.of("wooden board"));
+
+        //when
+        underTest.put(1, "Chess", List.of("magnetic board"));
+        underTest.remove(2);
+
+        //then
+        assertThat(underTest.search("wooden", 0, 10).productIds())
+            .isEmpty();
+        assertThat(underTest.search("board", 0, 10).productIds())
+            .containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("Should keep changes committed while the index is rebuilt from rows loaded before them")
+    void rebuild_concurrent_changes_positive_1() {
+        //given
+        underTest.put(1, "Chess", List.of());
+        given(productRepository.findAllSearchableProducts()).willAnswer(invocation -> {
+            // Committed after the rows were read, so the loaded rows don't have them
+            underTest.put(1, "Magnetic chess", List.of());
+            underTest.put(2, "Travel chess", List.of());
+            underTest.remove(3);
+            return List.of(new SearchableProduct(1L, "Chess"), new SearchableProduct(3L, "Chess clock"));
+        });
+
+        //when
+        underTest.rebuild();
+
+        //then
+        assertThat(underTest.search("chess", 0, 10).productIds())
+            .containsExactlyInAnyOrder(1L, 2L);
+        assertThat(underTest.search("magnetic", 0, 10).productIds())
+            .containsExactly(1L);
+    }
+}
@@ -0,0 +1,133 @@
+package pl.lodz.p.edu.shop.logic.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pl.lodz.p.edu.shop.OrdersModuleTestData;
+import pl.lodz.p.edu.shop.config.order.property.RecommendationProperties;
+import pl.lodz.p.edu.shop.dataaccess.model.entity.Product;
+import pl.lodz.p.edu.shop.logic.model.UserPreferences;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Unit tests for RecommendationResultCache")
+class RecommendationResultCacheTest {
+
+    private final String login = "login";
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger computations = new AtomicInteger();
+    private RecommendationResultCache underTest;
+    private Product product;
+    private Supplier<List<Product>> recommendation;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new RecommendationResultCache(new RecommendationProperties(), meterRegistry);
+        product = OrdersModuleTestData.buildDefaultProduct();
+        recommendation = () -> {
+            computations.incrementAndGet();
+            return List.of(product);
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        OrdersModuleTestData.resetCounter();
+    }
+
+    @Test
+    @DisplayName("Should serve requests with preferences that differ less than the quantum from the cache")
+    void computeIfAbsent_hit_positive_1() {
+        //given
+        UserPreferences givenPreferences = new UserPreferences(Map.of("Test", 3.1), Map.of(1L, 2.0, 2L, 0.2));
+        UserPreferences givenSimilarPreferences = new UserPreferences(Map.of("Test", 2.9), Map.of(1L, 2.2));
+        underTest.computeIfAbsent(login, givenPreferences, 5, recommendation);
+
+        //when
+        List<Product> result = underTest.computeIfAbsent(login, givenSimilarPreferences, 5, recommendation);
+
+        //then
+        assertThat(result)
+            .containsExactly(product);
+        assertThat(computations)
+            .hasValue(1);
+        assertThat(meterRegistry.get("shop.recommendations.cache.hits").counter().count())
+            .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should compute recommendations again for other preferences or number of records")
+    void computeIfAbsent_miss_positive_1() {
+        //given
+        UserPreferences givenPreferences = new UserPreferences(Map.of("Test", 3.0), Map.of());
+        underTest.computeIfAbsent(login, givenPreferences, 5, recommendation);
+
+        //when
+        underTest.computeIfAbsent(login, new UserPreferences(Map.of("Test", 4.0), Map.of()), 5, recommendation);
+        underTest.computeIfAbsent(login, givenPreferences, 6, recommendation);
+
+        //then
+        assertThat(computations)
+            .hasValue(3);
+    }
+
+    @Test
+    @DisplayName("Should compute recommendations again after the account is invalidated")
+    void invalidateAccount_positive_1() {
+        //given
+        underTest.computeIfAbsent(login, null, 5, recommendation);
+
+        //when
+        underTest.invalidateAccount(login);
+        underTest.computeIfAbsent(login, null, 5, recommendation);
+
+        //then
+        assertThat(computations)
+            .hasValue(2);
+        assertThat(meterRegistry.get("shop.recommendations.cache.invalidations").counter().count())
+            .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should drop only recommendations with the product that became unavailable")
+    void invalidateProduct_positive_1() {
+        //given
+        Product givenOtherProduct = OrdersModuleTestData.buildDefaultProduct();
+        underTest.computeIfAbsent(login, null, 5, recommendation);
+        underTest.computeIfAbsent("otherLogin", null, 5, () -> List.of(givenOtherProduct));
+
+        //when
+        underTest.invalidateProduct(product.getId());
+
+        //then
+        assertThat(underTest.computeIfAbsent("otherLogin", null, 5, recommendation))
+            .containsExactly(givenOtherProduct);
+        underTest.computeIfAbsent(login, null, 5, recommendation);
+        assertThat(computations)
+            .hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Should not cache recommendations computed while the account was invalidated")
+    void computeIfAbsent_invalidated_meanwhile_1() {
+        //given
+        underTest.computeIfAbsent(login, null, 5, () -> {
+            underTest.invalidateAccount(login);
+            return recommendation.get();
+        });
+
+        //when
+        underTest.computeIfAbsent(login, null, 5, recommendation);
+
+        //then
+        assertThat(computations)
+            .hasValue(2);
+    }
+}
@@ -6,10 +6,13 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
 import pl.lodz.p.edu.shop.OrdersModuleTestData;
+import pl.lodz.p.edu.shop.config.order.property.RecommendationProperties;
 import pl.lodz.p.edu.shop.dataaccess.model.entity.*;
-import pl.lodz.p.edu.shop.dataaccess.repository.api.CategoryRepository;
 import pl.lodz.p.edu.shop.dataaccess.repository.api.ProductRepository;
 import pl.lodz.p.edu.shop.dataaccess.repository.api.ReadOnlyAccountRepository;
 import pl.lodz.p.edu.shop.logic.model.UserPreferences;
@@ -21,6 +24,7 @@ import static java.util.Map.entry;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
 
 @DisplayName("Unit tests for RecommendationServiceImpl")
 @ExtendWith(MockitoExtension.class)
@@ -33,7 +37,20 @@ class RecommendationServiceImplTest {
     private ProductRepository productRepository;
 
     @Mock
-    private CategoryRepository categoryRepository;
+    private CatalogIndex catalogIndex;
+
+    @Spy
+    private RecommendationSourceExecutor sourceExecutor =
+        new RecommendationSourceExecutor(new RecommendationProperties(), mock(PlatformTransactionManager.class));
+
+    @Mock
+    private FallbackRecommendations fallbackRecommendations;
+
+    @Mock
+    private CoPurchaseModel coPurchaseModel;
+
+    @Mock
+    private TrendingProducts trendingProducts;
 
     @InjectMocks
     private RecommendationServiceImpl underTest;
@@ -60,17 +77,13 @@ class RecommendationServiceImplTest {
         Product givenProduct4 = OrdersModuleTestData.buildDefaultProduct();
         Product givenProduct5 = OrdersModuleTestData.buildDefaultProduct();
 
-        OrderedProduct orderedProduct = OrderedProduct.builder()
-            .product(givenProduct1)
-            .build();
-
         given(accountRepository.findByLogin(givenAccount.getLogin()))
             .willReturn(Optional.of(givenAccount));
 
-        given(productRepository.findTheMostFrequentlyPurchasedProducts(givenAccount.getLogin()))
-            .willReturn(List.of(orderedProduct));
+        given(productRepository.findMostPurchasedProducts(eq(givenAccount.getLogin()), any(Pageable.class)))
+            .willReturn(List.of(givenProduct1));
 
-        given(productRepository.findAvailableProducts())
+        given(fallbackRecommendations.findAvailableProducts(anyInt()))
             .willReturn(List.of(givenProduct2, givenProduct3, givenProduct4, givenProduct5));
 
         //when
@@ -85,8 +98,8 @@ class RecommendationServiceImplTest {
     @Test
     @DisplayName("""
         Algorithm should return set of products with one that user most frequently purchase. 
-        If there are many most frequently purchased products, the one found that received the highest rating from the customer is searched for.
-        If there are few of them, the random one is picked. 
+        If there are many most frequently purchased products, the one that received the highest rating from the customer
+        comes first from the repository and only that one is picked.
         Since user preferences and other criteria are not available, and therefore the number of records found is not 
         sufficient, algorithm should supplement the result with regular products available for purchase.
         """)
@@ -103,32 +116,13 @@ class RecommendationServiceImplTest {
         Product givenProduct7 = OrdersModuleTestData.buildDefaultProduct();
         Product givenProduct8 = OrdersModuleTestData.buildDefaultProduct();
 
-        OrderedProduct orderedProductWithNotBestRate = OrderedProduct.builder()
-            .product(givenProduct1)
-            .rate(Rate.builder().value(2).build())
-            .build();
-
-        OrderedProduct orderedProductWithoutRate = OrderedProduct.builder()
-            .product(givenProduct2)
-            .build();
-
-        OrderedProduct orderedProductWithBestRate = OrderedProduct.builder()
-            .product(givenProduct3)
-            .rate(Rate.builder().value(4).build())
-            .build();
-
-        OrderedProduct orderedProductWithBestRate2 = OrderedProduct.builder()
-            .product(givenProduct4)
-            .rate(Rate.builder().value(4).build())
-            .build();
-
         given(accountRepository.findByLogin(givenAccount.getLogin()))
             .willReturn(Optional.of(givenAccount));
 
-        given(productRepository.findTheMostFrequentlyPurchasedProducts(givenAccount.getLogin()))
-            .willReturn(List.of(orderedProductWithNotBestRate, orderedProductWithoutRate, orderedProductWithBestRate, orderedProductWithBestRate2));
+        given(productRepository.findMostPurchasedProducts(eq(givenAccount.getLogin()), any(Pageable.class)))
+            .willReturn(List.of(givenProduct3));
 
-        given(productRepository.findAvailableProducts())
+        given(fallbackRecommendations.findAvailableProducts(anyInt()))
             .willReturn(List.of(givenProduct5, givenProduct6, givenProduct7, givenProduct8));
 
         //when
@@ -136,8 +130,8 @@ class RecommendationServiceImplTest {
 
         //then
         assertThat(result)
-            .containsAnyOf(orderedProductWithBestRate.getProduct(), orderedProductWithBestRate2.getProduct())
-            .doesNotContain(orderedProductWithNotBestRate.getProduct(), orderedProductWithoutRate.getProduct())
+            .contains(givenProduct3)
+            .doesNotContain(givenProduct1, givenProduct2, givenProduct4)
             .hasSize(3);
     }
 
@@ -162,10 +156,10 @@ class RecommendationServiceImplTest {
         given(accountRepository.findByLogin(givenAccount.getLogin()))
             .willReturn(Optional.of(givenAccount));
 
-        given(productRepository.findTheMostFrequentlyPurchasedProducts(givenAccount.getLogin()))
+        given(productRepository.findMostPurchasedProducts(eq(givenAccount.getLogin()), any(Pageable.class)))
             .willReturn(List.of());
 
-        given(productRepository.findAvailableProducts())
+        given(fallbackRecommendations.findAvailableProducts(anyInt()))
             .willReturn(givenProducts);
 
         //when
@@ -213,7 +207,7 @@ class RecommendationServiceImplTest {
         given(accountRepository.findByLogin(givenAccount.getLogin()))
             .willReturn(Optional.of(givenAccount));
 
-        given(productRepository.findTheMostFrequentlyPurchasedProducts(givenAccount.getLogin()))
+        given(productRepository.findMostPurchasedProducts(eq(givenAccount.getLogin()), any(Pageable.class)))
             .willReturn(List.of());
 
         given(productRepository.findById(anyLong()))
@@ -274,7 +268,7 @@ class RecommendationServiceImplTest {
         given(accountRepository.findByLogin(givenAccount.getLogin()))
             .willReturn(Optional.of(givenAccount));
 
-        given(productRepository.findTheMostFrequentlyPurchasedProducts(givenAccount.getLogin()))
+        given(productRepository.findMostPurchasedProducts(eq(givenAccount.getLogin()), any(Pageable.class)))
             .willReturn(List.of());
 
         given(productRepository.findById(anyLong()))
@@ -286,7 +280,7 @@ class RecommendationServiceImplTest {
         given(productRepository.findProductsByIds(anySet()))
             .willReturn(productMap.values().stream().toList());
 
-        given(productRepository.findAvailableProducts())
+        given(fallbackRecommendations.findAvailableProducts(anyInt()))
             .willReturn(givenProducts);
 
         //when
@@ -344,7 +338,7 @@ class RecommendationServiceImplTest {
         given(accountRepository.findByLogin(givenAccount.getLogin()))
             .willReturn(Optional.of(givenAccount));
 
-        given(productRepository.findTheMostFrequentlyPurchasedProducts(givenAccount.getLogin()))
+        given(productRepository.findMostPurchasedProducts(eq(givenAccount.getLogin()), any(Pageable.class)))
             .willReturn(List.of());
 
         given(productRepository.findById(anyLong()))
@@ -356,7 +350,7 @@ class RecommendationServiceImplTest {
         given(productRepository.findProductsByIds(anySet()))
             .willReturn(productMap.values().stream().toList());
 
-        given(productRepository.findAvailableProducts())
+        given(fallbackRecommendations.findAvailableProducts(anyInt()))
             .willReturn(givenProducts);
 
         //when
@@ -435,7 +429,7 @@ class RecommendationServiceImplTest {
         given(accountRepository.findByLogin(givenAccount.getLogin()))
             .willReturn(Optional.of(givenAccount));
 
-        given(productRepository.findTheMostFrequentlyPurchasedProducts(givenAccount.getLogin()))
+        given(productRepository.findMostPurchasedProducts(eq(givenAccount.getLogin()), any(Pageable.class)))
             .willReturn(List.of());
 
         given(productRepository.findById(anyLong()))
@@ -447,7 +441,7 @@ class RecommendationServiceImplTest {
         given(productRepository.findProductsByIds(anySet()))
             .willReturn(productMap.values().stream().toList());
 
-        given(productRepository.findAvailableProducts())
+        given(fallbackRecommendations.findAvailableProducts(anyInt()))
             .willReturn(nonArchivalProducts);
 
         //when
@@ -524,23 +518,10 @@ class RecommendationServiceImplTest {
             entry(givenProductWithoutCategoryWithMaxPoints.getId(), givenProductWithoutCategoryWithMaxPoints)
         );
 
-        Map<String, Category> categoryMap = Map.ofEntries(
-            entry(givenCategory1.getName(), givenCategory1),
-            entry(givenCategory2.getName(), givenCategory2)
-        );
-
-        Map<Category, List<Product>> categoryProductsMap = Map.ofEntries(
-            entry(givenCategory1, List.of(givenProductNotIncludedInProductPreferencesWithCategory1)),
-            entry(givenCategory2, List.of(
-                givenProductNotIncludedInProductPreferencesWithCategory2,
-                givenProduct2NotIncludedInProductPreferencesWithCategory2
-            ))
-        );
-
         given(accountRepository.findByLogin(givenAccount.getLogin()))
             .willReturn(Optional.of(givenAccount));
 
-        given(productRepository.findTheMostFrequentlyPurchasedProducts(givenAccount.getLogin()))
+        given(productRepository.findMostPurchasedProducts(eq(givenAccount.getLogin()), any(Pageable.class)))
             .willReturn(List.of());
 
         given(productRepository.findById(anyLong()))
@@ -552,19 +533,21 @@ class RecommendationServiceImplTest {
         given(productRepository.findProductsByIds(anySet()))
             .willReturn(productMap.values().stream().toList());
 
-        given(categoryRepository.findByName(anyString()))
-            .willAnswer(invocationOnMock -> {
-                String categoryName = invocationOnMock.getArgument(0);
-                return Optional.ofNullable(categoryMap.get(categoryName));
-            });
-
-        given(productRepository.findByCategory(any(Category.class)))
-            .willAnswer(invocationOnMock -> {
-                Category category = invocationOnMock.getArgument(0);
-                return categoryProductsMap.get(category);
-            });
-
-        given(productRepository.findAvailableProducts())
+        given(catalogIndex.findTopInCategories(eq(categoryPreferences), eq(productPreferences), anySet(), eq(8)))
+            .willReturn(List.of(
+                givenProductNotIncludedInProductPreferencesWithCategory2.getId(),
+                givenProduct2NotIncludedInProductPreferencesWithCategory2.getId(),
+                givenProductNotIncludedInProductPreferencesWithCategory1.getId()
+            ));
+
+        given(productRepository.findAllByIds(anySet()))
+            .willReturn(List.of(
+                givenProductNotIncludedInProductPreferencesWithCategory1,
+                givenProduct2NotIncludedInProductPreferencesWithCategory2,
+                givenProductNotIncludedInProductPreferencesWithCategory2
+            ));
+
+        given(fallbackRecommendations.findAvailableProducts(anyInt()))
             .willReturn(nonArchivalProducts);
 
         //when
@@ -623,36 +606,24 @@ class RecommendationServiceImplTest {
 
         UserPreferences preferences = new UserPreferences(categoryPreferences, null);
 
-        Map<String, Category> categoryMap = Map.ofEntries(
-            entry(givenCategory1.getName(), givenCategory1),
-            entry(givenCategory2.getName(), givenCategory2),
-            entry(givenCategory3.getName(), givenCategory3)
-        );
-
-        Map<Category, List<Product>> categoryProductsMap = Map.ofEntries(
-            entry(givenCategory1, List.of(givenProduct1WithCategory1, givenProduct2WithCategory3)),
-            entry(givenCategory2, List.of(givenProductWithCategory2)),
-            entry(givenCategory3, List.of(
-                givenProduct1WithCategory3,
-                givenProduct2WithCategory3,
-                givenProduct3WithCategory3
-            ))
-        );
-
         given(accountRepository.findByLogin(givenAccount.getLogin()))
             .willReturn(Optional.of(givenAccount));
 
-        given(categoryRepository.findByName(anyString()))
-            .willAnswer(invocationOnMock -> {
-                String categoryName = invocationOnMock.getArgument(0);
-                return Optional.ofNullable(categoryMap.get(categoryName));
-            });
-
-        given(productRepository.findByCategory(any(Category.class)))
-            .willAnswer(invocationOnMock -> {
-                Category category = invocationOnMock.getArgument(0);
-                return categoryProductsMap.get(category);
-            });
+        given(catalogIndex.findTopInCategories(eq(categoryPreferences), eq(Map.of()), anySet(), eq(4)))
+            .willReturn(List.of(
+                givenProduct1WithCategory3.getId(),
+                givenProduct2WithCategory3.getId(),
+                givenProduct3WithCategory3.getId(),
+                givenProduct1WithCategory1.getId()
+            ));
+
+        given(productRepository.findAllByIds(anySet()))
+            .willReturn(List.of(
+                givenProduct1WithCategory1,
+                givenProduct3WithCategory3,
+                givenProduct2WithCategory3,
+                givenProduct1WithCategory3
+            ));
 
         //when
         List<Product> result = underTest.findByRecommendation(givenAccount.getLogin(), preferences, 4);
@@ -703,19 +674,19 @@ class RecommendationServiceImplTest {
         given(accountRepository.findByLogin(givenAccount.getLogin()))
             .willReturn(Optional.of(givenAccount));
 
-        given(productRepository.findBestRatedProducts())
+        given(fallbackRecommendations.findBestRatedProducts(anyInt()))
             .willReturn(givenBestRatedProducts);
 
-        given(productRepository.findNewestProducts())
+        given(fallbackRecommendations.findNewestProducts(anyInt()))
             .willReturn(givenNewestProducts);
 
-        given(productRepository.findCheapestProducts())
+        given(fallbackRecommendations.findCheapestProducts(anyInt()))
             .willReturn(givenCheapestProducts);
 
-        given(productRepository.findProductsThatAreRunningOut())
+        given(fallbackRecommendations.findProductsThatAreRunningOut(anyInt()))
             .willReturn(givenProductsThatAreRunningOut);
 
-        given(productRepository.findAvailableProducts())
+        given(fallbackRecommendations.findAvailableProducts(anyInt()))
             .willReturn(givenAvailableProducts);
 
         //when
@@ -762,13 +733,13 @@ class RecommendationServiceImplTest {
         given(accountRepository.findByLogin(givenAccount.getLogin()))
             .willReturn(Optional.of(givenAccount));
 
-        given(productRepository.findBestRatedProducts())
+        given(fallbackRecommendations.findBestRatedProducts(anyInt()))
             .willReturn(givenBestRatedProducts);
 
-        given(productRepository.findNewestProducts())
+        given(fallbackRecommendations.findNewestProducts(anyInt()))
             .willReturn(givenNewestProducts);
 
-        given(productRepository.findCheapestProducts())
+        given(fallbackRecommendations.findCheapestProducts(anyInt()))
             .willReturn(givenCheapestProducts);
 
 
@@ -833,20 +804,6 @@ class RecommendationServiceImplTest {
         Product availableProduct1 = OrdersModuleTestData.buildDefaultProduct();
         Product availableProduct2 = OrdersModuleTestData.buildDefaultProduct();
 
-        OrderedProduct orderedProductWithNotBestRate = OrderedProduct.builder()
-            .product(productPurchasedByClientWithNotBestRate)
-            .rate(Rate.builder().value(2).build())
-            .build();
-
-        OrderedProduct orderedProductWithoutRate = OrderedProduct.builder()
-            .product(productPurchasedByClientWithoutRate)
-            .build();
-
-        OrderedProduct orderedProductWithBestRate = OrderedProduct.builder()
-            .product(productPurchasedByClientWithBestRate)
-            .rate(Rate.builder().value(5).build())
-            .build();
-
         Map<Long, Double> productPreferences = Map.ofEntries(
             entry(searchedProductWithoutSearchedCategory.getId(), 60.0),                       // 60
             entry(searchedProductWithBestProductPointsButWorstCategoryPoints.getId(), 70.0),   // 70 + 10 = 80
@@ -867,8 +824,8 @@ class RecommendationServiceImplTest {
         given(accountRepository.findByLogin(givenAccount.getLogin()))
             .willReturn(Optional.of(givenAccount));
 
-        given(productRepository.findTheMostFrequentlyPurchasedProducts(givenAccount.getLogin()))
-            .willReturn(List.of(orderedProductWithoutRate, orderedProductWithNotBestRate, orderedProductWithBestRate));
+        given(productRepository.findMostPurchasedProducts(eq(givenAccount.getLogin()), any(Pageable.class)))
+            .willReturn(List.of(productPurchasedByClientWithBestRate));
 
         given(productRepository.findById(anyLong()))
             .willAnswer(invocationOnMock -> {
@@ -879,50 +836,34 @@ class RecommendationServiceImplTest {
         given(productRepository.findProductsByIds(anySet()))
             .willReturn(productMap.values().stream().toList());
 
-        Map<String, Category> categoryMap = Map.ofEntries(
-            entry(categoryWithWorstPoints.getName(), categoryWithWorstPoints),
-            entry(categoryWithBestPoints.getName(), categoryWithBestPoints)
-        );
-
-        Map<Category, List<Product>> categoryProductsMap = Map.ofEntries(
-            entry(categoryWithWorstPoints, List.of(
-                searchedProductWithBestProductPointsButWorstCategoryPoints,
-                notSearchedProductWithSearchedCategoryWithWorstPoints
-            )),
-            entry(categoryWithBestPoints, List.of(
-                searchedProductWithWorstProductPointsButBestCategoryPoints,
-                notSearchedProductWithSearchedCategoryWithBestPoints
-            ))
-        );
-
         given(accountRepository.findByLogin(givenAccount.getLogin()))
             .willReturn(Optional.of(givenAccount));
 
-        given(categoryRepository.findByName(anyString()))
-            .willAnswer(invocationOnMock -> {
-                String categoryName = invocationOnMock.getArgument(0);
-                return Optional.ofNullable(categoryMap.get(categoryName));
-            });
+        given(catalogIndex.findTopInCategories(eq(categoryPreferences), eq(productPreferences), anySet(), eq(14)))
+            .willReturn(List.of(
+                notSearchedProductWithSearchedCategoryWithBestPoints.getId(),
+                notSearchedProductWithSearchedCategoryWithWorstPoints.getId()
+            ));
 
-        given(productRepository.findByCategory(any(Category.class)))
-            .willAnswer(invocationOnMock -> {
-                Category category = invocationOnMock.getArgument(0);
-                return categoryProductsMap.get(category);
-            });
+        given(productRepository.findAllByIds(anySet()))
+            .willReturn(List.of(
+                notSearchedProductWithSearchedCategoryWithWorstPoints,
+                notSearchedProductWithSearchedCategoryWithBestPoints
+            ));
 
-        given(productRepository.findBestRatedProducts())
+        given(fallbackRecommendations.findBestRatedProducts(anyInt()))
             .willReturn(List.of(bestRatedProduct1, bestRatedProduct2));
 
-        given(productRepository.findNewestProducts())
+        given(fallbackRecommendations.findNewestProducts(anyInt()))
             .willReturn(List.of(newestProduct));
 
-        given(productRepository.findCheapestProducts())
+        given(fallbackRecommendations.findCheapestProducts(anyInt()))
             .willReturn(List.of(cheapestProduct1, cheapestProduct2));
 
-        given(productRepository.findProductsThatAreRunningOut())
+        given(fallbackRecommendations.findProductsThatAreRunningOut(anyInt()))
             .willReturn(List.of(productThatIsRunningOut));
 
-        given(productRepository.findAvailableProducts())
+        given(fallbackRecommendations.findAvailableProducts(anyInt()))
             .willReturn(List.of(availableProduct1, availableProduct2));
 
         //when
@@ -997,20 +938,6 @@ class RecommendationServiceImplTest {
         Product availableProduct1 = OrdersModuleTestData.buildDefaultProduct();
         Product availableProduct2 = OrdersModuleTestData.buildDefaultProduct();
 
-        OrderedProduct orderedProductWithNotBestRate = OrderedProduct.builder()
-            .product(productPurchasedByClientWithNotBestRate)
-            .rate(Rate.builder().value(2).build())
-            .build();
-
-        OrderedProduct orderedProductWithoutRate = OrderedProduct.builder()
-            .product(productPurchasedByClientWithoutRate)
-            .build();
-
-        OrderedProduct orderedProductWithBestRate = OrderedProduct.builder()
-            .product(productPurchasedByClientWithBestRate)
-            .rate(Rate.builder().value(5).build())
-            .build();
-
         Map<Long, Double> productPreferences = Map.ofEntries(
             entry(searchedProductWithoutSearchedCategory.getId(), 60.0),                       // 60
             entry(searchedProductWithBestProductPointsButWorstCategoryPoints.getId(), 70.0),   // 70 + 10 = 80
@@ -1031,8 +958,8 @@ class RecommendationServiceImplTest {
         given(accountRepository.findByLogin(givenAccount.getLogin()))
             .willReturn(Optional.of(givenAccount));
 
-        given(productRepository.findTheMostFrequentlyPurchasedProducts(givenAccount.getLogin()))
-            .willReturn(List.of(orderedProductWithoutRate, orderedProductWithNotBestRate, orderedProductWithBestRate));
+        given(productRepository.findMostPurchasedProducts(eq(givenAccount.getLogin()), any(Pageable.class)))
+            .willReturn(List.of(productPurchasedByClientWithBestRate));
 
         given(productRepository.findById(anyLong()))
             .willAnswer(invocationOnMock -> {
@@ -1043,36 +970,20 @@ class RecommendationServiceImplTest {
         given(productRepository.findProductsByIds(anySet()))
             .willReturn(productMap.values().stream().toList());
 
-        Map<String, Category> categoryMap = Map.ofEntries(
-            entry(categoryWithWorstPoints.getName(), categoryWithWorstPoints),
-            entry(categoryWithBestPoints.getName(), categoryWithBestPoints)
-        );
-
-        Map<Category, List<Product>> categoryProductsMap = Map.ofEntries(
-            entry(categoryWithWorstPoints, List.of(
-                searchedProductWithBestProductPointsButWorstCategoryPoints,
-                notSearchedProductWithSearchedCategoryWithWorstPoints
-            )),
-            entry(categoryWithBestPoints, List.of(
-                searchedProductWithWorstProductPointsButBestCategoryPoints,
-                notSearchedProductWithSearchedCategoryWithBestPoints
-            ))
-        );
-
         given(accountRepository.findByLogin(givenAccount.getLogin()))
             .willReturn(Optional.of(givenAccount));
 
-        given(categoryRepository.findByName(anyString()))
-            .willAnswer(invocationOnMock -> {
-                String categoryName = invocationOnMock.getArgument(0);
-                return Optional.ofNullable(categoryMap.get(categoryName));
-            });
+        given(catalogIndex.findTopInCategories(eq(categoryPreferences), eq(productPreferences), anySet(), eq(6)))
+            .willReturn(List.of(
+                notSearchedProductWithSearchedCategoryWithBestPoints.getId(),
+                notSearchedProductWithSearchedCategoryWithWorstPoints.getId()
+            ));
 
-        given(productRepository.findByCategory(any(Category.class)))
-            .willAnswer(invocationOnMock -> {
-                Category category = invocationOnMock.getArgument(0);
-                return categoryProductsMap.get(category);
-            });
+        given(productRepository.findAllByIds(anySet()))
+            .willReturn(List.of(
+                notSearchedProductWithSearchedCategoryWithWorstPoints,
+                notSearchedProductWithSearchedCategoryWithBestPoints
+            ));
 
         //when
         List<Product> result = underTest.findByRecommendation(givenAccount.getLogin(), preferences, 6);
@@ -1101,4 +1012,39 @@ class RecommendationServiceImplTest {
 
         // some records in steps should be omitted because they were added before and we return collection without duplicates
     }
+
+    @Test
+    @DisplayName("Should return trending products in order of the ranking and skip those that ran out")
+    void findTrending_positive_1() {
+        //given
+        Product givenMostTrendingProduct = OrdersModuleTestData.buildDefaultProduct();
+        Product givenRunOutProduct = OrdersModuleTestData.getDefaultProductBuilder()
+            .quantity(0)
+            .build();
+        Product givenLessTrendingProduct = OrdersModuleTestData.buildDefaultProduct();
+        Product givenLeastTrendingProduct = OrdersModuleTestData.buildDefaultProduct();
+
+        given(trendingProducts.findTop(4))
+            .willReturn(List.of(
+                givenMostTrendingProduct.getId(),
+                givenRunOutProduct.getId(),
+                givenLessTrendingProduct.getId(),
+                givenLeastTrendingProduct.getId()
+            ));
+
+        given(productRepository.findAllByIds(anySet()))
+            .willReturn(List.of(
+                givenLeastTrendingProduct,
+                givenLessTrendingProduct,
+                givenRunOutProduct,
+                givenMostTrendingProduct
+            ));
+
+        //when
+        List<Product> result = underTest.findTrending(2);
+
+        //then
+        assertThat(result)
+            .containsExactly(givenMostTrendingProduct, givenLessTrendingProduct);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,87 @@
+package pl.lodz.p.edu.shop.logic.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import pl.lodz.p.edu.shop.config.order.property.RecommendationProperties;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+@DisplayName("Unit tests for RecommendationSourceExecutor")
+class RecommendationSourceExecutorTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private RecommendationSourceExecutor underTest;
+
+    @BeforeEach
+    void setUp() {
+        RecommendationProperties properties = new RecommendationProperties();
+        properties.setParallelSources(true);
+        properties.setSourceTimeout(Duration.ofMillis(100));
+        underTest = new RecommendationSourceExecutor(properties, mock(PlatformTransactionManager.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        underTest.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should replace a source that doesn't finish within the timeout with its fallback")
+    void fetch_slow_source() {
+        //given
+        CompletableFuture<List<Long>> result = underTest.fetch("slow", () -> {
+            awaitRelease();
+            return List.of(1L);
+        }, List.of());
+
+        //when & then
+        assertThat(result.join())
+            .isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should replace a failed source with its fallback")
+    void fetch_failed_source() {
+        //given
+        CompletableFuture<List<Long>> result = underTest.fetch("failing", () -> {
+            throw new IllegalStateException();
+        }, List.of());
+
+        //when & then
+        assertThat(result.join())
+            .isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should fetch the source with the result of the previous one")
+    void fetchAfter_positive_1() {
+        //given
+        CompletableFuture<Long> previous = underTest.fetch("previous", () -> 1L, 0L);
+
+        //when
+        CompletableFuture<List<Long>> result = underTest.fetchAfter(previous, "next", value -> List.of(value, 2L),
+            List.of());
+
+        //then
+        assertThat(result.join())
+            .containsExactly(1L, 2L);
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package pl.lodz.p.edu.shop.logic.service.impl;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pl.lodz.p.edu.shop.config.order.property.RecommendationProperties;
+import pl.lodz.p.edu.shop.dataaccess.dao.api.OrderedProductDAO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Unit tests for TrendingProducts")
+class TrendingProductsTest {
+
+    @FunctionalInterface
+    private interface OrderedProductsDAO extends OrderedProductDAO {
+
+        @Override
+        default void streamOrderLines(OrderLineHandler handler) {
+        }
+    }
+
+    private final OrderedProductsDAO noOrderedProducts = (since, handler) -> {
+    };
+    private final long currentBucket = 1_000_000;
+
+    @Test
+    @DisplayName("Should rank products by orders with older orders counting less")
+    void rank_positive_1() {
+        //given
+        TrendingProducts underTest = new TrendingProducts(noOrderedProducts, new RecommendationProperties());
+        underTest.record(new long[]{10}, currentBucket);
+        underTest.record(new long[]{10, 20}, currentBucket - 1);
+        underTest.record(new long[]{30}, currentBucket - 12);
+        underTest.record(new long[]{30}, currentBucket - 12);
+        underTest.record(new long[]{30}, currentBucket - 12);
+
+        //when
+        List<Long> result = underTest.rank(currentBucket);
+
+        //then
+        assertThat(result)
+            .containsExactly(10L, 20L, 30L);
+    }
+
+    @Test
+    @DisplayName("Should forget orders that are out of the window")
+    void rank_out_of_window_1() {
+        //given
+        TrendingProducts underTest = new TrendingProducts(noOrderedProducts, new RecommendationProperties());
+        underTest.record(new long[]{10}, currentBucket - 24);
+        underTest.record(new long[]{20}, currentBucket - 23);
+
+        //when
+        List<Long> result = underTest.rank(currentBucket);
+
+        //then
+        assertThat(result)
+            .containsExactly(20L);
+    }
+
+    @Test
+    @DisplayName("Should load orders of the window and keep counting orders recorded afterwards")
+    void build_positive_1() {
+        //given
+        OrderedProductsDAO givenDAO = (since, handler) -> {
+            handler.handle(10, LocalDateTime.now());
+            handler.handle(20, LocalDateTime.now());
+        };
+        TrendingProducts underTest = new TrendingProducts(givenDAO, new RecommendationProperties());
+
+        //when
+        underTest.build();
+        underTest.record(new long[]{20}, System.currentTimeMillis() / 3_600_000);
+
+        //then
+        assertThat(underTest.findTop(10))
+            .containsExactly(20L, 10L);
+    }
+}
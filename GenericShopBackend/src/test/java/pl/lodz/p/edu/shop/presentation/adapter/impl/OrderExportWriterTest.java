@@ -0,0 +1,61 @@
+package pl.lodz.p.edu.shop.presentation.adapter.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pl.lodz.p.edu.shop.dataaccess.model.projection.OrderExportLine;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Unit tests for OrderExportWriter")
+class OrderExportWriterTest {
+
+    private final OrderExportWriter underTest = new OrderExportWriter(new ObjectMapper());
+
+    @Test
+    @DisplayName("Should prefix fields that a spreadsheet would evaluate as a formula with an apostrophe")
+    void csvWriter_formula_positive_1() {
+        //given
+        StringWriter givenWriter = new StringWriter();
+        OrderExportLine givenLine = new OrderExportLine(1L, LocalDateTime.of(2024, 1, 2, 3, 4), 2L, "@client",
+            new BigDecimal("10.00"), 3L, "=HYPERLINK(\"http://evil\",\"x\")", new BigDecimal("10.00"), 1);
+
+        //when
+        underTest.csvWriter(givenWriter).accept(givenLine);
+
+        //then
+        assertThat(givenWriter.toString().lines())
+            .containsExactly(
+                "order_id,created_at,account_id,login,total_price,product_id,product_name,price,quantity",
+                "1,2024-01-02T03:04,2,'@client,10.00,3,\"'=HYPERLINK(\"\"http://evil\"\",\"\"x\"\")\",10.00,1"
+            );
+    }
+
+    @Test
+    @DisplayName("Should prefix names starting with plus or minus and keep other fields unchanged")
+    void csvWriter_formula_positive_2() {
+        //given
+        StringWriter givenWriter = new StringWriter();
+        OrderExportLine givenLine = new OrderExportLine(1L, LocalDateTime.of(2024, 1, 2, 3, 4), 2L, "client-1",
+            new BigDecimal("10.00"), 3L, "-2+3", new BigDecimal("10.00"), 1);
+        OrderExportLine givenOtherLine = new OrderExportLine(1L, LocalDateTime.of(2024, 1, 2, 3, 4), 2L, "client-1",
+            new BigDecimal("10.00"), 4L, "+48 phone case", new BigDecimal("10.00"), 1);
+
+        //when
+        var csvWriter = underTest.csvWriter(givenWriter);
+        csvWriter.accept(givenLine);
+        csvWriter.accept(givenOtherLine);
+
+        //then
+        assertThat(givenWriter.toString().lines())
+            .containsExactly(
+                "order_id,created_at,account_id,login,total_price,product_id,product_name,price,quantity",
+                "1,2024-01-02T03:04,2,client-1,10.00,3,'-2+3,10.00,1",
+                "1,2024-01-02T03:04,2,client-1,10.00,4,'+48 phone case,10.00,1"
+            );
+    }
+}
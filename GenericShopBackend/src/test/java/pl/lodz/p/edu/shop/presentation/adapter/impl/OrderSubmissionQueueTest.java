@@ -0,0 +1,169 @@
+package pl.lodz.p.edu.shop.presentation.adapter.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import pl.lodz.p.edu.shop.config.order.property.OrderSubmissionProperties;
+import pl.lodz.p.edu.shop.exception.ApplicationExceptionFactory;
+import pl.lodz.p.edu.shop.exception.ExceptionMessage;
+import pl.lodz.p.edu.shop.exception.order.CantFinishOrderException;
+import pl.lodz.p.edu.shop.exception.order.OrderQueueFullException;
+import pl.lodz.p.edu.shop.exception.other.UnknownException;
+import pl.lodz.p.edu.shop.presentation.adapter.impl.OrderSubmissionQueue.OrderTicket;
+import pl.lodz.p.edu.shop.presentation.adapter.impl.OrderSubmissionQueue.Status;
+import pl.lodz.p.edu.shop.presentation.dto.order.OrderOutputDto;
+import pl.lodz.p.edu.shop.util.SecurityUtil;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchException;
+
+@DisplayName("Unit tests for OrderSubmissionQueue")
+class OrderSubmissionQueueTest {
+
+    private static final String LOGIN = "client";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch releaseWorkers = new CountDownLatch(1);
+    private OrderSubmissionQueue underTest;
+
+    @BeforeEach
+    void setUp() {
+        OrderSubmissionProperties properties = new OrderSubmissionProperties();
+        properties.setWorkers(1);
+        properties.setQueueCapacity(1);
+        underTest = new OrderSubmissionQueue(properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseWorkers.countDown();
+        underTest.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should place submitted order on behalf of its author and keep it under the ticket")
+    void submit_positive_1() throws Exception {
+        //given
+        OrderOutputDto givenOrder = OrderOutputDto.builder().id(1L).build();
+        AtomicReference<String> placingLogin = new AtomicReference<>();
+
+        //when
+        OrderTicket ticket = underTest.submit(LOGIN, () -> {
+            placingLogin.set(SecurityUtil.getLoginFromSecurityContext());
+            return givenOrder;
+        });
+
+        //then
+        assertThat(ticket.result().get(5, TimeUnit.SECONDS))
+            .isEqualTo(givenOrder);
+        assertThat(placingLogin)
+            .hasValue(LOGIN);
+        assertThat(underTest.findTicket(LOGIN, ticket.id()))
+            .hasValueSatisfying(foundTicket -> assertThat(foundTicket.status()).isEqualTo(Status.PLACED));
+    }
+
+    @Test
+    @DisplayName("Should report the ticket as pending until the order is placed")
+    void submit_pending_positive_1() {
+        //given
+        OrderTicket ticket = underTest.submit(LOGIN, this::waitForRelease);
+
+        //when
+        Status result = ticket.status();
+
+        //then
+        assertThat(result)
+            .isEqualTo(Status.PENDING);
+    }
+
+    @Test
+    @DisplayName("Should reject the order with 429 when the queue is full")
+    void submit_queue_full_negative_1() {
+        //given
+        // First order is taken by the only worker, the second one fills the queue
+        underTest.submit(LOGIN, this::waitForRelease);
+        underTest.submit(LOGIN, this::waitForRelease);
+
+        //when
+        Exception exception = catchException(() -> underTest.submit(LOGIN, this::waitForRelease));
+
+        //then
+        assertThat(exception)
+            .isExactlyInstanceOf(OrderQueueFullException.class)
+            .hasMessageContaining(ExceptionMessage.Orders.ORDER_QUEUE_FULL);
+        assertThat(((ResponseStatusException) exception).getStatusCode())
+            .isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(meterRegistry.get("shop.orders.submission.rejected").counter().count())
+            .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should keep the failure of the order that couldn't be placed under its ticket")
+    void submit_failure_positive_1() {
+        //given
+        ResponseStatusException givenFailure = ApplicationExceptionFactory.createCantFinishOrderException();
+
+        //when
+        OrderTicket ticket = underTest.submit(LOGIN, () -> {
+            throw givenFailure;
+        });
+
+        //then
+        Exception exception = catchException(() -> ticket.result().get(5, TimeUnit.SECONDS));
+        assertThat(exception)
+            .isExactlyInstanceOf(ExecutionException.class)
+            .hasCauseExactlyInstanceOf(CantFinishOrderException.class);
+        assertThat(ticket.status())
+            .isEqualTo(Status.FAILED);
+    }
+
+    @Test
+    @DisplayName("Should hide the cause of an unexpected failure behind unknown exception")
+    void submit_failure_positive_2() {
+        //when
+        OrderTicket ticket = underTest.submit(LOGIN, () -> {
+            throw new IllegalStateException("internal details");
+        });
+
+        //then
+        Exception exception = catchException(() -> ticket.result().get(5, TimeUnit.SECONDS));
+        assertThat(exception)
+            .hasCauseExactlyInstanceOf(UnknownException.class);
+        assertThat(ticket.status())
+            .isEqualTo(Status.FAILED);
+    }
+
+    @Test
+    @DisplayName("Should not find the ticket of other login")
+    void findTicket_other_login_negative_1() {
+        //given
+        OrderTicket ticket = underTest.submit(LOGIN, this::waitForRelease);
+
+        //when
+        var result = underTest.findTicket("otherClient", ticket.id());
+
+        //then
+        assertThat(result)
+            .isEmpty();
+        assertThat(underTest.findTicket(LOGIN, ticket.id()))
+            .isPresent();
+    }
+
+    private OrderOutputDto waitForRelease() {
+        try {
+            releaseWorkers.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return OrderOutputDto.builder().build();
+    }
+}
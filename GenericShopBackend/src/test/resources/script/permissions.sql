@@ -4,4 +4,19 @@ GRANT SELECT, INSERT, UPDATE, DELETE ON addresses TO shop_accounts;
 
 GRANT USAGE, SELECT ON SEQUENCE accounts_seq TO shop_accounts;
 GRANT USAGE, SELECT ON SEQUENCE contacts_seq TO shop_accounts;
-GRANT USAGE, SELECT ON SEQUENCE addresses_seq TO shop_accounts;
\ No newline at end of file
+GRANT USAGE, SELECT ON SEQUENCE addresses_seq TO shop_accounts;
+
+GRANT SELECT ON accounts, contacts, addresses TO shop_orders;
+
+GRANT SELECT, INSERT, UPDATE, DELETE ON products, categories, orders, ordered_products, rates, product_stock_shards,
+    order_idempotency_keys, stock_holds, account_product_purchases TO shop_orders;
+
+GRANT USAGE, SELECT ON SEQUENCE products_seq TO shop_orders;
+GRANT USAGE, SELECT ON SEQUENCE orders_seq TO shop_orders;
+GRANT USAGE, SELECT ON SEQUENCE rates_seq TO shop_orders;
+GRANT USAGE, SELECT ON SEQUENCE categories_seq TO shop_orders;
+GRANT USAGE, SELECT ON SEQUENCE ordered_products_seq TO shop_orders;
+GRANT USAGE, SELECT ON SEQUENCE product_stock_shards_seq TO shop_orders;
+GRANT USAGE, SELECT ON SEQUENCE order_idempotency_keys_seq TO shop_orders;
+GRANT USAGE, SELECT ON SEQUENCE stock_holds_seq TO shop_orders;
+GRANT USAGE, SELECT ON SEQUENCE account_product_purchases_seq TO shop_orders;